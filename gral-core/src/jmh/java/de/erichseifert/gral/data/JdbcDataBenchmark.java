@@ -0,0 +1,99 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reads a table of an embedded in-memory H2 database. A page size of one row
+ * corresponds to fetching rows one at a time.
+ */
+@State(Scope.Benchmark)
+public class JdbcDataBenchmark {
+	@Param({"1", "1024"})
+	public int pageSize;
+
+	@Param({"200000"})
+	public int rowCount;
+
+	private Connection connection;
+	private JdbcData data;
+	private double[] buffer;
+
+	@Setup(Level.Trial)
+	public void createTable() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:benchmark"); //$NON-NLS-1$
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute("CREATE TABLE data (x DOUBLE, y DOUBLE)"); //$NON-NLS-1$
+		}
+		try (PreparedStatement stmt = connection.prepareStatement(
+				"INSERT INTO data VALUES (?, ?)")) { //$NON-NLS-1$
+			for (int row = 0; row < rowCount; row++) {
+				stmt.setDouble(1, row);
+				stmt.setDouble(2, Math.sin(row));
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+		buffer = new double[rowCount];
+	}
+
+	@Setup(Level.Iteration)
+	public void createDataSource() {
+		data = new JdbcData(connection, "data"); //$NON-NLS-1$
+		data.setPageSize(pageSize);
+		data.setFetchSize(pageSize);
+	}
+
+	@TearDown(Level.Trial)
+	public void closeConnection() throws SQLException {
+		connection.close();
+	}
+
+	@Benchmark
+	public double getDouble() {
+		double sum = 0.0;
+		for (int row = 0; row < rowCount; row++) {
+			sum += data.getDouble(1, row);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void copyColumn(Blackhole blackhole) {
+		data.copyColumn(1, buffer, 0, rowCount);
+		blackhole.consume(buffer);
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+public class OffHeapDataTableBenchmark {
+	@Param({"DataTable", "OffHeapDataTable"})
+	public String implementation;
+
+	@Param({"100000"})
+	public int rowCount;
+
+	private MutableDataSource table;
+	private MutableDataSource appendTable;
+	private double[] buffer;
+
+	private MutableDataSource createTable() {
+		if ("OffHeapDataTable".equals(implementation)) {
+			return new OffHeapDataTable(2, Double.class);
+		}
+		return new DataTable(2, Double.class);
+	}
+
+	@Setup(Level.Trial)
+	public void createTables() {
+		table = createTable();
+		for (int row = 0; row < rowCount; row++) {
+			table.add((double) row, Math.sin(row));
+		}
+		appendTable = createTable();
+		buffer = new double[rowCount];
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearAppendTable() {
+		appendTable.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void closeTables() {
+		if (table instanceof OffHeapDataTable) {
+			((OffHeapDataTable) table).close();
+			((OffHeapDataTable) appendTable).close();
+		}
+	}
+
+	@Benchmark
+	public void addRow() {
+		appendTable.add(0.0, 1.0);
+	}
+
+	@Benchmark
+	public double getDouble() {
+		double sum = 0.0;
+		for (int row = 0; row < rowCount; row++) {
+			sum += table.getDouble(1, row);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void copyColumn(Blackhole blackhole) {
+		table.copyColumn(1, buffer, 0, rowCount);
+		blackhole.consume(buffer);
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import de.erichseifert.gral.data.statistics.Statistics;
+
+@State(Scope.Benchmark)
+public class StatisticsBenchmark {
+	@Param({"100000", "10000000"})
+	public int rowCount;
+
+	private ColumnarDataTable table;
+	private ForkJoinPool pool;
+
+	@Setup(Level.Trial)
+	public void createTable() {
+		table = new ColumnarDataTable(1, Double.class);
+		table.ensureCapacity(rowCount);
+		Random random = new Random(0L);
+		for (int row = 0; row < rowCount; row++) {
+			table.add(random.nextGaussian());
+		}
+		pool = new ForkJoinPool();
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdownPool() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public double sequential() {
+		table.setForkJoinPool(null);
+		table.invalidateStatistics();
+		return table.getStatistics(0).get(Statistics.VARIANCE);
+	}
+
+	@Benchmark
+	public double parallel() {
+		table.setForkJoinPool(pool);
+		table.invalidateStatistics();
+		return table.getStatistics(0).get(Statistics.VARIANCE);
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.filters;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.erichseifert.gral.data.DataTable;
+import de.erichseifert.gral.data.filters.Filter2D.Mode;
+
+@State(Scope.Benchmark)
+public class MedianBenchmark {
+	@Param({"5", "51", "501"})
+	public int windowSize;
+
+	@Param({"100000"})
+	public int rowCount;
+
+	private DataTable table;
+	private double[] values;
+	private double[] filtered;
+
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void createTable() {
+		Random random = new Random(1234L);
+		table = new DataTable(Double.class);
+		values = new double[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			values[row] = random.nextGaussian();
+			table.add(values[row]);
+		}
+		filtered = new double[rowCount];
+	}
+
+	@Benchmark
+	public Median median() {
+		return new Median(table, windowSize, windowSize/2, Mode.REPEAT, 0);
+	}
+
+	@Benchmark
+	public void slidingMedian(Blackhole blackhole) {
+		SlidingMedian window = new SlidingMedian(windowSize);
+		for (int row = 0; row < rowCount; row++) {
+			window.add(values[row]);
+			filtered[row] = window.getMedian();
+		}
+		blackhole.consume(filtered);
+	}
+
+	@Benchmark
+	public void sortedWindow(Blackhole blackhole) {
+		double[] sorted = new double[windowSize];
+		for (int row = 0; row < rowCount; row++) {
+			int first = Math.max(0, row - windowSize + 1);
+			int size = row - first + 1;
+			System.arraycopy(values, first, sorted, 0, size);
+			Arrays.sort(sorted, 0, size);
+			filtered[row] = (size % 2 == 1) ? sorted[size/2]
+				: (sorted[size/2 - 1] + sorted[size/2])/2.0;
+		}
+		blackhole.consume(filtered);
+	}
+}
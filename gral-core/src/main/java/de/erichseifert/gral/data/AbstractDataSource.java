@@ -24,8 +24,10 @@ package de.erichseifert.gral.data;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -33,7 +35,11 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+import de.erichseifert.gral.data.statistics.Moments;
+import de.erichseifert.gral.data.statistics.SegmentTree;
 import de.erichseifert.gral.data.statistics.Statistics;
 
 
@@ -47,6 +53,12 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 	/** Version id for serialization. */
 	private static final long serialVersionUID = 9139975565475816812L;
 
+	/** Number of values that are read from a column at once. */
+	private static final int BUFFER_SIZE = 1024;
+	/** Number of rows of a column from which on statistics are calculated
+	in parallel if a pool has been set. */
+	static final int PARALLEL_THRESHOLD = 1 << 16;
+
 	/** Name of the data source. */
 	private String name;
 	/** Number of columns. */
@@ -57,6 +69,40 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 	private transient Set<DataListener> dataListeners;
 	/** Statistical description of the data values. */
 	private transient Statistics statistics;
+	/** Statistical description of each column, or {@code null} if it has to
+	be created. */
+	private transient Statistics[] columnStatistics;
+	/** Number that is changed whenever the data values change. */
+	private transient long version;
+	/** Pool that is used to process values in parallel, or {@code null} to
+	process them sequentially. */
+	private transient ForkJoinPool pool;
+	/** Running basic statistics for each column, or {@code null} if they
+	have to be calculated. */
+	private transient Moments[] columnMoments;
+	/** Number of rows that have been added to the moments of each column. */
+	private transient int[] columnMomentsRows;
+	/** Index for range statistics of each column, or {@code null} if it has
+	to be built. */
+	private transient SegmentTree[] columnIndexes;
+	/** Columns that have been declared to be in ascending order. */
+	private BitSet sortedColumns;
+	/** Number of rows of each column that are known to be in ascending
+	order, or {@code -1} if the column isn't sorted. */
+	private transient int[] columnSortedRows;
+	/** Value of the last row of each column that is known to be in
+	ascending order. */
+	private transient double[] columnSortedLast;
+	/** Number of nested updates that are currently in progress. */
+	private transient int updateLevel;
+	/** First row that has been added during the current update. */
+	private transient int pendingAddedFirst;
+	/** Last row that has been added during the current update. */
+	private transient int pendingAddedLast;
+	/** Update events that have been deferred during the current update. */
+	private transient List<DataChangeEvent> pendingUpdated;
+	/** Removal events that have been deferred during the current update. */
+	private transient List<DataChangeEvent> pendingRemoved;
 
 	/**
 	 * Iterator that returns each row of the DataSource.
@@ -111,6 +157,62 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 		}
 	}
 
+	/**
+	 * Iterable view on the values of a range of rows in a single column. The
+	 * values are read from the data source on demand.
+	 */
+	private class ColumnValues implements Iterable<Comparable<?>> {
+		/** Index of the column. */
+		private final int col;
+		/** Index of the first row (inclusive). */
+		private final int fromRow;
+		/** Index of the last row (exclusive), or {@code -1} for all rows. */
+		private final int toRow;
+
+		/**
+		 * Initializes a new view on the specified column.
+		 * @param col Index of the column.
+		 */
+		public ColumnValues(int col) {
+			this(col, 0, -1);
+		}
+
+		/**
+		 * Initializes a new view on a range of rows of the specified column.
+		 * @param col Index of the column.
+		 * @param fromRow Index of the first row (inclusive).
+		 * @param toRow Index of the last row (exclusive), or {@code -1} for
+		 *        all rows.
+		 */
+		public ColumnValues(int col, int fromRow, int toRow) {
+			this.col = col;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		@Override
+		public Iterator<Comparable<?>> iterator() {
+			return new Iterator<Comparable<?>>() {
+				private int row = fromRow;
+
+				public boolean hasNext() {
+					return row < ((toRow < 0) ? getRowCount() : toRow);
+				}
+
+				public Comparable<?> next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return get(col, row++);
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+
 	public AbstractDataSource() {
 		this(null, new Class[0]);
 	}
@@ -149,38 +251,390 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 
 	/**
 	 * Retrieves a object instance that contains various statistical
-	 * information on the current data source.
+	 * information on the current data source. Basic statistics are merged
+	 * from the statistics of all columns.
 	 * @return statistical information
+	 * @see #getStatistics(int)
 	 */
 	public Statistics getStatistics() {
-		if (statistics == null) {
-			statistics = new Statistics(this);
+		synchronized (this) {
+			if (statistics == null) {
+				statistics = new Statistics(this);
+			}
+			return statistics;
 		}
-		return statistics;
 	}
 
-	public DataSource getColumnStatistics(String key) {
-		Class[] columnTypes = new Class[getColumnCount()];
-		Arrays.fill(columnTypes, Double.class);
-		DataTable statisticsTable = new DataTable(columnTypes);
-		List<Double> colStatistics = new ArrayList<>(columnTypes.length);
-		for (int colIndex = 0; colIndex < getColumnCount(); colIndex++) {
-			Column col = getColumn(colIndex);
-			colStatistics.add(col.getStatistics(key));
+	/**
+	 * Returns statistical information on the specified column. Basic
+	 * statistics like minimum, maximum, or mean are kept up to date when rows
+	 * are added, so they are available without reading the column again.
+	 * They are calculated again after rows have been updated or removed.
+	 * The returned object is reused until the data values change, so all
+	 * statistics that have been calculated once are available immediately.
+	 * If a pool has been set, the basic statistics of columns with at least
+	 * {@link #PARALLEL_THRESHOLD} rows are calculated in parallel.
+	 * @param col Index of the column.
+	 * @return Statistical information on the column.
+	 * @see #setForkJoinPool(ForkJoinPool)
+	 */
+	public Statistics getStatistics(int col) {
+		while (true) {
+			calculateColumnMoments(col);
+			synchronized (this) {
+				if (columnStatistics == null || columnStatistics.length != getColumnCount()) {
+					columnStatistics = new Statistics[getColumnCount()];
+				}
+				if (columnStatistics[col] != null) {
+					return columnStatistics[col];
+				}
+				if (columnMoments != null && columnMoments[col] != null) {
+					columnStatistics[col] = new Statistics(getColumn(col), columnMoments[col]);
+					return columnStatistics[col];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes sure that the moments of the specified column are available.
+	 * The values are read without holding the lock of this data source, so
+	 * implementations of {@link #copyColumn(int, double[], int, int)} may
+	 * lock it from other threads. The moments are discarded if the values
+	 * change while they are read.
+	 * @param col Index of the column.
+	 */
+	private void calculateColumnMoments(int col) {
+		while (true) {
+			long version;
+			int rowCount;
+			synchronized (this) {
+				if (columnMoments == null || columnMoments.length != getColumnCount()) {
+					columnMoments = new Moments[getColumnCount()];
+					columnMomentsRows = new int[getColumnCount()];
+				}
+				if (columnMoments[col] != null) {
+					return;
+				}
+				version = this.version;
+				rowCount = getRowCount();
+			}
+			Moments moments = calculateMoments(col, 0, rowCount);
+			synchronized (this) {
+				if (version == this.version && columnMoments != null &&
+						columnMoments.length == getColumnCount()) {
+					columnMoments[col] = moments;
+					columnMomentsRows[col] = rowCount;
+					return;
+				}
+			}
 		}
-		if (!colStatistics.isEmpty()) {
-			statisticsTable.add(colStatistics);
+	}
+
+	/**
+	 * Calculates the moments of a range of rows of a column. Ranges of at
+	 * least {@link #PARALLEL_THRESHOLD} rows are split and calculated in
+	 * parallel if a pool has been set.
+	 * @param col Index of the column.
+	 * @param fromRow Index of the first row (inclusive).
+	 * @param toRow Index of the last row (exclusive).
+	 * @return Moments of the values.
+	 */
+	private Moments calculateMoments(int col, int fromRow, int toRow) {
+		ForkJoinPool pool = getForkJoinPool();
+		if (pool != null && toRow - fromRow >= PARALLEL_THRESHOLD) {
+			return pool.invoke(new MomentsTask(this, col, fromRow, toRow));
 		}
-		return statisticsTable;
+		Moments moments = new Moments();
+		addToMoments(moments, col, fromRow, toRow);
+		return moments;
 	}
 
-	public DataSource getRowStatistics(String key) {
-		DataTable statisticsTable = getRowCount() != 0 ? new DataTable(Double.class) : new DataTable();
-		for (int rowIndex = 0; rowIndex < getRowCount(); rowIndex++) {
-			Record row = getRecord(rowIndex);
-			statisticsTable.add(new Statistics(row).get(key));
+	/**
+	 * Adds the values of a range of rows of a column to the specified
+	 * moments.
+	 * @param moments Moments.
+	 * @param col Index of the column.
+	 * @param fromRow Index of the first row (inclusive).
+	 * @param toRow Index of the last row (exclusive).
+	 */
+	private void addToMoments(Moments moments, int col, int fromRow, int toRow) {
+		double[] buffer = new double[Math.max(Math.min(toRow - fromRow, BUFFER_SIZE), 0)];
+		for (int rowStart = fromRow; rowStart < toRow; rowStart += buffer.length) {
+			int rowEnd = Math.min(rowStart + buffer.length, toRow);
+			copyColumn(col, buffer, rowStart, rowEnd);
+			for (int i = 0; i < rowEnd - rowStart; i++) {
+				moments.add(buffer[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the pool that is used to process values in parallel, for
+	 * example to calculate the statistics of large columns.
+	 * @return Pool, or {@code null} if values are processed sequentially.
+	 */
+	public ForkJoinPool getForkJoinPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the pool that is used to process values in parallel, for example
+	 * to calculate the statistics of large columns. Derived classes may use
+	 * the pool for further work. The results are the same as without a pool
+	 * within floating-point precision.
+	 * @param pool Pool, or {@code null} to process values sequentially.
+	 */
+	public void setForkJoinPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns a view on the values of the specified column. The values are
+	 * read from this data source while they are iterated.
+	 * @param col Index of the column.
+	 * @return Values of the column.
+	 */
+	protected Iterable<Comparable<?>> getColumnValues(int col) {
+		return new ColumnValues(col);
+	}
+
+	/**
+	 * Returns statistical information on a range of rows of the specified
+	 * column. For each column that is queried this way, an index is built
+	 * which provides number, sum, mean, minimum, and maximum of arbitrary
+	 * ranges in logarithmic time. The index is kept up to date when rows are
+	 * added. Other statistics are calculated from the values of the range.
+	 * @param col Index of the column.
+	 * @param fromRow Index of the first row (inclusive).
+	 * @param toRow Index of the last row (exclusive).
+	 * @return Statistical information on the range of rows.
+	 */
+	public Statistics getStatistics(int col, int fromRow, int toRow) {
+		synchronized (this) {
+			if (fromRow < 0 || toRow > getRowCount() || fromRow > toRow) {
+				throw new IndexOutOfBoundsException(MessageFormat.format(
+					"Rows {0,number,integer} to {1,number,integer} do not exist.", //$NON-NLS-1$
+					fromRow, toRow));
+			}
+			if (columnIndexes == null || columnIndexes.length != getColumnCount()) {
+				columnIndexes = new SegmentTree[getColumnCount()];
+			}
+			if (columnIndexes[col] == null) {
+				columnIndexes[col] = new SegmentTree();
+				addToColumnIndex(col, getRowCount());
+			}
+			return new Statistics(new ColumnValues(col, fromRow, toRow),
+				columnIndexes[col], fromRow, toRow);
+		}
+	}
+
+	/**
+	 * Returns a number that changes whenever the data values of this data
+	 * source change. It can be used to detect whether values that have been
+	 * derived from the data are still valid.
+	 * @return Version of the data values.
+	 */
+	public long getVersion() {
+		synchronized (this) {
+			return version;
+		}
+	}
+
+	/**
+	 * Returns whether the values of the specified column are in ascending
+	 * order. A column is sorted if it has been declared as sorted using
+	 * {@link #setColumnSorted(int, boolean)}. Otherwise, the values are
+	 * checked once and the result is kept up to date when rows are added.
+	 * @param col Index of the column.
+	 * @return {@code true} if the column is sorted, {@code false} otherwise.
+	 */
+	public boolean isColumnSorted(int col) {
+		synchronized (this) {
+			if (sortedColumns != null && sortedColumns.get(col)) {
+				return true;
+			}
+			if (columnSortedRows == null || columnSortedRows.length != getColumnCount()) {
+				columnSortedRows = new int[getColumnCount()];
+				columnSortedLast = new double[getColumnCount()];
+				Arrays.fill(columnSortedLast, Double.NEGATIVE_INFINITY);
+			}
+			int rowStart = columnSortedRows[col];
+			if (rowStart < 0) {
+				return false;
+			}
+			int rowCount = getRowCount();
+			double last = columnSortedLast[col];
+			double[] buffer = new double[Math.max(Math.min(rowCount - rowStart, BUFFER_SIZE), 0)];
+			while (rowStart < rowCount) {
+				int rowEnd = Math.min(rowStart + buffer.length, rowCount);
+				copyColumn(col, buffer, rowStart, rowEnd);
+				for (int i = 0; i < rowEnd - rowStart; i++) {
+					if (!(buffer[i] >= last)) {
+						columnSortedRows[col] = -1;
+						return false;
+					}
+					last = buffer[i];
+				}
+				rowStart = rowEnd;
+			}
+			columnSortedRows[col] = rowCount;
+			columnSortedLast[col] = last;
+			return true;
 		}
-		return statisticsTable;
+	}
+
+	/**
+	 * Declares whether the values of the specified column are in ascending
+	 * order. This avoids checking the values of large columns. The values of
+	 * a column that has been declared as sorted must remain sorted,
+	 * otherwise plots may skip rows.
+	 * @param col Index of the column.
+	 * @param sorted {@code true} if the column is sorted.
+	 */
+	public void setColumnSorted(int col, boolean sorted) {
+		synchronized (this) {
+			if (sortedColumns == null) {
+				sortedColumns = new BitSet();
+			}
+			sortedColumns.set(col, sorted);
+		}
+	}
+
+	/**
+	 * Adds the values of all rows up to the specified row to the index of a
+	 * column that haven't been added before.
+	 * @param col Index of the column.
+	 * @param rowCount Number of rows.
+	 */
+	private void addToColumnIndex(int col, int rowCount) {
+		SegmentTree index = columnIndexes[col];
+		int rowStart = index.size();
+		double[] buffer = new double[Math.max(Math.min(rowCount - rowStart, BUFFER_SIZE), 0)];
+		while (rowStart < rowCount) {
+			int rowEnd = Math.min(rowStart + buffer.length, rowCount);
+			copyColumn(col, buffer, rowStart, rowEnd);
+			for (int i = 0; i < rowEnd - rowStart; i++) {
+				index.add(buffer[i]);
+			}
+			rowStart = rowEnd;
+		}
+	}
+
+	/**
+	 * Adds the values of all rows up to the specified row to the moments of
+	 * a column that haven't been added before.
+	 * @param col Index of the column.
+	 * @param rowCount Number of rows.
+	 */
+	private void addToColumnMoments(int col, int rowCount) {
+		addToMoments(columnMoments[col], col, columnMomentsRows[col], rowCount);
+		columnMomentsRows[col] = rowCount;
+	}
+
+	/**
+	 * Updates the cached statistics after rows have been added. Moments and
+	 * indexes of columns are only kept if all events describe rows that have
+	 * been appended since they were last updated.
+	 * @param events Event objects describing all values that have been added.
+	 */
+	private void updateStatistics(DataChangeEvent... events) {
+		synchronized (this) {
+			version++;
+			statistics = null;
+			columnStatistics = null;
+			if (events.length == 0) {
+				columnMoments = null;
+				columnIndexes = null;
+				columnSortedRows = null;
+				return;
+			}
+			int rowFirst = Integer.MAX_VALUE;
+			for (DataChangeEvent event : events) {
+				rowFirst = Math.min(rowFirst, event.getRow());
+			}
+			int rowCount = getRowCount();
+			if (columnMoments != null && columnMoments.length != getColumnCount()) {
+				columnMoments = null;
+			}
+			if (columnMoments != null) {
+				for (int col = 0; col < columnMoments.length; col++) {
+					if (columnMoments[col] == null) {
+						continue;
+					}
+					if (rowFirst < columnMomentsRows[col]) {
+						columnMoments[col] = null;
+					} else {
+						addToColumnMoments(col, rowCount);
+					}
+				}
+			}
+			if (columnIndexes != null && columnIndexes.length != getColumnCount()) {
+				columnIndexes = null;
+			}
+			if (columnIndexes != null) {
+				for (int col = 0; col < columnIndexes.length; col++) {
+					if (columnIndexes[col] == null) {
+						continue;
+					}
+					if (rowFirst < columnIndexes[col].size()) {
+						columnIndexes[col] = null;
+					} else {
+						addToColumnIndex(col, rowCount);
+					}
+				}
+			}
+			if (columnSortedRows != null && columnSortedRows.length != getColumnCount()) {
+				columnSortedRows = null;
+			}
+			if (columnSortedRows != null) {
+				for (int col = 0; col < columnSortedRows.length; col++) {
+					// Appended rows are checked when they are requested
+					if (rowFirst < columnSortedRows[col]) {
+						columnSortedRows[col] = 0;
+						columnSortedLast[col] = Double.NEGATIVE_INFINITY;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Discards all cached statistics. They will be calculated again when
+	 * they are requested. Implementations have to call this method if their
+	 * values change without notifying listeners.
+	 */
+	protected void invalidateStatistics() {
+		synchronized (this) {
+			version++;
+			statistics = null;
+			columnStatistics = null;
+			columnMoments = null;
+			columnIndexes = null;
+			columnSortedRows = null;
+		}
+	}
+
+	/**
+	 * Returns a data source with a single row that contains the specified
+	 * statistical value of each column. The values are calculated when they
+	 * are requested and reflect the current values of this data source.
+	 * @param key Requested statistical information.
+	 * @return View on the statistics of all columns.
+	 */
+	public DataSource getColumnStatistics(String key) {
+		return new StatisticsView.Columns(this, key);
+	}
+
+	/**
+	 * Returns a data source with a single column that contains the specified
+	 * statistical value of each row. The values are calculated when they
+	 * are requested and reflect the current values of this data source.
+	 * @param key Requested statistical information.
+	 * @return View on the statistics of all rows.
+	 */
+	public DataSource getRowStatistics(String key) {
+		return new StatisticsView.Rows(this, key);
 	}
 
 	/**
@@ -208,11 +662,113 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 		return new DataSourceIterator();
 	}
 
+	/**
+	 * Starts an update of the data source. Until the matching call of
+	 * {@link #endUpdate()}, listeners won't be notified of any changes.
+	 * Updates can be nested; the notifications are sent when the outermost
+	 * update ends.
+	 */
+	public void beginUpdate() {
+		synchronized (this) {
+			if (updateLevel == 0) {
+				pendingAddedFirst = Integer.MAX_VALUE;
+				pendingAddedLast = -1;
+				pendingUpdated = new ArrayList<>();
+				pendingRemoved = new ArrayList<>();
+			}
+			updateLevel++;
+		}
+	}
+
+	/**
+	 * Ends an update of the data source that was started with
+	 * {@link #beginUpdate()}. When the outermost update ends, listeners
+	 * receive at most one notification for each kind of change: all removals,
+	 * all updates, and a single range event spanning all added rows.
+	 */
+	public void endUpdate() {
+		DataChangeEvent[] removed, updated;
+		DataChangeEvent added = null;
+		synchronized (this) {
+			if (updateLevel == 0) {
+				throw new IllegalStateException("No update in progress."); //$NON-NLS-1$
+			}
+			updateLevel--;
+			if (updateLevel > 0) {
+				return;
+			}
+			removed = pendingRemoved.toArray(new DataChangeEvent[pendingRemoved.size()]);
+			updated = pendingUpdated.toArray(new DataChangeEvent[pendingUpdated.size()]);
+			if (pendingAddedLast >= 0) {
+				added = new DataChangeEvent(this, pendingAddedFirst, pendingAddedLast);
+			}
+			pendingUpdated = null;
+			pendingRemoved = null;
+		}
+		if (removed.length > 0) {
+			fireDataRemoved(removed);
+		}
+		if (updated.length > 0) {
+			fireDataUpdated(updated);
+		}
+		if (added != null) {
+			fireDataAdded(added);
+		}
+	}
+
 	/**
 	 * Notifies all registered listeners that data values have been added.
 	 * @param events Event objects describing all values that have been added.
 	 */
 	protected void notifyDataAdded(DataChangeEvent... events) {
+		updateStatistics(events);
+		synchronized (this) {
+			if (updateLevel > 0) {
+				for (DataChangeEvent event : events) {
+					pendingAddedFirst = Math.min(pendingAddedFirst, event.getRow());
+					pendingAddedLast = Math.max(pendingAddedLast, event.getRowLast());
+				}
+				return;
+			}
+		}
+		fireDataAdded(events);
+	}
+
+	/**
+	 * Notifies all registered listeners that data values have been removed.
+	 * @param events Event objects describing all values that have been removed.
+	 */
+	protected void notifyDataRemoved(DataChangeEvent... events) {
+		invalidateStatistics();
+		synchronized (this) {
+			if (updateLevel > 0) {
+				pendingRemoved.addAll(Arrays.asList(events));
+				return;
+			}
+		}
+		fireDataRemoved(events);
+	}
+
+	/**
+	 * Notifies all registered listeners that data values have changed.
+	 * @param events Event objects describing all values that have changed.
+	 */
+	protected void notifyDataUpdated(DataChangeEvent... events) {
+		invalidateStatistics();
+		synchronized (this) {
+			if (updateLevel > 0) {
+				pendingUpdated.addAll(Arrays.asList(events));
+				return;
+			}
+		}
+		fireDataUpdated(events);
+	}
+
+	/**
+	 * Sends the specified events to all listeners as added values.
+	 * @param events Event objects describing all values that have been added.
+	 */
+	private void fireDataAdded(DataChangeEvent... events) {
 		List<DataListener> listeners = new LinkedList<>(dataListeners);
 		for (DataListener dataListener : listeners) {
 			dataListener.dataAdded(this, events);
@@ -220,10 +776,10 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 	}
 
 	/**
-	 * Notifies all registered listeners that data values have been removed.
+	 * Sends the specified events to all listeners as removed values.
 	 * @param events Event objects describing all values that have been removed.
 	 */
-	protected void notifyDataRemoved(DataChangeEvent... events) {
+	private void fireDataRemoved(DataChangeEvent... events) {
 		List<DataListener> listeners = new LinkedList<>(dataListeners);
 		for (DataListener dataListener : listeners) {
 			dataListener.dataRemoved(this, events);
@@ -231,10 +787,10 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 	}
 
 	/**
-	 * Notifies all registered listeners that data values have changed.
+	 * Sends the specified events to all listeners as changed values.
 	 * @param events Event objects describing all values that have changed.
 	 */
-	protected void notifyDataUpdated(DataChangeEvent... events) {
+	private void fireDataUpdated(DataChangeEvent... events) {
 		List<DataListener> listeners = new LinkedList<>(dataListeners);
 		for (DataListener dataListener : listeners) {
 			dataListener.dataUpdated(this, events);
@@ -242,19 +798,50 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 	}
 
 	/**
-	 * Returns the column with the specified index.
+	 * Returns the column with the specified index. The column is a view on
+	 * the values of this data source; no values are copied.
 	 * @param col index of the column to return
 	 * @return the specified column of the data source
 	 */
 	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public Column<?> getColumn(int col) {
-		Class<? extends Comparable<?>> columnType = getColumnTypes()[col];
-		List<Comparable<?>> columnData = new LinkedList<>();
-		for (int rowIndex = 0; rowIndex < getRowCount(); rowIndex++) {
-			Record record = getRecord(rowIndex);
-			columnData.add(record.get(col));
+		return new Column(this, col);
+	}
+
+	/**
+	 * Returns the value with the specified row and column index as a
+	 * primitive {@code double}. This implementation unboxes the result of
+	 * {@link #get(int, int)}. Derived classes that store primitive values
+	 * should override it.
+	 * @param col index of the column to return
+	 * @param row index of the row to return
+	 * @return the numeric value of the data cell, or {@code NaN} if the cell
+	 *         is empty or does not contain a number
+	 */
+	@Override
+	public double getDouble(int col, int row) {
+		Comparable<?> value = get(col, row);
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Copies the numeric values of a range of rows of the specified column
+	 * into an array. This implementation calls {@link #getDouble(int, int)}
+	 * for each row.
+	 * @param col index of the column to copy
+	 * @param dst array that receives the values
+	 * @param fromRow index of the first row to copy (inclusive)
+	 * @param toRow index of the last row to copy (exclusive)
+	 */
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		for (int row = fromRow; row < toRow; row++) {
+			dst[row - fromRow] = getDouble(col, row);
 		}
-		return new Column(columnType, columnData.toArray(new Comparable[0]));
 	}
 
 	@Override
@@ -337,4 +924,55 @@ public abstract class AbstractDataSource implements DataSource, Serializable {
 		dataListeners = new HashSet<>();
 		// Statistics can be omitted. It's created using a lazy getter.
 	}
+
+	/**
+	 * Task that calculates the moments of a range of rows of a column by
+	 * splitting it in halves until the ranges are smaller than
+	 * {@link #PARALLEL_THRESHOLD}. As the ranges don't depend on the
+	 * scheduling of the tasks, the results are deterministic.
+	 */
+	private static final class MomentsTask extends RecursiveTask<Moments> {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = -2381964407164530861L;
+
+		/** Data source that contains the values. */
+		private final AbstractDataSource source;
+		/** Index of the column. */
+		private final int col;
+		/** Index of the first row (inclusive). */
+		private final int fromRow;
+		/** Index of the last row (exclusive). */
+		private final int toRow;
+
+		/**
+		 * Initializes a new task.
+		 * @param source Data source that contains the values.
+		 * @param col Index of the column.
+		 * @param fromRow Index of the first row (inclusive).
+		 * @param toRow Index of the last row (exclusive).
+		 */
+		public MomentsTask(AbstractDataSource source, int col, int fromRow, int toRow) {
+			this.source = source;
+			this.col = col;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		@Override
+		protected Moments compute() {
+			if (toRow - fromRow < PARALLEL_THRESHOLD) {
+				Moments moments = new Moments();
+				source.addToMoments(moments, col, fromRow, toRow);
+				return moments;
+			}
+			int middle = fromRow + (toRow - fromRow)/2;
+			MomentsTask left = new MomentsTask(source, col, fromRow, middle);
+			MomentsTask right = new MomentsTask(source, col, middle, toRow);
+			left.fork();
+			Moments moments = right.compute();
+			Moments merged = left.join();
+			merged.merge(moments);
+			return merged;
+		}
+	}
 }
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import de.erichseifert.gral.data.statistics.Statistics;
 
@@ -39,6 +40,12 @@ import de.erichseifert.gral.data.statistics.Statistics;
  * Number v = col.get(3);
  * </pre>
  *
+ * <p>A column of a data source is a live view: values aren't copied, so
+ * they always reflect the current values of the data source. Numeric values
+ * can be read as primitives using {@link #getDouble(int)} and
+ * {@link #copy(double[], int, int)}. Alternatively, a column can be created
+ * from a fixed list of values.</p>
+ *
  * @see DataSource
  */
 public class Column<T extends Comparable<T>> implements Iterable<T>, Serializable {
@@ -46,7 +53,17 @@ public class Column<T extends Comparable<T>> implements Iterable<T>, Serializabl
 	private static final long serialVersionUID = 7380420622890027262L;
 
 	private final Class<T> dataType;
+	/** Values of the column, or {@code null} if the values are read from a
+	data source. */
 	private final List<T> data;
+	/** Data source containing the values, or {@code null} if the column
+	contains a fixed list of values. */
+	private final DataSource source;
+	/** Index of the column in the data source. */
+	private final int col;
+	/** Statistics of the column values, or {@code null} if they have not
+	been requested yet. */
+	private transient Statistics statistics;
 
 	public Column(Class<T> dataType, T... data) {
 		this(dataType, Arrays.asList(data));
@@ -58,13 +75,73 @@ public class Column<T extends Comparable<T>> implements Iterable<T>, Serializabl
 		for (T item : data) {
 			this.data.add(item);
 		}
+		source = null;
+		col = -1;
+	}
+
+	/**
+	 * Initializes a new view on a column of the specified data source.
+	 * @param source Data source containing the values.
+	 * @param col Index of the column.
+	 */
+	@SuppressWarnings("unchecked")
+	public Column(DataSource source, int col) {
+		this.dataType = (Class<T>) source.getColumnTypes()[col];
+		this.source = source;
+		this.col = col;
+		data = null;
 	}
 
+	@SuppressWarnings("unchecked")
 	public T get(int row) {
-		return row >= data.size() ? null : data.get(row);
+		if (row >= size()) {
+			return null;
+		}
+		if (source != null) {
+			return (T) source.get(col, row);
+		}
+		return data.get(row);
+	}
+
+	/**
+	 * Returns the value of the specified row as a primitive {@code double}.
+	 * @param row Index of the row.
+	 * @return Numeric value, or {@code NaN} if the cell is empty or doesn't
+	 *         contain a number.
+	 */
+	public double getDouble(int row) {
+		if (source != null) {
+			return source.getDouble(col, row);
+		}
+		T value = get(row);
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Copies the numeric values of a range of rows into an array. Empty or
+	 * non-numeric cells are copied as {@code NaN}.
+	 * @param dst Array that receives the values.
+	 * @param fromRow Index of the first row (inclusive).
+	 * @param toRow Index of the last row (exclusive).
+	 * @see DataSource#copyColumn(int, double[], int, int)
+	 */
+	public void copy(double[] dst, int fromRow, int toRow) {
+		if (source != null) {
+			source.copyColumn(col, dst, fromRow, toRow);
+			return;
+		}
+		for (int row = fromRow; row < toRow; row++) {
+			dst[row - fromRow] = getDouble(row);
+		}
 	}
 
 	public int size() {
+		if (source != null) {
+			return source.getRowCount();
+		}
 		return data.size();
 	}
 
@@ -80,13 +157,30 @@ public class Column<T extends Comparable<T>> implements Iterable<T>, Serializabl
 		return dataType;
 	}
 
+	/**
+	 * Returns the specified statistical information for the values of this
+	 * column. Statistics of columns of a data source are cached by the data
+	 * source until its values change.
+	 * @param key Requested statistical information.
+	 * @return Calculated value.
+	 */
 	public double getStatistics(String key) {
-		return new Statistics(data).get(key);
+		if (source != null) {
+			return source.getStatistics(col).get(key);
+		}
+		if (statistics == null) {
+			statistics = new Statistics(data);
+		}
+		return statistics.get(key);
 	}
 
 	@Override
 	public int hashCode() {
-		return dataType.hashCode() ^ data.hashCode();
+		int hashCode = 1;
+		for (T value : this) {
+			hashCode = 31*hashCode + (value == null ? 0 : value.hashCode());
+		}
+		return dataType.hashCode() ^ hashCode;
 	}
 
 	@Override
@@ -95,11 +189,41 @@ public class Column<T extends Comparable<T>> implements Iterable<T>, Serializabl
 			return false;
 		}
 		Column<?> column = (Column<?>) obj;
-		return getType().equals(column.getType()) && data.equals(column.data);
+		if (!getType().equals(column.getType()) || size() != column.size()) {
+			return false;
+		}
+		for (int row = 0; row < size(); row++) {
+			Object value = get(row);
+			Object other = column.get(row);
+			if (value == null ? other != null : !value.equals(other)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
 	public Iterator<T> iterator() {
-		return data.iterator();
+		if (source == null) {
+			return data.iterator();
+		}
+		return new Iterator<T>() {
+			private int row;
+
+			public boolean hasNext() {
+				return row < size();
+			}
+
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return get(row++);
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
 }
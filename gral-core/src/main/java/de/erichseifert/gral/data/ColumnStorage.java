@@ -0,0 +1,534 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Storage for the values of a single column which keeps numbers in a
+ * primitive array instead of boxing every single value. {@code null} values
+ * are tracked in a separate bitmap. The storage has no notion of a size, it
+ * only provides indexed access to a growable number of slots. Keeping track
+ * of the used slots is up to the owning data source.
+ */
+abstract class ColumnStorage implements Serializable {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = -3425470497013528587L;
+
+	/** Data type of the column values. */
+	private final Class<? extends Comparable<?>> type;
+	/** Bitmap marking all slots that contain {@code null}. */
+	private final BitSet nulls;
+
+	/**
+	 * Initializes a new storage for values of the specified type.
+	 * @param type Data type of the column values.
+	 */
+	protected ColumnStorage(Class<? extends Comparable<?>> type) {
+		this.type = type;
+		nulls = new BitSet();
+	}
+
+	/**
+	 * Creates a storage that fits the specified column type best. Columns of
+	 * type {@code Double} and {@code Float} are stored as {@code double[]},
+	 * {@code Long} as {@code long[]}, and {@code Integer}, {@code Short}, and
+	 * {@code Byte} as {@code int[]}. All other types are stored as objects.
+	 * @param type Data type of the column values.
+	 * @param capacity Initial number of slots.
+	 * @return A new storage instance.
+	 */
+	public static ColumnStorage create(Class<? extends Comparable<?>> type, int capacity) {
+		if (Double.class.equals(type) || Float.class.equals(type)) {
+			return new DoubleStorage(type, capacity);
+		} else if (Long.class.equals(type)) {
+			return new LongStorage(type, capacity);
+		} else if (Integer.class.equals(type) || Short.class.equals(type)
+				|| Byte.class.equals(type)) {
+			return new IntStorage(type, capacity);
+		}
+		return new ObjectStorage(type, capacity);
+	}
+
+	/**
+	 * Returns the data type of the values in this storage.
+	 * @return Data type of the values.
+	 */
+	public Class<? extends Comparable<?>> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the number of slots that are available without growing.
+	 * @return Number of slots.
+	 */
+	public abstract int capacity();
+
+	/**
+	 * Changes the number of slots. Existing values are kept as far as they
+	 * fit into the new capacity.
+	 * @param capacity New number of slots.
+	 */
+	protected abstract void setCapacity(int capacity);
+
+	/**
+	 * Makes sure that at least the specified number of slots is available.
+	 * @param minCapacity Minimal number of slots.
+	 */
+	public void ensureCapacity(int minCapacity) {
+		int capacity = capacity();
+		if (minCapacity > capacity) {
+			setCapacity(Math.max(minCapacity, capacity + (capacity >> 1) + 1));
+		}
+	}
+
+	/**
+	 * Returns the value of the specified slot.
+	 * @param index Slot index.
+	 * @return Boxed value, or {@code null} if the slot is empty.
+	 */
+	public Comparable<?> get(int index) {
+		if (nulls.get(index)) {
+			return null;
+		}
+		return getValue(index);
+	}
+
+	/**
+	 * Returns the value of the specified slot as a {@code double}.
+	 * @param index Slot index.
+	 * @return Numeric value, or {@code NaN} if the slot is empty or the value
+	 *         is not a number.
+	 */
+	public double getDouble(int index) {
+		if (nulls.get(index)) {
+			return Double.NaN;
+		}
+		return getDoubleValue(index);
+	}
+
+	/**
+	 * Copies the values of a range of slots as {@code double}s into an array.
+	 * Empty slots are copied as {@code NaN}.
+	 * @param fromIndex Index of the first slot (inclusive).
+	 * @param toIndex Index of the last slot (exclusive).
+	 * @param dst Array that receives the values.
+	 * @param dstIndex Position in the array for the first value.
+	 */
+	public void getDoubles(int fromIndex, int toIndex, double[] dst, int dstIndex) {
+		copyDoubleValues(fromIndex, toIndex, dst, dstIndex);
+		for (int i = nulls.nextSetBit(fromIndex); i >= 0 && i < toIndex; i = nulls.nextSetBit(i + 1)) {
+			dst[dstIndex + i - fromIndex] = Double.NaN;
+		}
+	}
+
+	/**
+	 * Returns whether the specified slot contains {@code null}.
+	 * @param index Slot index.
+	 * @return {@code true} if the slot is empty, {@code false} otherwise.
+	 */
+	public boolean isNull(int index) {
+		return nulls.get(index);
+	}
+
+	/**
+	 * Stores a value in the specified slot.
+	 * @param index Slot index.
+	 * @param value Value to be stored, or {@code null}.
+	 */
+	public void set(int index, Comparable<?> value) {
+		if (value == null) {
+			nulls.set(index);
+			clearValue(index);
+		} else {
+			nulls.clear(index);
+			setValue(index, value);
+		}
+	}
+
+	/**
+	 * Copies a range of slots to another position, possibly overlapping.
+	 * @param srcIndex Index of the first slot to be copied.
+	 * @param dstIndex Index of the first destination slot.
+	 * @param length Number of slots to be copied.
+	 */
+	public void move(int srcIndex, int dstIndex, int length) {
+		if (length <= 0) {
+			return;
+		}
+		moveValues(srcIndex, dstIndex, length);
+		BitSet moved = nulls.get(srcIndex, srcIndex + length);
+		nulls.clear(dstIndex, dstIndex + length);
+		for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) {
+			nulls.set(dstIndex + i);
+		}
+	}
+
+	/**
+	 * Reorders the first slots so that slot {@code i} afterwards contains the
+	 * value that was stored in slot {@code order[i]} before.
+	 * @param order New order of the slots.
+	 */
+	public void permute(int[] order) {
+		permuteValues(order);
+		BitSet permuted = new BitSet(order.length);
+		for (int i = 0; i < order.length; i++) {
+			if (nulls.get(order[i])) {
+				permuted.set(i);
+			}
+		}
+		nulls.clear(0, order.length);
+		nulls.or(permuted);
+	}
+
+	/**
+	 * Empties all slots in the specified range.
+	 * @param fromIndex Index of the first slot (inclusive).
+	 * @param toIndex Index of the last slot (exclusive).
+	 */
+	public void clear(int fromIndex, int toIndex) {
+		nulls.clear(fromIndex, toIndex);
+		for (int index = fromIndex; index < toIndex; index++) {
+			clearValue(index);
+		}
+	}
+
+	/**
+	 * Returns the non-null value of the specified slot.
+	 * @param index Slot index.
+	 * @return Boxed value.
+	 */
+	protected abstract Comparable<?> getValue(int index);
+
+	/**
+	 * Returns the non-null value of the specified slot as a {@code double}.
+	 * @param index Slot index.
+	 * @return Numeric value.
+	 */
+	protected abstract double getDoubleValue(int index);
+
+	/**
+	 * Copies the raw values of a range of slots as {@code double}s into an
+	 * array without regard to empty slots.
+	 * @param fromIndex Index of the first slot (inclusive).
+	 * @param toIndex Index of the last slot (exclusive).
+	 * @param dst Array that receives the values.
+	 * @param dstIndex Position in the array for the first value.
+	 */
+	protected void copyDoubleValues(int fromIndex, int toIndex, double[] dst, int dstIndex) {
+		for (int index = fromIndex; index < toIndex; index++) {
+			dst[dstIndex++] = getDoubleValue(index);
+		}
+	}
+
+	/**
+	 * Stores a non-null value in the specified slot.
+	 * @param index Slot index.
+	 * @param value Value to be stored.
+	 */
+	protected abstract void setValue(int index, Comparable<?> value);
+
+	/**
+	 * Resets the specified slot to its initial state.
+	 * @param index Slot index.
+	 */
+	protected abstract void clearValue(int index);
+
+	/**
+	 * Copies the raw values of a range of slots to another position.
+	 * @param srcIndex Index of the first slot to be copied.
+	 * @param dstIndex Index of the first destination slot.
+	 * @param length Number of slots to be copied.
+	 */
+	protected abstract void moveValues(int srcIndex, int dstIndex, int length);
+
+	/**
+	 * Reorders the raw values of the first slots.
+	 * @param order New order of the slots.
+	 */
+	protected abstract void permuteValues(int[] order);
+
+	/**
+	 * Storage for floating point columns.
+	 */
+	private static final class DoubleStorage extends ColumnStorage {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = 2052390212466413377L;
+
+		/** Flag that tells whether values will be returned as {@code Float}. */
+		private final boolean floats;
+		/** Values. */
+		private double[] values;
+
+		public DoubleStorage(Class<? extends Comparable<?>> type, int capacity) {
+			super(type);
+			floats = Float.class.equals(type);
+			values = new double[capacity];
+		}
+
+		@Override
+		public int capacity() {
+			return values.length;
+		}
+
+		@Override
+		protected void setCapacity(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		protected Comparable<?> getValue(int index) {
+			if (floats) {
+				return (float) values[index];
+			}
+			return values[index];
+		}
+
+		@Override
+		protected double getDoubleValue(int index) {
+			return values[index];
+		}
+
+		@Override
+		protected void copyDoubleValues(int fromIndex, int toIndex, double[] dst, int dstIndex) {
+			System.arraycopy(values, fromIndex, dst, dstIndex, toIndex - fromIndex);
+		}
+
+		@Override
+		protected void setValue(int index, Comparable<?> value) {
+			values[index] = ((Number) value).doubleValue();
+		}
+
+		@Override
+		protected void clearValue(int index) {
+			values[index] = 0.0;
+		}
+
+		@Override
+		protected void moveValues(int srcIndex, int dstIndex, int length) {
+			System.arraycopy(values, srcIndex, values, dstIndex, length);
+		}
+
+		@Override
+		protected void permuteValues(int[] order) {
+			double[] permuted = Arrays.copyOf(values, values.length);
+			for (int i = 0; i < order.length; i++) {
+				permuted[i] = values[order[i]];
+			}
+			values = permuted;
+		}
+	}
+
+	/**
+	 * Storage for columns containing {@code long} values.
+	 */
+	private static final class LongStorage extends ColumnStorage {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = -7781617453127165829L;
+
+		/** Values. */
+		private long[] values;
+
+		public LongStorage(Class<? extends Comparable<?>> type, int capacity) {
+			super(type);
+			values = new long[capacity];
+		}
+
+		@Override
+		public int capacity() {
+			return values.length;
+		}
+
+		@Override
+		protected void setCapacity(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		protected Comparable<?> getValue(int index) {
+			return values[index];
+		}
+
+		@Override
+		protected double getDoubleValue(int index) {
+			return values[index];
+		}
+
+		@Override
+		protected void setValue(int index, Comparable<?> value) {
+			values[index] = ((Number) value).longValue();
+		}
+
+		@Override
+		protected void clearValue(int index) {
+			values[index] = 0L;
+		}
+
+		@Override
+		protected void moveValues(int srcIndex, int dstIndex, int length) {
+			System.arraycopy(values, srcIndex, values, dstIndex, length);
+		}
+
+		@Override
+		protected void permuteValues(int[] order) {
+			long[] permuted = Arrays.copyOf(values, values.length);
+			for (int i = 0; i < order.length; i++) {
+				permuted[i] = values[order[i]];
+			}
+			values = permuted;
+		}
+	}
+
+	/**
+	 * Storage for columns containing {@code int}, {@code short}, or
+	 * {@code byte} values.
+	 */
+	private static final class IntStorage extends ColumnStorage {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = 6153278006254322467L;
+
+		/** Values. */
+		private int[] values;
+
+		public IntStorage(Class<? extends Comparable<?>> type, int capacity) {
+			super(type);
+			values = new int[capacity];
+		}
+
+		@Override
+		public int capacity() {
+			return values.length;
+		}
+
+		@Override
+		protected void setCapacity(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		protected Comparable<?> getValue(int index) {
+			int value = values[index];
+			Class<? extends Comparable<?>> type = getType();
+			if (Short.class.equals(type)) {
+				return (short) value;
+			} else if (Byte.class.equals(type)) {
+				return (byte) value;
+			}
+			return value;
+		}
+
+		@Override
+		protected double getDoubleValue(int index) {
+			return values[index];
+		}
+
+		@Override
+		protected void setValue(int index, Comparable<?> value) {
+			values[index] = ((Number) value).intValue();
+		}
+
+		@Override
+		protected void clearValue(int index) {
+			values[index] = 0;
+		}
+
+		@Override
+		protected void moveValues(int srcIndex, int dstIndex, int length) {
+			System.arraycopy(values, srcIndex, values, dstIndex, length);
+		}
+
+		@Override
+		protected void permuteValues(int[] order) {
+			int[] permuted = Arrays.copyOf(values, values.length);
+			for (int i = 0; i < order.length; i++) {
+				permuted[i] = values[order[i]];
+			}
+			values = permuted;
+		}
+	}
+
+	/**
+	 * Storage for columns of non-primitive types.
+	 */
+	private static final class ObjectStorage extends ColumnStorage {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = 1286713650493540651L;
+
+		/** Values. */
+		private Comparable<?>[] values;
+
+		public ObjectStorage(Class<? extends Comparable<?>> type, int capacity) {
+			super(type);
+			values = new Comparable<?>[capacity];
+		}
+
+		@Override
+		public int capacity() {
+			return values.length;
+		}
+
+		@Override
+		protected void setCapacity(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		protected Comparable<?> getValue(int index) {
+			return values[index];
+		}
+
+		@Override
+		protected double getDoubleValue(int index) {
+			Comparable<?> value = values[index];
+			if (value instanceof Number) {
+				return ((Number) value).doubleValue();
+			}
+			return Double.NaN;
+		}
+
+		@Override
+		protected void setValue(int index, Comparable<?> value) {
+			values[index] = value;
+		}
+
+		@Override
+		protected void clearValue(int index) {
+			values[index] = null;
+		}
+
+		@Override
+		protected void moveValues(int srcIndex, int dstIndex, int length) {
+			System.arraycopy(values, srcIndex, values, dstIndex, length);
+		}
+
+		@Override
+		protected void permuteValues(int[] order) {
+			Comparable<?>[] permuted = Arrays.copyOf(values, values.length);
+			for (int i = 0; i < order.length; i++) {
+				permuted[i] = values[order[i]];
+			}
+			values = permuted;
+		}
+	}
+}
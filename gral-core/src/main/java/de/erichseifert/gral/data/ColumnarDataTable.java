@@ -0,0 +1,444 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import de.erichseifert.gral.data.comparators.DataComparator;
+
+/**
+ * <p>An in-memory, random access implementation of a mutable data source
+ * which stores its values column by column. Numeric columns are kept in
+ * growable primitive arrays: {@code Double} and {@code Float} columns use a
+ * {@code double[]}, {@code Long} columns a {@code long[]}, and
+ * {@code Integer}, {@code Short}, and {@code Byte} columns an {@code int[]}.
+ * Empty cells are tracked in a bitmap per column. Columns of other types are
+ * stored as objects.</p>
+ *
+ * <p>Compared to {@link DataTable}, which keeps a boxed {@code Record} for
+ * every row, this reduces the memory footprint and the pressure on the
+ * garbage collector considerably for large numeric tables. Values are only
+ * boxed when they are accessed through {@link #get(int, int)}.</p>
+ *
+ * @see DataTable
+ * @see MutableDataSource
+ */
+public class ColumnarDataTable extends AbstractDataSource implements MutableDataSource {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = -5364816297470640853L;
+
+	/** Number of rows that can be stored before the columns have to grow. */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Storage for the values of each column. */
+	private final ColumnStorage[] columns;
+	/** Number of rows. */
+	private int rowCount;
+
+	/**
+	 * Initializes a new instance with the specified number of columns and
+	 * column types.
+	 * @param types Type for each column
+	 */
+	public ColumnarDataTable(Class<? extends Comparable<?>>... types) {
+		super(types);
+		columns = new ColumnStorage[types.length];
+		for (int colIndex = 0; colIndex < types.length; colIndex++) {
+			columns[colIndex] = createColumn(types[colIndex], DEFAULT_CAPACITY);
+		}
+	}
+
+	/**
+	 * Initializes a new instance with the specified number of columns and
+	 * a single column type.
+	 * @param cols Number of columns
+	 * @param type Data type for all columns
+	 */
+	public ColumnarDataTable(int cols, Class<? extends Comparable<?>> type) {
+		this(createTypes(cols, type));
+	}
+
+	/**
+	 * Initializes a new instance with the column types, and data of another
+	 * data source.
+	 * @param source Data source to clone.
+	 */
+	public ColumnarDataTable(DataSource source) {
+		this(source.getColumnTypes());
+		ensureCapacity(source.getRowCount());
+		for (int rowIndex = 0; rowIndex < source.getRowCount(); rowIndex++) {
+			for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+				columns[colIndex].set(rowIndex, source.get(colIndex, rowIndex));
+			}
+			rowCount++;
+		}
+	}
+
+	/**
+	 * Returns an array containing the specified type for each column.
+	 * @param cols Number of columns
+	 * @param type Data type for all columns
+	 * @return Column types.
+	 */
+	@SuppressWarnings("unchecked")
+	static Class<? extends Comparable<?>>[] createTypes(int cols, Class<? extends Comparable<?>> type) {
+		Class<? extends Comparable<?>>[] types = new Class[cols];
+		Arrays.fill(types, type);
+		return types;
+	}
+
+	/**
+	 * Creates the storage for the values of a column. This method is called
+	 * during construction and whenever the table is cleared, so it must not
+	 * depend on the state of subclasses.
+	 * @param type Data type of the column values.
+	 * @param capacity Initial number of rows.
+	 * @return A new storage instance.
+	 */
+	ColumnStorage createColumn(Class<? extends Comparable<?>> type, int capacity) {
+		return ColumnStorage.create(type, capacity);
+	}
+
+	/**
+	 * Returns the storage instances of all columns.
+	 * @return A copy of the array of column storages.
+	 */
+	ColumnStorage[] getColumns() {
+		synchronized (this) {
+			return columns.clone();
+		}
+	}
+
+	/**
+	 * Makes sure that all columns can store at least the specified number
+	 * of rows.
+	 * @param minCapacity Minimal number of rows.
+	 */
+	public void ensureCapacity(int minCapacity) {
+		synchronized (this) {
+			for (ColumnStorage column : columns) {
+				column.ensureCapacity(minCapacity);
+			}
+		}
+	}
+
+	/**
+	 * Adds a row with the specified comparable values to the table.
+	 * The values are added in the order they are specified. If the types of
+	 * the table columns and the values do not match, an
+	 * {@code IllegalArgumentException} is thrown.
+	 * @param values values to be added as a row
+	 * @return Index of the row that has been added.
+	 */
+	public int add(Comparable<?>... values) {
+		return add(Arrays.asList(values));
+	}
+
+	/**
+	 * Adds a row with the specified container's elements to the table.
+	 * The values are added in the order they are specified. If the types of
+	 * the table columns and the values do not match, an
+	 * {@code IllegalArgumentException} is thrown.
+	 * @param values values to be added as a row
+	 * @return Index of the row that has been added.
+	 */
+	public int add(List<? extends Comparable<?>> values) {
+		checkValues(values);
+
+		DataChangeEvent[] events = new DataChangeEvent[columns.length];
+		int rowIndex;
+		synchronized (this) {
+			rowIndex = rowCount;
+			for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+				Comparable<?> value = values.get(colIndex);
+				ColumnStorage column = columns[colIndex];
+				column.ensureCapacity(rowIndex + 1);
+				column.set(rowIndex, value);
+				events[colIndex] = new DataChangeEvent(this, colIndex, rowIndex, null, value);
+			}
+			rowCount++;
+		}
+		notifyDataAdded(events);
+		return rowIndex;
+	}
+
+	/**
+	 * Adds the specified row to the table.
+	 * The values are added in the order they are specified. If the types of
+	 * the table columns and the values do not match, an
+	 * {@code IllegalArgumentException} is thrown.
+	 * @param row Row to be added
+	 * @return Index of the row that has been added.
+	 */
+	public int add(Row row) {
+		List<Comparable<?>> values;
+		synchronized (row) {
+			values = new ArrayList<>(row.size());
+			for (Comparable<?> value : row) {
+				values.add(value);
+			}
+		}
+		return add(values);
+	}
+
+	/**
+	 * Adds all specified rows to the table. The values of each row are added
+	 * in the order they are specified. If the types of the table columns and
+	 * the values do not match, an {@code IllegalArgumentException} is thrown
+	 * and no row is added. Listeners receive a single event describing the
+	 * range of all added rows.
+	 * @param rows Rows to be added.
+	 * @return Number of rows that have been added.
+	 */
+	public int addAll(Iterable<? extends List<? extends Comparable<?>>> rows) {
+		List<List<? extends Comparable<?>>> rowList = new ArrayList<>();
+		for (List<? extends Comparable<?>> values : rows) {
+			checkValues(values);
+			rowList.add(values);
+		}
+		if (rowList.isEmpty()) {
+			return 0;
+		}
+
+		int rowFirst;
+		synchronized (this) {
+			rowFirst = rowCount;
+			ensureCapacity(rowCount + rowList.size());
+			for (List<? extends Comparable<?>> values : rowList) {
+				for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+					columns[colIndex].set(rowCount, values.get(colIndex));
+				}
+				rowCount++;
+			}
+		}
+		notifyDataAdded(new DataChangeEvent(this, rowFirst, rowFirst + rowList.size() - 1));
+		return rowList.size();
+	}
+
+	/**
+	 * Checks whether the specified values match the number and the types of
+	 * the table columns. If not, an {@code IllegalArgumentException} is
+	 * thrown.
+	 * @param values Values of a row.
+	 */
+	private void checkValues(List<? extends Comparable<?>> values) {
+		if (values.size() != getColumnCount()) {
+			throw new IllegalArgumentException(MessageFormat.format(
+					"Wrong number of columns! Expected {0,number,integer}, got {1,number,integer}.", //$NON-NLS-1$
+					getColumnCount(), values.size()));
+		}
+
+		// Check row data types
+		for (int colIndex = 0; colIndex < values.size(); colIndex++) {
+			Comparable<?> value = values.get(colIndex);
+			Class<? extends Comparable<?>> type = columns[colIndex].getType();
+			if ((value != null) && !(type.isAssignableFrom(value.getClass()))) {
+				throw new IllegalArgumentException(MessageFormat.format(
+						"Wrong column type! Expected {0}, got {1}.", //$NON-NLS-1$
+						type, value.getClass()));
+			}
+		}
+	}
+
+	/**
+	 * Removes a specified row from the table.
+	 * @param row Index of the row to remove
+	 */
+	public void remove(int row) {
+		DataChangeEvent[] events;
+		synchronized (this) {
+			if (row < 0 || row >= rowCount) {
+				throw new IndexOutOfBoundsException(MessageFormat.format(
+					"Row {0,number,integer} does not exist.", row)); //$NON-NLS-1$
+			}
+			events = new DataChangeEvent[columns.length];
+			for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+				ColumnStorage column = columns[colIndex];
+				events[colIndex] = new DataChangeEvent(this, colIndex, row, column.get(row), null);
+				column.move(row + 1, row, rowCount - row - 1);
+				column.clear(rowCount - 1, rowCount);
+			}
+			rowCount--;
+		}
+		notifyDataRemoved(events);
+	}
+
+	/**
+	 * Removes the last row from the table.
+	 */
+	public void removeLast() {
+		remove(rowCount - 1);
+	}
+
+	/**
+	 * Deletes all rows this table contains.
+	 */
+	public void clear() {
+		DataChangeEvent[] events;
+		synchronized (this) {
+			// Keep the old storage to provide the old values lazily
+			final ColumnStorage[] removed = columns.clone();
+			if (rowCount == 0) {
+				events = new DataChangeEvent[0];
+			} else {
+				DataChangeEvent.Values valuesOld = new DataChangeEvent.Values() {
+					public Comparable<?> get(int col, int row) {
+						return removed[col].get(row);
+					}
+				};
+				events = new DataChangeEvent[] {
+					new DataChangeEvent(this, null, 0, rowCount - 1, valuesOld)
+				};
+			}
+			for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+				columns[colIndex] = createColumn(removed[colIndex].getType(), DEFAULT_CAPACITY);
+			}
+			rowCount = 0;
+		}
+		notifyDataRemoved(events);
+	}
+
+	/**
+	 * Returns the row with the specified index.
+	 * @param col index of the column to return
+	 * @param row index of the row to return
+	 * @return the specified value of the data cell
+	 */
+	public Comparable<?> get(int col, int row) {
+		synchronized (this) {
+			if (row >= rowCount) {
+				return null;
+			}
+			return columns[col].get(row);
+		}
+	}
+
+	@Override
+	public double getDouble(int col, int row) {
+		synchronized (this) {
+			if (row >= rowCount) {
+				return Double.NaN;
+			}
+			return columns[col].getDouble(row);
+		}
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		synchronized (this) {
+			if (fromRow < 0 || toRow > rowCount) {
+				throw new IndexOutOfBoundsException(MessageFormat.format(
+					"Rows {0,number,integer} to {1,number,integer} do not exist.", //$NON-NLS-1$
+					fromRow, toRow));
+			}
+			columns[col].getDoubles(fromRow, toRow, dst, 0);
+		}
+	}
+
+	/**
+	 * Sets the value of a cell specified by its column and row indexes.
+	 * @param <T> Data type of the cell.
+	 * @param col Column of the cell to change.
+	 * @param row Row of the cell to change.
+	 * @param value New value to be set.
+	 * @return Old value that was replaced.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Comparable<T> set(int col, int row, Comparable<T> value) {
+		Comparable<T> old;
+		DataChangeEvent event = null;
+		synchronized (this) {
+			if (row < 0 || row >= rowCount) {
+				throw new IndexOutOfBoundsException(MessageFormat.format(
+					"Row {0,number,integer} does not exist.", row)); //$NON-NLS-1$
+			}
+			ColumnStorage column = columns[col];
+			if ((value != null) && !(column.getType().isAssignableFrom(value.getClass()))) {
+				throw new IllegalArgumentException(MessageFormat.format(
+						"Wrong column type! Expected {0}, got {1}.", //$NON-NLS-1$
+						column.getType(), value.getClass()));
+			}
+			old = (Comparable<T>) column.get(row);
+			if (old == null || !old.equals(value)) {
+				column.set(row, value);
+				event = new DataChangeEvent(this, col, row, old, value);
+			}
+		}
+		if (event != null) {
+			notifyDataUpdated(event);
+		}
+		return old;
+	}
+
+	/**
+	 * Returns the number of rows of the data source.
+	 * @return number of rows in the data source.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Sorts the table rows with the specified DataComparators.
+	 * The row values are compared in the way the comparators are specified.
+	 * @param comparators comparators used for sorting
+	 */
+	public void sort(final DataComparator... comparators) {
+		synchronized (this) {
+			final Record[] records = new Record[rowCount];
+			Integer[] order = new Integer[rowCount];
+			for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+				records[rowIndex] = getRecord(rowIndex);
+				order[rowIndex] = rowIndex;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer row1, Integer row2) {
+					for (DataComparator comparator : comparators) {
+						int result = comparator.compare(records[row1], records[row2]);
+						if (result != 0) {
+							return result;
+						}
+					}
+					return 0;
+				}
+			});
+			int[] permutation = new int[rowCount];
+			for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+				permutation[rowIndex] = order[rowIndex];
+			}
+			for (ColumnStorage column : columns) {
+				column.permute(permutation);
+			}
+			// Rows have been reordered without notifying listeners
+			invalidateStatistics();
+		}
+	}
+
+	@Override
+	public void setName(String name) {
+		super.setName(name);
+	}
+}
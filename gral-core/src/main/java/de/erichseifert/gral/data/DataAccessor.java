@@ -43,6 +43,10 @@ public abstract class DataAccessor
 	private final DataSource source;
 	/** Index of current column or row. */
 	private final int index;
+	/** Statistics of the accessed values. */
+	private transient Statistics statistics;
+	/** Version of the data source the statistics have been created for. */
+	private transient long statisticsVersion;
 
 	/**
 	 * Initializes a new instance with the specified data source and an access
@@ -144,12 +148,17 @@ public abstract class DataAccessor
 	}
 
 	/**
-	 * Returns the specified statistical information for this data.
+	 * Returns the specified statistical information for this data. The
+	 * statistics are kept until the values of the data source change.
 	 * @param key Requested Statistical information.
 	 * @return Calculated value.
 	 */
 	public double getStatistics(String key) {
-		Statistics statistics = new Statistics(this);
+		long version = source.getVersion();
+		if (statistics == null || statisticsVersion != version) {
+			statistics = new Statistics(this);
+			statisticsVersion = version;
+		}
 		return statistics.get(key);
 	}
 
@@ -21,11 +21,21 @@
  */
 package de.erichseifert.gral.data;
 
+import java.util.BitSet;
 import java.util.EventObject;
 
 /**
- * Class that stores information on a change of a specific data value in a
- * data source.
+ * <p>Class that stores information on a change of a specific data value in a
+ * data source.</p>
+ *
+ * <p>To describe changes to many values at once, e.g. after a bulk insert or
+ * when a table is cleared, an event can also stand for a range of rows in a
+ * set of columns. Such range events are much cheaper than one event per
+ * cell: {@link #getColumns()} returns the affected columns, and
+ * {@link #getRow()} and {@link #getRowLast()} denote the first and the last
+ * row of the range. Range events don't store any values. If the data source
+ * provides them, old values can be queried lazily with
+ * {@link #getOld(int, int)}.</p>
  * @see DataListener
  * @see DataSource
  */
@@ -33,14 +43,36 @@ public class DataChangeEvent extends EventObject {
 	/** Version id for serialization. */
 	private static final long serialVersionUID = -3791650088885473144L;
 
+	/**
+	 * Interface for objects that provide the values of a range event on
+	 * demand.
+	 */
+	public interface Values {
+		/**
+		 * Returns the value of the specified cell.
+		 * @param col Column index.
+		 * @param row Row index.
+		 * @return Value of the cell.
+		 */
+		Comparable<?> get(int col, int row);
+	}
+
 	/** Column of the value that has changed. */
 	private final int col;
 	/** Row of the value that has changed. */
 	private final int row;
+	/** Last row of the range that has changed. */
+	private final int rowLast;
+	/** Columns of the range that has changed, or {@code null} for a single
+	value. */
+	private final BitSet cols;
 	/** Value before changes have been applied. */
 	private final Comparable<?> valOld;
 	/** Changed value. */
 	private final Comparable<?> valNew;
+	/** Provider of the values before the changes of a range have been
+	applied. */
+	private final transient Values valuesOld;
 
 	/**
 	 * Initializes a new event with data source, position of the data value,
@@ -57,12 +89,56 @@ public class DataChangeEvent extends EventObject {
 		super(source);
 		this.col = col;
 		this.row = row;
+		this.rowLast = row;
 		this.valOld = valOld;
 		this.valNew = valNew;
+		cols = null;
+		valuesOld = null;
+	}
+
+	/**
+	 * Initializes a new event that describes changes to all values of a
+	 * range of rows.
+	 * @param source Data source.
+	 * @param rowFirst First row of the range.
+	 * @param rowLast Last row of the range (inclusive).
+	 */
+	public DataChangeEvent(DataSource source, int rowFirst, int rowLast) {
+		this(source, null, rowFirst, rowLast, null);
 	}
 
 	/**
-	 * Returns the column index of the value that was changed.
+	 * Initializes a new event that describes changes to a range of rows in
+	 * the specified columns. If the old values are still available, they can
+	 * be provided lazily.
+	 * @param source Data source.
+	 * @param cols Columns of the range, or {@code null} for all columns of
+	 *        the data source.
+	 * @param rowFirst First row of the range.
+	 * @param rowLast Last row of the range (inclusive).
+	 * @param valuesOld Provider of the old values, or {@code null}.
+	 */
+	public DataChangeEvent(DataSource source, BitSet cols, int rowFirst,
+			int rowLast, Values valuesOld) {
+		super(source);
+		if (cols == null) {
+			cols = new BitSet();
+			cols.set(0, source.getColumnCount());
+		} else {
+			cols = (BitSet) cols.clone();
+		}
+		this.cols = cols;
+		this.col = Math.max(cols.nextSetBit(0), 0);
+		this.row = rowFirst;
+		this.rowLast = rowLast;
+		this.valuesOld = valuesOld;
+		valOld = null;
+		valNew = null;
+	}
+
+	/**
+	 * Returns the column index of the value that was changed. For range
+	 * events this is the first column of the range.
 	 * @return Column index of the changed value.
 	 */
 	public int getCol() {
@@ -70,18 +146,85 @@ public class DataChangeEvent extends EventObject {
 	}
 
 	/**
-	 * Returns the row index of the value that was changed.
+	 * Returns the row index of the value that was changed. For range events
+	 * this is the first row of the range.
 	 * @return Row index of the changed value.
 	 */
 	public int getRow() {
 		return row;
 	}
 
+	/**
+	 * Returns the index of the last row that was changed. For events that
+	 * describe a single value this is the same as {@link #getRow()}.
+	 * @return Index of the last changed row.
+	 */
+	public int getRowLast() {
+		return rowLast;
+	}
+
+	/**
+	 * Returns the indexes of all columns that were changed.
+	 * @return Indexes of the changed columns.
+	 */
+	public BitSet getColumns() {
+		if (cols == null) {
+			BitSet single = new BitSet();
+			single.set(col);
+			return single;
+		}
+		return (BitSet) cols.clone();
+	}
+
+	/**
+	 * Returns whether the specified cell is described by this event.
+	 * @param col Column index.
+	 * @param row Row index.
+	 * @return {@code true} if the cell has changed.
+	 */
+	public boolean contains(int col, int row) {
+		if (row < this.row || row > rowLast) {
+			return false;
+		}
+		return (cols == null) ? col == this.col : (col >= 0 && cols.get(col));
+	}
+
+	/**
+	 * Returns whether the event describes a range of rows instead of a
+	 * single value. Range events contain no new values.
+	 * @return {@code true} if the event describes a range of rows.
+	 */
+	public boolean isRange() {
+		return cols != null;
+	}
+
 	/**
 	 * Returns the old value before it has changed.
 	 * @return Value before the change.
 	 */
 	public Comparable<?> getOld() {
+		if (isRange()) {
+			return getOld(col, row);
+		}
+		return valOld;
+	}
+
+	/**
+	 * Returns the value of the specified cell before it has changed. For
+	 * range events, the value is determined lazily. {@code null} will be
+	 * returned if the cell isn't described by this event or if the old value
+	 * isn't available.
+	 * @param col Column index.
+	 * @param row Row index.
+	 * @return Value before the change.
+	 */
+	public Comparable<?> getOld(int col, int row) {
+		if (!contains(col, row)) {
+			return null;
+		}
+		if (isRange()) {
+			return (valuesOld != null) ? valuesOld.get(col, row) : null;
+		}
 		return valOld;
 	}
 
@@ -23,6 +23,9 @@ package de.erichseifert.gral.data;
 
 /**
  * Interface that can be implemented to listen for changes in data sources.
+ * Changes to many values, e.g. when a table is cleared, are described by a
+ * compact range event instead of one event per cell; see
+ * {@link DataChangeEvent#isRange()}.
  * @see DataSource
  */
 public interface DataListener {
@@ -24,6 +24,7 @@ package de.erichseifert.gral.data;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -102,6 +103,27 @@ public class DataSeries extends AbstractDataSource implements DataListener {
 		}
 	}
 
+	@Override
+	public double getDouble(int col, int row) {
+		if (col < 0 || col >= cols.size()) {
+			return Double.NaN;
+		}
+		return data.getDouble(cols.get(col), row);
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		data.copyColumn(cols.get(col), dst, fromRow, toRow);
+	}
+
+	@Override
+	public boolean isColumnSorted(int col) {
+		if (col < 0 || col >= cols.size()) {
+			return false;
+		}
+		return data.isColumnSorted(cols.get(col));
+	}
+
 	@Override
 	public int getColumnCount() {
 		return cols.size();
@@ -124,7 +146,7 @@ public class DataSeries extends AbstractDataSource implements DataListener {
 	 *        have been added.
 	 */
 	public void dataAdded(DataSource source, DataChangeEvent... events) {
-		notifyDataAdded(events);
+		notifyDataAdded(takeEvents(events));
 	}
 
 	/**
@@ -136,7 +158,7 @@ public class DataSeries extends AbstractDataSource implements DataListener {
 	 *        have been updated.
 	 */
 	public void dataUpdated(DataSource source, DataChangeEvent... events) {
-		notifyDataUpdated(events);
+		notifyDataUpdated(takeEvents(events));
 	}
 
 	/**
@@ -148,7 +170,46 @@ public class DataSeries extends AbstractDataSource implements DataListener {
 	 *        have been removed.
 	 */
 	public void dataRemoved(DataSource source, DataChangeEvent... events) {
-		notifyDataRemoved(events);
+		notifyDataRemoved(takeEvents(events));
+	}
+
+	/**
+	 * Converts range events of the original data source to range events of
+	 * the columns of this series. Row shift events are converted to row shift
+	 * events of this series. Other events are passed unchanged.
+	 * @param events Original events.
+	 * @return Converted events.
+	 */
+	private DataChangeEvent[] takeEvents(DataChangeEvent[] events) {
+		if (events == null) {
+			return null;
+		}
+		DataChangeEvent[] eventsTx = events.clone();
+		for (int i = 0; i < eventsTx.length; i++) {
+			final DataChangeEvent event = eventsTx[i];
+			if (!event.isRange()) {
+				continue;
+			}
+			if (event instanceof RowShiftEvent) {
+				RowShiftEvent shift = (RowShiftEvent) event;
+				eventsTx[i] = new RowShiftEvent(this, shift.getRemovedCount(), shift.getAddedCount());
+				continue;
+			}
+			BitSet colsOrig = event.getColumns();
+			BitSet cols = new BitSet();
+			for (int col = 0; col < this.cols.size(); col++) {
+				if (colsOrig.get(this.cols.get(col))) {
+					cols.set(col);
+				}
+			}
+			DataChangeEvent.Values valuesOld = new DataChangeEvent.Values() {
+				public Comparable<?> get(int col, int row) {
+					return event.getOld(DataSeries.this.cols.get(col), row);
+				}
+			};
+			eventsTx[i] = new DataChangeEvent(this, cols, event.getRow(), event.getRowLast(), valuesOld);
+		}
+		return eventsTx;
 	}
 
 	@Override
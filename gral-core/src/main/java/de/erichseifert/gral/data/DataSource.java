@@ -59,6 +59,28 @@ public interface DataSource extends Iterable<Comparable<?>> {
 	 */
 	Comparable<?> get(int col, int row);
 
+	/**
+	 * Returns the value with the specified row and column index as a
+	 * primitive {@code double}. This avoids boxing for numeric data.
+	 * @param col index of the column to return
+	 * @param row index of the row to return
+	 * @return the numeric value of the data cell, or {@code NaN} if the cell
+	 *         is empty or does not contain a number
+	 */
+	double getDouble(int col, int row);
+
+	/**
+	 * Copies the numeric values of a range of rows of the specified column
+	 * into an array. The value of row {@code fromRow} is stored at index
+	 * {@code 0} of {@code dst}. Empty or non-numeric cells are copied as
+	 * {@code NaN}.
+	 * @param col index of the column to copy
+	 * @param dst array that receives the values
+	 * @param fromRow index of the first row to copy (inclusive)
+	 * @param toRow index of the last row to copy (exclusive)
+	 */
+	void copyColumn(int col, double[] dst, int fromRow, int toRow);
+
 	/**
 	 * Retrieves a object instance that contains various statistical
 	 * information on the current data source.
@@ -66,6 +88,39 @@ public interface DataSource extends Iterable<Comparable<?>> {
 	 */
 	Statistics getStatistics();
 
+	/**
+	 * Returns statistical information on the specified column.
+	 * @param col Index of the column.
+	 * @return Statistical information on the column.
+	 */
+	Statistics getStatistics(int col);
+
+	/**
+	 * Returns statistical information on a range of rows of the specified
+	 * column.
+	 * @param col Index of the column.
+	 * @param fromRow Index of the first row (inclusive).
+	 * @param toRow Index of the last row (exclusive).
+	 * @return Statistical information on the range of rows.
+	 */
+	Statistics getStatistics(int col, int fromRow, int toRow);
+
+	/**
+	 * Returns a number that changes whenever the data values of this data
+	 * source change.
+	 * @return Version of the data values.
+	 */
+	long getVersion();
+
+	/**
+	 * Returns whether the values of the specified column are in ascending
+	 * order, i.e. no value is smaller than the value of the previous row.
+	 * Columns containing empty or non-numeric cells are not sorted.
+	 * @param col Index of the column.
+	 * @return {@code true} if the column is sorted, {@code false} otherwise.
+	 */
+	boolean isColumnSorted(int col);
+
 	DataSource getColumnStatistics(String key);
 
 	DataSource getRowStatistics(String key);
@@ -161,23 +161,7 @@ public class DataTable extends AbstractDataSource implements MutableDataSource {
 	 */
 	public int add(List<? extends Comparable<?>> values) {
 		DataChangeEvent[] events;
-		if (values.size() != getColumnCount()) {
-			throw new IllegalArgumentException(MessageFormat.format(
-					"Wrong number of columns! Expected {0,number,integer}, got {1,number,integer}.", //$NON-NLS-1$
-					getColumnCount(), values.size()));
-		}
-
-		// Check row data types
-		Class<? extends Comparable<?>>[] types = getColumnTypes();
-		for (int colIndex = 0; colIndex < values.size(); colIndex++) {
-			Comparable<?> value = values.get(colIndex);
-			if ((value != null)
-					&& !(types[colIndex].isAssignableFrom(value.getClass()))) {
-				throw new IllegalArgumentException(MessageFormat.format(
-						"Wrong column type! Expected {0}, got {1}.", //$NON-NLS-1$
-						types[colIndex], value.getClass()));
-			}
-		}
+		checkValues(values, getColumnTypes());
 
 		// Add data to row
 		Record row = new Record(values);
@@ -215,6 +199,62 @@ public class DataTable extends AbstractDataSource implements MutableDataSource {
 		return add(values);
 	}
 
+	/**
+	 * Adds all specified rows to the table. The values of each row are added
+	 * in the order they are specified. If the types of the table columns and
+	 * the values do not match, an {@code IllegalArgumentException} is thrown
+	 * and no row is added. Listeners receive a single event describing the
+	 * range of all added rows.
+	 * @param rows Rows to be added.
+	 * @return Number of rows that have been added.
+	 */
+	public int addAll(Iterable<? extends List<? extends Comparable<?>>> rows) {
+		Class<? extends Comparable<?>>[] types = getColumnTypes();
+		List<Record> records = new ArrayList<>();
+		for (List<? extends Comparable<?>> values : rows) {
+			checkValues(values, types);
+			records.add(new Record(values));
+		}
+		if (records.isEmpty()) {
+			return 0;
+		}
+
+		int rowFirst;
+		synchronized (this.rows) {
+			rowFirst = this.rows.size();
+			this.rows.addAll(records);
+		}
+		notifyDataAdded(new DataChangeEvent(this, rowFirst, rowFirst + records.size() - 1));
+		return records.size();
+	}
+
+	/**
+	 * Checks whether the specified values match the number and the types of
+	 * the table columns. If not, an {@code IllegalArgumentException} is
+	 * thrown.
+	 * @param values Values of a row.
+	 * @param types Types of the columns.
+	 */
+	private static void checkValues(List<? extends Comparable<?>> values,
+			Class<? extends Comparable<?>>[] types) {
+		if (values.size() != types.length) {
+			throw new IllegalArgumentException(MessageFormat.format(
+					"Wrong number of columns! Expected {0,number,integer}, got {1,number,integer}.", //$NON-NLS-1$
+					types.length, values.size()));
+		}
+
+		// Check row data types
+		for (int colIndex = 0; colIndex < values.size(); colIndex++) {
+			Comparable<?> value = values.get(colIndex);
+			if ((value != null)
+					&& !(types[colIndex].isAssignableFrom(value.getClass()))) {
+				throw new IllegalArgumentException(MessageFormat.format(
+						"Wrong column type! Expected {0}, got {1}.", //$NON-NLS-1$
+						types[colIndex], value.getClass()));
+			}
+		}
+	}
+
 	public void add(Record row) {
 		if (row.size() != getColumnCount()) {
 			throw new IllegalArgumentException("Invalid element count in Record to be added. " +
@@ -263,16 +303,22 @@ public class DataTable extends AbstractDataSource implements MutableDataSource {
 	public void clear() {
 		DataChangeEvent[] events;
 		synchronized (this) {
-			int cols = getColumnCount();
-			int rows = getRowCount();
-			events = new DataChangeEvent[cols*rows];
-			for (int row = 0; row < rows; row++) {
-				for (int col = 0; col < cols; col++) {
-					events[col + row*cols] = new DataChangeEvent(
-						this, col, row, get(col, row), null);
-				}
+			int rowCount = getRowCount();
+			if (rowCount == 0) {
+				events = new DataChangeEvent[0];
+			} else {
+				// Keep the removed records to provide the old values lazily
+				final List<Record> removed = new ArrayList<>(rows);
+				DataChangeEvent.Values valuesOld = new DataChangeEvent.Values() {
+					public Comparable<?> get(int col, int row) {
+						return removed.get(row).get(col);
+					}
+				};
+				events = new DataChangeEvent[] {
+					new DataChangeEvent(this, null, 0, rowCount - 1, valuesOld)
+				};
 			}
-			this.rows.clear();
+			rows.clear();
 		}
 		notifyDataRemoved(events);
 	}
@@ -297,6 +343,39 @@ public class DataTable extends AbstractDataSource implements MutableDataSource {
 		return r.get(col);
 	}
 
+	@Override
+	public double getDouble(int col, int row) {
+		Record r;
+		synchronized (rows) {
+			if (row >= rows.size()) {
+				return Double.NaN;
+			}
+			r = rows.get(row);
+		}
+		return toDouble(r.get(col));
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		synchronized (rows) {
+			for (int row = fromRow; row < toRow; row++) {
+				dst[row - fromRow] = toDouble(rows.get(row).get(col));
+			}
+		}
+	}
+
+	/**
+	 * Returns the primitive value of a cell value.
+	 * @param value Cell value.
+	 * @return Numeric value, or {@code NaN} if the value is not a number.
+	 */
+	private static double toDouble(Comparable<?> value) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		return Double.NaN;
+	}
+
 	/**
 	 * Sets the value of a cell specified by its column and row indexes.
 	 * @param <T> Data type of the cell.
@@ -347,6 +426,8 @@ public class DataTable extends AbstractDataSource implements MutableDataSource {
 			RecordComparator comparator = new RecordComparator(comparators);
 			Collections.sort(rows, comparator);
 		}
+		// Rows have been reordered without notifying listeners
+		invalidateStatistics();
 	}
 
 	@Override
@@ -0,0 +1,341 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Storage for the values of a numeric column which keeps the values outside
+ * of the Java heap in direct byte buffers. The buffers are allocated in
+ * chunks of a fixed number of slots, so growing the storage never copies
+ * existing values. The memory can be released immediately using
+ * {@link #free()} instead of waiting for the garbage collector.
+ */
+final class DirectColumnStorage extends ColumnStorage {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = 7215342930460184453L;
+
+	/** Number of bits of the number of slots per chunk. */
+	private static final int CHUNK_BITS = 14;
+	/** Number of slots per chunk. */
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	/** Mask for slot indexes inside a chunk. */
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** Size of a value in bytes. */
+	private final int size;
+	/** Chunks containing the values. */
+	private transient ByteBuffer[] chunks;
+
+	/**
+	 * Initializes a new storage for values of the specified type. No memory
+	 * is allocated before slots are needed.
+	 * @param type Data type of the column values.
+	 */
+	public DirectColumnStorage(Class<? extends Comparable<?>> type) {
+		super(type);
+		size = getSize(type);
+		if (size == 0) {
+			throw new IllegalArgumentException("Unsupported column type: " + type); //$NON-NLS-1$
+		}
+		chunks = new ByteBuffer[0];
+	}
+
+	/**
+	 * Returns whether values of the specified type can be stored.
+	 * @param type Data type of the column values.
+	 * @return {@code true} if the type is supported.
+	 */
+	public static boolean isSupported(Class<? extends Comparable<?>> type) {
+		return getSize(type) > 0;
+	}
+
+	/**
+	 * Returns the number of bytes that are used to store a value of the
+	 * specified type.
+	 * @param type Data type of the column values.
+	 * @return Size in bytes, or {@code 0} if the type isn't supported.
+	 */
+	private static int getSize(Class<? extends Comparable<?>> type) {
+		if (Double.class.equals(type) || Long.class.equals(type)) {
+			return 8;
+		} else if (Float.class.equals(type) || Integer.class.equals(type)) {
+			return 4;
+		} else if (Short.class.equals(type)) {
+			return 2;
+		} else if (Byte.class.equals(type)) {
+			return 1;
+		}
+		return 0;
+	}
+
+	@Override
+	public int capacity() {
+		return chunks.length*CHUNK_SIZE;
+	}
+
+	@Override
+	public void ensureCapacity(int minCapacity) {
+		if (minCapacity > capacity()) {
+			setCapacity(minCapacity);
+		}
+	}
+
+	@Override
+	protected void setCapacity(int capacity) {
+		int chunkCount = (capacity + CHUNK_MASK) >>> CHUNK_BITS;
+		int chunkCountOld = chunks.length;
+		for (int chunk = chunkCount; chunk < chunkCountOld; chunk++) {
+			free(chunks[chunk]);
+		}
+		chunks = Arrays.copyOf(chunks, chunkCount);
+		for (int chunk = chunkCountOld; chunk < chunkCount; chunk++) {
+			chunks[chunk] = allocateChunk();
+		}
+	}
+
+	/**
+	 * Allocates the memory for a new chunk of slots.
+	 * @return Direct buffer.
+	 */
+	private ByteBuffer allocateChunk() {
+		return ByteBuffer.allocateDirect(CHUNK_SIZE*size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Override
+	protected Comparable<?> getValue(int index) {
+		ByteBuffer chunk = chunks[index >>> CHUNK_BITS];
+		int position = (index & CHUNK_MASK)*size;
+		Class<? extends Comparable<?>> type = getType();
+		if (Double.class.equals(type)) {
+			return chunk.getDouble(position);
+		} else if (Long.class.equals(type)) {
+			return chunk.getLong(position);
+		} else if (Float.class.equals(type)) {
+			return chunk.getFloat(position);
+		} else if (Integer.class.equals(type)) {
+			return chunk.getInt(position);
+		} else if (Short.class.equals(type)) {
+			return chunk.getShort(position);
+		}
+		return chunk.get(position);
+	}
+
+	@Override
+	protected double getDoubleValue(int index) {
+		ByteBuffer chunk = chunks[index >>> CHUNK_BITS];
+		int position = (index & CHUNK_MASK)*size;
+		switch (size) {
+			case 8:
+				if (Double.class.equals(getType())) {
+					return chunk.getDouble(position);
+				}
+				return chunk.getLong(position);
+			case 4:
+				if (Float.class.equals(getType())) {
+					return chunk.getFloat(position);
+				}
+				return chunk.getInt(position);
+			case 2:
+				return chunk.getShort(position);
+			default:
+				return chunk.get(position);
+		}
+	}
+
+	@Override
+	protected void setValue(int index, Comparable<?> value) {
+		ByteBuffer chunk = chunks[index >>> CHUNK_BITS];
+		int position = (index & CHUNK_MASK)*size;
+		Number number = (Number) value;
+		Class<? extends Comparable<?>> type = getType();
+		if (Double.class.equals(type)) {
+			chunk.putDouble(position, number.doubleValue());
+		} else if (Long.class.equals(type)) {
+			chunk.putLong(position, number.longValue());
+		} else if (Float.class.equals(type)) {
+			chunk.putFloat(position, number.floatValue());
+		} else if (Integer.class.equals(type)) {
+			chunk.putInt(position, number.intValue());
+		} else if (Short.class.equals(type)) {
+			chunk.putShort(position, number.shortValue());
+		} else {
+			chunk.put(position, number.byteValue());
+		}
+	}
+
+	@Override
+	protected void clearValue(int index) {
+		ByteBuffer chunk = chunks[index >>> CHUNK_BITS];
+		int position = (index & CHUNK_MASK)*size;
+		for (int i = 0; i < size; i++) {
+			chunk.put(position + i, (byte) 0);
+		}
+	}
+
+	@Override
+	protected void moveValues(int srcIndex, int dstIndex, int length) {
+		if (srcIndex > dstIndex) {
+			for (int i = 0; i < length; i++) {
+				copyValue(chunks, srcIndex + i, chunks, dstIndex + i);
+			}
+		} else {
+			for (int i = length - 1; i >= 0; i--) {
+				copyValue(chunks, srcIndex + i, chunks, dstIndex + i);
+			}
+		}
+	}
+
+	@Override
+	protected void permuteValues(int[] order) {
+		ByteBuffer[] chunksPermuted = new ByteBuffer[chunks.length];
+		for (int chunk = 0; chunk < chunks.length; chunk++) {
+			// Copy all slots, including those that aren't reordered
+			ByteBuffer src = chunks[chunk].duplicate();
+			src.clear();
+			chunksPermuted[chunk] = allocateChunk();
+			chunksPermuted[chunk].put(src);
+			chunksPermuted[chunk].clear();
+		}
+		for (int i = 0; i < order.length; i++) {
+			copyValue(chunks, order[i], chunksPermuted, i);
+		}
+		ByteBuffer[] chunksOld = chunks;
+		chunks = chunksPermuted;
+		for (ByteBuffer chunk : chunksOld) {
+			free(chunk);
+		}
+	}
+
+	/**
+	 * Copies the raw bytes of a slot to another slot.
+	 * @param src Chunks containing the source slot.
+	 * @param srcIndex Index of the source slot.
+	 * @param dst Chunks containing the destination slot.
+	 * @param dstIndex Index of the destination slot.
+	 */
+	private void copyValue(ByteBuffer[] src, int srcIndex, ByteBuffer[] dst, int dstIndex) {
+		ByteBuffer srcChunk = src[srcIndex >>> CHUNK_BITS];
+		int srcPosition = (srcIndex & CHUNK_MASK)*size;
+		ByteBuffer dstChunk = dst[dstIndex >>> CHUNK_BITS];
+		int dstPosition = (dstIndex & CHUNK_MASK)*size;
+		if (size == 8) {
+			dstChunk.putLong(dstPosition, srcChunk.getLong(srcPosition));
+		} else if (size == 4) {
+			dstChunk.putInt(dstPosition, srcChunk.getInt(srcPosition));
+		} else if (size == 2) {
+			dstChunk.putShort(dstPosition, srcChunk.getShort(srcPosition));
+		} else {
+			dstChunk.put(dstPosition, srcChunk.get(srcPosition));
+		}
+	}
+
+	/**
+	 * Releases the memory of all chunks immediately. The storage has no slots
+	 * afterwards.
+	 */
+	public void free() {
+		ByteBuffer[] chunksOld = chunks;
+		chunks = new ByteBuffer[0];
+		for (ByteBuffer chunk : chunksOld) {
+			free(chunk);
+		}
+	}
+
+	/**
+	 * Releases the memory of a direct buffer. If the memory can't be released
+	 * explicitly on the current platform, it will be released by the garbage
+	 * collector.
+	 * @param buffer Direct buffer.
+	 */
+	private static void free(ByteBuffer buffer) {
+		try {
+			// Java 9 and later
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+			Field unsafeField = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+			unsafeField.setAccessible(true);
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class); //$NON-NLS-1$
+			invokeCleaner.invoke(unsafeField.get(null), buffer);
+			return;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// Try the method of older platforms
+		}
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner"); //$NON-NLS-1$
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				cleaner.getClass().getMethod("clean").invoke(cleaner); //$NON-NLS-1$
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// Leave it to the garbage collector
+		}
+	}
+
+	/**
+	 * Custom serialization method.
+	 * @param out Output stream.
+	 * @throws IOException if there is an error while writing data to the
+	 *         output stream.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(chunks.length);
+		byte[] bytes = new byte[CHUNK_SIZE*size];
+		for (ByteBuffer chunk : chunks) {
+			ByteBuffer src = chunk.duplicate();
+			src.clear();
+			src.get(bytes);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Custom deserialization method.
+	 * @param in Input stream.
+	 * @throws ClassNotFoundException if a serialized class doesn't exist anymore.
+	 * @throws IOException if there is an error while reading data from the
+	 *         input stream.
+	 */
+	private void readObject(ObjectInputStream in)
+			throws ClassNotFoundException, IOException {
+		// Normal deserialization
+		in.defaultReadObject();
+
+		// Handle transient fields
+		chunks = new ByteBuffer[0];
+		setCapacity(in.readInt()*CHUNK_SIZE);
+		byte[] bytes = new byte[CHUNK_SIZE*size];
+		for (ByteBuffer chunk : chunks) {
+			in.readFully(bytes);
+			chunk.put(bytes);
+			chunk.clear();
+		}
+	}
+}
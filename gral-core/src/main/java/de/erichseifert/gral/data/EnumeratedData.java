@@ -21,6 +21,9 @@
  */
 package de.erichseifert.gral.data;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * <p>Class that creates a new data source which adds a leading column
@@ -93,6 +96,33 @@ public class EnumeratedData extends AbstractDataSource
 		return original.get(col - 1, row);
 	}
 
+	@Override
+	public double getDouble(int col, int row) {
+		if (col < 1) {
+			return row*steps + offset;
+		}
+		return original.getDouble(col - 1, row);
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		if (col < 1) {
+			for (int row = fromRow; row < toRow; row++) {
+				dst[row - fromRow] = row*steps + offset;
+			}
+			return;
+		}
+		original.copyColumn(col - 1, dst, fromRow, toRow);
+	}
+
+	@Override
+	public boolean isColumnSorted(int col) {
+		if (col < 1) {
+			return steps >= 0.0;
+		}
+		return original.isColumnSorted(col - 1);
+	}
+
 	/**
 	 * Returns the number of rows of the data source.
 	 * @return number of rows in the data source.
@@ -150,26 +180,54 @@ public class EnumeratedData extends AbstractDataSource
 				new DataChangeEvent(this, 0, 0, null, null)
 			};
 		}
-		DataChangeEvent[] eventsTx = new DataChangeEvent[events.length + 1];
-		for (int i = 0; i < eventsTx.length; i++) {
-			DataChangeEvent event;
-			int col, row;
-			if (i == 0) {
-				// Insert an event for the generated column
-				event = events[0];
-				col = 0;
-				row = event.getRow();
-			} else {
-				// Process the columns of the original source
-				event = events[i - 1];
-				col = event.getCol() + 1;
-				row = event.getRow();
+		List<DataChangeEvent> eventsTx = new ArrayList<>(events.length + 1);
+		boolean enumerated = false;
+		for (DataChangeEvent event : events) {
+			if (event.isRange()) {
+				eventsTx.add(takeRange(event));
+				continue;
 			}
 			Comparable valOld = event.getOld();
 			Comparable valNew = event.getNew();
-			eventsTx[i] = new DataChangeEvent(
-				this, col, row, valOld, valNew);
+			if (!enumerated) {
+				// Insert an event for the generated column
+				eventsTx.add(new DataChangeEvent(
+					this, 0, event.getRow(), valOld, valNew));
+				enumerated = true;
+			}
+			// Process the columns of the original source
+			eventsTx.add(new DataChangeEvent(
+				this, event.getCol() + 1, event.getRow(), valOld, valNew));
+		}
+		return eventsTx.toArray(new DataChangeEvent[eventsTx.size()]);
+	}
+
+	/**
+	 * Converts a range event of the original data source to a range event of
+	 * this data source. The generated column is always part of the range.
+	 * Row shift events are converted to row shift events of this data source.
+	 * @param event Original range event.
+	 * @return Range event of this data source.
+	 */
+	private DataChangeEvent takeRange(final DataChangeEvent event) {
+		if (event instanceof RowShiftEvent) {
+			RowShiftEvent shift = (RowShiftEvent) event;
+			return new RowShiftEvent(this, shift.getRemovedCount(), shift.getAddedCount());
+		}
+		BitSet colsOrig = event.getColumns();
+		BitSet cols = new BitSet();
+		cols.set(0);
+		for (int col = colsOrig.nextSetBit(0); col >= 0; col = colsOrig.nextSetBit(col + 1)) {
+			cols.set(col + 1);
 		}
-		return eventsTx;
+		DataChangeEvent.Values valuesOld = new DataChangeEvent.Values() {
+			public Comparable<?> get(int col, int row) {
+				if (col < 1) {
+					return row*steps + offset;
+				}
+				return event.getOld(col - 1, row);
+			}
+		};
+		return new DataChangeEvent(this, cols, event.getRow(), event.getRowLast(), valuesOld);
 	}
 }
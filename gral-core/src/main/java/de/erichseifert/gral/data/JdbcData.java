@@ -29,21 +29,59 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.erichseifert.gral.data.statistics.Statistics;
 
 /**
- * Data source for database tables accessed through a JDBC connection.
+ * <p>Data source for database tables accessed through a JDBC connection.</p>
+ *
+ * <p>If buffering is turned on, rows are fetched in pages of a fixed number
+ * of rows. The values of each page are stored column by column in primitive
+ * arrays, and a limited number of recently used pages is kept in memory.
+ * When pages are accessed one after another, the following page is fetched
+ * in advance. Without buffering, every access queries the current contents
+ * of the table.</p>
+ *
+ * <p>Large tables can be bound to an indexed key column. Only the rows with
+ * a key inside the current key range are selected, in ascending order of
+ * the key. The range can be changed at any time, for example by a
+ * {@link de.erichseifert.gral.plots.KeyRangeNavigationListener} that follows
+ * the visible range of a plot.</p>
  */
 public class JdbcData extends AbstractDataSource {
 	/** Version id for serialization. */
 	private static final long serialVersionUID = 5196527358266585129L;
 
+	/** Default number of rows of a page. */
+	public static final int DEFAULT_PAGE_SIZE = 1024;
+	/** Default number of pages that are kept in memory. */
+	public static final int DEFAULT_CACHE_SIZE = 64;
+
 	/** The JDBC connection. */
 	private final Connection connection;
 	/** The name of the table containing the data. */
 	private final String table;
+	/** The name of the key column, or {@code null} if all rows of the table
+	are selected. */
+	private final String keyColumn;
+	/** Smallest key of the selected rows, or {@code null} if there's no lower
+	limit. */
+	private Object keyMin;
+	/** Largest key of the selected rows, or {@code null} if there's no upper
+	limit. */
+	private Object keyMax;
 
 	/** Flag that tells whether this object uses buffering. */
 	private boolean buffered;
@@ -52,10 +90,73 @@ public class JdbcData extends AbstractDataSource {
 	/** Buffered result of the JDBC data query. Only valid when the object is
 	buffered. */
 	private ResultSet bufferedQuery;
-	/** Last row accessed by the {@link #get(int, int)} method.
-	Only valid when the object is buffered. */
+	/** Row the cursor of the buffered query is positioned on, or {@code -1}
+	if the position is unknown. Only valid when the object is buffered. */
 	private int bufferedQueryRow;
 
+	/** Number of rows of a page. */
+	private int pageSize;
+	/** Number of rows the JDBC driver should fetch at once. */
+	private int fetchSize;
+	/** Recently used pages. Only valid when the object is buffered. */
+	private final PageCache pages;
+	/** Index of the page that has been fetched last. */
+	private int lastPage;
+	/** Names of the table columns. */
+	private String[] columnNames;
+	/** Number, sum, mean, minimum, and maximum of each column as calculated
+	by the database, or {@code null} if they haven't been queried. Without
+	buffering, they are the result of the most recent query. */
+	private List<Map<String, Double>> aggregates;
+
+	/**
+	 * Rows of the table that have been fetched at once.
+	 */
+	private static final class Page {
+		/** Values of each column. */
+		private final ColumnStorage[] columns;
+		/** Number of rows. */
+		private int rowCount;
+
+		/**
+		 * Initializes a new empty page.
+		 * @param types Types of the columns.
+		 * @param pageSize Maximal number of rows.
+		 */
+		public Page(Class<? extends Comparable<?>>[] types, int pageSize) {
+			columns = new ColumnStorage[types.length];
+			for (int col = 0; col < types.length; col++) {
+				columns[col] = ColumnStorage.create(types[col], pageSize);
+			}
+		}
+	}
+
+	/**
+	 * Map of pages that removes the least recently used page when it
+	 * exceeds its maximal size.
+	 */
+	private static final class PageCache extends LinkedHashMap<Integer, Page> {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = -2651846738745024498L;
+
+		/** Maximal number of pages. */
+		private int maxSize;
+
+		/**
+		 * Initializes a new cache.
+		 * @param maxSize Maximal number of pages.
+		 */
+		public PageCache(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+			return size() > maxSize;
+		}
+	}
+
 	/**
 	 * Initializes a new instance to query the data from a specified table
 	 * using a specified JDBC connection. It is assumed the table columns
@@ -64,10 +165,30 @@ public class JdbcData extends AbstractDataSource {
 	 * @param table Properly quoted name of the table.
 	 * @param buffered Turns on buffering of JDBC queries.
 	 */
-	@SuppressWarnings("unchecked")
 	public JdbcData(Connection connection, String table, boolean buffered) {
+		this(connection, table, null, buffered);
+	}
+
+	/**
+	 * Initializes a new instance to query the rows within a range of keys
+	 * from a specified table using a specified JDBC connection. Initially,
+	 * the range isn't limited. It is assumed the table columns are constant
+	 * during the connection.
+	 * @param connection JDBC connection object.
+	 * @param table Properly quoted name of the table.
+	 * @param keyColumn Properly quoted name of an indexed column that is
+	 *        used to select and order the rows, or {@code null}.
+	 * @param buffered Turns on buffering of JDBC queries.
+	 */
+	@SuppressWarnings("unchecked")
+	public JdbcData(Connection connection, String table, String keyColumn,
+			boolean buffered) {
 		this.connection = connection;
 		this.table = table;
+		this.keyColumn = keyColumn;
+		pageSize = DEFAULT_PAGE_SIZE;
+		fetchSize = DEFAULT_PAGE_SIZE;
+		pages = new PageCache(DEFAULT_CACHE_SIZE);
 		setBuffered(buffered);
 
 		try {
@@ -95,27 +216,249 @@ public class JdbcData extends AbstractDataSource {
 	 */
 	public Comparable<?> get(int col, int row) {
 		try {
-			ResultSet result = bufferedQuery;
-			if (!isBuffered() || result == null) {
-				PreparedStatement stmt = connection.prepareStatement(
-						"SELECT * FROM " + table + "", //$NON-NLS-1$ //$NON-NLS-2$
-						ResultSet.TYPE_SCROLL_SENSITIVE,
-						ResultSet.CONCUR_READ_ONLY);
-				result = stmt.executeQuery();
+			if (!isBuffered()) {
+				ResultSet result = query();
+				try {
+					if (!result.absolute(row + 1)) {
+						return null;
+					}
+					return getValue(result, col);
+				} finally {
+					close(result);
+				}
+			}
+			synchronized (this) {
+				Page page = getPage(row / pageSize);
+				int index = row % pageSize;
+				if (index >= page.rowCount) {
+					return null;
+				}
+				return page.columns[col].get(index);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	@Override
+	public double getDouble(int col, int row) {
+		if (!isBuffered()) {
+			return super.getDouble(col, row);
+		}
+		try {
+			synchronized (this) {
+				Page page = getPage(row / pageSize);
+				int index = row % pageSize;
+				if (index >= page.rowCount) {
+					return Double.NaN;
+				}
+				return page.columns[col].getDouble(index);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return Double.NaN;
+		}
+	}
 
-				if (isBuffered()) {
-					bufferedQuery = result;
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		Arrays.fill(dst, 0, toRow - fromRow, Double.NaN);
+		try {
+			if (!isBuffered()) {
+				// Read all rows with a single query
+				ResultSet result = query();
+				try {
+					boolean valid = fromRow < toRow && result.absolute(fromRow + 1);
+					for (int row = fromRow; valid && row < toRow; row++) {
+						Comparable<?> value = getValue(result, col);
+						if (value instanceof Number) {
+							dst[row - fromRow] = ((Number) value).doubleValue();
+						}
+						valid = row + 1 < toRow && result.next();
+					}
+				} finally {
+					close(result);
 				}
+				return;
 			}
-			if (!isBuffered() || row != bufferedQueryRow) {
-				result.absolute(row + 1);
-				bufferedQueryRow = row;
+			synchronized (this) {
+				int row = fromRow;
+				while (row < toRow) {
+					Page page = getPage(row / pageSize);
+					int index = row % pageSize;
+					int count = Math.min(toRow - row, page.rowCount - index);
+					if (count <= 0) {
+						break;
+					}
+					page.columns[col].getDoubles(index, index + count, dst, row - fromRow);
+					row += count;
+				}
 			}
-			return jdbcToJavaValue(result, col);
 		} catch (SQLException e) {
 			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Executes a query for all selected rows of the table. The result has to
+	 * be closed with {@link #close(ResultSet)}.
+	 * @return Result of the query.
+	 * @throws SQLException if the query fails.
+	 */
+	private ResultSet query() throws SQLException {
+		String sql = "SELECT * FROM " + table + getCondition(); //$NON-NLS-1$
+		if (keyColumn != null) {
+			sql += " ORDER BY " + keyColumn; //$NON-NLS-1$
+		}
+		PreparedStatement stmt = connection.prepareStatement(sql,
+				ResultSet.TYPE_SCROLL_SENSITIVE,
+				ResultSet.CONCUR_READ_ONLY);
+		setConditionParameters(stmt);
+		stmt.setFetchSize(fetchSize);
+		return stmt.executeQuery();
+	}
+
+	/**
+	 * Closes a query result and the statement that has produced it.
+	 * @param result Query result.
+	 * @throws SQLException if the result or the statement can't be closed.
+	 */
+	private static void close(ResultSet result) throws SQLException {
+		Statement stmt = result.getStatement();
+		result.close();
+		if (stmt != null) {
+			stmt.close();
+		}
+	}
+
+	/**
+	 * Closes the buffered query, so it will be executed again when rows are
+	 * fetched the next time.
+	 */
+	private synchronized void closeBufferedQuery() {
+		if (bufferedQuery != null) {
+			try {
+				close(bufferedQuery);
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+		bufferedQuery = null;
+		bufferedQueryRow = -1;
+	}
+
+	/**
+	 * Returns the SQL condition that selects the rows within the current key
+	 * range.
+	 * @return {@code WHERE} clause with placeholders for the limits, or an
+	 *         empty string if all rows are selected.
+	 */
+	private String getCondition() {
+		if (keyColumn == null || (keyMin == null && keyMax == null)) {
+			return ""; //$NON-NLS-1$
+		} else if (keyMax == null) {
+			return " WHERE " + keyColumn + " >= ?"; //$NON-NLS-1$ //$NON-NLS-2$
+		} else if (keyMin == null) {
+			return " WHERE " + keyColumn + " <= ?"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return " WHERE " + keyColumn + " BETWEEN ? AND ?"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Sets the limits of the current key range as parameters of a statement
+	 * that has been prepared with the condition returned by
+	 * {@link #getCondition()}.
+	 * @param stmt Prepared statement.
+	 * @throws SQLException if the parameters can't be set.
+	 */
+	private void setConditionParameters(PreparedStatement stmt) throws SQLException {
+		if (keyColumn == null) {
+			return;
+		}
+		int index = 1;
+		if (keyMin != null) {
+			stmt.setObject(index++, keyMin);
+		}
+		if (keyMax != null) {
+			stmt.setObject(index, keyMax);
+		}
+	}
+
+	/**
+	 * Returns the page with the specified index. If the page isn't in memory,
+	 * it will be fetched from the buffered query. If the previous page has
+	 * been fetched before, the next page will be fetched as well.
+	 * @param pageIndex Index of the page.
+	 * @return Page of rows.
+	 * @throws SQLException if the rows can't be fetched.
+	 */
+	private Page getPage(int pageIndex) throws SQLException {
+		Page page = pages.get(pageIndex);
+		if (page == null) {
+			boolean sequential = pageIndex == lastPage + 1;
+			page = fetchPage(pageIndex);
+			pages.put(pageIndex, page);
+			if (sequential && page.rowCount == pageSize && !pages.containsKey(pageIndex + 1)) {
+				pages.put(pageIndex + 1, fetchPage(pageIndex + 1));
+				// Keep the requested page from being evicted first
+				pages.get(pageIndex);
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * Fetches all rows of a page using the buffered query.
+	 * @param pageIndex Index of the page.
+	 * @return Page of rows.
+	 * @throws SQLException if the rows can't be fetched.
+	 */
+	private Page fetchPage(int pageIndex) throws SQLException {
+		ResultSet result = bufferedQuery;
+		if (result == null) {
+			result = query();
+			bufferedQuery = result;
+			bufferedQueryRow = -1;
+		}
+		int rowFirst = pageIndex*pageSize;
+		Page page = new Page(getColumnTypes(), pageSize);
+		boolean valid;
+		if (bufferedQueryRow >= 0 && bufferedQueryRow == rowFirst - 1) {
+			valid = result.next();
+		} else {
+			valid = result.absolute(rowFirst + 1);
+		}
+		while (valid) {
+			for (int col = 0; col < page.columns.length; col++) {
+				page.columns[col].set(page.rowCount, getValue(result, col));
+			}
+			page.rowCount++;
+			bufferedQueryRow = rowFirst + page.rowCount - 1;
+			valid = page.rowCount < pageSize && result.next();
+		}
+		if (page.rowCount < pageSize) {
+			// The cursor has moved past the last row
+			bufferedQueryRow = -1;
+		}
+		lastPage = pageIndex;
+		return page;
+	}
+
+	/**
+	 * Returns the value of the specified column of the current row of a
+	 * result, or {@code null} if the value is SQL {@code NULL}.
+	 * @param result Query result.
+	 * @param col Index of the column.
+	 * @return Value.
+	 * @throws SQLException if the value can't be read.
+	 */
+	private Comparable<?> getValue(ResultSet result, int col) throws SQLException {
+		Comparable<?> value = jdbcToJavaValue(result, col);
+		if (result.wasNull()) {
 			return null;
 		}
+		return value;
 	}
 
 	@Override
@@ -135,17 +478,21 @@ public class JdbcData extends AbstractDataSource {
 		if (!isBuffered() || rowCount < 0) {
 			try {
 				PreparedStatement stmt = connection.prepareStatement(
-					"SELECT COUNT(*) FROM " + table, //$NON-NLS-1$
+					"SELECT COUNT(*) FROM " + table + getCondition(), //$NON-NLS-1$
 					ResultSet.TYPE_SCROLL_SENSITIVE,
 					ResultSet.CONCUR_READ_ONLY);
+				setConditionParameters(stmt);
 				ResultSet result = stmt.executeQuery();
-				if (result.first()) {
-					rowCount = result.getInt(1);
-					bufferedRowCount = rowCount;
-				} else {
-					rowCount = 0;
+				try {
+					if (result.first()) {
+						rowCount = result.getInt(1);
+						bufferedRowCount = rowCount;
+					} else {
+						rowCount = 0;
+					}
+				} finally {
+					close(result);
 				}
-				result.close();
 			} catch (SQLException e) {
 				e.printStackTrace();
 				rowCount = 0;
@@ -168,7 +515,9 @@ public class JdbcData extends AbstractDataSource {
 		ResultSetMetaData metadata = stmt.getMetaData();
 		int colCount = metadata.getColumnCount();
 		Class<?>[] types = new Class<?>[colCount];
+		columnNames = new String[colCount];
 		for (int colIndex = 0; colIndex < colCount; colIndex++) {
+			columnNames[colIndex] = metadata.getColumnName(colIndex + 1);
 			int sqlType = metadata.getColumnType(colIndex + 1);
 			Class<? extends Comparable<?>> type = null;
 			switch (sqlType) {
@@ -212,6 +561,7 @@ public class JdbcData extends AbstractDataSource {
 			}
 			types[colIndex] = type;
 		}
+		stmt.close();
 		return (Class<? extends Comparable<?>>[]) types;
 	}
 
@@ -272,9 +622,393 @@ public class JdbcData extends AbstractDataSource {
 	 */
 	public void setBuffered(boolean buffered) {
 		this.buffered = buffered;
-		this.bufferedRowCount = -1;
-		this.bufferedQuery = null;
-		this.bufferedQueryRow = -1;
+		refresh();
+	}
+
+	/**
+	 * Returns the name of the column that is used to select and order the
+	 * rows.
+	 * @return Name of the key column, or {@code null} if all rows of the
+	 *         table are selected.
+	 */
+	public String getKeyColumn() {
+		return keyColumn;
+	}
+
+	/**
+	 * Returns the smallest key of the selected rows.
+	 * @return Lower limit of the key range, or {@code null} if the range
+	 *         isn't limited.
+	 */
+	public Object getKeyMin() {
+		return keyMin;
+	}
+
+	/**
+	 * Returns the largest key of the selected rows.
+	 * @return Upper limit of the key range, or {@code null} if the range
+	 *         isn't limited.
+	 */
+	public Object getKeyMax() {
+		return keyMax;
+	}
+
+	/**
+	 * Sets the range of keys of the rows that should be selected. Both
+	 * limits are inclusive and are passed to the database as parameters of
+	 * prepared statements. All buffered rows and statistics are discarded,
+	 * and listeners are notified that the old rows have been replaced by
+	 * new ones.
+	 * @param min Smallest key, or {@code null} if there is no lower limit.
+	 * @param max Largest key, or {@code null} if there is no upper limit.
+	 * @throws IllegalStateException if no key column has been specified.
+	 */
+	public void setKeyRange(Object min, Object max) {
+		if (keyColumn == null) {
+			throw new IllegalStateException(MessageFormat.format(
+				"No key column has been specified for table {0}.", table)); //$NON-NLS-1$
+		}
+		if (equals(keyMin, min) && equals(keyMax, max)) {
+			return;
+		}
+		int rowCountOld = getRowCount();
+		synchronized (this) {
+			keyMin = min;
+			keyMax = max;
+		}
+		refresh();
+		if (rowCountOld > 0) {
+			notifyDataRemoved(new DataChangeEvent(this, 0, rowCountOld - 1));
+		}
+		int rowCount = getRowCount();
+		if (rowCount > 0) {
+			notifyDataAdded(new DataChangeEvent(this, 0, rowCount - 1));
+		}
+	}
+
+	/**
+	 * Returns whether two objects are equal or both {@code null}.
+	 * @param a First object.
+	 * @param b Second object.
+	 * @return {@code true} if the objects are equal.
+	 */
+	private static boolean equals(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	/**
+	 * Returns the index of the key column.
+	 * @return Index of the key column, or {@code -1} if there is none.
+	 */
+	public int getKeyColumnIndex() {
+		if (keyColumn == null || columnNames == null) {
+			return -1;
+		}
+		// Remove the quotes from the name of the key column
+		String name = keyColumn.replaceAll("^[\"`\\[]|[\"`\\]]$", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		for (int col = 0; col < columnNames.length; col++) {
+			if (name.equalsIgnoreCase(columnNames[col])) {
+				return col;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns whether the values of the specified column are sorted in
+	 * ascending order. The key column is always sorted because the rows are
+	 * ordered by their key.
+	 * @param col Index of the column.
+	 * @return {@code true} if the values of the column are sorted.
+	 */
+	@Override
+	public boolean isColumnSorted(int col) {
+		if (col == getKeyColumnIndex()) {
+			return true;
+		}
+		return super.isColumnSorted(col);
+	}
+
+	/**
+	 * Discards all buffered rows and statistics, so changes of the database
+	 * table become visible.
+	 */
+	public void refresh() {
+		synchronized (this) {
+			bufferedRowCount = -1;
+			closeBufferedQuery();
+			pages.clear();
+			lastPage = -1;
+			aggregates = null;
+		}
+		invalidateStatistics();
+	}
+
+	/**
+	 * Returns the number of rows that are fetched at once if buffering is
+	 * turned on.
+	 * @return Number of rows of a page.
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Sets the number of rows that are fetched at once if buffering is
+	 * turned on. All buffered pages will be discarded.
+	 * @param pageSize Number of rows of a page.
+	 */
+	public void setPageSize(int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid page size: {0,number,integer}", pageSize)); //$NON-NLS-1$
+		}
+		synchronized (this) {
+			this.pageSize = pageSize;
+			pages.clear();
+			lastPage = -1;
+		}
+	}
+
+	/**
+	 * Returns the maximal number of pages that are kept in memory.
+	 * @return Number of pages.
+	 */
+	public int getCacheSize() {
+		return pages.maxSize;
+	}
+
+	/**
+	 * Sets the maximal number of pages that are kept in memory. Least
+	 * recently used pages are discarded first.
+	 * @param cacheSize Number of pages.
+	 */
+	public void setCacheSize(int cacheSize) {
+		if (cacheSize <= 0) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid cache size: {0,number,integer}", cacheSize)); //$NON-NLS-1$
+		}
+		synchronized (this) {
+			pages.maxSize = cacheSize;
+			Iterator<Integer> pageIndexes = pages.keySet().iterator();
+			while (pages.size() > cacheSize && pageIndexes.hasNext()) {
+				pageIndexes.next();
+				pageIndexes.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of rows the JDBC driver is asked to fetch from the
+	 * database at once.
+	 * @return Fetch size.
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Sets the number of rows the JDBC driver is asked to fetch from the
+	 * database at once. The value is passed to the driver as a hint for all
+	 * subsequent queries. A value of {@code 0} leaves the decision to the
+	 * driver.
+	 * @param fetchSize Fetch size.
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize < 0) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid fetch size: {0,number,integer}", fetchSize)); //$NON-NLS-1$
+		}
+		synchronized (this) {
+			this.fetchSize = fetchSize;
+			closeBufferedQuery();
+		}
+	}
+
+	/**
+	 * Retrieves a object instance that contains various statistical
+	 * information on the current data source. Number, sum, mean, minimum,
+	 * and maximum are calculated by the database.
+	 * @return statistical information
+	 */
+	@Override
+	public Statistics getStatistics() {
+		List<Map<String, Double>> aggregates = getAggregates();
+		if (aggregates == null) {
+			return super.getStatistics();
+		}
+		double n = 0.0;
+		double sum = 0.0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (Map<String, Double> columnAggregates : aggregates) {
+			if (columnAggregates == null) {
+				continue;
+			}
+			n += columnAggregates.get(Statistics.N);
+			sum += columnAggregates.get(Statistics.SUM);
+			if (columnAggregates.containsKey(Statistics.MIN)) {
+				min = Math.min(min, columnAggregates.get(Statistics.MIN));
+				max = Math.max(max, columnAggregates.get(Statistics.MAX));
+			}
+		}
+		return new Statistics(this, createAggregates(n, sum, min, max));
+	}
+
+	/**
+	 * Returns statistical information on the specified column. Number, sum,
+	 * mean, minimum, and maximum of numeric columns are calculated by the
+	 * database using a single query for all columns. With buffering, the
+	 * results are kept until {@link #refresh()} is called. All other
+	 * statistics are calculated from the values of the column.
+	 * @param col Index of the column.
+	 * @return Statistical information on the column.
+	 */
+	@Override
+	public Statistics getStatistics(int col) {
+		List<Map<String, Double>> aggregates = getAggregates();
+		if (aggregates == null || aggregates.get(col) == null) {
+			return super.getStatistics(col);
+		}
+		return new Statistics(getColumnValues(col), aggregates.get(col));
+	}
+
+	/**
+	 * Returns number, sum, mean, minimum, and maximum of all numeric columns
+	 * as calculated by the database. Without buffering, the database is
+	 * queried on every call, and cached statistics are discarded if the
+	 * results differ from the previous query because the table has changed.
+	 * @return List containing the statistics of each column, or {@code null}
+	 *         for columns that are not numeric. If the query fails,
+	 *         {@code null} is returned.
+	 */
+	private List<Map<String, Double>> getAggregates() {
+		synchronized (this) {
+			if (aggregates != null && isBuffered()) {
+				return aggregates;
+			}
+			int colCount = getColumnCount();
+			String quote;
+			try {
+				quote = getIdentifierQuote();
+			} catch (SQLException e) {
+				e.printStackTrace();
+				return null;
+			}
+			StringBuilder sql = new StringBuilder();
+			for (int col = 0; col < colCount; col++) {
+				if (!isColumnNumeric(col)) {
+					continue;
+				}
+				String name = quote + columnNames[col].replace(quote, quote + quote) + quote;
+				sql.append(sql.length() == 0 ? "SELECT " : ", ") //$NON-NLS-1$ //$NON-NLS-2$
+					.append("MIN(").append(name).append("), ") //$NON-NLS-1$ //$NON-NLS-2$
+					.append("MAX(").append(name).append("), ") //$NON-NLS-1$ //$NON-NLS-2$
+					.append("COUNT(").append(name).append("), ") //$NON-NLS-1$ //$NON-NLS-2$
+					.append("SUM(").append(name).append(")"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			List<Map<String, Double>> columnAggregates = new ArrayList<>(colCount);
+			if (sql.length() == 0) {
+				for (int col = 0; col < colCount; col++) {
+					columnAggregates.add(null);
+				}
+			} else {
+				sql.append(" FROM ").append(table).append(getCondition()); //$NON-NLS-1$
+				try {
+					PreparedStatement stmt = connection.prepareStatement(sql.toString());
+					setConditionParameters(stmt);
+					ResultSet result = stmt.executeQuery();
+					try {
+						if (!result.next()) {
+							return null;
+						}
+						int sqlCol = 1;
+						for (int col = 0; col < colCount; col++) {
+							if (!isColumnNumeric(col)) {
+								columnAggregates.add(null);
+								continue;
+							}
+							double min = result.getDouble(sqlCol++);
+							double max = result.getDouble(sqlCol++);
+							double n = result.getLong(sqlCol++);
+							double sum = result.getDouble(sqlCol++);
+							if (n == 0.0) {
+								sum = 0.0;
+								min = Double.NaN;
+								max = Double.NaN;
+							}
+							columnAggregates.add(createAggregates(n, sum, min, max));
+						}
+					} finally {
+						close(result);
+					}
+				} catch (SQLException e) {
+					e.printStackTrace();
+					return null;
+				}
+			}
+			if (aggregates != null && !aggregates.equals(columnAggregates)) {
+				// The contents of the table have changed since the last query
+				invalidateStatistics();
+			}
+			aggregates = columnAggregates;
+			return aggregates;
+		}
+	}
+
+	/**
+	 * Returns the string that is used by the database to quote SQL
+	 * identifiers.
+	 * @return Quote string, or an empty string if quoting isn't supported.
+	 * @throws SQLException if the database metadata can't be accessed.
+	 */
+	private String getIdentifierQuote() throws SQLException {
+		String quote = connection.getMetaData().getIdentifierQuoteString();
+		if (quote == null || quote.trim().isEmpty()) {
+			return ""; //$NON-NLS-1$
+		}
+		return quote;
+	}
+
+	/**
+	 * Stores basic statistics in a map using the keys of {@link Statistics}.
+	 * Minimum and maximum are omitted if there are no values.
+	 * @param n Number of values.
+	 * @param sum Sum of the values.
+	 * @param min Smallest value.
+	 * @param max Largest value.
+	 * @return Map of statistics.
+	 */
+	private static Map<String, Double> createAggregates(double n, double sum,
+			double min, double max) {
+		Map<String, Double> aggregates = new HashMap<>();
+		aggregates.put(Statistics.N, n);
+		aggregates.put(Statistics.SUM, sum);
+		if (n > 0.0) {
+			aggregates.put(Statistics.MEAN, sum/n);
+			aggregates.put(Statistics.MIN, min);
+			aggregates.put(Statistics.MAX, max);
+		}
+		return aggregates;
+	}
+
+	/**
+	 * Returns statistical information on a range of rows of the specified
+	 * column. Without buffering, cached statistics are discarded if the
+	 * aggregates calculated by the database differ from the previous query
+	 * because the table has changed.
+	 * @param col Index of the column.
+	 * @param fromRow Index of the first row (inclusive).
+	 * @param toRow Index of the last row (exclusive).
+	 * @return Statistical information on the range of rows.
+	 */
+	@Override
+	public Statistics getStatistics(int col, int fromRow, int toRow) {
+		if (!isBuffered()) {
+			// Querying the aggregates detects changes of the table
+			getAggregates();
+		}
+		return super.getStatistics(col, fromRow, toRow);
 	}
 
 	/**
@@ -0,0 +1,382 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+
+/**
+ * <p>Read-only data source that serves the values of a binary column file
+ * directly from memory mapped buffers. Only the parts of the file that are
+ * actually accessed are loaded by the operating system, which allows to
+ * display files that are larger than the available heap memory.</p>
+ *
+ * <p>All numbers in the file are stored in little-endian byte order. The
+ * file starts with a header:</p>
+ * <pre>
+ * Offset  Size  Content
+ * 0       4     Magic bytes "GRAL"
+ * 4       4     Format version
+ * 8       4     Number of columns n
+ * 12      4     Number of rows m
+ * 16      n     Type code of each column (see {@link ColumnType})
+ * </pre>
+ * <p>The header is followed by the values of each column, one column after
+ * another. The header and each column are padded with zeros to a multiple of
+ * eight bytes. Files in this format can be created with
+ * {@link de.erichseifert.gral.io.data.BinaryColumnWriter}.</p>
+ */
+public class MappedDataSource extends AbstractDataSource {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = -6302949547213380236L;
+
+	/** Magic bytes at the beginning of each file. */
+	public static final int MAGIC = 0x4C415247;
+	/** Version of the file format. */
+	public static final int VERSION = 1;
+	/** Size of the header without the type codes in bytes. */
+	public static final int HEADER_SIZE = 16;
+	/** Alignment of the header and of each column in bytes. */
+	public static final int ALIGNMENT = 8;
+
+	/** Number of bits of the size of the buffers a column is mapped to. */
+	private static final int SEGMENT_BITS = 30;
+	/** Mask for positions inside a buffer. */
+	private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1L;
+
+	/**
+	 * Data types that can be stored in a column.
+	 */
+	public enum ColumnType {
+		/** 8 bit integers. */
+		BYTE('B', Byte.class, 1),
+		/** 16 bit integers. */
+		SHORT('S', Short.class, 2),
+		/** 32 bit integers. */
+		INTEGER('I', Integer.class, 4),
+		/** 64 bit integers. */
+		LONG('L', Long.class, 8),
+		/** 32 bit floating point numbers. */
+		FLOAT('F', Float.class, 4),
+		/** 64 bit floating point numbers. */
+		DOUBLE('D', Double.class, 8);
+
+		/** Code used in the file header. */
+		private final byte code;
+		/** Java type of the values. */
+		private final Class<? extends Comparable<?>> type;
+		/** Size of a value in bytes. */
+		private final int size;
+
+		/**
+		 * Initializes a new column type.
+		 * @param code Code used in the file header.
+		 * @param type Java type of the values.
+		 * @param size Size of a value in bytes.
+		 */
+		ColumnType(char code, Class<? extends Comparable<?>> type, int size) {
+			this.code = (byte) code;
+			this.type = type;
+			this.size = size;
+		}
+
+		/**
+		 * Returns the code that is used in the file header.
+		 * @return Type code.
+		 */
+		public byte getCode() {
+			return code;
+		}
+
+		/**
+		 * Returns the Java type of the values.
+		 * @return Type of the values.
+		 */
+		public Class<? extends Comparable<?>> getType() {
+			return type;
+		}
+
+		/**
+		 * Returns the size of a value.
+		 * @return Size in bytes.
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * Returns the column type with the specified code.
+		 * @param code Type code.
+		 * @return Column type, or {@code null} if the code is unknown.
+		 */
+		public static ColumnType forCode(byte code) {
+			for (ColumnType columnType : values()) {
+				if (columnType.code == code) {
+					return columnType;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the column type that stores values of the specified Java
+		 * type.
+		 * @param type Java type.
+		 * @return Column type, or {@code null} if the type can't be stored.
+		 */
+		public static ColumnType forType(Class<?> type) {
+			for (ColumnType columnType : values()) {
+				if (columnType.type.equals(type)) {
+					return columnType;
+				}
+			}
+			return null;
+		}
+	}
+
+	/** File that contains the data. */
+	private final File file;
+	/** Number of rows. */
+	private transient int rowCount;
+	/** Type of each column. */
+	private transient ColumnType[] columnTypes;
+	/** Mapped buffers of each column. */
+	private transient ByteBuffer[][] columns;
+
+	/**
+	 * Opens the specified binary column file.
+	 * @param file File that contains the data.
+	 * @throws IOException if the file can't be read or if it has an invalid
+	 *         format.
+	 */
+	public MappedDataSource(File file) throws IOException {
+		this.file = file;
+		map();
+	}
+
+	/**
+	 * Reads the header of the file and maps all columns into memory.
+	 * @throws IOException if the file can't be read or if it has an invalid
+	 *         format.
+	 */
+	private void map() throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, header, 0L);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException(MessageFormat.format(
+					"{0} is not a binary column file.", file)); //$NON-NLS-1$
+			}
+			int version = header.getInt(4);
+			if (version != VERSION) {
+				throw new IOException(MessageFormat.format(
+					"Unsupported format version: {0,number,integer}", version)); //$NON-NLS-1$
+			}
+			int columnCount = header.getInt(8);
+			rowCount = header.getInt(12);
+			if (columnCount < 0 || rowCount < 0) {
+				throw new IOException(MessageFormat.format(
+					"Invalid size: {0,number,integer} columns, {1,number,integer} rows", //$NON-NLS-1$
+					columnCount, rowCount));
+			}
+
+			ByteBuffer codes = ByteBuffer.allocate(columnCount);
+			readFully(channel, codes, HEADER_SIZE);
+			columnTypes = new ColumnType[columnCount];
+			@SuppressWarnings("unchecked")
+			Class<? extends Comparable<?>>[] types = new Class[columnCount];
+			for (int col = 0; col < columnCount; col++) {
+				columnTypes[col] = ColumnType.forCode(codes.get(col));
+				if (columnTypes[col] == null) {
+					throw new IOException(MessageFormat.format(
+						"Unknown type of column {0,number,integer}: {1}", //$NON-NLS-1$
+						col, codes.get(col)));
+				}
+				types[col] = columnTypes[col].getType();
+			}
+
+			columns = new ByteBuffer[columnCount][];
+			long offset = align(HEADER_SIZE + columnCount);
+			for (int col = 0; col < columnCount; col++) {
+				long length = (long) rowCount*columnTypes[col].getSize();
+				if (offset + length > channel.size()) {
+					throw new IOException(MessageFormat.format(
+						"Column {0,number,integer} exceeds the end of the file.", col)); //$NON-NLS-1$
+				}
+				int segmentCount = (int) ((length + SEGMENT_MASK) >>> SEGMENT_BITS);
+				columns[col] = new ByteBuffer[segmentCount];
+				for (int segment = 0; segment < segmentCount; segment++) {
+					long segmentOffset = (long) segment << SEGMENT_BITS;
+					long segmentLength = Math.min(length - segmentOffset, SEGMENT_MASK + 1L);
+					columns[col][segment] = channel.map(FileChannel.MapMode.READ_ONLY,
+						offset + segmentOffset, segmentLength).order(ByteOrder.LITTLE_ENDIAN);
+				}
+				offset = align(offset + length);
+			}
+			setColumnTypes(types);
+		}
+	}
+
+	/**
+	 * Reads bytes from a channel until the buffer is full.
+	 * @param channel Channel to read from.
+	 * @param buffer Buffer to be filled.
+	 * @param position Position in the channel.
+	 * @throws IOException if the bytes can't be read.
+	 */
+	private void readFully(FileChannel channel, ByteBuffer buffer, long position)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			int count = channel.read(buffer, position + buffer.position());
+			if (count < 0) {
+				throw new IOException(MessageFormat.format(
+					"Unexpected end of file {0}.", file)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Returns the specified position rounded up to the next multiple of
+	 * {@link #ALIGNMENT}.
+	 * @param position Position in bytes.
+	 * @return Aligned position.
+	 */
+	public static long align(long position) {
+		return (position + ALIGNMENT - 1)/ALIGNMENT*ALIGNMENT;
+	}
+
+	/**
+	 * Returns the file that contains the data.
+	 * @return File.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the row with the specified index.
+	 * @param col index of the column to return
+	 * @param row index of the row to return
+	 * @return the specified value of the data cell
+	 */
+	public Comparable<?> get(int col, int row) {
+		long position = getPosition(col, row);
+		ByteBuffer buffer = columns[col][(int) (position >>> SEGMENT_BITS)];
+		int index = (int) (position & SEGMENT_MASK);
+		switch (columnTypes[col]) {
+			case BYTE:
+				return buffer.get(index);
+			case SHORT:
+				return buffer.getShort(index);
+			case INTEGER:
+				return buffer.getInt(index);
+			case LONG:
+				return buffer.getLong(index);
+			case FLOAT:
+				return buffer.getFloat(index);
+			default:
+				return buffer.getDouble(index);
+		}
+	}
+
+	@Override
+	public double getDouble(int col, int row) {
+		long position = getPosition(col, row);
+		ByteBuffer buffer = columns[col][(int) (position >>> SEGMENT_BITS)];
+		int index = (int) (position & SEGMENT_MASK);
+		switch (columnTypes[col]) {
+			case BYTE:
+				return buffer.get(index);
+			case SHORT:
+				return buffer.getShort(index);
+			case INTEGER:
+				return buffer.getInt(index);
+			case LONG:
+				return buffer.getLong(index);
+			case FLOAT:
+				return buffer.getFloat(index);
+			default:
+				return buffer.getDouble(index);
+		}
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		if (columnTypes[col] != ColumnType.DOUBLE) {
+			super.copyColumn(col, dst, fromRow, toRow);
+			return;
+		}
+		int row = fromRow;
+		while (row < toRow) {
+			long position = getPosition(col, row);
+			ByteBuffer buffer = columns[col][(int) (position >>> SEGMENT_BITS)].duplicate();
+			buffer.position((int) (position & SEGMENT_MASK));
+			int count = Math.min(toRow - row, buffer.remaining()/ColumnType.DOUBLE.getSize());
+			buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(dst, row - fromRow, count);
+			row += count;
+		}
+	}
+
+	/**
+	 * Returns the position of a cell relative to the beginning of its column.
+	 * @param col Index of the column.
+	 * @param row Index of the row.
+	 * @return Position in bytes.
+	 */
+	private long getPosition(int col, int row) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException(MessageFormat.format(
+				"Row {0,number,integer} does not exist.", row)); //$NON-NLS-1$
+		}
+		return (long) row*columnTypes[col].getSize();
+	}
+
+	/**
+	 * Returns the number of rows of the data source.
+	 * @return number of rows in the data source.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Custom deserialization method.
+	 * @param in Input stream.
+	 * @throws ClassNotFoundException if a serialized class doesn't exist anymore.
+	 * @throws IOException if there is an error while reading data from the
+	 *         input stream.
+	 */
+	private void readObject(ObjectInputStream in)
+			throws ClassNotFoundException, IOException {
+		// Normal deserialization
+		in.defaultReadObject();
+
+		// Handle transient fields
+		map();
+	}
+}
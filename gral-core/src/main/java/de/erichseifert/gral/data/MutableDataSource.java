@@ -63,6 +63,17 @@ public interface MutableDataSource extends DataSource {
 	 */
 	int add(Row row);
 
+	/**
+	 * Adds all specified rows to the data sink. The values of each row are
+	 * added in the order they are specified. If the types of the data sink
+	 * columns and the values do not match, an
+	 * {@code IllegalArgumentException} is thrown and no row is added.
+	 * Listeners receive a single notification for all added rows.
+	 * @param rows Rows to be added.
+	 * @return Number of rows that have been added.
+	 */
+	int addAll(Iterable<? extends List<? extends Comparable<?>>> rows);
+
 	/**
 	 * Removes a specified row from the data sink.
 	 * @param row Index of the row to remove.
@@ -96,6 +107,22 @@ public interface MutableDataSource extends DataSource {
 	 */
 	void sort(final DataComparator... comparators);
 
+	/**
+	 * Starts an update of the data sink. Until the matching call of
+	 * {@link #endUpdate()}, listeners won't be notified of any changes.
+	 * Updates can be nested; the notifications are sent when the outermost
+	 * update ends.
+	 */
+	void beginUpdate();
+
+	/**
+	 * Ends an update that was started with {@link #beginUpdate()}. When the
+	 * outermost update ends, listeners receive at most one notification for
+	 * each kind of change. All added rows are described by a single range
+	 * event.
+	 */
+	void endUpdate();
+
 	/**
 	 * Sets the name of this series.
 	 * @param name name to be set
@@ -0,0 +1,101 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.io.Closeable;
+
+/**
+ * <p>A mutable data source which stores the values of numeric columns
+ * outside of the Java heap. Columns of type {@code Double}, {@code Float},
+ * {@code Long}, {@code Integer}, {@code Short}, and {@code Byte} are kept in
+ * chunks of direct byte buffers which are allocated one after another as the
+ * table grows. Columns of other types are stored on the heap like in
+ * {@link ColumnarDataTable}.</p>
+ *
+ * <p>Large tables that are kept for a long time don't burden the garbage
+ * collector this way. The memory of the columns is released when the table
+ * is cleared or closed:</p>
+ * <pre>
+ * try (OffHeapDataTable data = new OffHeapDataTable(Long.class, Double.class)) {
+ *     data.add(System.currentTimeMillis(), 42.0);
+ *     ...
+ * }
+ * </pre>
+ *
+ * @see ColumnarDataTable
+ */
+public class OffHeapDataTable extends ColumnarDataTable implements Closeable {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = 3107297456014512367L;
+
+	/**
+	 * Initializes a new instance with the specified number of columns and
+	 * column types.
+	 * @param types Type for each column
+	 */
+	public OffHeapDataTable(Class<? extends Comparable<?>>... types) {
+		super(types);
+	}
+
+	/**
+	 * Initializes a new instance with the specified number of columns and
+	 * a single column type.
+	 * @param cols Number of columns
+	 * @param type Data type for all columns
+	 */
+	public OffHeapDataTable(int cols, Class<? extends Comparable<?>> type) {
+		super(cols, type);
+	}
+
+	/**
+	 * Initializes a new instance with the column types, and data of another
+	 * data source.
+	 * @param source Data source to clone.
+	 */
+	public OffHeapDataTable(DataSource source) {
+		super(source);
+	}
+
+	@Override
+	ColumnStorage createColumn(Class<? extends Comparable<?>> type, int capacity) {
+		if (DirectColumnStorage.isSupported(type)) {
+			return new DirectColumnStorage(type);
+		}
+		return super.createColumn(type, capacity);
+	}
+
+	/**
+	 * Deletes all rows and releases the memory of the columns immediately
+	 * instead of waiting for the garbage collector. The old values of the
+	 * removed rows are only available to listeners while they are notified.
+	 * The table can still be used afterwards.
+	 */
+	public void close() {
+		ColumnStorage[] columns = getColumns();
+		clear();
+		for (ColumnStorage column : columns) {
+			if (column instanceof DirectColumnStorage) {
+				((DirectColumnStorage) column).free();
+			}
+		}
+	}
+}
@@ -0,0 +1,490 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import de.erichseifert.gral.data.comparators.DataComparator;
+
+/**
+ * <p>A mutable data source with a fixed capacity that keeps the most recent
+ * rows. Rows can be appended in constant time; as soon as the capacity has
+ * been reached, every new row replaces the oldest one. This makes the table
+ * suitable for live data like sensor readings or monitoring values, which
+ * would otherwise be implemented by adding a row to a {@link DataTable} and
+ * removing its first row, an operation that is linear in the number of
+ * rows.</p>
+ *
+ * <p>Values are stored column by column in primitive arrays in the same way
+ * as in {@link ColumnarDataTable}. Rows that are appended to a full table
+ * are announced to listeners by a single {@link RowShiftEvent} via
+ * {@link DataListener#dataUpdated(DataSource, DataChangeEvent...)}.</p>
+ *
+ * @see ColumnarDataTable
+ * @see RowShiftEvent
+ */
+public class RingBufferDataTable extends AbstractDataSource implements MutableDataSource {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = 7436516352387604221L;
+
+	/** Maximal number of rows. */
+	private final int capacity;
+	/** Storage for the values of each column. */
+	private final ColumnStorage[] columns;
+	/** Index in the storage of the first row. */
+	private int head;
+	/** Number of rows. */
+	private int rowCount;
+
+	/**
+	 * Initializes a new instance with the specified capacity and column
+	 * types.
+	 * @param capacity Maximal number of rows.
+	 * @param types Type for each column
+	 */
+	public RingBufferDataTable(int capacity, Class<? extends Comparable<?>>... types) {
+		super(types);
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid capacity: {0,number,integer}", capacity)); //$NON-NLS-1$
+		}
+		this.capacity = capacity;
+		columns = new ColumnStorage[types.length];
+		for (int colIndex = 0; colIndex < types.length; colIndex++) {
+			columns[colIndex] = ColumnStorage.create(types[colIndex], capacity);
+		}
+	}
+
+	/**
+	 * Initializes a new instance with the specified capacity, number of
+	 * columns, and a single column type.
+	 * @param capacity Maximal number of rows.
+	 * @param cols Number of columns
+	 * @param type Data type for all columns
+	 */
+	public RingBufferDataTable(int capacity, int cols, Class<? extends Comparable<?>> type) {
+		this(capacity, ColumnarDataTable.createTypes(cols, type));
+	}
+
+	/**
+	 * Returns the maximal number of rows this table can store.
+	 * @return Capacity of the table.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the index in the column storage of the specified row.
+	 * @param row Row index.
+	 * @return Storage index.
+	 */
+	private int getIndex(int row) {
+		int index = head + row;
+		return (index >= capacity) ? index - capacity : index;
+	}
+
+	/**
+	 * Adds a row with the specified comparable values to the table. If the
+	 * table is full, the oldest row will be dropped. The values are added in
+	 * the order they are specified. If the types of the table columns and the
+	 * values do not match, an {@code IllegalArgumentException} is thrown.
+	 * @param values values to be added as a row
+	 * @return Index of the row that has been added.
+	 */
+	public int add(Comparable<?>... values) {
+		return add(Arrays.asList(values));
+	}
+
+	/**
+	 * Adds a row with the specified container's elements to the table. If
+	 * the table is full, the oldest row will be dropped. The values are added
+	 * in the order they are specified. If the types of the table columns and
+	 * the values do not match, an {@code IllegalArgumentException} is thrown.
+	 * @param values values to be added as a row
+	 * @return Index of the row that has been added.
+	 */
+	public int add(List<? extends Comparable<?>> values) {
+		checkValues(values);
+
+		DataChangeEvent[] events;
+		boolean shifted;
+		int rowIndex;
+		synchronized (this) {
+			int index = getIndex(rowCount);
+			shifted = rowCount == capacity;
+			for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+				columns[colIndex].set(index, values.get(colIndex));
+			}
+			if (shifted) {
+				head = getIndex(1);
+				events = new DataChangeEvent[] {new RowShiftEvent(this, 1, 1)};
+			} else {
+				events = new DataChangeEvent[columns.length];
+				for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+					Comparable<?> value = values.get(colIndex);
+					events[colIndex] = new DataChangeEvent(this, colIndex, rowCount, null, value);
+				}
+				rowCount++;
+			}
+			rowIndex = rowCount - 1;
+		}
+		if (shifted) {
+			notifyDataUpdated(events);
+		} else {
+			notifyDataAdded(events);
+		}
+		return rowIndex;
+	}
+
+	/**
+	 * Adds the specified row to the table. If the table is full, the oldest
+	 * row will be dropped. The values are added in the order they are
+	 * specified. If the types of the table columns and the values do not
+	 * match, an {@code IllegalArgumentException} is thrown.
+	 * @param row Row to be added
+	 * @return Index of the row that has been added.
+	 */
+	public int add(Row row) {
+		List<Comparable<?>> values;
+		synchronized (row) {
+			values = new ArrayList<>(row.size());
+			for (Comparable<?> value : row) {
+				values.add(value);
+			}
+		}
+		return add(values);
+	}
+
+	/**
+	 * Adds all specified rows to the table. If the capacity is exceeded, the
+	 * oldest rows will be dropped. The values of each row are added in the
+	 * order they are specified. If the types of the table columns and the
+	 * values do not match, an {@code IllegalArgumentException} is thrown and
+	 * no row is added. Listeners receive a single event: a range event via
+	 * {@link DataListener#dataAdded(DataSource, DataChangeEvent...)} if no
+	 * rows have been dropped, otherwise a {@link RowShiftEvent}.
+	 * @param rows Rows to be added.
+	 * @return Number of rows that have been added.
+	 */
+	public int addAll(Iterable<? extends List<? extends Comparable<?>>> rows) {
+		List<List<? extends Comparable<?>>> rowList = new ArrayList<>();
+		for (List<? extends Comparable<?>> values : rows) {
+			checkValues(values);
+			rowList.add(values);
+		}
+		if (rowList.isEmpty()) {
+			return 0;
+		}
+
+		DataChangeEvent event;
+		boolean shifted;
+		synchronized (this) {
+			// Rows that would be dropped immediately are skipped
+			int skipped = Math.max(0, rowList.size() - capacity);
+			int added = rowList.size() - skipped;
+			int removed = Math.max(0, rowCount + added - capacity);
+			for (List<? extends Comparable<?>> values : rowList.subList(skipped, rowList.size())) {
+				int index = getIndex(rowCount);
+				for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+					columns[colIndex].set(index, values.get(colIndex));
+				}
+				if (rowCount == capacity) {
+					head = getIndex(1);
+				} else {
+					rowCount++;
+				}
+			}
+			shifted = removed > 0;
+			if (shifted) {
+				event = new RowShiftEvent(this, removed, added);
+			} else {
+				event = new DataChangeEvent(this, rowCount - added, rowCount - 1);
+			}
+		}
+		if (shifted) {
+			notifyDataUpdated(event);
+		} else {
+			notifyDataAdded(event);
+		}
+		return rowList.size();
+	}
+
+	/**
+	 * Checks whether the specified values match the number and the types of
+	 * the table columns. If not, an {@code IllegalArgumentException} is
+	 * thrown.
+	 * @param values Values of a row.
+	 */
+	private void checkValues(List<? extends Comparable<?>> values) {
+		if (values.size() != getColumnCount()) {
+			throw new IllegalArgumentException(MessageFormat.format(
+					"Wrong number of columns! Expected {0,number,integer}, got {1,number,integer}.", //$NON-NLS-1$
+					getColumnCount(), values.size()));
+		}
+
+		// Check row data types
+		for (int colIndex = 0; colIndex < values.size(); colIndex++) {
+			Comparable<?> value = values.get(colIndex);
+			Class<? extends Comparable<?>> type = columns[colIndex].getType();
+			if ((value != null) && !(type.isAssignableFrom(value.getClass()))) {
+				throw new IllegalArgumentException(MessageFormat.format(
+						"Wrong column type! Expected {0}, got {1}.", //$NON-NLS-1$
+						type, value.getClass()));
+			}
+		}
+	}
+
+	/**
+	 * Removes a specified row from the table. Removing the first or the last
+	 * row takes constant time.
+	 * @param row Index of the row to remove
+	 */
+	public void remove(int row) {
+		DataChangeEvent[] events;
+		synchronized (this) {
+			if (row < 0 || row >= rowCount) {
+				throw new IndexOutOfBoundsException(MessageFormat.format(
+					"Row {0,number,integer} does not exist.", row)); //$NON-NLS-1$
+			}
+			events = new DataChangeEvent[columns.length];
+			for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+				ColumnStorage column = columns[colIndex];
+				events[colIndex] = new DataChangeEvent(this, colIndex, row, column.get(getIndex(row)), null);
+			}
+			// Close the gap from the side with fewer rows
+			if (row < rowCount/2) {
+				for (int rowIndex = row; rowIndex > 0; rowIndex--) {
+					moveRow(getIndex(rowIndex - 1), getIndex(rowIndex));
+				}
+				clearRow(head);
+				head = getIndex(1);
+			} else {
+				for (int rowIndex = row + 1; rowIndex < rowCount; rowIndex++) {
+					moveRow(getIndex(rowIndex), getIndex(rowIndex - 1));
+				}
+				clearRow(getIndex(rowCount - 1));
+			}
+			rowCount--;
+		}
+		notifyDataRemoved(events);
+	}
+
+	/**
+	 * Copies the values of all columns from one storage index to another.
+	 * @param srcIndex Source index.
+	 * @param dstIndex Destination index.
+	 */
+	private void moveRow(int srcIndex, int dstIndex) {
+		for (ColumnStorage column : columns) {
+			column.move(srcIndex, dstIndex, 1);
+		}
+	}
+
+	/**
+	 * Deletes the values of all columns at the specified storage index.
+	 * @param index Storage index.
+	 */
+	private void clearRow(int index) {
+		for (ColumnStorage column : columns) {
+			column.clear(index, index + 1);
+		}
+	}
+
+	/**
+	 * Removes the last row from the table.
+	 */
+	public void removeLast() {
+		remove(rowCount - 1);
+	}
+
+	/**
+	 * Deletes all rows this table contains.
+	 */
+	public void clear() {
+		DataChangeEvent[] events;
+		synchronized (this) {
+			if (rowCount == 0) {
+				events = new DataChangeEvent[0];
+			} else {
+				// Keep the old storage to provide the old values lazily
+				final ColumnStorage[] removed = columns.clone();
+				final int headRemoved = head;
+				DataChangeEvent.Values valuesOld = new DataChangeEvent.Values() {
+					public Comparable<?> get(int col, int row) {
+						return removed[col].get((headRemoved + row) % capacity);
+					}
+				};
+				events = new DataChangeEvent[] {
+					new DataChangeEvent(this, null, 0, rowCount - 1, valuesOld)
+				};
+				for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+					columns[colIndex] = ColumnStorage.create(removed[colIndex].getType(), capacity);
+				}
+			}
+			head = 0;
+			rowCount = 0;
+		}
+		notifyDataRemoved(events);
+	}
+
+	/**
+	 * Returns the row with the specified index.
+	 * @param col index of the column to return
+	 * @param row index of the row to return
+	 * @return the specified value of the data cell
+	 */
+	public Comparable<?> get(int col, int row) {
+		synchronized (this) {
+			if (row >= rowCount) {
+				return null;
+			}
+			return columns[col].get(getIndex(row));
+		}
+	}
+
+	@Override
+	public double getDouble(int col, int row) {
+		synchronized (this) {
+			if (row >= rowCount) {
+				return Double.NaN;
+			}
+			return columns[col].getDouble(getIndex(row));
+		}
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		synchronized (this) {
+			if (fromRow < 0 || toRow > rowCount) {
+				throw new IndexOutOfBoundsException(MessageFormat.format(
+					"Rows {0,number,integer} to {1,number,integer} do not exist.", //$NON-NLS-1$
+					fromRow, toRow));
+			}
+			if (fromRow >= toRow) {
+				return;
+			}
+			// The requested rows may wrap around the end of the storage
+			int fromIndex = getIndex(fromRow);
+			int toIndex = getIndex(toRow - 1) + 1;
+			ColumnStorage column = columns[col];
+			if (fromIndex < toIndex) {
+				column.getDoubles(fromIndex, toIndex, dst, 0);
+			} else {
+				column.getDoubles(fromIndex, capacity, dst, 0);
+				column.getDoubles(0, toIndex, dst, capacity - fromIndex);
+			}
+		}
+	}
+
+	/**
+	 * Sets the value of a cell specified by its column and row indexes.
+	 * @param <T> Data type of the cell.
+	 * @param col Column of the cell to change.
+	 * @param row Row of the cell to change.
+	 * @param value New value to be set.
+	 * @return Old value that was replaced.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Comparable<T> set(int col, int row, Comparable<T> value) {
+		Comparable<T> old;
+		DataChangeEvent event = null;
+		synchronized (this) {
+			if (row < 0 || row >= rowCount) {
+				throw new IndexOutOfBoundsException(MessageFormat.format(
+					"Row {0,number,integer} does not exist.", row)); //$NON-NLS-1$
+			}
+			ColumnStorage column = columns[col];
+			if ((value != null) && !(column.getType().isAssignableFrom(value.getClass()))) {
+				throw new IllegalArgumentException(MessageFormat.format(
+						"Wrong column type! Expected {0}, got {1}.", //$NON-NLS-1$
+						column.getType(), value.getClass()));
+			}
+			int index = getIndex(row);
+			old = (Comparable<T>) column.get(index);
+			if (old == null || !old.equals(value)) {
+				column.set(index, value);
+				event = new DataChangeEvent(this, col, row, old, value);
+			}
+		}
+		if (event != null) {
+			notifyDataUpdated(event);
+		}
+		return old;
+	}
+
+	/**
+	 * Returns the number of rows of the data source.
+	 * @return number of rows in the data source.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Sorts the table rows with the specified DataComparators.
+	 * The row values are compared in the way the comparators are specified.
+	 * After sorting, the first row is stored at the beginning of the
+	 * storage.
+	 * @param comparators comparators used for sorting
+	 */
+	public void sort(final DataComparator... comparators) {
+		synchronized (this) {
+			final Record[] records = new Record[rowCount];
+			Integer[] order = new Integer[rowCount];
+			for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+				records[rowIndex] = getRecord(rowIndex);
+				order[rowIndex] = rowIndex;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer row1, Integer row2) {
+					for (DataComparator comparator : comparators) {
+						int result = comparator.compare(records[row1], records[row2]);
+						if (result != 0) {
+							return result;
+						}
+					}
+					return 0;
+				}
+			});
+			int[] permutation = new int[capacity];
+			for (int index = 0; index < capacity; index++) {
+				permutation[index] = getIndex(index < rowCount ? order[index] : index);
+			}
+			for (ColumnStorage column : columns) {
+				column.permute(permutation);
+			}
+			head = 0;
+			// Rows have been reordered without notifying listeners
+			invalidateStatistics();
+		}
+	}
+
+	@Override
+	public void setName(String name) {
+		super.setName(name);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+/**
+ * Class that stores information on rows that have been dropped from the
+ * beginning of a data source while new rows have been appended to its end.
+ * All remaining rows have moved towards the beginning by the number of
+ * dropped rows. Data sources with a fixed capacity, like
+ * {@link RingBufferDataTable}, send a single event of this type instead of
+ * separate events for every changed cell. As the index of every row has
+ * changed, the range of the event covers all rows of the data source, so
+ * listeners that only evaluate the range handle the change correctly.
+ * @see DataListener#dataUpdated(DataSource, DataChangeEvent...)
+ */
+public class RowShiftEvent extends DataChangeEvent {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = 3326480215622453174L;
+
+	/** Number of rows that have been dropped from the beginning. */
+	private final int removedCount;
+	/** Number of rows that have been appended to the end. */
+	private final int addedCount;
+
+	/**
+	 * Initializes a new event with data source, and the number of dropped
+	 * and appended rows. The range of the event covers all rows of the data
+	 * source.
+	 * @param source Data source.
+	 * @param removedCount Number of rows that have been dropped from the
+	 *        beginning.
+	 * @param addedCount Number of rows that have been appended to the end.
+	 */
+	public RowShiftEvent(DataSource source, int removedCount, int addedCount) {
+		super(source, 0, source.getRowCount() - 1);
+		this.removedCount = removedCount;
+		this.addedCount = addedCount;
+	}
+
+	/**
+	 * Returns the number of rows that have been dropped from the beginning
+	 * of the data source.
+	 * @return Number of dropped rows.
+	 */
+	public int getRemovedCount() {
+		return removedCount;
+	}
+
+	/**
+	 * Returns the number of rows that have been appended to the end of the
+	 * data source.
+	 * @return Number of appended rows.
+	 */
+	public int getAddedCount() {
+		return addedCount;
+	}
+}
@@ -23,7 +23,9 @@ package de.erichseifert.gral.data;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -32,14 +34,23 @@ import java.util.List;
  * decides whether a specific row should be contained in this filtered data
  * source.</p>
  *
- * <p>Example that keeps only every second row:</p>
+ * <p>Example that keeps only rows with a positive value in the first
+ * column:</p>
  * <pre>
- * DataSource filtered = new RowSubset() {
+ * DataSource filtered = new RowSubset(data) {
  *     public boolean accept(Row row) {
- *         return row.getIndex()%2 == 0;
+ *         Number value = (Number) row.get(0);
+ *         return value != null &amp;&amp; value.doubleValue() &gt; 0.0;
  *     }
  * };
  * </pre>
+ *
+ * <p>Changes of the original data source are processed incrementally: only
+ * rows that have been added or updated are tested again, and the indexes of
+ * the following rows are shifted if rows have been inserted or removed. If
+ * a change isn't described by events, all rows are tested again. Therefore,
+ * the result of {@code accept(Row)} may only depend on the values of a row,
+ * not on its index.</p>
  */
 public abstract class RowSubset extends AbstractDataSource
 		implements DataListener {
@@ -48,8 +59,14 @@ public abstract class RowSubset extends AbstractDataSource
 
 	/** Original data source. */
 	private final DataSource original;
-	/** List of row indexes that are stored in this filtered data source. */
-	private transient List<Integer> accepted;
+	/** Indexes of the rows of the original data source that are stored in
+	this filtered data source, in ascending order. Only the first
+	{@code acceptedCount} elements are valid. */
+	private transient int[] accepted;
+	/** Number of accepted rows. */
+	private transient int acceptedCount;
+	/** Number of rows of the original data source that have been processed. */
+	private transient int rowCountOrig;
 
 	/**
 	 * Creates a new instance with the specified data source.
@@ -57,7 +74,7 @@ public abstract class RowSubset extends AbstractDataSource
 	 */
 	@SuppressWarnings("unchecked")
 	public RowSubset(DataSource original) {
-		accepted = new ArrayList<>();
+		accepted = new int[0];
 		this.original = original;
 		this.original.addDataListener(this);
 		dataUpdated(this.original);
@@ -65,8 +82,7 @@ public abstract class RowSubset extends AbstractDataSource
 
 	@Override
 	public Row getRow(int row) {
-		int rowOrig = accepted.get(row);
-		return original.getRow(rowOrig);
+		return original.getRow(getRowOriginal(row));
 	}
 
 	/**
@@ -76,8 +92,21 @@ public abstract class RowSubset extends AbstractDataSource
 	 * @return the specified value of the data cell
 	 */
 	public Comparable<?> get(int col, int row) {
-		int rowOrig = accepted.get(row);
-		return original.get(col, rowOrig);
+		return original.get(col, getRowOriginal(row));
+	}
+
+	/**
+	 * Returns the index of the specified row in the original data source.
+	 * @param row Index of a row in this filtered data source.
+	 * @return Index of the row in the original data source.
+	 * @throws IndexOutOfBoundsException if the row doesn't exist.
+	 */
+	private int getRowOriginal(int row) {
+		if (row < 0 || row >= acceptedCount) {
+			throw new IndexOutOfBoundsException(MessageFormat.format(
+				"Invalid row index: {0,number,integer}", row)); //$NON-NLS-1$
+		}
+		return accepted[row];
 	}
 
 	@Override
@@ -90,7 +119,7 @@ public abstract class RowSubset extends AbstractDataSource
 	 * @return number of rows in the data source.
 	 */
 	public int getRowCount() {
-		return accepted.size();
+		return acceptedCount;
 	}
 
 	@Override
@@ -107,8 +136,27 @@ public abstract class RowSubset extends AbstractDataSource
 	 *        have been added.
 	 */
 	public void dataAdded(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataAdded(events);
+		boolean processed = hasEvents(events);
+		int prevRow = -1;
+		int prevCol = Integer.MAX_VALUE;
+		for (int i = 0; processed && i < events.length; i++) {
+			DataChangeEvent event = events[i];
+			if (event.isRange()) {
+				processed = insertRows(event.getRow(), event.getRowLast() - event.getRow() + 1);
+				prevRow = -1;
+			} else {
+				// Events of the cells of a row are grouped
+				if (event.getRow() != prevRow || event.getCol() <= prevCol) {
+					processed = insertRows(event.getRow(), 1);
+				}
+				prevRow = event.getRow();
+				prevCol = event.getCol();
+			}
+		}
+		DataChangeEvent[] eventsTx = takeEvents(events, accepted, dataChanged(processed));
+		if (eventsTx != null) {
+			notifyDataAdded(eventsTx);
+		}
 	}
 
 	/**
@@ -120,8 +168,35 @@ public abstract class RowSubset extends AbstractDataSource
 	 *        have been added
 	 */
 	public void dataUpdated(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataUpdated(events);
+		boolean processed = hasEvents(events);
+		DataChangeEvent[] eventsShifted = events;
+		int prevRow = -1;
+		for (int i = 0; processed && i < events.length; i++) {
+			DataChangeEvent event = events[i];
+			if (event instanceof RowShiftEvent) {
+				RowShiftEvent shift = (RowShiftEvent) event;
+				int acceptedCountOld = acceptedCount;
+				int removed = getInsertionIndex(accepted, acceptedCount, shift.getRemovedCount());
+				processed = removeRows(0, shift.getRemovedCount()) &&
+					insertRows(rowCountOrig, shift.getAddedCount());
+				// Describe the shift in terms of the accepted rows
+				if (eventsShifted == events) {
+					eventsShifted = events.clone();
+				}
+				eventsShifted[i] = new RowShiftEvent(this, removed, acceptedCount - (acceptedCountOld - removed));
+				prevRow = -1;
+			} else if (event.isRange()) {
+				processed = updateRows(event.getRow(), event.getRowLast() - event.getRow() + 1);
+				prevRow = -1;
+			} else if (event.getRow() != prevRow) {
+				processed = updateRows(event.getRow(), 1);
+				prevRow = event.getRow();
+			}
+		}
+		DataChangeEvent[] eventsTx = takeEvents(eventsShifted, accepted, dataChanged(processed));
+		if (eventsTx != null) {
+			notifyDataUpdated(eventsTx);
+		}
 	}
 
 	/**
@@ -133,37 +208,263 @@ public abstract class RowSubset extends AbstractDataSource
 	 *        have been removed.
 	 */
 	public void dataRemoved(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataRemoved(events);
+		// Removed rows have to be looked up in the rows accepted before
+		int[] acceptedOld = accepted;
+		if (hasRangeEvents(events)) {
+			acceptedOld = Arrays.copyOf(accepted, acceptedCount);
+		}
+		boolean processed = hasEvents(events);
+		int prevRow = -1;
+		int prevCol = Integer.MAX_VALUE;
+		for (int i = 0; processed && i < events.length; i++) {
+			DataChangeEvent event = events[i];
+			if (event.isRange()) {
+				processed = removeRows(event.getRow(), event.getRowLast() - event.getRow() + 1);
+				prevRow = -1;
+			} else {
+				// Events of the cells of a row are grouped
+				if (event.getRow() != prevRow || event.getCol() <= prevCol) {
+					processed = removeRows(event.getRow(), 1);
+				}
+				prevRow = event.getRow();
+				prevCol = event.getCol();
+			}
+		}
+		DataChangeEvent[] eventsTx = takeEvents(events, acceptedOld, dataChanged(processed));
+		if (eventsTx != null) {
+			notifyDataRemoved(eventsTx);
+		}
 	}
 
 	/**
-	 * Method that is invoked when data has been added, updated, or removed.
-	 * This method is invoked by objects that provide support for
-	 * {@code DataListener}s and should not be called manually.
-	 * @param source Data source that has been changed.
-	 * @param events Optional event object describing the data values that
-	 *        have been changed.
+	 * Returns whether the specified events describe a change.
+	 * @param events Events.
+	 * @return {@code true} if there is at least one event.
+	 */
+	private static boolean hasEvents(DataChangeEvent[] events) {
+		return events != null && events.length > 0;
+	}
+
+	/**
+	 * Returns whether the specified events contain range events.
+	 * @param events Events.
+	 * @return {@code true} if there is at least one range event.
+	 */
+	private static boolean hasRangeEvents(DataChangeEvent[] events) {
+		if (events != null) {
+			for (DataChangeEvent event : events) {
+				if (event.isRange()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Completes the processing of a change of the original data source. If
+	 * the events couldn't be processed or the number of rows doesn't match,
+	 * all rows are tested again.
+	 * @param processed {@code true} if all events have been processed
+	 *        successfully.
+	 * @return {@code true} if the change has been processed incrementally,
+	 *         {@code false} if all rows have been tested again.
 	 */
-	private void dataChanged(DataSource source, DataChangeEvent... events) {
-		update();
+	private boolean dataChanged(boolean processed) {
+		if (!processed || rowCountOrig != original.getRowCount()) {
+			update();
+			return false;
+		}
+		return true;
 	}
 
 	/**
-	 * Updates the list of accepted rows.
+	 * Updates the list of accepted rows by testing all rows of the original
+	 * data source.
 	 */
 	private void update() {
-		accepted.clear();
-		for (int rowIndex = 0; rowIndex < original.getRowCount(); rowIndex++) {
+		int rowCount = original.getRowCount();
+		int[] accepted = new int[Math.max(rowCount, 16)];
+		int acceptedCount = 0;
+		for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
 			Row row = original.getRow(rowIndex);
 			if (accept(row)) {
-				accepted.add(rowIndex);
+				accepted[acceptedCount++] = rowIndex;
 			}
 		}
+		this.accepted = accepted;
+		this.acceptedCount = acceptedCount;
+		rowCountOrig = rowCount;
+	}
+
+	/**
+	 * Tests rows that have been inserted into the original data source and
+	 * shifts the indexes of all following rows.
+	 * @param rowFirst Index of the first inserted row.
+	 * @param count Number of inserted rows.
+	 * @return {@code true} if the rows could be processed.
+	 */
+	private boolean insertRows(int rowFirst, int count) {
+		if (rowFirst < 0 || count < 0 || rowFirst > rowCountOrig ||
+				rowFirst + count > original.getRowCount()) {
+			return false;
+		}
+		int index = getInsertionIndex(accepted, acceptedCount, rowFirst);
+		int[] rows = testRows(rowFirst, count);
+		int rowsCount = rows.length;
+		ensureCapacity(acceptedCount + rowsCount);
+		System.arraycopy(accepted, index, accepted, index + rowsCount, acceptedCount - index);
+		System.arraycopy(rows, 0, accepted, index, rowsCount);
+		acceptedCount += rowsCount;
+		for (int i = index + rowsCount; i < acceptedCount; i++) {
+			accepted[i] += count;
+		}
+		rowCountOrig += count;
+		return true;
+	}
+
+	/**
+	 * Removes rows that have been removed from the original data source and
+	 * shifts the indexes of all following rows.
+	 * @param rowFirst Index of the first removed row.
+	 * @param count Number of removed rows.
+	 * @return {@code true} if the rows could be processed.
+	 */
+	private boolean removeRows(int rowFirst, int count) {
+		if (rowFirst < 0 || count < 0 || rowFirst + count > rowCountOrig) {
+			return false;
+		}
+		int from = getInsertionIndex(accepted, acceptedCount, rowFirst);
+		int to = getInsertionIndex(accepted, acceptedCount, rowFirst + count);
+		System.arraycopy(accepted, to, accepted, from, acceptedCount - to);
+		acceptedCount -= to - from;
+		for (int i = from; i < acceptedCount; i++) {
+			accepted[i] -= count;
+		}
+		rowCountOrig -= count;
+		return true;
+	}
+
+	/**
+	 * Tests rows of the original data source that have been updated again.
+	 * @param rowFirst Index of the first updated row.
+	 * @param count Number of updated rows.
+	 * @return {@code true} if the rows could be processed.
+	 */
+	private boolean updateRows(int rowFirst, int count) {
+		if (rowFirst < 0 || count < 0 || rowFirst + count > rowCountOrig) {
+			return false;
+		}
+		int from = getInsertionIndex(accepted, acceptedCount, rowFirst);
+		int to = getInsertionIndex(accepted, acceptedCount, rowFirst + count);
+		int[] rows = testRows(rowFirst, count);
+		int rowsCount = rows.length;
+		ensureCapacity(acceptedCount - (to - from) + rowsCount);
+		System.arraycopy(accepted, to, accepted, from + rowsCount, acceptedCount - to);
+		System.arraycopy(rows, 0, accepted, from, rowsCount);
+		acceptedCount += rowsCount - (to - from);
+		return true;
+	}
+
+	/**
+	 * Tests a range of rows of the original data source.
+	 * @param rowFirst Index of the first row.
+	 * @param count Number of rows.
+	 * @return Indexes of the accepted rows in ascending order.
+	 */
+	private int[] testRows(int rowFirst, int count) {
+		int[] rows = new int[count];
+		int rowsCount = 0;
+		for (int rowIndex = rowFirst; rowIndex < rowFirst + count; rowIndex++) {
+			if (accept(original.getRow(rowIndex))) {
+				rows[rowsCount++] = rowIndex;
+			}
+		}
+		return (rowsCount == count) ? rows : Arrays.copyOf(rows, rowsCount);
+	}
+
+	/**
+	 * Makes sure the array of accepted rows can hold the specified number of
+	 * rows.
+	 * @param capacity Minimal capacity.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > accepted.length) {
+			accepted = Arrays.copyOf(accepted, Math.max(capacity, 2*accepted.length));
+		}
+	}
+
+	/**
+	 * Converts range events of the original data source to range events of
+	 * this subset. The rows of the original range are mapped to the range of
+	 * accepted rows they contain, and ranges without accepted rows are
+	 * dropped. Row shift events that have already been converted to this
+	 * subset are passed if accepted rows have been shifted. Other events are
+	 * passed unchanged. If all rows have been tested again, the change can't
+	 * be described and no events are returned.
+	 * @param events Original events.
+	 * @param acceptedRows Accepted rows at the time of the change.
+	 * @param incremental {@code true} if the change has been processed
+	 *        incrementally.
+	 * @return Converted events, or {@code null} if this subset hasn't been
+	 *         changed.
+	 */
+	private DataChangeEvent[] takeEvents(DataChangeEvent[] events,
+			final int[] acceptedRows, boolean incremental) {
+		if (!incremental) {
+			return new DataChangeEvent[0];
+		}
+		int acceptedRowsCount = (acceptedRows == accepted) ? acceptedCount : acceptedRows.length;
+		List<DataChangeEvent> eventsTx = new ArrayList<DataChangeEvent>(events.length);
+		for (final DataChangeEvent event : events) {
+			if (event instanceof RowShiftEvent && event.getSource() == this) {
+				RowShiftEvent shift = (RowShiftEvent) event;
+				if (shift.getRemovedCount() > 0 || shift.getAddedCount() > 0) {
+					eventsTx.add(event);
+				}
+				continue;
+			}
+			if (!event.isRange()) {
+				eventsTx.add(event);
+				continue;
+			}
+			int rowFirst = getInsertionIndex(acceptedRows, acceptedRowsCount, event.getRow());
+			int rowLast = getInsertionIndex(acceptedRows, acceptedRowsCount, event.getRowLast() + 1) - 1;
+			if (rowLast < rowFirst) {
+				// The range doesn't contain any accepted rows
+				continue;
+			}
+			DataChangeEvent.Values valuesOld = new DataChangeEvent.Values() {
+				public Comparable<?> get(int col, int row) {
+					return event.getOld(col, acceptedRows[row]);
+				}
+			};
+			eventsTx.add(new DataChangeEvent(this, event.getColumns(), rowFirst, rowLast, valuesOld));
+		}
+		if (eventsTx.isEmpty()) {
+			return null;
+		}
+		return eventsTx.toArray(new DataChangeEvent[eventsTx.size()]);
+	}
+
+	/**
+	 * Returns the index of the first accepted row that is greater or equal
+	 * to the specified row of the original data source.
+	 * @param acceptedRows Sorted array of accepted rows.
+	 * @param acceptedRowsCount Number of valid elements of the array.
+	 * @param rowOrig Row index in the original data source.
+	 * @return Index in the array of accepted rows.
+	 */
+	private static int getInsertionIndex(int[] acceptedRows, int acceptedRowsCount,
+			int rowOrig) {
+		int index = Arrays.binarySearch(acceptedRows, 0, acceptedRowsCount, rowOrig);
+		return (index >= 0) ? index : -index - 1;
 	}
 
 	/**
 	 * Tests whether the specified row is accepted by this DataSubset or not.
+	 * The result may only depend on the values of the row, because rows
+	 * aren't tested again if their index changes.
 	 * @param row Row to be tested.
 	 * @return True if the row should be kept.
 	 */
@@ -182,7 +483,7 @@ public abstract class RowSubset extends AbstractDataSource
 		in.defaultReadObject();
 
 		// Handle transient fields
-		accepted = new ArrayList<>();
+		accepted = new int[0];
 
 		// Update caches
 		dataUpdated(original);
@@ -0,0 +1,214 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import java.util.Arrays;
+
+import de.erichseifert.gral.data.statistics.Statistics;
+
+/**
+ * <p>Abstract base for data sources that contain a statistical value of each
+ * column or each row of another data source. The values aren't stored;
+ * they are calculated when they are requested, so they always reflect the
+ * current values of the original data source. Listeners of a view aren't
+ * notified when the values of the original data source change.</p>
+ *
+ * @see DataSource#getColumnStatistics(String)
+ * @see DataSource#getRowStatistics(String)
+ */
+abstract class StatisticsView extends AbstractDataSource {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = 4806425185137727961L;
+
+	/** Data source whose statistics are provided. */
+	private final DataSource original;
+	/** Key of the statistical value. */
+	private final String key;
+	/** Version of the original data source the cached statistics of this
+	view belong to. */
+	private transient long originalVersion;
+
+	/**
+	 * Initializes a new view on the statistics of the specified data
+	 * source.
+	 * @param original Data source whose statistics are provided.
+	 * @param key Key of the statistical value.
+	 */
+	public StatisticsView(DataSource original, String key) {
+		this.original = original;
+		this.key = key;
+		originalVersion = original.getVersion();
+	}
+
+	/**
+	 * Returns the data source whose statistics are provided.
+	 * @return Original data source.
+	 */
+	public DataSource getOriginal() {
+		return original;
+	}
+
+	/**
+	 * Returns the key of the statistical value.
+	 * @return Key of the statistical value.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Discards all cached statistics of this view if the values of the
+	 * original data source have changed.
+	 */
+	private void checkVersion() {
+		long version = original.getVersion();
+		synchronized (this) {
+			if (version != originalVersion) {
+				originalVersion = version;
+				invalidateStatistics();
+			}
+		}
+	}
+
+	@Override
+	public Comparable<?> get(int col, int row) {
+		return getDouble(col, row);
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		for (int row = fromRow; row < toRow; row++) {
+			dst[row - fromRow] = getDouble(col, row);
+		}
+	}
+
+	@Override
+	public Class<? extends Comparable<?>>[] getColumnTypes() {
+		@SuppressWarnings("unchecked")
+		Class<? extends Comparable<?>>[] types = new Class[getColumnCount()];
+		Arrays.fill(types, Double.class);
+		return types;
+	}
+
+	@Override
+	public boolean isColumnNumeric(int columnIndex) {
+		return columnIndex >= 0 && columnIndex < getColumnCount();
+	}
+
+	@Override
+	public long getVersion() {
+		checkVersion();
+		return super.getVersion();
+	}
+
+	@Override
+	public Statistics getStatistics() {
+		checkVersion();
+		return super.getStatistics();
+	}
+
+	@Override
+	public Statistics getStatistics(int col) {
+		checkVersion();
+		return super.getStatistics(col);
+	}
+
+	@Override
+	public Statistics getStatistics(int col, int fromRow, int toRow) {
+		checkVersion();
+		return super.getStatistics(col, fromRow, toRow);
+	}
+
+	@Override
+	public boolean isColumnSorted(int col) {
+		checkVersion();
+		return super.isColumnSorted(col);
+	}
+
+	/**
+	 * View that contains a single row with a statistical value of each
+	 * column of the original data source.
+	 */
+	static final class Columns extends StatisticsView {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = -3021650718478104923L;
+
+		/**
+		 * Initializes a new view on the column statistics of the specified
+		 * data source.
+		 * @param original Data source whose statistics are provided.
+		 * @param key Key of the statistical value.
+		 */
+		public Columns(DataSource original, String key) {
+			super(original, key);
+		}
+
+		@Override
+		public double getDouble(int col, int row) {
+			return getOriginal().getStatistics(col).get(getKey());
+		}
+
+		@Override
+		public int getColumnCount() {
+			return getOriginal().getColumnCount();
+		}
+
+		@Override
+		public int getRowCount() {
+			return (getColumnCount() > 0) ? 1 : 0;
+		}
+	}
+
+	/**
+	 * View that contains a single column with a statistical value of each
+	 * row of the original data source.
+	 */
+	static final class Rows extends StatisticsView {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = 6412975640157632384L;
+
+		/**
+		 * Initializes a new view on the row statistics of the specified data
+		 * source.
+		 * @param original Data source whose statistics are provided.
+		 * @param key Key of the statistical value.
+		 */
+		public Rows(DataSource original, String key) {
+			super(original, key);
+		}
+
+		@Override
+		public double getDouble(int col, int row) {
+			return new Statistics(getOriginal().getRow(row)).get(getKey());
+		}
+
+		@Override
+		public int getColumnCount() {
+			return (getRowCount() > 0) ? 1 : 0;
+		}
+
+		@Override
+		public int getRowCount() {
+			return getOriginal().getRowCount();
+		}
+	}
+}
@@ -25,7 +25,6 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 
 import de.erichseifert.gral.data.DataSource;
-import de.erichseifert.gral.util.DataUtils;
 import de.erichseifert.gral.util.MathUtils;
 
 /**
@@ -34,11 +33,17 @@ import de.erichseifert.gral.util.MathUtils;
  * <ul>
  *   <li>Getting and setting the {@code Kernel} used for convolution</li>
  * </ul>
+ * <p>Large kernels are applied using a fast Fourier transform, small kernels
+ * are applied by direct summation.</p>
  */
 public class Convolution extends Filter2D {
 	/** Version id for serialization. */
 	private static final long serialVersionUID = 7155205321415314271L;
 
+	/** Minimal kernel size for which the convolution is calculated with a
+	fast Fourier transform instead of a direct summation. */
+	static final int FFT_KERNEL_SIZE = 64;
+
 	/** Kernel that provides the values to convolve the data source. */
 	private final Kernel kernel;
 
@@ -67,13 +72,71 @@ public class Convolution extends Filter2D {
 	@Override
 	protected void filter() {
 		clear();
-		for (int rowIndex = 0; rowIndex < getRowCount(); rowIndex++) {
-			Double[] filteredRow = new Double[getColumnCountFiltered()];
-			for (int colIndex = 0; colIndex < filteredRow.length; colIndex++) {
-				int colIndexOriginal = getIndexOriginal(colIndex);
-				filteredRow[colIndex] = convolve(colIndexOriginal, rowIndex);
+		filter(0, getRowCount() - 1);
+	}
+
+	@Override
+	protected boolean isIncremental() {
+		return true;
+	}
+
+	@Override
+	protected int getExtentMin() {
+		Kernel kernel = getKernel();
+		return (kernel != null) ? kernel.getMinIndex() : 0;
+	}
+
+	@Override
+	protected int getExtentMax() {
+		Kernel kernel = getKernel();
+		return (kernel != null) ? kernel.getMaxIndex() : 0;
+	}
+
+	@Override
+	protected void filterColumn(int colPos, int rowFirst, int rowLast) {
+		Kernel kernel = getKernel();
+		int colIndexOriginal = getIndexOriginal(colPos);
+		int rowCount = rowLast - rowFirst + 1;
+		if (kernel != null && kernel.size() >= FFT_KERNEL_SIZE && rowCount >= kernel.size()) {
+			filterFFT(kernel, colPos, rowFirst, rowLast);
+			return;
+		}
+		for (int rowIndex = rowFirst; rowIndex <= rowLast; rowIndex++) {
+			setFiltered(colPos, rowIndex, convolve(colIndexOriginal, rowIndex));
+		}
+	}
+
+	/**
+	 * Convolves the rows of a column in the specified range using a fast
+	 * Fourier transform. Rows whose kernel range contains values that are not
+	 * calculatable are convolved directly to get the same result as
+	 * {@link #convolve(int, int)}.
+	 * @param kernel Kernel to be applied.
+	 * @param colPos Index of the filtered column.
+	 * @param rowFirst Index of the first row to be filtered.
+	 * @param rowLast Index of the last row to be filtered.
+	 */
+	private void filterFFT(Kernel kernel, int colPos, int rowFirst, int rowLast) {
+		int colIndexOriginal = getIndexOriginal(colPos);
+		int rowCount = rowLast - rowFirst + 1;
+		double[] input = new double[rowCount + kernel.size() - 1];
+		// Number of values that are not calculatable before each input index
+		int[] invalidCounts = new int[input.length + 1];
+		// Values outside the data source are handled by the filter mode
+		for (int i = 0; i < input.length; i++) {
+			double v = getOriginalDouble(colIndexOriginal, rowFirst + kernel.getMinIndex() + i);
+			boolean calculatable = MathUtils.isCalculatable(v);
+			input[i] = calculatable ? v : 0.0;
+			invalidCounts[i + 1] = invalidCounts[i] + (calculatable ? 0 : 1);
+		}
+		double[] output = new double[rowCount];
+		new FFTConvolution(kernel, input.length).apply(input, output);
+		for (int i = 0; i < rowCount; i++) {
+			double value = output[i];
+			if (invalidCounts[i + kernel.size()] > invalidCounts[i]) {
+				value = convolve(colIndexOriginal, rowFirst + i);
 			}
-			add(filteredRow);
+			setFiltered(colPos, rowFirst + i, value);
 		}
 	}
 
@@ -87,14 +150,12 @@ public class Convolution extends Filter2D {
 	private double convolve(int col, int row) {
 		Kernel kernel = getKernel();
 		if (kernel == null) {
-			Comparable<?> original = getOriginal(col, row);
-			return DataUtils.getValueOrDefault((Number) original, Double.NaN);
+			return getOriginalDouble(col, row);
 		}
 		double sum = 0.0;
 		for (int k = kernel.getMinIndex(); k <= kernel.getMaxIndex(); k++) {
 			int r = row + k;
-			Comparable<?> original = getOriginal(col, r);
-			double v = DataUtils.getValueOrDefault((Number) original, Double.NaN);
+			double v = getOriginalDouble(col, r);
 			if (!MathUtils.isCalculatable(v)) {
 				return v;
 			}
@@ -0,0 +1,172 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.filters;
+
+/**
+ * <p>Class that applies a kernel to a sequence of values using the
+ * overlap-add method. The input is split into blocks which are transformed
+ * with a fast Fourier transform, multiplied with the transformed kernel and
+ * transformed back. The results of all blocks are added to the output.</p>
+ *
+ * <p>In contrast to a direct summation, which needs O(n&middot;k) operations
+ * for n values and a kernel of size k, this method needs O(n&middot;log k)
+ * operations. It is therefore only worthwhile for large kernels.</p>
+ */
+class FFTConvolution {
+	/** Number of kernel values. */
+	private final int kernelSize;
+	/** Size of the Fourier transform; always a power of two. */
+	private final int fftSize;
+	/** Number of input values that are processed per block. */
+	private final int blockSize;
+	/** Real part of the transformed kernel. */
+	private final double[] kernelRe;
+	/** Imaginary part of the transformed kernel. */
+	private final double[] kernelIm;
+	/** Cosine values of the twiddle factors. */
+	private final double[] cos;
+	/** Sine values of the twiddle factors. */
+	private final double[] sin;
+	/** Buffer for the real part of a block. */
+	private final double[] re;
+	/** Buffer for the imaginary part of a block. */
+	private final double[] im;
+
+	/**
+	 * Initializes a new instance for the specified kernel and the maximal
+	 * number of input values.
+	 * @param kernel Kernel to be applied.
+	 * @param inputLength Maximal number of input values.
+	 */
+	public FFTConvolution(Kernel kernel, int inputLength) {
+		kernelSize = kernel.size();
+		// A transform of about four times the kernel size is a good trade-off
+		// between the number of blocks and the cost per block
+		int size = Integer.highestOneBit(Math.max(4*kernelSize - 1, 1)) << 1;
+		int sizeMax = Integer.highestOneBit(Math.max(inputLength + kernelSize - 2, 1)) << 1;
+		fftSize = Math.max(Math.min(size, sizeMax), 2);
+		blockSize = fftSize - kernelSize + 1;
+
+		cos = new double[fftSize/2];
+		sin = new double[fftSize/2];
+		for (int i = 0; i < cos.length; i++) {
+			double angle = 2.0*Math.PI*i/fftSize;
+			cos[i] = Math.cos(angle);
+			sin[i] = Math.sin(angle);
+		}
+
+		// The kernel is stored in reverse order, because the filtered value
+		// of a row is the sum of the kernel weighted values that follow it
+		kernelRe = new double[fftSize];
+		kernelIm = new double[fftSize];
+		for (int i = 0; i < kernelSize; i++) {
+			kernelRe[kernelSize - 1 - i] = kernel.get(kernel.getMinIndex() + i);
+		}
+		transform(kernelRe, kernelIm, false);
+
+		re = new double[fftSize];
+		im = new double[fftSize];
+	}
+
+	/**
+	 * Applies the kernel to the specified values. The output value with
+	 * index {@code i} is the sum of the input values with the indexes
+	 * {@code i} to {@code i + k - 1} weighted by the kernel values, where
+	 * {@code k} is the size of the kernel.
+	 * @param input Input values. All values must be calculatable.
+	 * @param output Array that receives the filtered values. Its length must
+	 *        not exceed {@code input.length - k + 1}.
+	 */
+	public void apply(double[] input, double[] output) {
+		for (int i = 0; i < output.length; i++) {
+			output[i] = 0.0;
+		}
+		int inputLength = Math.min(input.length, output.length + kernelSize - 1);
+		for (int blockStart = 0; blockStart < inputLength; blockStart += blockSize) {
+			int length = Math.min(blockSize, inputLength - blockStart);
+			for (int i = 0; i < fftSize; i++) {
+				re[i] = (i < length) ? input[blockStart + i] : 0.0;
+				im[i] = 0.0;
+			}
+			transform(re, im, false);
+			for (int i = 0; i < fftSize; i++) {
+				double r = re[i]*kernelRe[i] - im[i]*kernelIm[i];
+				im[i] = re[i]*kernelIm[i] + im[i]*kernelRe[i];
+				re[i] = r;
+			}
+			transform(re, im, true);
+			// Add the block's result to the overlapping output values
+			int outputStart = blockStart - kernelSize + 1;
+			int first = Math.max(0, -outputStart);
+			int last = Math.min(length + kernelSize - 2, output.length - 1 - outputStart);
+			for (int i = first; i <= last; i++) {
+				output[outputStart + i] += re[i]/fftSize;
+			}
+		}
+	}
+
+	/**
+	 * Calculates the unscaled discrete Fourier transform of complex values
+	 * in place using the iterative radix-2 algorithm.
+	 * @param re Real parts.
+	 * @param im Imaginary parts.
+	 * @param inverse {@code true} for the inverse transform.
+	 */
+	private void transform(double[] re, double[] im, boolean inverse) {
+		int n = fftSize;
+		// Bit reversal permutation
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				double t = re[i];
+				re[i] = re[j];
+				re[j] = t;
+				t = im[i];
+				im[i] = im[j];
+				im[j] = t;
+			}
+		}
+		// Butterflies
+		for (int length = 2; length <= n; length <<= 1) {
+			int half = length/2;
+			int step = n/length;
+			for (int start = 0; start < n; start += length) {
+				for (int k = 0; k < half; k++) {
+					double wr = cos[k*step];
+					double wi = inverse ? sin[k*step] : -sin[k*step];
+					int a = start + k;
+					int b = a + half;
+					double xr = re[b]*wr - im[b]*wi;
+					double xi = re[b]*wi + im[b]*wr;
+					re[b] = re[a] - xr;
+					im[b] = im[a] - xi;
+					re[a] += xr;
+					im[a] += xi;
+				}
+			}
+		}
+	}
+}
@@ -26,11 +26,17 @@ import java.io.ObjectInputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import de.erichseifert.gral.data.AbstractDataSource;
 import de.erichseifert.gral.data.DataChangeEvent;
 import de.erichseifert.gral.data.DataListener;
 import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.data.RowShiftEvent;
 import de.erichseifert.gral.util.MathUtils;
 
 
@@ -49,6 +55,20 @@ import de.erichseifert.gral.util.MathUtils;
  * delegated to the original data source. Derived classes must make sure the
  * caches are updated when deserialization is done. This can be done by calling
  * {@code dataUpdated(this)} in a custom deserialization method.</p>
+ *
+ * <p>By default, all rows are filtered again whenever the original data
+ * source changes. Derived classes whose filtered rows only depend on a fixed
+ * extent of original rows around them can override {@link #isIncremental()},
+ * {@link #getExtentMin()}, {@link #getExtentMax()}, and
+ * {@link #filterColumn(int, int, int)}. Then, only rows whose extent contains
+ * added or updated rows are filtered again. In any case, all filtered rows
+ * that have changed are announced to listeners as updated.</p>
+ *
+ * <p>Incremental filters process each column in blocks of rows. If a
+ * {@code ForkJoinPool} is set with {@link #setForkJoinPool(ForkJoinPool)},
+ * the blocks of all columns are filtered in parallel. As the blocks are the
+ * same in both cases, the results don't depend on whether a pool is
+ * used.</p>
  */
 public abstract class Filter2D extends AbstractDataSource
 		implements DataListener {
@@ -70,15 +90,24 @@ public abstract class Filter2D extends AbstractDataSource
 		CIRCULAR
 	}
 
+	/** Maximal number of rows of a column that are filtered in one task. */
+	static final int BLOCK_SIZE = 4096;
+
 	/** Original data source. */
 	private final DataSource original;
 
 	/** Columns that should be filtered. */
 	private final int[] cols;
-	/** Data that was produced by the filter. */
-	private transient ArrayList<Double[]> rows;
+	/** Data that was produced by the filter, stored column by column. */
+	private transient double[][] columns;
+	/** Number of rows that were produced by the filter. */
+	private transient int rowCount;
 	/** Mode for handling. */
 	private Mode mode;
+	/** Ranges of rows that have been filtered again while a change of the
+	original data source is processed, stored as pairs of the first and the
+	last row, or {@code null} if no change is processed. */
+	private transient List<int[]> filteredRanges;
 
 	/**
 	 * Initializes a new instance with the specified data source, border
@@ -90,7 +119,6 @@ public abstract class Filter2D extends AbstractDataSource
 	 */
 	@SuppressWarnings("unchecked")
 	public Filter2D(DataSource original, Mode mode, int... cols) {
-		this.rows = new ArrayList<>(original.getRowCount());
 		this.original = original;
 		this.mode = mode;
 
@@ -115,6 +143,7 @@ public abstract class Filter2D extends AbstractDataSource
 		}
 		setColumnTypes(types);
 
+		columns = new double[getColumnCountFiltered()][original.getRowCount()];
 		this.original.addDataListener(this);
 		dataUpdated(this.original);
 	}
@@ -141,32 +170,69 @@ public abstract class Filter2D extends AbstractDataSource
 				return Double.NaN;
 			} else if (getMode() == Mode.ZERO) {
 				return 0.0;
-			} else if (getMode() == Mode.REPEAT) {
-				row = MathUtils.limit(row, 0, rowLast);
-			} else if (getMode() == Mode.MIRROR) {
-				int rem = Math.abs(row) / rowLast;
-				int mod = Math.abs(row) % rowLast;
-				if ((rem & 1) == 0) {
-					row = mod;
-				} else {
-					row = rowLast - mod;
-				}
-			} else if (getMode() == Mode.CIRCULAR) {
-				if (row >= 0) {
-					row = row % (rowLast + 1);
-				} else {
-					row = (row + 1) % (rowLast + 1) + rowLast;
-				}
 			}
+			row = getBorderRow(row, rowLast);
 		}
 		return original.get(col, row);
 	}
 
+	/**
+	 * Returns the numeric value of the original data source at the specified
+	 * column and row. In contrast to {@link #getOriginal(int, int)} the value
+	 * is not boxed.
+	 * @param col Column index.
+	 * @param row Row index.
+	 * @return Original value, or {@code NaN} if the value is empty or not
+	 *         a number.
+	 */
+	protected double getOriginalDouble(int col, int row) {
+		int rowLast = original.getRowCount() - 1;
+		if (row < 0 || row > rowLast) {
+			if (getMode() == Mode.OMIT) {
+				return Double.NaN;
+			} else if (getMode() == Mode.ZERO) {
+				return 0.0;
+			}
+			row = getBorderRow(row, rowLast);
+		}
+		return original.getDouble(col, row);
+	}
+
+	/**
+	 * Maps a row index outside of the original data source to a row inside
+	 * the data source according to the current border handling mode.
+	 * @param row Row index outside of the original data source.
+	 * @param rowLast Index of the last row of the original data source.
+	 * @return Row index inside of the original data source.
+	 */
+	private int getBorderRow(int row, int rowLast) {
+		if (getMode() == Mode.REPEAT) {
+			row = MathUtils.limit(row, 0, rowLast);
+		} else if (getMode() == Mode.MIRROR && rowLast == 0) {
+			row = 0;
+		} else if (getMode() == Mode.MIRROR) {
+			int rem = Math.abs(row) / rowLast;
+			int mod = Math.abs(row) % rowLast;
+			if ((rem & 1) == 0) {
+				row = mod;
+			} else {
+				row = rowLast - mod;
+			}
+		} else if (getMode() == Mode.CIRCULAR) {
+			if (row >= 0) {
+				row = row % (rowLast + 1);
+			} else {
+				row = (row + 1) % (rowLast + 1) + rowLast;
+			}
+		}
+		return row;
+	}
+
 	/**
 	 * Clears this Filter2D.
 	 */
 	protected void clear() {
-		rows.clear();
+		rowCount = 0;
 	}
 
 	/**
@@ -174,7 +240,12 @@ public abstract class Filter2D extends AbstractDataSource
 	 * @param rowData Row data to be added.
 	 */
 	protected void add(Double[] rowData) {
-		rows.add(rowData);
+		int row = rowCount;
+		for (int colPos = 0; colPos < rowData.length; colPos++) {
+			Double value = rowData[colPos];
+			setFiltered(colPos, row, (value != null) ? value : Double.NaN);
+		}
+		rowCount = row + 1;
 	}
 
 	/**
@@ -182,12 +253,74 @@ public abstract class Filter2D extends AbstractDataSource
 	 * @param rowData Row to be added.
 	 */
 	protected void add(Number[] rowData) {
-		Double[] doubleData = new Double[rowData.length];
-		int i = 0;
-		for (Number value : rowData) {
-			doubleData[i++] = value.doubleValue();
+		int row = rowCount;
+		for (int colPos = 0; colPos < rowData.length; colPos++) {
+			setFiltered(colPos, row, rowData[colPos].doubleValue());
+		}
+		rowCount = row + 1;
+	}
+
+	/**
+	 * Stores a filtered value without notifying any listeners. If the row
+	 * lies behind the last filtered row, the number of filtered rows is
+	 * increased accordingly.
+	 * @param colPos Index of the filtered column.
+	 * @param row Row index.
+	 * @param value Filtered value.
+	 */
+	protected void setFiltered(int colPos, int row, double value) {
+		ensureColumns(colPos + 1);
+		ensureCapacity(row + 1);
+		columns[colPos][row] = value;
+		if (row >= rowCount) {
+			rowCount = row + 1;
+		}
+	}
+
+	/**
+	 * Makes sure the specified number of columns of filtered values exist.
+	 * Filters may produce more columns than the original data source.
+	 * @param colCount Minimal number of columns.
+	 */
+	private void ensureColumns(int colCount) {
+		int colCountOld = columns.length;
+		if (colCount <= colCountOld) {
+			return;
+		}
+		int capacity = (colCountOld > 0) ? columns[0].length : 0;
+		columns = Arrays.copyOf(columns, colCount);
+		for (int i = colCountOld; i < columns.length; i++) {
+			columns[i] = new double[capacity];
+		}
+	}
+
+	/**
+	 * Makes sure the arrays of filtered values can hold the specified number
+	 * of rows.
+	 * @param capacity Minimal number of rows.
+	 */
+	private void ensureCapacity(int capacity) {
+		for (int colPos = 0; colPos < columns.length; colPos++) {
+			double[] values = columns[colPos];
+			if (capacity > values.length) {
+				columns[colPos] = Arrays.copyOf(values, Math.max(capacity, 2*values.length));
+			}
 		}
-		rows.add(doubleData);
+	}
+
+	/**
+	 * Returns the filtered value at the specified position.
+	 * @param colPos Index of the filtered column.
+	 * @param row Row index.
+	 * @return Filtered value.
+	 * @throws IndexOutOfBoundsException if the row hasn't been filtered.
+	 */
+	private double getFiltered(int colPos, int row) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException(MessageFormat.format(
+				"Invalid row index: {0,number,integer}", row)); //$NON-NLS-1$
+		}
+		return columns[colPos][row];
 	}
 
 	/**
@@ -201,7 +334,31 @@ public abstract class Filter2D extends AbstractDataSource
 		if (colPos < 0) {
 			return original.get(col, row);
 		}
-		return rows.get(row)[colPos];
+		return getFiltered(colPos, row);
+	}
+
+	@Override
+	public double getDouble(int col, int row) {
+		int colPos = getIndex(col);
+		if (colPos < 0) {
+			return original.getDouble(col, row);
+		}
+		return getFiltered(colPos, row);
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		int colPos = getIndex(col);
+		if (colPos < 0) {
+			original.copyColumn(col, dst, fromRow, toRow);
+			return;
+		}
+		if (fromRow < 0 || toRow > rowCount) {
+			throw new IndexOutOfBoundsException(MessageFormat.format(
+				"Invalid row range: {0,number,integer} to {1,number,integer}", //$NON-NLS-1$
+				fromRow, toRow));
+		}
+		System.arraycopy(columns[colPos], fromRow, dst, 0, toRow - fromRow);
 	}
 
 	/**
@@ -217,8 +374,8 @@ public abstract class Filter2D extends AbstractDataSource
 			throw new IllegalArgumentException(
 				"Can't set value in unfiltered column."); //$NON-NLS-1$
 		}
-		Double old = rows.get(row)[colPos];
-		rows.get(row)[colPos] = value;
+		Double old = getFiltered(colPos, row);
+		columns[colPos][row] = (value != null) ? value : Double.NaN;
 		notifyDataUpdated(new DataChangeEvent(this, col, row, old, value));
 		return old;
 	}
@@ -259,51 +416,274 @@ public abstract class Filter2D extends AbstractDataSource
 	 * Method that is invoked when data has been added.
 	 * This method is invoked by objects that provide support for
 	 * {@code DataListener}s and should not be called manually.
+	 * Filtered rows that depend on the added rows are announced as updated.
 	 * @param source Data source that has been changed.
 	 * @param events Optional event object describing the data values that
 	 *        have been added.
 	 */
 	public void dataAdded(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataAdded(events);
+		int rowCountOld = rowCount;
+		filteredRanges = new ArrayList<>();
+		boolean incremental = isIncremental() && filterAdded(events);
+		if (!incremental) {
+			filter();
+		}
+		DataChangeEvent[] filtered = takeFiltered(incremental, rowCountOld);
+		notifyDataAdded(takeEvents(events));
+		if (filtered.length > 0) {
+			notifyDataUpdated(filtered);
+		}
 	}
 
 	/**
 	 * Method that is invoked when data has been updated.
 	 * This method is invoked by objects that provide support for
 	 * {@code DataListener}s and should not be called manually.
+	 * All filtered rows that depend on the updated rows are announced as
+	 * updated. Row shifts are forwarded before.
 	 * @param source Data source that has been changed
 	 * @param events Optional event object describing the data values that
 	 *        have been updated.
 	 */
 	public void dataUpdated(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataUpdated(events);
+		filteredRanges = new ArrayList<>();
+		boolean incremental = isIncremental() && filterUpdated(events);
+		if (!incremental) {
+			filter();
+		}
+		DataChangeEvent[] filtered = takeFiltered(incremental, rowCount);
+		if (events == null || events.length == 0 || hasRowShift(events)) {
+			notifyDataUpdated(takeEvents(events));
+		}
+		if (filtered.length > 0 && events != null && events.length > 0) {
+			notifyDataUpdated(filtered);
+		}
 	}
 
 	/**
 	 * Method that is invoked when data has been removed.
 	 * This method is invoked by objects that provide support for
 	 * {@code DataListener}s and should not be called manually.
+	 * The remaining rows are announced as updated because they have all been
+	 * filtered again.
 	 * @param source Data source that has been changed
 	 * @param events Optional event object describing the data values that
 	 *        have been removed.
 	 */
 	public void dataRemoved(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataRemoved(events);
+		filteredRanges = new ArrayList<>();
+		filter();
+		DataChangeEvent[] filtered = takeFiltered(false, rowCount);
+		notifyDataRemoved(takeEvents(events));
+		if (filtered.length > 0) {
+			notifyDataUpdated(filtered);
+		}
 	}
 
 	/**
-	 * Method that is invoked when data has been added, updated, or removed.
-	 * This method is invoked by objects that provide support for
-	 * {@code DataListener}s and should not be called manually.
-	 * @param source Data source that has been changed
-	 * @param events Optional event object describing the data values that
-	 *        have been removed.
+	 * Returns whether the specified events contain a row shift.
+	 * @param events Events.
+	 * @return {@code true} if there is at least one row shift event.
 	 */
-	private void dataChanged(DataSource source, DataChangeEvent... events) {
-		filter();
+	private static boolean hasRowShift(DataChangeEvent[] events) {
+		for (DataChangeEvent event : events) {
+			if (event instanceof RowShiftEvent) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Creates range events for the rows that have been filtered again while
+	 * the current change has been processed. Adjacent and overlapping ranges
+	 * are merged.
+	 * @param incremental {@code true} if only the recorded ranges have been
+	 *        filtered, {@code false} if all rows have been filtered.
+	 * @param rowCountLimit Number of rows that should be described. Rows
+	 *        behind are ignored.
+	 * @return Range events of this filter.
+	 */
+	private DataChangeEvent[] takeFiltered(boolean incremental, int rowCountLimit) {
+		List<int[]> ranges = filteredRanges;
+		filteredRanges = null;
+		if (!incremental) {
+			ranges = new ArrayList<>(1);
+			ranges.add(new int[] {0, rowCount - 1});
+		}
+		Collections.sort(ranges, new Comparator<int[]>() {
+			public int compare(int[] a, int[] b) {
+				return Integer.compare(a[0], b[0]);
+			}
+		});
+		int rowLastLimit = Math.min(rowCountLimit, rowCount) - 1;
+		List<DataChangeEvent> events = new ArrayList<>(ranges.size());
+		int rowFirst = -1;
+		int rowLast = -2;
+		for (int[] range : ranges) {
+			if (range[0] > rowLast + 1) {
+				if (rowFirst <= rowLast) {
+					events.add(new DataChangeEvent(this, rowFirst, rowLast));
+				}
+				rowFirst = range[0];
+			}
+			rowLast = Math.max(rowLast, Math.min(range[1], rowLastLimit));
+		}
+		if (rowFirst >= 0 && rowFirst <= rowLast) {
+			events.add(new DataChangeEvent(this, rowFirst, rowLast));
+		}
+		return events.toArray(new DataChangeEvent[events.size()]);
+	}
+
+	/**
+	 * Converts range events of the original data source to range events of
+	 * this filter. Old values of filtered data are not available. Row shift
+	 * events are converted to row shift events of this filter. Other events
+	 * are passed unchanged.
+	 * @param events Original events.
+	 * @return Converted events.
+	 */
+	private DataChangeEvent[] takeEvents(DataChangeEvent[] events) {
+		if (events == null) {
+			return null;
+		}
+		DataChangeEvent[] eventsTx = events.clone();
+		for (int i = 0; i < eventsTx.length; i++) {
+			DataChangeEvent event = eventsTx[i];
+			if (event instanceof RowShiftEvent) {
+				RowShiftEvent shift = (RowShiftEvent) event;
+				eventsTx[i] = new RowShiftEvent(this, shift.getRemovedCount(), shift.getAddedCount());
+			} else if (event.isRange()) {
+				eventsTx[i] = new DataChangeEvent(this, event.getColumns(),
+					event.getRow(), event.getRowLast(), null);
+			}
+		}
+		return eventsTx;
+	}
+
+	/**
+	 * Filters the rows that depend on rows that have been appended to the
+	 * original data source.
+	 * @param events Events describing the added rows.
+	 * @return {@code true} if the change could be processed incrementally,
+	 *         {@code false} if all rows have to be filtered again.
+	 */
+	private boolean filterAdded(DataChangeEvent[] events) {
+		if (events == null || events.length == 0) {
+			return false;
+		}
+		int rowCountNew = original.getRowCount();
+		for (DataChangeEvent event : events) {
+			// Only rows that have been appended are supported
+			if (event.getRow() < rowCount || event.getRowLast() >= rowCountNew) {
+				return false;
+			}
+		}
+		filterAppended(rowCount, rowCountNew);
+		return true;
+	}
+
+	/**
+	 * Filters the rows that depend on rows that have been updated in the
+	 * original data source. Row shift events are supported, too.
+	 * @param events Events describing the updated rows.
+	 * @return {@code true} if the change could be processed incrementally,
+	 *         {@code false} if all rows have to be filtered again.
+	 */
+	private boolean filterUpdated(DataChangeEvent[] events) {
+		if (events == null || events.length == 0) {
+			return false;
+		}
+		int rowCountNew = original.getRowCount();
+		if (events.length == 1 && events[0] instanceof RowShiftEvent) {
+			RowShiftEvent shift = (RowShiftEvent) events[0];
+			int removed = shift.getRemovedCount();
+			int rowCountKept = rowCount - removed;
+			if (removed < 0 || rowCountKept < 0 ||
+					rowCountKept + shift.getAddedCount() != rowCountNew) {
+				return false;
+			}
+			for (double[] values : columns) {
+				System.arraycopy(values, removed, values, 0, rowCountKept);
+			}
+			rowCount = rowCountKept;
+			filterAppended(rowCountKept, rowCountNew);
+			if (!isWrapping()) {
+				// Rows at the beginning depended on rows that have been
+				// removed; wrapping modes have filtered them already
+				filterRange(0, -getExtentMin() - 1);
+			}
+			return true;
+		}
+		if (rowCountNew != rowCount) {
+			return false;
+		}
+		int prevRow = -1;
+		for (DataChangeEvent event : events) {
+			if (event.getRow() < 0 || event.getRowLast() >= rowCount) {
+				return false;
+			}
+			if (!event.isRange() && event.getRow() == prevRow) {
+				continue;
+			}
+			prevRow = event.getRow();
+			filterRange(event.getRow() - getExtentMax(), event.getRowLast() - getExtentMin());
+		}
+		if (isWrapping()) {
+			// Rows at the borders may depend on rows at the other end
+			filterBorders();
+		}
+		return true;
+	}
+
+	/**
+	 * Stores new rows at the end and filters all rows that depend on them.
+	 * @param rowFirst Index of the first new row.
+	 * @param rowCountNew Number of rows of the original data source.
+	 */
+	private void filterAppended(int rowFirst, int rowCountNew) {
+		ensureCapacity(rowCountNew);
+		rowCount = rowCountNew;
+		// The range includes all rows whose extent exceeded the last row
+		filterRange(Math.min(rowFirst, rowCountNew) - getExtentMax(), rowCountNew - 1);
+		if (isWrapping()) {
+			// Rows at the beginning may depend on the number of rows
+			filterRange(0, -getExtentMin() - 1);
+		}
+	}
+
+	/**
+	 * Returns whether rows at one border of the original data source are
+	 * used in place of missing rows at the other border.
+	 * @return {@code true} if the border handling mode wraps the rows.
+	 */
+	private boolean isWrapping() {
+		return getMode() == Mode.MIRROR || getMode() == Mode.CIRCULAR;
+	}
+
+	/**
+	 * Filters the rows at the beginning and at the end whose extent exceeds
+	 * the original data source.
+	 */
+	private void filterBorders() {
+		filterRange(0, -getExtentMin() - 1);
+		filterRange(rowCount - getExtentMax(), rowCount - 1);
+	}
+
+	/**
+	 * Filters a range of rows. The range is limited to the existing rows.
+	 * @param rowFirst Index of the first row.
+	 * @param rowLast Index of the last row (inclusive).
+	 */
+	private void filterRange(int rowFirst, int rowLast) {
+		rowFirst = Math.max(rowFirst, 0);
+		rowLast = Math.min(rowLast, rowCount - 1);
+		if (rowFirst <= rowLast) {
+			filter(rowFirst, rowLast);
+			if (filteredRanges != null) {
+				filteredRanges.add(new int[] {rowFirst, rowLast});
+			}
+		}
 	}
 
 	/**
@@ -346,6 +726,95 @@ public abstract class Filter2D extends AbstractDataSource
 	 */
 	protected abstract void filter();
 
+	/**
+	 * Returns whether the filter is able to filter single rows. In this case,
+	 * each filtered row must only depend on the rows of the original data
+	 * source between the offsets returned by {@link #getExtentMin()} and
+	 * {@link #getExtentMax()}, and {@link #filterColumn(int, int, int)} must
+	 * be implemented.
+	 * @return {@code true} if single rows can be filtered.
+	 */
+	protected boolean isIncremental() {
+		return false;
+	}
+
+	/**
+	 * Returns the offset of the first original row a filtered row depends
+	 * on, relative to the index of the filtered row.
+	 * @return Offset of the first row, usually zero or negative.
+	 */
+	protected int getExtentMin() {
+		return 0;
+	}
+
+	/**
+	 * Returns the offset of the last original row a filtered row depends on,
+	 * relative to the index of the filtered row.
+	 * @return Offset of the last row, usually zero or positive.
+	 */
+	protected int getExtentMax() {
+		return 0;
+	}
+
+	/**
+	 * Filters a range of rows of all filtered columns. The rows of each
+	 * column are split into blocks of at most {@link #BLOCK_SIZE} rows which
+	 * are passed to {@link #filterColumn(int, int, int)}. If a pool has been
+	 * set, the blocks are filtered in parallel. Only used if
+	 * {@link #isIncremental()} returns {@code true}.
+	 * @param rowFirst Index of the first row.
+	 * @param rowLast Index of the last row (inclusive).
+	 */
+	protected void filter(int rowFirst, int rowLast) {
+		int colCount = getColumnCountFiltered();
+		// Storage is allocated in advance, so tasks don't modify shared state
+		ensureColumns(colCount);
+		ensureCapacity(rowLast + 1);
+		rowCount = Math.max(rowCount, rowLast + 1);
+
+		ForkJoinPool pool = getForkJoinPool();
+		final List<FilterTask> tasks = new ArrayList<>();
+		for (int colPos = 0; colPos < colCount; colPos++) {
+			for (int blockFirst = rowFirst; blockFirst <= rowLast; blockFirst += BLOCK_SIZE) {
+				int blockLast = Math.min(blockFirst + BLOCK_SIZE - 1, rowLast);
+				if (pool == null) {
+					filterColumn(colPos, blockFirst, blockLast);
+				} else {
+					tasks.add(new FilterTask(this, colPos, blockFirst, blockLast));
+				}
+			}
+		}
+		if (tasks.size() == 1) {
+			FilterTask task = tasks.get(0);
+			filterColumn(task.colPos, task.rowFirst, task.rowLast);
+		} else if (!tasks.isEmpty()) {
+			pool.invoke(new RecursiveAction() {
+				/** Version id for serialization. */
+				private static final long serialVersionUID = 4373802458096373337L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Filters a range of rows of a single column and stores the results with
+	 * {@link #setFiltered(int, int, double)}. If a pool has been set, this
+	 * method is called concurrently for different columns and blocks of rows,
+	 * so implementations must not modify any other state of the filter.
+	 * Only used if {@link #isIncremental()} returns {@code true}.
+	 * @param colPos Index of the filtered column.
+	 * @param rowFirst Index of the first row.
+	 * @param rowLast Index of the last row (inclusive).
+	 */
+	protected void filterColumn(int colPos, int rowFirst, int rowLast) {
+		throw new UnsupportedOperationException(
+			"Rows can't be filtered separately."); //$NON-NLS-1$
+	}
+
 	/**
 	 * Returns the Mode of this Filter2D.
 	 * @return Mode of filtering.
@@ -363,6 +832,42 @@ public abstract class Filter2D extends AbstractDataSource
 		dataUpdated(this);
 	}
 
+	/**
+	 * Task that filters a block of rows of a single column.
+	 */
+	private static final class FilterTask extends RecursiveAction {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = -1962454836924658306L;
+
+		/** Filter whose rows are filtered. */
+		private final Filter2D filter;
+		/** Index of the filtered column. */
+		private final int colPos;
+		/** Index of the first row. */
+		private final int rowFirst;
+		/** Index of the last row (inclusive). */
+		private final int rowLast;
+
+		/**
+		 * Initializes a new task.
+		 * @param filter Filter whose rows are filtered.
+		 * @param colPos Index of the filtered column.
+		 * @param rowFirst Index of the first row.
+		 * @param rowLast Index of the last row (inclusive).
+		 */
+		public FilterTask(Filter2D filter, int colPos, int rowFirst, int rowLast) {
+			this.filter = filter;
+			this.colPos = colPos;
+			this.rowFirst = rowFirst;
+			this.rowLast = rowLast;
+		}
+
+		@Override
+		protected void compute() {
+			filter.filterColumn(colPos, rowFirst, rowLast);
+		}
+	}
+
 	/**
 	 * Custom deserialization method.
 	 * @param in Input stream.
@@ -376,7 +881,7 @@ public abstract class Filter2D extends AbstractDataSource
 		in.defaultReadObject();
 
 		// Handle transient fields
-		rows = new ArrayList<>();
+		columns = new double[getColumnCountFiltered()][0];
 
 		// Update caches
 		original.addDataListener(this);
@@ -0,0 +1,349 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.filters;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.text.MessageFormat;
+
+import de.erichseifert.gral.data.AbstractDataSource;
+import de.erichseifert.gral.data.DataChangeEvent;
+import de.erichseifert.gral.data.DataListener;
+import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.util.MathUtils;
+
+/**
+ * <p>Class that represents a view on a data source which contains a limited
+ * number of representative rows. The rows are selected with the
+ * Largest-Triangle-Three-Buckets algorithm: the first and the last row are
+ * always kept, the remaining rows are split into buckets of equal size and
+ * the row of each bucket is kept that forms the largest triangle with the
+ * row kept from the previous bucket and the average of the next bucket.
+ * In contrast to {@link Resize} no values are averaged, so spikes and the
+ * original X values are preserved.</p>
+ *
+ * <p>Example which reduces a large series to the width of a plot:</p>
+ * <pre>
+ * LTTBDownsampling view = new LTTBDownsampling(data, 0, 1, 2000);
+ * plot.add(view);
+ * ...
+ * view.setSize(newWidth);
+ * </pre>
+ *
+ * <p>The values are read column by column, one bucket at a time, so only a
+ * small buffer and the indexes of the selected rows are stored. Changing the
+ * size only requires another pass over the X and Y column.</p>
+ */
+public class LTTBDownsampling extends AbstractDataSource
+		implements DataListener {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = -3006811297573474384L;
+
+	/** Original data source. */
+	private final DataSource original;
+	/** Index of the column containing the X values. */
+	private final int colX;
+	/** Index of the column containing the Y values. */
+	private final int colY;
+	/** Maximal number of rows. */
+	private int size;
+	/** Indexes of the selected rows of the original data source, or
+	{@code null} if all rows are contained. */
+	private transient int[] rows;
+
+	/**
+	 * Initializes a new view on the specified data source.
+	 * @param original Data source whose rows will be selected.
+	 * @param colX Index of the column containing the X values.
+	 * @param colY Index of the column containing the Y values.
+	 * @param size Maximal number of rows. If the size is zero, all rows are
+	 *        contained.
+	 */
+	public LTTBDownsampling(DataSource original, int colX, int colY, int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid size: {0,number,integer}", size)); //$NON-NLS-1$
+		}
+		this.original = original;
+		this.colX = colX;
+		this.colY = colY;
+		this.size = size;
+		setColumnTypes(original.getColumnTypes());
+		update();
+		original.addDataListener(this);
+	}
+
+	/**
+	 * Returns the original data source.
+	 * @return Original data source.
+	 */
+	public DataSource getOriginal() {
+		return original;
+	}
+
+	/**
+	 * Returns the maximal number of rows.
+	 * @return Maximal number of rows, or zero if all rows are contained.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Sets the maximal number of rows and selects the rows again. This is
+	 * usually done when the plot has been resized.
+	 * @param size Maximal number of rows. If the size is zero, all rows are
+	 *        contained.
+	 */
+	public void setSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid size: {0,number,integer}", size)); //$NON-NLS-1$
+		}
+		if (size == this.size) {
+			return;
+		}
+		this.size = size;
+		int rowCountOld = getRowCount();
+		update();
+		notifyRowsReplaced(rowCountOld);
+	}
+
+	/**
+	 * Returns the index of the specified row in the original data source.
+	 * @param row Index of a row in this data source.
+	 * @return Index of the row in the original data source.
+	 * @throws IndexOutOfBoundsException if the row doesn't exist.
+	 */
+	public int getRowOriginal(int row) {
+		if (row < 0 || row >= getRowCount()) {
+			throw new IndexOutOfBoundsException(MessageFormat.format(
+				"Invalid row index: {0,number,integer}", row)); //$NON-NLS-1$
+		}
+		return (rows != null) ? rows[row] : row;
+	}
+
+	/**
+	 * Returns the row with the specified index.
+	 * @param col index of the column to return
+	 * @param row index of the row to return
+	 * @return the specified value of the data cell
+	 */
+	public Comparable<?> get(int col, int row) {
+		return original.get(col, getRowOriginal(row));
+	}
+
+	@Override
+	public double getDouble(int col, int row) {
+		return original.getDouble(col, getRowOriginal(row));
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		if (rows == null) {
+			original.copyColumn(col, dst, fromRow, toRow);
+			return;
+		}
+		for (int row = fromRow; row < toRow; row++) {
+			dst[row - fromRow] = original.getDouble(col, getRowOriginal(row));
+		}
+	}
+
+	@Override
+	public boolean isColumnSorted(int col) {
+		// Selecting rows keeps the order
+		return original.isColumnSorted(col);
+	}
+
+	/**
+	 * Returns the number of rows of the data source.
+	 * @return number of rows in the data source.
+	 */
+	public int getRowCount() {
+		return (rows != null) ? rows.length : original.getRowCount();
+	}
+
+	/**
+	 * Method that is invoked when data has been added.
+	 * This method is invoked by objects that provide support for
+	 * {@code DataListener}s and should not be called manually.
+	 * @param source Data source that has been changed.
+	 * @param events Optional event object describing the data values that
+	 *        have been added.
+	 */
+	public void dataAdded(DataSource source, DataChangeEvent... events) {
+		dataChanged();
+	}
+
+	/**
+	 * Method that is invoked when data has been updated.
+	 * This method is invoked by objects that provide support for
+	 * {@code DataListener}s and should not be called manually.
+	 * @param source Data source that has been changed.
+	 * @param events Optional event object describing the data values that
+	 *        have been updated.
+	 */
+	public void dataUpdated(DataSource source, DataChangeEvent... events) {
+		dataChanged();
+	}
+
+	/**
+	 * Method that is invoked when data has been removed.
+	 * This method is invoked by objects that provide support for
+	 * {@code DataListener}s and should not be called manually.
+	 * @param source Data source that has been changed.
+	 * @param events Optional event object describing the data values that
+	 *        have been removed.
+	 */
+	public void dataRemoved(DataSource source, DataChangeEvent... events) {
+		dataChanged();
+	}
+
+	/**
+	 * Selects the rows again after the original data source has been changed.
+	 * Any change can move the bucket borders, so all rows are replaced.
+	 */
+	private void dataChanged() {
+		int rowCountOld = getRowCount();
+		update();
+		notifyRowsReplaced(rowCountOld);
+	}
+
+	/**
+	 * Notifies all listeners that all rows have been replaced.
+	 * @param rowCountOld Previous number of rows.
+	 */
+	private void notifyRowsReplaced(int rowCountOld) {
+		if (rowCountOld > 0) {
+			notifyDataRemoved(new DataChangeEvent(this, 0, rowCountOld - 1));
+		}
+		int rowCount = getRowCount();
+		if (rowCount > 0) {
+			notifyDataAdded(new DataChangeEvent(this, 0, rowCount - 1));
+		}
+	}
+
+	/**
+	 * Selects the representative rows of the original data source.
+	 */
+	private void update() {
+		int rowCount = original.getRowCount();
+		if (size == 0 || size >= rowCount) {
+			rows = null;
+			return;
+		}
+		if (size < 3) {
+			rows = (size == 1) ? new int[] {0} : new int[] {0, rowCount - 1};
+			return;
+		}
+
+		int bucketCount = size - 2;
+		int bucketSizeMax = (rowCount - 2 + bucketCount - 1)/bucketCount;
+		double[] x = new double[bucketSizeMax];
+		double[] y = new double[bucketSizeMax];
+
+		// Averages of all buckets, followed by the last row
+		double[] avgX = new double[bucketCount + 1];
+		double[] avgY = new double[bucketCount + 1];
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			int first = getBucketStart(bucket, bucketCount, rowCount);
+			int length = getBucketStart(bucket + 1, bucketCount, rowCount) - first;
+			original.copyColumn(colX, x, first, first + length);
+			original.copyColumn(colY, y, first, first + length);
+			double sumX = 0.0;
+			double sumY = 0.0;
+			int count = 0;
+			for (int i = 0; i < length; i++) {
+				if (MathUtils.isCalculatable(x[i]) && MathUtils.isCalculatable(y[i])) {
+					sumX += x[i];
+					sumY += y[i];
+					count++;
+				}
+			}
+			avgX[bucket] = (count > 0) ? sumX/count : Double.NaN;
+			avgY[bucket] = (count > 0) ? sumY/count : Double.NaN;
+		}
+		avgX[bucketCount] = original.getDouble(colX, rowCount - 1);
+		avgY[bucketCount] = original.getDouble(colY, rowCount - 1);
+
+		int[] selected = new int[size];
+		selected[0] = 0;
+		selected[size - 1] = rowCount - 1;
+		double ax = original.getDouble(colX, 0);
+		double ay = original.getDouble(colY, 0);
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			int first = getBucketStart(bucket, bucketCount, rowCount);
+			int length = getBucketStart(bucket + 1, bucketCount, rowCount) - first;
+			original.copyColumn(colX, x, first, first + length);
+			original.copyColumn(colY, y, first, first + length);
+			double cx = avgX[bucket + 1];
+			double cy = avgY[bucket + 1];
+			// Rows with values that are not calculatable are only selected
+			// if no other row is available
+			int best = 0;
+			double areaMax = -1.0;
+			for (int i = 0; i < length; i++) {
+				// Twice the area of the triangle
+				double area = Math.abs((ax - cx)*(y[i] - ay) - (ax - x[i])*(cy - ay));
+				if (area > areaMax) {
+					areaMax = area;
+					best = i;
+				}
+			}
+			selected[bucket + 1] = first + best;
+			ax = x[best];
+			ay = y[best];
+		}
+		rows = selected;
+	}
+
+	/**
+	 * Returns the index of the first row of a bucket. The first row of the
+	 * original data source isn't part of any bucket.
+	 * @param bucket Index of the bucket.
+	 * @param bucketCount Number of buckets.
+	 * @param rowCount Number of rows of the original data source.
+	 * @return Index of the first row.
+	 */
+	private static int getBucketStart(int bucket, int bucketCount, int rowCount) {
+		return (int) ((long) bucket*(rowCount - 2)/bucketCount) + 1;
+	}
+
+	/**
+	 * Custom deserialization method.
+	 * @param in Input stream.
+	 * @throws ClassNotFoundException if a serialized class doesn't exist anymore.
+	 * @throws IOException if there is an error while reading data from the
+	 *         input stream.
+	 */
+	private void readObject(ObjectInputStream in)
+			throws ClassNotFoundException, IOException {
+		// Normal deserialization
+		in.defaultReadObject();
+
+		// Update caches
+		update();
+
+		// Restore listeners
+		original.addDataListener(this);
+	}
+}
@@ -0,0 +1,378 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.filters;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.text.MessageFormat;
+import java.util.Arrays;
+
+import de.erichseifert.gral.data.AbstractDataSource;
+import de.erichseifert.gral.data.DataChangeEvent;
+import de.erichseifert.gral.data.DataListener;
+import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.util.MathUtils;
+
+/**
+ * <p>Class that represents a view on a data source which only contains the
+ * rows needed to draw a line with a certain width in pixels. The range of x
+ * values is split into one interval per pixel. For each interval the first
+ * and the last row as well as the rows with the minimal and the maximal y
+ * value are kept (M4 aggregation). Therefore, a line drawn from the view
+ * looks like a line drawn from all rows, but the number of rows is limited
+ * to four times the width.</p>
+ *
+ * <p>If the x column is sorted, the visible rows are found by binary search
+ * and the nearest rows outside of the range are kept, too, so lines leaving
+ * the visible area are drawn correctly. Otherwise all rows are read and only
+ * rows inside the range are kept.</p>
+ *
+ * <p>The rows are selected lazily when the view is accessed for the first
+ * time after the range or the original data source has changed. The range
+ * is usually set by a {@link de.erichseifert.gral.plots.M4AggregationListener}.
+ * As long as no range has been set, all rows are contained.</p>
+ */
+public class M4Aggregation extends AbstractDataSource
+		implements DataListener {
+	/** Version id for serialization. */
+	private static final long serialVersionUID = 2213286412722316934L;
+
+	/** Number of rows that are read at once. */
+	private static final int CHUNK_SIZE = 4096;
+
+	/** Original data source. */
+	private final DataSource original;
+	/** Index of the column containing the x values. */
+	private final int colX;
+	/** Index of the column containing the y values. */
+	private final int colY;
+	/** Smallest visible x value. */
+	private double xMin;
+	/** Largest visible x value. */
+	private double xMax;
+	/** Number of pixels. */
+	private int width;
+	/** Indexes of the selected rows of the original data source, or
+	{@code null} if all rows are contained. */
+	private transient int[] rows;
+	/** Whether the selected rows are up to date. */
+	private transient boolean valid;
+
+	/**
+	 * Initializes a new view on the specified data source which contains all
+	 * rows until a range is set.
+	 * @param original Data source whose rows will be selected.
+	 * @param colX Index of the column containing the x values.
+	 * @param colY Index of the column containing the y values.
+	 */
+	public M4Aggregation(DataSource original, int colX, int colY) {
+		this.original = original;
+		this.colX = colX;
+		this.colY = colY;
+		xMin = Double.NaN;
+		xMax = Double.NaN;
+		setColumnTypes(original.getColumnTypes());
+		original.addDataListener(this);
+	}
+
+	/**
+	 * Returns the original data source.
+	 * @return Original data source.
+	 */
+	public DataSource getOriginal() {
+		return original;
+	}
+
+	/**
+	 * Returns the smallest visible x value.
+	 * @return Smallest x value, or {@code NaN} if no range has been set.
+	 */
+	public double getXMin() {
+		return xMin;
+	}
+
+	/**
+	 * Returns the largest visible x value.
+	 * @return Largest x value, or {@code NaN} if no range has been set.
+	 */
+	public double getXMax() {
+		return xMax;
+	}
+
+	/**
+	 * Returns the number of pixels the range of x values is split into.
+	 * @return Number of pixels, or zero if no range has been set.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Sets the visible range of x values and the number of pixels it is
+	 * drawn with. The rows are selected again the next time the view is
+	 * accessed.
+	 * @param xMin Smallest visible x value.
+	 * @param xMax Largest visible x value.
+	 * @param width Number of pixels, or zero to contain all rows.
+	 */
+	public void setRange(double xMin, double xMax, int width) {
+		if (width < 0) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid width: {0,number,integer}", width)); //$NON-NLS-1$
+		}
+		if (Double.compare(this.xMin, xMin) == 0 &&
+				Double.compare(this.xMax, xMax) == 0 && this.width == width) {
+			return;
+		}
+		this.xMin = xMin;
+		this.xMax = xMax;
+		this.width = width;
+		invalidate();
+	}
+
+	/**
+	 * Returns the index of the specified row in the original data source.
+	 * @param row Index of a row in this data source.
+	 * @return Index of the row in the original data source.
+	 * @throws IndexOutOfBoundsException if the row doesn't exist.
+	 */
+	public int getRowOriginal(int row) {
+		if (row < 0 || row >= getRowCount()) {
+			throw new IndexOutOfBoundsException(MessageFormat.format(
+				"Invalid row index: {0,number,integer}", row)); //$NON-NLS-1$
+		}
+		return (rows != null) ? rows[row] : row;
+	}
+
+	/**
+	 * Returns the row with the specified index.
+	 * @param col index of the column to return
+	 * @param row index of the row to return
+	 * @return the specified value of the data cell
+	 */
+	public Comparable<?> get(int col, int row) {
+		return original.get(col, getRowOriginal(row));
+	}
+
+	@Override
+	public double getDouble(int col, int row) {
+		return original.getDouble(col, getRowOriginal(row));
+	}
+
+	@Override
+	public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+		update();
+		if (rows == null) {
+			original.copyColumn(col, dst, fromRow, toRow);
+			return;
+		}
+		for (int row = fromRow; row < toRow; row++) {
+			dst[row - fromRow] = original.getDouble(col, getRowOriginal(row));
+		}
+	}
+
+	@Override
+	public boolean isColumnSorted(int col) {
+		// Selecting rows keeps the order
+		return original.isColumnSorted(col);
+	}
+
+	/**
+	 * Returns the number of rows of the data source.
+	 * @return number of rows in the data source.
+	 */
+	public int getRowCount() {
+		update();
+		return (rows != null) ? rows.length : original.getRowCount();
+	}
+
+	/**
+	 * Method that is invoked when data has been added.
+	 * This method is invoked by objects that provide support for
+	 * {@code DataListener}s and should not be called manually.
+	 * @param source Data source that has been changed.
+	 * @param events Optional event object describing the data values that
+	 *        have been added.
+	 */
+	public void dataAdded(DataSource source, DataChangeEvent... events) {
+		invalidate();
+	}
+
+	/**
+	 * Method that is invoked when data has been updated.
+	 * This method is invoked by objects that provide support for
+	 * {@code DataListener}s and should not be called manually.
+	 * @param source Data source that has been changed.
+	 * @param events Optional event object describing the data values that
+	 *        have been updated.
+	 */
+	public void dataUpdated(DataSource source, DataChangeEvent... events) {
+		invalidate();
+	}
+
+	/**
+	 * Method that is invoked when data has been removed.
+	 * This method is invoked by objects that provide support for
+	 * {@code DataListener}s and should not be called manually.
+	 * @param source Data source that has been changed.
+	 * @param events Optional event object describing the data values that
+	 *        have been removed.
+	 */
+	public void dataRemoved(DataSource source, DataChangeEvent... events) {
+		invalidate();
+	}
+
+	/**
+	 * Marks the selected rows as outdated and notifies all listeners. As the
+	 * rows haven't been selected yet, the change isn't described by events.
+	 */
+	private void invalidate() {
+		valid = false;
+		notifyDataUpdated();
+	}
+
+	/**
+	 * Selects the rows again if they are outdated.
+	 */
+	private void update() {
+		if (valid) {
+			return;
+		}
+		valid = true;
+		rows = null;
+		if (width == 0 || !(xMax > xMin)) {
+			return;
+		}
+
+		int rowCount = original.getRowCount();
+		boolean sorted = original.isColumnSorted(colX);
+		int rowFirst = sorted ? getRowIndex(xMin, false) : 0;
+		int rowEnd = sorted ? getRowIndex(xMax, true) : rowCount;
+
+		int[] firstRows = new int[width];
+		int[] lastRows = new int[width];
+		int[] minRows = new int[width];
+		int[] maxRows = new int[width];
+		double[] minValues = new double[width];
+		double[] maxValues = new double[width];
+		Arrays.fill(firstRows, -1);
+		Arrays.fill(minRows, -1);
+		Arrays.fill(maxRows, -1);
+
+		double scale = width/(xMax - xMin);
+		double[] x = new double[Math.min(CHUNK_SIZE, Math.max(rowEnd - rowFirst, 0))];
+		double[] y = new double[x.length];
+		for (int chunkFirst = rowFirst; chunkFirst < rowEnd; chunkFirst += CHUNK_SIZE) {
+			int length = Math.min(CHUNK_SIZE, rowEnd - chunkFirst);
+			original.copyColumn(colX, x, chunkFirst, chunkFirst + length);
+			original.copyColumn(colY, y, chunkFirst, chunkFirst + length);
+			for (int i = 0; i < length; i++) {
+				if (!(x[i] >= xMin && x[i] <= xMax)) {
+					continue;
+				}
+				int pixel = Math.min((int) ((x[i] - xMin)*scale), width - 1);
+				int row = chunkFirst + i;
+				if (firstRows[pixel] < 0) {
+					firstRows[pixel] = row;
+				}
+				lastRows[pixel] = row;
+				if (!MathUtils.isCalculatable(y[i])) {
+					continue;
+				}
+				if (minRows[pixel] < 0 || y[i] < minValues[pixel]) {
+					minRows[pixel] = row;
+					minValues[pixel] = y[i];
+				}
+				if (maxRows[pixel] < 0 || y[i] > maxValues[pixel]) {
+					maxRows[pixel] = row;
+					maxValues[pixel] = y[i];
+				}
+			}
+		}
+
+		int[] selected = new int[4*width + 2];
+		int count = 0;
+		if (sorted && rowFirst > 0) {
+			selected[count++] = rowFirst - 1;
+		}
+		for (int pixel = 0; pixel < width; pixel++) {
+			if (firstRows[pixel] < 0) {
+				continue;
+			}
+			selected[count++] = firstRows[pixel];
+			selected[count++] = lastRows[pixel];
+			if (minRows[pixel] >= 0) {
+				selected[count++] = minRows[pixel];
+				selected[count++] = maxRows[pixel];
+			}
+		}
+		if (sorted && rowEnd < rowCount) {
+			selected[count++] = rowEnd;
+		}
+		Arrays.sort(selected, 0, count);
+		int unique = 0;
+		for (int i = 0; i < count; i++) {
+			if (unique == 0 || selected[i] != selected[unique - 1]) {
+				selected[unique++] = selected[i];
+			}
+		}
+		rows = Arrays.copyOf(selected, unique);
+	}
+
+	/**
+	 * Returns the index of the first row of the sorted x column whose value
+	 * is greater than (or equal to) the specified value.
+	 * @param value Value to search for.
+	 * @param inclusive {@code true} to skip rows that are equal to the value.
+	 * @return Row index.
+	 */
+	private int getRowIndex(double value, boolean inclusive) {
+		int low = 0;
+		int high = original.getRowCount();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			double midValue = original.getDouble(colX, mid);
+			if (midValue < value || (inclusive && midValue == value)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Custom deserialization method.
+	 * @param in Input stream.
+	 * @throws ClassNotFoundException if a serialized class doesn't exist anymore.
+	 * @throws IOException if there is an error while reading data from the
+	 *         input stream.
+	 */
+	private void readObject(ObjectInputStream in)
+			throws ClassNotFoundException, IOException {
+		// Normal deserialization
+		in.defaultReadObject();
+
+		// Restore listeners
+		original.addDataListener(this);
+	}
+}
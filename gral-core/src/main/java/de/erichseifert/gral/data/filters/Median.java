@@ -23,11 +23,8 @@ package de.erichseifert.gral.data.filters;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.util.ArrayList;
-import java.util.List;
 
 import de.erichseifert.gral.data.DataSource;
-import de.erichseifert.gral.util.MathUtils;
 
 
 /**
@@ -44,7 +41,8 @@ public class Median extends Filter2D {
 	/** Number of values in the window that will be used to calculate the
 	median. */
 	private int windowSize;
-	/** Start of the window. */
+	/** Start of the window: the window of row {@code r} covers the rows
+	{@code r - offset + 1} to {@code r - offset + windowSize}. */
 	private int offset;
 
 	/**
@@ -53,8 +51,9 @@ public class Median extends Filter2D {
 	 * @param original DataSource to be filtered.
 	 * @param windowSize Number of rows to be used for the calculation of the
 	 *        median.
-	 * @param offset Offset from the current filtered value to the last value
-	 *        of the window.
+	 * @param offset Offset of the window: the window of row {@code r} covers
+	 *        the rows {@code r - offset + 1} to
+	 *        {@code r - offset + windowSize}.
 	 * @param mode Mode of filtering.
 	 * @param cols Column indexes.
 	 */
@@ -72,63 +71,36 @@ public class Median extends Filter2D {
 		if (getWindowSize() <= 0) {
 			return;
 		}
-		List<List<Double>> colWindows =
-				new ArrayList<>(getColumnCount());
-		for (int colIndex = 0; colIndex < getColumnCountFiltered(); colIndex++) {
-			int colIndexOriginal = getIndexOriginal(colIndex);
-			List<Double> window = new ArrayList<>(getWindowSize());
-			colWindows.add(window);
-			// Pre-fill window
-			for (int rowIndex = getOffset() - getWindowSize(); rowIndex < 0; rowIndex++) {
-				Comparable<?> vOrig = getOriginal(colIndexOriginal, rowIndex);
-				double v = ((Number) vOrig).doubleValue();
-				window.add(v);
-			}
-		}
-		for (int rowIndex = 0; rowIndex < getRowCount(); rowIndex++) {
-			Double[] filteredRow = new Double[getColumnCountFiltered()];
-			for (int colIndex = 0; colIndex < filteredRow.length; colIndex++) {
-				List<Double> window = colWindows.get(colIndex);
-				if (window.size() >= getWindowSize()) {
-					window.remove(0);
-				}
-				int colIndexOriginal = getIndexOriginal(colIndex);
-				Comparable<?> vOrig = getOriginal(colIndexOriginal,
-						rowIndex - getOffset() + getWindowSize());
-				double v = ((Number) vOrig).doubleValue();
-				window.add(v);
-				filteredRow[colIndex] = median(window);
-			}
-			add(filteredRow);
-		}
+		filter(0, getRowCount() - 1);
 	}
 
-	/**
-	 * Calculates the median for the specified values in the window.
-	 * @param w List of values the median will be calculated for.
-	 * @return Median.
-	 */
-	private double median(List<Double> w) {
-		if (w.size() == 1) {
-			return w.get(0);
-		}
-		List<Double> window = new ArrayList<>(w.size());
-		for (Double v : w) {
-			if (!MathUtils.isCalculatable(v)) {
-				return Double.NaN;
-			}
-			window.add(v);
+	@Override
+	protected boolean isIncremental() {
+		return getWindowSize() > 0;
+	}
+
+	@Override
+	protected int getExtentMin() {
+		return 1 - getOffset();
+	}
+
+	@Override
+	protected int getExtentMax() {
+		return getWindowSize() - getOffset();
+	}
+
+	@Override
+	protected void filterColumn(int colPos, int rowFirst, int rowLast) {
+		int colIndexOriginal = getIndexOriginal(colPos);
+		SlidingMedian window = new SlidingMedian(getWindowSize());
+		// Pre-fill window
+		for (int i = 0; i < getWindowSize() - 1; i++) {
+			window.add(getOriginalDouble(colIndexOriginal, rowFirst + getExtentMin() + i));
 		}
-		int medianIndex = MathUtils.randomizedSelect(
-				window, 0, window.size() - 1, window.size()/2);
-		double median = window.get(medianIndex);
-		if ((window.size() & 1) == 0) {
-			int medianUpperIndex = MathUtils.randomizedSelect(
-					window, 0, window.size() - 1, window.size()/2 + 1);
-			double medianUpper = window.get(medianUpperIndex);
-			median = (median + medianUpper)/2.0;
+		for (int rowIndex = rowFirst; rowIndex <= rowLast; rowIndex++) {
+			window.add(getOriginalDouble(colIndexOriginal, rowIndex + getExtentMax()));
+			setFiltered(colPos, rowIndex, window.getMedian());
 		}
-		return median;
 	}
 
 	/**
@@ -149,8 +121,9 @@ public class Median extends Filter2D {
 	}
 
 	/**
-	 * Returns the offset from the current value used to calculate the
-	 * median to the last value of the window.
+	 * Returns the offset of the window which is used to calculate the
+	 * median. The window of row {@code r} covers the rows
+	 * {@code r - offset + 1} to {@code r - offset + windowSize}.
 	 * @return Offset.
 	 */
 	public int getOffset() {
@@ -158,8 +131,9 @@ public class Median extends Filter2D {
 	}
 
 	/**
-	 * Sets the offset from the current value used to calculate the
-	 * median to the last value of the window.
+	 * Sets the offset of the window which is used to calculate the median.
+	 * The window of row {@code r} covers the rows {@code r - offset + 1} to
+	 * {@code r - offset + windowSize}.
 	 * @param offset Offset.
 	 */
 	public void setOffset(int offset) {
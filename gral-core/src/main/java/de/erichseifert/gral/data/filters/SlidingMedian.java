@@ -0,0 +1,310 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.filters;
+
+import de.erichseifert.gral.util.MathUtils;
+
+/**
+ * <p>Class that calculates the median of a window of values that slides
+ * over a sequence. Adding a value to a full window replaces the oldest value.
+ * Adding a value takes logarithmic time in the size of the window, querying
+ * the median takes constant time.</p>
+ *
+ * <p>The values are stored in a ring buffer. The slots of the lower half of
+ * the values are organized as max-heap, the slots of the upper half as
+ * min-heap. The position of each slot in its heap is tracked, so the oldest
+ * value can be replaced without searching for it. No values are boxed.</p>
+ */
+class SlidingMedian {
+	/** Values of the window, used as ring buffer. Values that are not
+	calculatable are stored as zero. */
+	private final double[] values;
+	/** Flags telling whether the value of a slot is not calculatable. */
+	private final boolean[] invalid;
+	/** Heap position of each slot. Positions in the upper heap are stored
+	as negative numbers, i.e. {@code -position - 1}. */
+	private final int[] positions;
+	/** Max-heap with the slots of the lower half of values. */
+	private final int[] lower;
+	/** Min-heap with the slots of the upper half of values. */
+	private final int[] upper;
+	/** Number of slots in the lower heap. */
+	private int lowerSize;
+	/** Number of slots in the upper heap. */
+	private int upperSize;
+	/** Slot that will be used next. */
+	private int next;
+	/** Number of values in the window that are not calculatable. */
+	private int invalidCount;
+	/** Value that has been added last. */
+	private double last;
+
+	/**
+	 * Initializes a new empty window with the specified size.
+	 * @param windowSize Maximal number of values in the window.
+	 */
+	public SlidingMedian(int windowSize) {
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException(
+				"Window size must be positive: " + windowSize); //$NON-NLS-1$
+		}
+		values = new double[windowSize];
+		invalid = new boolean[windowSize];
+		positions = new int[windowSize];
+		lower = new int[windowSize];
+		upper = new int[windowSize];
+		last = Double.NaN;
+	}
+
+	/**
+	 * Returns the number of values in the window.
+	 * @return Number of values.
+	 */
+	public int size() {
+		return lowerSize + upperSize;
+	}
+
+	/**
+	 * Adds a value to the window. If the window is full, the oldest value
+	 * is replaced.
+	 * @param value Value to be added.
+	 */
+	public void add(double value) {
+		last = value;
+		int slot = next;
+		next = (next + 1) % values.length;
+		boolean full = size() == values.length;
+		if (full && invalid[slot]) {
+			invalidCount--;
+		}
+		invalid[slot] = !MathUtils.isCalculatable(value);
+		if (invalid[slot]) {
+			invalidCount++;
+			// Invalid values are kept in the heaps, but they are never used
+			value = 0.0;
+		}
+		values[slot] = value;
+		if (full) {
+			replace(slot);
+		} else {
+			insert(slot);
+		}
+	}
+
+	/**
+	 * Returns the median of the values in the window. If the window contains
+	 * a value that is {@code NaN} or infinite, {@code NaN} is returned. A
+	 * window of size one returns the last value unchanged.
+	 * @return Median, or {@code NaN} if the window is empty.
+	 */
+	public double getMedian() {
+		if (values.length == 1) {
+			return last;
+		}
+		if (size() == 0 || invalidCount > 0) {
+			return Double.NaN;
+		}
+		double median = values[lower[0]];
+		if (lowerSize == upperSize) {
+			median = (median + values[upper[0]])/2.0;
+		}
+		return median;
+	}
+
+	/**
+	 * Inserts a new slot into one of the heaps and balances their sizes.
+	 * @param slot Slot containing the new value.
+	 */
+	private void insert(int slot) {
+		if (lowerSize == 0 || values[slot] <= values[lower[0]]) {
+			setLower(lowerSize++, slot);
+			siftUpLower(lowerSize - 1);
+		} else {
+			setUpper(upperSize++, slot);
+			siftUpUpper(upperSize - 1);
+		}
+		// The lower heap contains the same number of slots or one more
+		if (lowerSize > upperSize + 1) {
+			int moved = lower[0];
+			removeLowerTop();
+			setUpper(upperSize++, moved);
+			siftUpUpper(upperSize - 1);
+		} else if (upperSize > lowerSize) {
+			int moved = upper[0];
+			removeUpperTop();
+			setLower(lowerSize++, moved);
+			siftUpLower(lowerSize - 1);
+		}
+	}
+
+	/**
+	 * Restores the order of the heaps after the value of a slot has been
+	 * replaced.
+	 * @param slot Slot whose value has been replaced.
+	 */
+	private void replace(int slot) {
+		int pos = positions[slot];
+		if (pos >= 0) {
+			siftUpLower(pos);
+			siftDownLower(positions[slot]);
+		} else {
+			pos = -pos - 1;
+			siftUpUpper(pos);
+			siftDownUpper(-positions[slot] - 1);
+		}
+		// Only the changed value can be in the wrong heap
+		if (upperSize > 0 && values[lower[0]] > values[upper[0]]) {
+			int lowerTop = lower[0];
+			int upperTop = upper[0];
+			setLower(0, upperTop);
+			setUpper(0, lowerTop);
+			siftDownLower(0);
+			siftDownUpper(0);
+		}
+	}
+
+	/**
+	 * Removes the largest slot of the lower heap.
+	 */
+	private void removeLowerTop() {
+		lowerSize--;
+		if (lowerSize > 0) {
+			setLower(0, lower[lowerSize]);
+			siftDownLower(0);
+		}
+	}
+
+	/**
+	 * Removes the smallest slot of the upper heap.
+	 */
+	private void removeUpperTop() {
+		upperSize--;
+		if (upperSize > 0) {
+			setUpper(0, upper[upperSize]);
+			siftDownUpper(0);
+		}
+	}
+
+	/**
+	 * Stores a slot at a position of the lower heap.
+	 * @param pos Heap position.
+	 * @param slot Slot.
+	 */
+	private void setLower(int pos, int slot) {
+		lower[pos] = slot;
+		positions[slot] = pos;
+	}
+
+	/**
+	 * Stores a slot at a position of the upper heap.
+	 * @param pos Heap position.
+	 * @param slot Slot.
+	 */
+	private void setUpper(int pos, int slot) {
+		upper[pos] = slot;
+		positions[slot] = -pos - 1;
+	}
+
+	/**
+	 * Moves a slot of the lower heap towards the top as long as its value
+	 * is larger than the value of its parent.
+	 * @param pos Heap position.
+	 */
+	private void siftUpLower(int pos) {
+		int slot = lower[pos];
+		while (pos > 0) {
+			int parent = (pos - 1)/2;
+			if (values[lower[parent]] >= values[slot]) {
+				break;
+			}
+			setLower(pos, lower[parent]);
+			pos = parent;
+		}
+		setLower(pos, slot);
+	}
+
+	/**
+	 * Moves a slot of the lower heap towards the bottom as long as its value
+	 * is smaller than the value of one of its children.
+	 * @param pos Heap position.
+	 */
+	private void siftDownLower(int pos) {
+		int slot = lower[pos];
+		while (true) {
+			int child = 2*pos + 1;
+			if (child >= lowerSize) {
+				break;
+			}
+			if (child + 1 < lowerSize && values[lower[child + 1]] > values[lower[child]]) {
+				child++;
+			}
+			if (values[lower[child]] <= values[slot]) {
+				break;
+			}
+			setLower(pos, lower[child]);
+			pos = child;
+		}
+		setLower(pos, slot);
+	}
+
+	/**
+	 * Moves a slot of the upper heap towards the top as long as its value
+	 * is smaller than the value of its parent.
+	 * @param pos Heap position.
+	 */
+	private void siftUpUpper(int pos) {
+		int slot = upper[pos];
+		while (pos > 0) {
+			int parent = (pos - 1)/2;
+			if (values[upper[parent]] <= values[slot]) {
+				break;
+			}
+			setUpper(pos, upper[parent]);
+			pos = parent;
+		}
+		setUpper(pos, slot);
+	}
+
+	/**
+	 * Moves a slot of the upper heap towards the bottom as long as its value
+	 * is larger than the value of one of its children.
+	 * @param pos Heap position.
+	 */
+	private void siftDownUpper(int pos) {
+		int slot = upper[pos];
+		while (true) {
+			int child = 2*pos + 1;
+			if (child >= upperSize) {
+				break;
+			}
+			if (child + 1 < upperSize && values[upper[child + 1]] < values[upper[child]]) {
+				child++;
+			}
+			if (values[upper[child]] >= values[slot]) {
+				break;
+			}
+			setUpper(pos, upper[child]);
+			pos = child;
+		}
+		setUpper(pos, slot);
+	}
+}
@@ -58,6 +58,18 @@ public abstract class AbstractHistogram2D extends AbstractDataSource
 	 */
 	protected abstract void rebuildCells();
 
+	/**
+	 * Adds the values of rows that have been added to the data source to the
+	 * histogram values. Derived classes that can't do this incrementally
+	 * return {@code false}, so all histogram values are recalculated.
+	 * @param events Events describing the added rows.
+	 * @return {@code true} if the histogram values have been updated,
+	 *         {@code false} if they have to be recalculated.
+	 */
+	protected boolean addToCells(DataChangeEvent... events) {
+		return false;
+	}
+
 	/**
 	 * Method that is invoked when data has been added.
 	 * This method is invoked by objects that provide support for
@@ -67,8 +79,10 @@ public abstract class AbstractHistogram2D extends AbstractDataSource
 	 *        have been added.
 	 */
 	public void dataAdded(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataAdded(events);
+		if (!addToCells(events)) {
+			rebuildCells();
+		}
+		notifyDataAdded(getCellEvents());
 	}
 
 	/**
@@ -80,8 +94,8 @@ public abstract class AbstractHistogram2D extends AbstractDataSource
 	 *        have been updated.
 	 */
 	public void dataUpdated(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataUpdated(events);
+		rebuildCells();
+		notifyDataUpdated(getCellEvents());
 	}
 
 	/**
@@ -93,20 +107,23 @@ public abstract class AbstractHistogram2D extends AbstractDataSource
 	 *        have been removed.
 	 */
 	public void dataRemoved(DataSource source, DataChangeEvent... events) {
-		dataChanged(source, events);
-		notifyDataRemoved(events);
+		rebuildCells();
+		notifyDataRemoved(getCellEvents());
 	}
 
 	/**
-	 * Method that is invoked when data has been added, updated, or removed.
-	 * This method is invoked by objects that provide support for
-	 * {@code DataListener}s and should not be called manually.
-	 * @param source Data source that has been changed.
-	 * @param events Optional event object describing the data values that
-	 *        have been changed.
+	 * Returns events describing a change of the histogram values. The events
+	 * of the data source can't be passed on, as their rows refer to the data
+	 * source and not to the histogram cells.
+	 * @return An event for the range of all cells, or no event if there
+	 *         aren't any cells.
 	 */
-	private void dataChanged(DataSource source, DataChangeEvent... events) {
-		rebuildCells();
+	private DataChangeEvent[] getCellEvents() {
+		int rowCount = getRowCount();
+		if (rowCount == 0) {
+			return new DataChangeEvent[0];
+		}
+		return new DataChangeEvent[] {new DataChangeEvent(this, 0, rowCount - 1)};
 	}
 
 	/**
@@ -27,10 +27,9 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
+import de.erichseifert.gral.data.DataChangeEvent;
 import de.erichseifert.gral.data.DataSource;
 import de.erichseifert.gral.graphics.Orientation;
 
@@ -40,6 +39,10 @@ import de.erichseifert.gral.graphics.Orientation;
  * a histogram with cells. The cells size can be equally sized by defining
  * a number of cells or breakpoints between histogram cells can be passed
  * as an array to create unequally sized cells.</p>
+ * <p>The cell of a value is calculated directly for equally sized cells and
+ * found by binary search otherwise. If the histogram is oriented vertically,
+ * rows that are appended to the data source are added to the cells without
+ * counting all other values again.</p>
  * <p>For ease of use the histogram is a data source itself.</p>
  */
 public class Histogram2D extends AbstractHistogram2D {
@@ -54,18 +57,24 @@ public class Histogram2D extends AbstractHistogram2D {
 	/** Bin cells that store all aggregation counts. */
 	private final List<long[]> cellList;
 
-	/** Minimum values for cells. */
-	private transient Map<Integer, Long> cacheMin;
-	/** Maximum values for cells. */
-	private transient Map<Integer, Long> cacheMax;
+	/** Number of rows that are read at once. */
+	private static final int CHUNK_SIZE = 4096;
+
+	/** Values of the breaks for each histogram column. */
+	private transient double[][] breakValues;
+	/** Width of the cells for each histogram column, or {@code NaN} if the
+	cells aren't equally sized. */
+	private transient double[] cellWidths;
+	/** Number of rows of the data source that have been counted, or
+	{@code -1} if it is unknown. */
+	private transient int rowCountCounted;
 
 	private Histogram2D(DataSource data, Orientation orientation) {
 		super(data);
 		this.orientation = orientation;
 		breaks = new ArrayList<>();
 		cellList = new ArrayList<>();
-		cacheMin = new HashMap<>();
-		cacheMax = new HashMap<>();
+		rowCountCounted = -1;
 	}
 
 	/**
@@ -132,55 +141,138 @@ public class Histogram2D extends AbstractHistogram2D {
 	 */
 	@Override
 	protected void rebuildCells() {
-		// FIXME Very naive implementation
+		initBreaks();
 		cellList.clear();
-		cacheMin.clear();
-		cacheMax.clear();
-
-		// Iterate over histogram data sets
-		int breakIndex = 0;
 		for (Number[] brk : breaks) {
-			long[] cells = new long[brk.length - 1];
-			long colMin = Long.MAX_VALUE;
-			long colMax = Long.MIN_VALUE;
+			cellList.add(new long[brk.length - 1]);
+		}
 
-			Iterable<? extends Comparable<?>> data;
-			if (orientation == Orientation.VERTICAL) {
-				data = getData().getColumn(breakIndex);
-			} else {
-				data = getData().getRecord(breakIndex);
+		DataSource data = getData();
+		if (orientation == Orientation.VERTICAL) {
+			rowCountCounted = data.getRowCount();
+			countRows(0, rowCountCounted);
+			return;
+		}
+		for (int breakIndex = 0; breakIndex < breaks.size(); breakIndex++) {
+			long[] cells = cellList.get(breakIndex);
+			for (int col = 0; col < data.getColumnCount(); col++) {
+				int cell = getCellIndex(breakIndex, data.getDouble(col, breakIndex));
+				if (cell >= 0) {
+					cells[cell]++;
+				}
 			}
+		}
+	}
 
-			// Iterate over data cells
-			for (Comparable<?> cell : data) {
-				if (!(cell instanceof Number)) {
-					continue;
-				}
-				Number numericCell = (Number) cell;
-				double val = numericCell.doubleValue();
-				// Iterate over histogram rows
-				for (int i = 0; i < brk.length - 1; i++) {
-					// Put the value into corresponding class
-					if ((val >= brk[i].doubleValue())
-							&& (val < brk[i + 1].doubleValue())) {
-						cells[i]++;
-						if (cells[i] > colMax) {
-							colMax = cells[i];
-						}
-						if (cells[i] < colMin) {
-							colMin = cells[i];
-						}
-						break;
+	@Override
+	protected boolean addToCells(DataChangeEvent... events) {
+		if (orientation != Orientation.VERTICAL || rowCountCounted < 0 ||
+				events == null || events.length == 0) {
+			return false;
+		}
+		int rowCountNew = getData().getRowCount();
+		for (DataChangeEvent event : events) {
+			// Only rows that have been appended are supported
+			if (event.getRow() < rowCountCounted || event.getRowLast() >= rowCountNew) {
+				return false;
+			}
+		}
+		countRows(rowCountCounted, rowCountNew);
+		rowCountCounted = rowCountNew;
+		return true;
+	}
+
+	/**
+	 * Adds the values of a range of rows to the cells of a vertically
+	 * oriented histogram.
+	 * @param fromRow Index of the first row.
+	 * @param toRow Index after the last row.
+	 */
+	private void countRows(int fromRow, int toRow) {
+		DataSource data = getData();
+		double[] values = new double[Math.min(CHUNK_SIZE, Math.max(toRow - fromRow, 0))];
+		for (int col = 0; col < cellList.size(); col++) {
+			long[] cells = cellList.get(col);
+			for (int chunkFirst = fromRow; chunkFirst < toRow; chunkFirst += CHUNK_SIZE) {
+				int length = Math.min(CHUNK_SIZE, toRow - chunkFirst);
+				data.copyColumn(col, values, chunkFirst, chunkFirst + length);
+				for (int i = 0; i < length; i++) {
+					int cell = getCellIndex(col, values[i]);
+					if (cell >= 0) {
+						cells[cell]++;
 					}
 				}
 			}
-			cellList.add(cells);
-			cacheMin.put(breakIndex, colMin);
-			cacheMax.put(breakIndex, colMax);
-			breakIndex++;
 		}
 	}
 
+	/**
+	 * Converts the breaks to primitive values and determines whether the
+	 * cells of a histogram column are equally sized.
+	 */
+	private void initBreaks() {
+		breakValues = new double[breaks.size()][];
+		cellWidths = new double[breaks.size()];
+		for (int i = 0; i < breakValues.length; i++) {
+			Number[] brk = breaks.get(i);
+			double[] values = new double[brk.length];
+			for (int j = 0; j < values.length; j++) {
+				values[j] = brk[j].doubleValue();
+			}
+			breakValues[i] = values;
+
+			int cellCount = values.length - 1;
+			double width = (values[cellCount] - values[0])/cellCount;
+			boolean equal = width > 0.0;
+			// Breaks may differ slightly from equally spaced values due to
+			// rounding; the calculated cell index is corrected afterwards
+			double tolerance = 1e-9*width;
+			for (int j = 1; equal && j < cellCount; j++) {
+				equal = Math.abs(values[j] - (values[0] + j*width)) <= tolerance;
+			}
+			cellWidths[i] = equal ? width : Double.NaN;
+		}
+	}
+
+	/**
+	 * Returns the index of the cell which contains the specified value. A cell
+	 * contains values that are greater than or equal to its lower break and
+	 * less than its upper break.
+	 * @param col Index of the histogram column.
+	 * @param value Value.
+	 * @return Index of the cell, or {@code -1} if no cell contains the value.
+	 */
+	private int getCellIndex(int col, double value) {
+		double[] values = breakValues[col];
+		int cellCount = values.length - 1;
+		if (!(value >= values[0] && value < values[cellCount])) {
+			return -1;
+		}
+		double width = cellWidths[col];
+		if (width > 0.0) {
+			int cell = Math.min((int) ((value - values[0])/width), cellCount - 1);
+			while (value < values[cell]) {
+				cell--;
+			}
+			while (value >= values[cell + 1]) {
+				cell++;
+			}
+			return cell;
+		}
+		// Binary search for the last break that isn't greater than the value
+		int low = 0;
+		int high = cellCount - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (values[mid] <= value) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
 	/**
 	 * Returns the direction in which the histogram values will be accumulated.
 	 * @return Horizontal or vertical orientation.
@@ -250,7 +342,7 @@ public class Histogram2D extends AbstractHistogram2D {
 		in.defaultReadObject();
 
 		// Handle transient fields
-		cacheMin = new HashMap<>();
-		cacheMax = new HashMap<>();
+		initBreaks();
+		rowCountCounted = -1;
 	}
 }
@@ -0,0 +1,230 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.statistics;
+
+import de.erichseifert.gral.util.MathUtils;
+
+/**
+ * <p>Running calculation of basic statistics like element count, sum, or
+ * central moments. Values can be added one by one, so the statistics of a
+ * growing data set can be kept up to date without reading all values
+ * again.</p>
+ *
+ * <p>Notes: Calculation of higher order statistics is based on formulas from
+ * http://people.xiph.org/~tterribe/notes/homs.html</p>
+ */
+public class Moments {
+	/** Number of values. */
+	private double n;
+	/** Sum of all values. */
+	private double sum;
+	/** Sum of all squared values. */
+	private double sum2;
+	/** Sum of all cubed values. */
+	private double sum3;
+	/** Sum of all values to the power of four. */
+	private double sum4;
+	/** Arithmetic mean. */
+	private double mean;
+	/** Sum of squared differences from the mean. */
+	private double sumOfDiffSquares;
+	/** Sum of cubed differences from the mean. */
+	private double sumOfDiffCubics;
+	/** Sum of differences from the mean to the power of four. */
+	private double sumOfDiffQuads;
+	/** Smallest value. */
+	private double min = Double.POSITIVE_INFINITY;
+	/** Largest value. */
+	private double max = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Initializes new moments without any values.
+	 */
+	public Moments() {
+	}
+
+	/**
+	 * Initializes new moments from the respective slots of the specified
+	 * array.
+	 * @param values Array of {@link Statistics} slots.
+	 * @see #put(double[])
+	 */
+	Moments(double[] values) {
+		n = values[Statistics.SLOT_N];
+		sum = values[Statistics.SLOT_SUM];
+		sum2 = values[Statistics.SLOT_SUM2];
+		sum3 = values[Statistics.SLOT_SUM3];
+		sum4 = values[Statistics.SLOT_SUM4];
+		mean = values[Statistics.SLOT_MEAN];
+		sumOfDiffSquares = values[Statistics.SLOT_SUM_OF_DIFF_SQUARES];
+		sumOfDiffCubics = values[Statistics.SLOT_SUM_OF_DIFF_CUBICS];
+		sumOfDiffQuads = values[Statistics.SLOT_SUM_OF_DIFF_QUADS];
+		if (n > 0.0) {
+			min = values[Statistics.SLOT_MIN];
+			max = values[Statistics.SLOT_MAX];
+		}
+	}
+
+	/**
+	 * Adds a value to the statistics. Values that cannot be used for
+	 * calculations (NaN or infinite values) are ignored.
+	 * @param val Value to be added.
+	 */
+	public void add(double val) {
+		if (!MathUtils.isCalculatable(val)) {
+			return;
+		}
+
+		if (val < min) {
+			min = val;
+		}
+		if (val > max) {
+			max = val;
+		}
+
+		n++;
+
+		double val2 = val*val;
+		sum += val;
+		sum2 += val2;
+		sum3 += val2*val;
+		sum4 += val2*val2;
+
+		double delta = val - mean;
+		double deltaN = delta/n;
+		double deltaN2 = deltaN*deltaN;
+		double term1 = delta*deltaN*(n - 1.0);
+		mean += deltaN;
+		sumOfDiffQuads += term1*deltaN2*(n*n - 3.0*n + 3.0) +
+			6.0*deltaN2*sumOfDiffSquares - 4.0*deltaN*sumOfDiffCubics;
+		sumOfDiffCubics += term1*deltaN*(n - 2.0) -
+			3.0*deltaN*sumOfDiffSquares;
+		sumOfDiffSquares += term1;
+	}
+
+	/**
+	 * Adds all values of other moments to these moments. The results are the
+	 * same as if the values had been added one by one within floating-point
+	 * precision, so the moments of parts of a data set can be calculated
+	 * independently and merged afterwards.
+	 * @param other Moments to be added.
+	 */
+	public void merge(Moments other) {
+		if (other.n == 0.0) {
+			return;
+		}
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		sum += other.sum;
+		sum2 += other.sum2;
+		sum3 += other.sum3;
+		sum4 += other.sum4;
+
+		double na = n;
+		double nb = other.n;
+		double n = na + nb;
+		double delta = other.mean - mean;
+		double deltaN = delta/n;
+		double deltaN2 = deltaN*deltaN;
+		double term1 = delta*deltaN*na*nb;
+		sumOfDiffQuads += other.sumOfDiffQuads +
+			term1*deltaN2*(na*na - na*nb + nb*nb) +
+			6.0*deltaN2*(na*na*other.sumOfDiffSquares + nb*nb*sumOfDiffSquares) +
+			4.0*deltaN*(na*other.sumOfDiffCubics - nb*sumOfDiffCubics);
+		sumOfDiffCubics += other.sumOfDiffCubics +
+			term1*deltaN*(na - nb) +
+			3.0*deltaN*(na*other.sumOfDiffSquares - nb*sumOfDiffSquares);
+		sumOfDiffSquares += other.sumOfDiffSquares + term1;
+		mean += nb*deltaN;
+		this.n = n;
+	}
+
+	/**
+	 * Returns the number of values that have been added.
+	 * @return Number of values.
+	 */
+	public double getN() {
+		return n;
+	}
+
+	/**
+	 * Returns the smallest value that has been added.
+	 * @return Smallest value, or positive infinity if no value has been
+	 *         added.
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * Returns the largest value that has been added.
+	 * @return Largest value, or negative infinity if no value has been
+	 *         added.
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the sum of all values that have been added.
+	 * @return Sum of all values.
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * Returns the arithmetic mean of all values that have been added.
+	 * @return Arithmetic mean.
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Stores all statistics in the respective slots of the specified array.
+	 * Minimum and maximum are stored as {@code NaN} if no value has been
+	 * added.
+	 * @param values Array of {@link Statistics} slots for storing results.
+	 */
+	void put(double[] values) {
+		values[Statistics.SLOT_MIN] = (n > 0.0) ? min : Double.NaN;
+		values[Statistics.SLOT_MAX] = (n > 0.0) ? max : Double.NaN;
+
+		values[Statistics.SLOT_N] = n;
+		values[Statistics.SLOT_SUM] = sum;
+		values[Statistics.SLOT_SUM2] = sum2;
+		values[Statistics.SLOT_SUM3] = sum3;
+		values[Statistics.SLOT_SUM4] = sum4;
+		values[Statistics.SLOT_MEAN] = mean;
+		values[Statistics.SLOT_SUM_OF_DIFF_QUADS] = sumOfDiffQuads;
+		values[Statistics.SLOT_SUM_OF_DIFF_CUBICS] = sumOfDiffCubics;
+		values[Statistics.SLOT_SUM_OF_DIFF_SQUARES] = sumOfDiffSquares;
+
+		values[Statistics.SLOT_VARIANCE] = sumOfDiffSquares/(n - 1.0);
+		values[Statistics.SLOT_POPULATION_VARIANCE] = sumOfDiffSquares/n;
+		values[Statistics.SLOT_SKEWNESS] =
+			(sumOfDiffCubics/n)/Math.pow(sumOfDiffSquares/n, 3.0/2.0) - 3.0;
+		values[Statistics.SLOT_KURTOSIS] =
+			(n*sumOfDiffQuads)/(sumOfDiffSquares*sumOfDiffSquares) - 3.0;
+	}
+}
@@ -0,0 +1,358 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.statistics;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Random;
+
+import de.erichseifert.gral.util.MathUtils;
+
+/**
+ * <p>Class that estimates quantiles of a sequence of values. Values are
+ * added one by one and sketches of different sequences can be merged.</p>
+ *
+ * <p>If the sketch has a size, it uses the KLL algorithm: values are stored
+ * in levels of compactors, where each value of level {@code h} represents
+ * {@code 2^h} values of the sequence. When a level is full, it is sorted and
+ * every second value is moved to the next level. The sketch only stores
+ * about {@code 3*size} values and the rank error of a quantile is about
+ * {@code 1.7/size} of the number of values. As long as fewer values than the
+ * size have been added, all quantiles are exact.</p>
+ *
+ * <p>A sketch without size stores all values in a primitive array that is
+ * sorted once when the first quantile is requested. Quantiles are always
+ * exact then.</p>
+ *
+ * <p>Quantiles are interpolated like the default method of R (type 7), see
+ * {@link MathUtils#quantile(java.util.List, double)}.</p>
+ */
+public class QuantileSketch {
+	/** Size that is used by default for approximate quantiles. It results in
+	a rank error of less than one percent. */
+	public static final int DEFAULT_SIZE = 200;
+
+	/** Ratio between the capacities of two consecutive levels. */
+	private static final double CAPACITY_RATIO = 2.0/3.0;
+	/** Seed for choosing which values of a level are kept. Equal inputs
+	result in equal sketches. */
+	private static final long SEED = 0x6b4c4c5eL;
+
+	/** Size of the largest level, or zero if all values are kept. */
+	private final int size;
+	/** Values of each level. */
+	private double[][] levels;
+	/** Number of values of each level. */
+	private int[] levelSizes;
+	/** Number of levels. */
+	private int levelCount;
+	/** Maximal number of values of each level. */
+	private int[] capacities;
+	/** Sum of the capacities of all levels. */
+	private int capacity;
+	/** Number of values stored in all levels. */
+	private int itemCount;
+	/** Number of values that have been added. */
+	private long count;
+	/** Smallest value that has been added. */
+	private double min;
+	/** Largest value that has been added. */
+	private double max;
+	/** Random generator used for compaction. */
+	private final Random random;
+
+	/** Sorted values of all levels; used for queries. */
+	private double[] sortedValues;
+	/** Accumulated weights of the sorted values. */
+	private long[] sortedWeights;
+
+	/**
+	 * Initializes a new empty sketch with the specified size.
+	 * @param size Size of the largest level which defines the accuracy, or
+	 *        zero to keep all values and calculate exact quantiles.
+	 */
+	public QuantileSketch(int size) {
+		if (size < 0 || size == 1) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid sketch size: {0,number,integer}", size)); //$NON-NLS-1$
+		}
+		this.size = size;
+		levels = new double[][] {new double[Math.max(size, 16)]};
+		levelSizes = new int[1];
+		levelCount = 1;
+		updateCapacities();
+		min = Double.NaN;
+		max = Double.NaN;
+		random = new Random(SEED);
+	}
+
+	/**
+	 * Returns the size of the largest level.
+	 * @return Size, or zero if quantiles are exact.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns whether all values are kept and quantiles are exact.
+	 * @return {@code true} if quantiles are exact.
+	 */
+	public boolean isExact() {
+		return size == 0 || levelCount == 1 && count == levelSizes[0];
+	}
+
+	/**
+	 * Returns the number of values that have been added.
+	 * @return Number of values.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Adds a value to the sketch. Values that cannot be used for
+	 * calculations (NaN or infinite values) are ignored.
+	 * @param value Value to be added.
+	 */
+	public void add(double value) {
+		if (!MathUtils.isCalculatable(value)) {
+			return;
+		}
+		if (count == 0 || value < min) {
+			min = value;
+		}
+		if (count == 0 || value > max) {
+			max = value;
+		}
+		count++;
+		append(0, value);
+		compress();
+	}
+
+	/**
+	 * Adds all values of another sketch to this sketch. Both sketches must
+	 * have the same size.
+	 * @param other Sketch to be merged.
+	 */
+	public void merge(QuantileSketch other) {
+		if (other.size != size) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Sketches of different size cannot be merged: {0,number,integer}, {1,number,integer}", //$NON-NLS-1$
+				size, other.size));
+		}
+		if (other.count == 0) {
+			return;
+		}
+		if (count == 0 || other.min < min) {
+			min = other.min;
+		}
+		if (count == 0 || other.max > max) {
+			max = other.max;
+		}
+		count += other.count;
+		for (int level = 0; level < other.levelCount; level++) {
+			double[] values = other.levels[level];
+			for (int i = 0; i < other.levelSizes[level]; i++) {
+				append(level, values[i]);
+			}
+		}
+		compress();
+	}
+
+	/**
+	 * Returns an estimate of the specified quantile.
+	 * @param q Quantile in range [0, 1].
+	 * @return Quantile value, or {@code NaN} if no values have been added.
+	 */
+	public double getQuantile(double q) {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		if (q <= 0.0) {
+			return min;
+		} else if (q >= 1.0) {
+			return max;
+		}
+		sort();
+		// Compaction keeps the total weight
+		long n = count;
+		double position = q*(n - 1);
+		long positionInt = (long) position;
+		double positionFrac = position - positionInt;
+		double lower = getValueAt(positionInt);
+		if (positionFrac == 0.0 || positionInt + 1 >= n) {
+			return lower;
+		}
+		double upper = getValueAt(positionInt + 1);
+		return lower + (upper - lower)*positionFrac;
+	}
+
+	/**
+	 * Returns the value at the specified position of the sorted sequence
+	 * represented by this sketch.
+	 * @param position Zero-based position.
+	 * @return Value.
+	 */
+	private double getValueAt(long position) {
+		if (sortedWeights == null) {
+			// All values have the weight one
+			return sortedValues[(int) position];
+		}
+		// Binary search for the first value whose accumulated weight
+		// exceeds the position
+		int low = 0;
+		int high = sortedWeights.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sortedWeights[mid] > position) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return sortedValues[low];
+	}
+
+	/**
+	 * Sorts the values of all levels for queries, unless this has already
+	 * been done.
+	 */
+	private void sort() {
+		if (sortedValues != null) {
+			return;
+		}
+		if (levelCount == 1) {
+			// Sort the values in place, as the order within a level doesn't
+			// matter
+			Arrays.sort(levels[0], 0, levelSizes[0]);
+			sortedValues = levels[0];
+			sortedWeights = null;
+			return;
+		}
+		int itemCount = 0;
+		for (int level = 0; level < levelCount; level++) {
+			Arrays.sort(levels[level], 0, levelSizes[level]);
+			itemCount += levelSizes[level];
+		}
+		// Merge the sorted levels
+		double[] values = new double[itemCount];
+		long[] weights = new long[itemCount];
+		int[] positions = new int[levelCount];
+		long weightSum = 0;
+		for (int i = 0; i < itemCount; i++) {
+			int levelMin = -1;
+			for (int level = 0; level < levelCount; level++) {
+				if (positions[level] < levelSizes[level] && (levelMin < 0 ||
+						levels[level][positions[level]] < levels[levelMin][positions[levelMin]])) {
+					levelMin = level;
+				}
+			}
+			values[i] = levels[levelMin][positions[levelMin]++];
+			weightSum += 1L << levelMin;
+			weights[i] = weightSum;
+		}
+		sortedValues = values;
+		sortedWeights = weights;
+	}
+
+	/**
+	 * Appends a value to a level and creates the level if necessary.
+	 * @param level Index of the level.
+	 * @param value Value.
+	 */
+	private void append(int level, double value) {
+		sortedValues = null;
+		if (level >= levelCount) {
+			if (level >= levels.length) {
+				levels = Arrays.copyOf(levels, level + 1);
+				levelSizes = Arrays.copyOf(levelSizes, level + 1);
+			}
+			if (levels[level] == null) {
+				levels[level] = new double[Math.max(size, 16)];
+			}
+			levelCount = level + 1;
+			updateCapacities();
+		}
+		double[] values = levels[level];
+		if (levelSizes[level] == values.length) {
+			levels[level] = values = Arrays.copyOf(values, 2*values.length);
+		}
+		values[levelSizes[level]++] = value;
+		itemCount++;
+	}
+
+	/**
+	 * Calculates the maximal number of values of each level. The capacity
+	 * shrinks geometrically from the highest level to the lowest level.
+	 */
+	private void updateCapacities() {
+		capacities = new int[levelCount];
+		capacity = 0;
+		for (int level = 0; level < levelCount; level++) {
+			int depth = levelCount - 1 - level;
+			capacities[level] = Math.max(2, (int) Math.ceil(size*Math.pow(CAPACITY_RATIO, depth)));
+			capacity += capacities[level];
+		}
+	}
+
+	/**
+	 * Compacts levels as long as the sketch stores more values than the
+	 * levels can hold.
+	 */
+	private void compress() {
+		if (size == 0) {
+			return;
+		}
+		while (itemCount > capacity) {
+			for (int level = 0; level < levelCount; level++) {
+				if (levelSizes[level] >= capacities[level]) {
+					compact(level);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sorts a level and moves every second value to the next level. If the
+	 * number of values is odd, the largest value remains in the level.
+	 * @param level Index of the level.
+	 */
+	private void compact(int level) {
+		double[] values = levels[level];
+		int length = levelSizes[level];
+		Arrays.sort(values, 0, length);
+		int pairs = length/2;
+		int offset = random.nextBoolean() ? 1 : 0;
+		for (int i = 0; i < pairs; i++) {
+			append(level + 1, values[2*i + offset]);
+		}
+		// append() may have replaced the array of the next level only
+		values = levels[level];
+		if ((length & 1) != 0) {
+			values[0] = values[length - 1];
+		}
+		levelSizes[level] = length & 1;
+		itemCount -= length - (length & 1);
+	}
+}
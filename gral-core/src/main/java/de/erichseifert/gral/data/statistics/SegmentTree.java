@@ -0,0 +1,242 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.statistics;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+
+import de.erichseifert.gral.util.MathUtils;
+
+/**
+ * <p>Index that provides the number, the sum, the minimum, and the maximum
+ * of arbitrary ranges of a sequence of numbers in logarithmic time. Values
+ * can be appended or changed in logarithmic time as well.</p>
+ *
+ * <p>Values that cannot be used for calculations (NaN or infinite values)
+ * are ignored in the same way as in {@link Statistics}.</p>
+ */
+public class SegmentTree {
+	/** Number of values that can be stored before the tree has to grow. */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Number of leaves, always a power of two. */
+	private int capacity;
+	/** Number of values. */
+	private int size;
+	/** Number of calculatable values of each node. */
+	private int[] counts;
+	/** Sum of each node. */
+	private double[] sums;
+	/** Minimum of each node. */
+	private double[] mins;
+	/** Maximum of each node. */
+	private double[] maxs;
+
+	/**
+	 * Initializes a new empty index.
+	 */
+	public SegmentTree() {
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Allocates empty node arrays for the specified number of leaves.
+	 * @param capacity Number of leaves.
+	 */
+	private void allocate(int capacity) {
+		this.capacity = capacity;
+		counts = new int[2*capacity];
+		sums = new double[2*capacity];
+		mins = new double[2*capacity];
+		maxs = new double[2*capacity];
+		Arrays.fill(mins, Double.POSITIVE_INFINITY);
+		Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Returns the number of values in this index.
+	 * @return Number of values.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Appends a value to the end of the sequence.
+	 * @param value Value to be appended.
+	 */
+	public void add(double value) {
+		if (size == capacity) {
+			grow();
+		}
+		set(size++, value);
+	}
+
+	/**
+	 * Changes a value of the sequence.
+	 * @param index Index of the value.
+	 * @param value New value.
+	 */
+	public void set(int index, double value) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(MessageFormat.format(
+				"Index {0,number,integer} does not exist.", index)); //$NON-NLS-1$
+		}
+		int node = capacity + index;
+		if (MathUtils.isCalculatable(value)) {
+			counts[node] = 1;
+			sums[node] = value;
+			mins[node] = value;
+			maxs[node] = value;
+		} else {
+			counts[node] = 0;
+			sums[node] = 0.0;
+			mins[node] = Double.POSITIVE_INFINITY;
+			maxs[node] = Double.NEGATIVE_INFINITY;
+		}
+		for (node >>= 1; node > 0; node >>= 1) {
+			update(node);
+		}
+	}
+
+	/**
+	 * Doubles the number of leaves and rebuilds all inner nodes.
+	 */
+	private void grow() {
+		int capacityOld = capacity;
+		int[] countsOld = counts;
+		double[] sumsOld = sums;
+		double[] minsOld = mins;
+		double[] maxsOld = maxs;
+		allocate(2*capacityOld);
+		System.arraycopy(countsOld, capacityOld, counts, capacity, capacityOld);
+		System.arraycopy(sumsOld, capacityOld, sums, capacity, capacityOld);
+		System.arraycopy(minsOld, capacityOld, mins, capacity, capacityOld);
+		System.arraycopy(maxsOld, capacityOld, maxs, capacity, capacityOld);
+		for (int node = capacity - 1; node > 0; node--) {
+			update(node);
+		}
+	}
+
+	/**
+	 * Calculates the aggregates of an inner node from its children.
+	 * @param node Index of the node.
+	 */
+	private void update(int node) {
+		int left = 2*node;
+		int right = left + 1;
+		counts[node] = counts[left] + counts[right];
+		sums[node] = sums[left] + sums[right];
+		mins[node] = Math.min(mins[left], mins[right]);
+		maxs[node] = Math.max(maxs[left], maxs[right]);
+	}
+
+	/**
+	 * Calculates the aggregates of a range of values.
+	 * @param fromIndex Index of the first value (inclusive).
+	 * @param toIndex Index of the last value (exclusive).
+	 * @return Array containing the number, the sum, the minimum, and the
+	 *         maximum of all calculatable values in the range.
+	 */
+	private double[] query(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException(MessageFormat.format(
+				"Invalid range from {0,number,integer} to {1,number,integer}.", //$NON-NLS-1$
+				fromIndex, toIndex));
+		}
+		double count = 0.0;
+		double sum = 0.0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		int left = fromIndex + capacity;
+		int right = toIndex + capacity;
+		while (left < right) {
+			if ((left & 1) == 1) {
+				count += counts[left];
+				sum += sums[left];
+				min = Math.min(min, mins[left]);
+				max = Math.max(max, maxs[left]);
+				left++;
+			}
+			if ((right & 1) == 1) {
+				right--;
+				count += counts[right];
+				sum += sums[right];
+				min = Math.min(min, mins[right]);
+				max = Math.max(max, maxs[right]);
+			}
+			left >>= 1;
+			right >>= 1;
+		}
+		return new double[] {count, sum, min, max};
+	}
+
+	/**
+	 * Returns the smallest value in the specified range.
+	 * @param fromIndex Index of the first value (inclusive).
+	 * @param toIndex Index of the last value (exclusive).
+	 * @return Smallest value, or positive infinity if the range contains no
+	 *         calculatable values.
+	 */
+	public double getMin(int fromIndex, int toIndex) {
+		return query(fromIndex, toIndex)[2];
+	}
+
+	/**
+	 * Returns the largest value in the specified range.
+	 * @param fromIndex Index of the first value (inclusive).
+	 * @param toIndex Index of the last value (exclusive).
+	 * @return Largest value, or negative infinity if the range contains no
+	 *         calculatable values.
+	 */
+	public double getMax(int fromIndex, int toIndex) {
+		return query(fromIndex, toIndex)[3];
+	}
+
+	/**
+	 * Returns the sum of all values in the specified range.
+	 * @param fromIndex Index of the first value (inclusive).
+	 * @param toIndex Index of the last value (exclusive).
+	 * @return Sum of all calculatable values.
+	 */
+	public double getSum(int fromIndex, int toIndex) {
+		return query(fromIndex, toIndex)[1];
+	}
+
+	/**
+	 * Stores number, sum, mean, minimum, and maximum of a range of values in
+	 * the respective slots of the specified array. Minimum and maximum are
+	 * stored as {@code NaN} if the range doesn't contain any values.
+	 * @param fromIndex Index of the first value (inclusive).
+	 * @param toIndex Index of the last value (exclusive).
+	 * @param values Array of {@link Statistics} slots for storing results.
+	 */
+	void put(int fromIndex, int toIndex, double[] values) {
+		double[] aggregates = query(fromIndex, toIndex);
+		double n = aggregates[0];
+		values[Statistics.SLOT_MIN] = (n > 0.0) ? aggregates[2] : Double.NaN;
+		values[Statistics.SLOT_MAX] = (n > 0.0) ? aggregates[3] : Double.NaN;
+		values[Statistics.SLOT_N] = n;
+		values[Statistics.SLOT_SUM] = aggregates[1];
+		values[Statistics.SLOT_MEAN] = (n > 0.0) ? aggregates[1]/n : 0.0;
+	}
+}
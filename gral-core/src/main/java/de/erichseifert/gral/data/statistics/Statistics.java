@@ -21,18 +21,30 @@
  */
 package de.erichseifert.gral.data.statistics;
 
+import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
-import de.erichseifert.gral.util.DataUtils;
-import de.erichseifert.gral.util.MathUtils;
-import de.erichseifert.gral.util.SortedList;
+import de.erichseifert.gral.data.Column;
+import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.data.Row;
 
 
 /**
- * A class that computes and stores various statistical information
- * for an Iterable of values.
+ * <p>A class that computes and stores various statistical information
+ * for an Iterable of values.</p>
+ *
+ * <p>Statistics are calculated when they are requested for the first time.
+ * All basic statistics like count, sum, central moments, minimum and maximum
+ * are calculated together in a single pass over the values and are stored in
+ * a fixed slot for each key, so subsequent requests of other keys don't read
+ * the values again. Requesting a quantile also calculates all missing basic
+ * statistics in the same pass.</p>
+ *
+ * <p>Quantiles are calculated exactly by default, which requires all values
+ * to be sorted once. For large data sets, a {@link QuantileSketch} of a
+ * fixed size can be used instead; see {@link #setQuantileSketchSize(int)}.</p>
  */
 public class Statistics {
 	/** Key for specifying the total number of elements.
@@ -84,124 +96,313 @@ public class Statistics {
 	/** Key for specifying the 3rd quartile (or 75th quantile). */
 	public static final String QUARTILE_3 = "quantile75"; //$NON-NLS-1$
 
+	/** Slot of the number of elements. */
+	static final int SLOT_N = 0;
+	/** Slot of the sum of all values. */
+	static final int SLOT_SUM = 1;
+	/** Slot of the sum of all value squares. */
+	static final int SLOT_SUM2 = 2;
+	/** Slot of the sum of all value cubics. */
+	static final int SLOT_SUM3 = 3;
+	/** Slot of the sum of all value quads. */
+	static final int SLOT_SUM4 = 4;
+	/** Slot of the minimum. */
+	static final int SLOT_MIN = 5;
+	/** Slot of the maximum. */
+	static final int SLOT_MAX = 6;
+	/** Slot of the arithmetic mean. */
+	static final int SLOT_MEAN = 7;
+	/** Slot of the sum of squared differences. */
+	static final int SLOT_SUM_OF_DIFF_SQUARES = 8;
+	/** Slot of the sum of cubed differences. */
+	static final int SLOT_SUM_OF_DIFF_CUBICS = 9;
+	/** Slot of the sum of differences to the power of four. */
+	static final int SLOT_SUM_OF_DIFF_QUADS = 10;
+	/** Slot of the sample variance. */
+	static final int SLOT_VARIANCE = 11;
+	/** Slot of the population variance. */
+	static final int SLOT_POPULATION_VARIANCE = 12;
+	/** Slot of the skewness. */
+	static final int SLOT_SKEWNESS = 13;
+	/** Slot of the kurtosis. */
+	static final int SLOT_KURTOSIS = 14;
+	/** Slot of the 1st quartile. */
+	static final int SLOT_QUARTILE_1 = 15;
+	/** Slot of the 2nd quartile, i.e. the median. */
+	static final int SLOT_QUARTILE_2 = 16;
+	/** Slot of the 3rd quartile. */
+	static final int SLOT_QUARTILE_3 = 17;
+	/** Keys of all slots. */
+	static final String[] KEYS = {
+		N, SUM, SUM2, SUM3, SUM4, MIN, MAX, MEAN,
+		SUM_OF_DIFF_SQUARES, SUM_OF_DIFF_CUBICS, SUM_OF_DIFF_QUADS,
+		VARIANCE, POPULATION_VARIANCE, SKEWNESS, KURTOSIS,
+		QUARTILE_1, QUARTILE_2, QUARTILE_3
+	};
+	/** Bit mask of all slots that are calculated from moments. */
+	private static final int MOMENTS = (1 << SLOT_QUARTILE_1) - 1;
+	/** Bit mask of all slots that are calculated from quantiles. */
+	private static final int QUANTILES = ((1 << KEYS.length) - 1) & ~MOMENTS;
+	/** Slots of all keys. */
+	private static final Map<String, Integer> SLOTS = new HashMap<>();
+	static {
+		for (int slot = 0; slot < KEYS.length; slot++) {
+			SLOTS.put(KEYS[slot], slot);
+		}
+	}
+
+	/** Number of values that are read from a data source at once. */
+	private static final int BUFFER_SIZE = 1024;
+
 	/** Data values that are used to build statistical aggregates. */
 	private final Iterable<? extends Comparable<?>> data;
-	/** Table statistics stored by key. */
-	private final Map<String, Double> statistics;
+	/** Statistics values stored by slot. */
+	private final double[] values;
+	/** Bit mask of all slots that have been calculated. */
+	private int available;
+	/** Size of the sketch used for quantiles, or zero for exact quantiles. */
+	private int quantileSketchSize;
+	/** Sketch containing all values for quantile calculation. */
+	private QuantileSketch quantiles;
 
 	/**
 	 * Initializes a new object with the specified data values.
 	 * @param data Data to be analyzed.
 	 */
 	public Statistics(Iterable<? extends Comparable<?>> data) {
-		statistics = new HashMap<>();
 		this.data = data;
+		values = new double[KEYS.length];
+		Arrays.fill(values, Double.NaN);
 	}
 
 	/**
-	 * Utility method that calculates basic statistics like element count, sum,
-	 * or mean.
-	 *
-	 * Notes: Calculation of higher order statistics is based on formulas from
-	 * http://people.xiph.org/~tterribe/notes/homs.html
-	 *
-	 * @param data Data values used to calculate statistics
-	 * @param stats A {@code Map} that should store the new statistics.
+	 * Initializes a new object with the specified data values and basic
+	 * statistics that have already been calculated for these values. Only
+	 * statistics that cannot be derived from the moments, like quantiles,
+	 * will be calculated from the data values.
+	 * @param data Data to be analyzed.
+	 * @param moments Basic statistics of the data values.
 	 */
-	private void createBasicStats(Iterable<? extends Comparable<?>> data, Map<String, Double> stats) {
-		double n = 0.0;
-		double sum = 0.0;
-		double sum2 = 0.0;
-		double sum3 = 0.0;
-		double sum4 = 0.0;
-		double mean = 0.0;
-		double sumOfDiffSquares = 0.0;
-		double sumOfDiffCubics = 0.0;
-		double sumOfDiffQuads = 0.0;
-
-		for (Comparable<?> cell : data) {
-			if (!(cell instanceof Number)) {
-				continue;
-			}
-			Number numericCell = (Number) cell;
-			if (!MathUtils.isCalculatable(numericCell)) {
-				continue;
+	public Statistics(Iterable<? extends Comparable<?>> data, Moments moments) {
+		this(data);
+		moments.put(values);
+		available = MOMENTS;
+	}
+
+	/**
+	 * Initializes a new object with the specified data values and
+	 * statistics that have already been calculated elsewhere, for example by
+	 * a database. All other statistics will be calculated from the data
+	 * values. Values of unknown keys are ignored.
+	 * @param data Data to be analyzed.
+	 * @param precalculated Statistics of the data values stored as
+	 *        (key, value) pairs.
+	 */
+	public Statistics(Iterable<? extends Comparable<?>> data,
+			Map<String, Double> precalculated) {
+		this(data);
+		for (Map.Entry<String, Double> entry : precalculated.entrySet()) {
+			Integer slot = SLOTS.get(entry.getKey());
+			if (slot != null && entry.getValue() != null) {
+				values[slot] = entry.getValue();
+				available |= 1 << slot;
 			}
-			double val = numericCell.doubleValue();
+		}
+	}
 
-			if (!stats.containsKey(MIN) || val < stats.get(MIN)) {
-				stats.put(MIN, val);
+	/**
+	 * Initializes a new object with the specified data values which are a
+	 * range of the values of an index. Number, sum, mean, minimum, and maximum
+	 * are taken from the index; all other statistics will be calculated from
+	 * the data values.
+	 * @param data Data to be analyzed.
+	 * @param index Index of a sequence of values.
+	 * @param fromIndex Index of the first value (inclusive).
+	 * @param toIndex Index of the last value (exclusive).
+	 */
+	public Statistics(Iterable<? extends Comparable<?>> data, SegmentTree index,
+			int fromIndex, int toIndex) {
+		this(data);
+		index.put(fromIndex, toIndex, values);
+		available = (1 << SLOT_N) | (1 << SLOT_SUM) | (1 << SLOT_MEAN) |
+			(1 << SLOT_MIN) | (1 << SLOT_MAX);
+	}
+
+	/**
+	 * Calculates all basic statistics like element count, sum, or mean that
+	 * aren't available yet and, if requested, all quantiles in a single pass
+	 * over the data values. Basic statistics of data sources are merged from
+	 * the statistics of their columns.
+	 * @param withQuantiles {@code true} if quantiles should be calculated.
+	 */
+	private void calculate(boolean withQuantiles) {
+		boolean withMoments = (available & MOMENTS) != MOMENTS;
+		if (withMoments && data instanceof DataSource) {
+			// Column statistics are cached by the data source and may be
+			// calculated in parallel
+			DataSource source = (DataSource) data;
+			Moments merged = new Moments();
+			for (int col = 0; col < source.getColumnCount(); col++) {
+				merged.merge(source.getStatistics(col).getMoments());
 			}
-			if (!stats.containsKey(MAX) || val > stats.get(MAX)) {
-				stats.put(MAX, val);
+			merged.put(values);
+			available |= MOMENTS;
+			withMoments = false;
+		}
+		final Moments moments = withMoments ? new Moments() : null;
+		final QuantileSketch sketch = (withQuantiles && quantiles == null) ?
+			new QuantileSketch(quantileSketchSize) : null;
+		if (moments != null || sketch != null) {
+			readValues(data, new ValueConsumer() {
+				public void add(double value) {
+					if (moments != null) {
+						moments.add(value);
+					}
+					if (sketch != null) {
+						sketch.add(value);
+					}
+				}
+			});
+		}
+		if (moments != null) {
+			moments.put(values);
+			available |= MOMENTS;
+		}
+		if (sketch != null) {
+			quantiles = sketch;
+		}
+		if (withQuantiles) {
+			values[SLOT_QUARTILE_1] = quantiles.getQuantile(0.25);
+			values[SLOT_QUARTILE_2] = quantiles.getQuantile(0.50);
+			values[SLOT_QUARTILE_3] = quantiles.getQuantile(0.75);
+			available |= QUANTILES;
+		}
+	}
+
+	/**
+	 * Returns the basic statistics of all values as moments that can be
+	 * merged with other moments.
+	 * @return Moments of the values.
+	 */
+	Moments getMoments() {
+		synchronized (this) {
+			if ((available & MOMENTS) != MOMENTS) {
+				calculate(false);
 			}
+			return new Moments(values);
+		}
+	}
 
-			n++;
-
-			double val2 = val*val;
-			sum += val;
-			sum2 += val2;
-			sum3 += val2*val;
-			sum4 += val2*val2;
-
-			double delta = val - mean;
-			double deltaN = delta/n;
-			double deltaN2 = deltaN*deltaN;
-			double term1 = delta*deltaN*(n - 1.0);
-			mean += deltaN;
-			sumOfDiffQuads += term1*deltaN2*(n*n - 3.0*n + 3.0) +
-				6.0*deltaN2*sumOfDiffSquares - 4.0*deltaN*sumOfDiffCubics;
-			sumOfDiffCubics += term1*deltaN*(n - 2.0) -
-				3.0*deltaN*sumOfDiffSquares;
-			sumOfDiffSquares += term1;
+	/**
+	 * Reads all numeric values. Values of data sources, columns, and rows are
+	 * read as primitive numbers without boxing.
+	 * @param data Data values.
+	 * @param consumer Object that receives the values.
+	 */
+	private static void readValues(Iterable<? extends Comparable<?>> data, ValueConsumer consumer) {
+		if (data instanceof DataSource) {
+			DataSource source = (DataSource) data;
+			int rowCount = source.getRowCount();
+			double[] buffer = new double[Math.min(rowCount, BUFFER_SIZE)];
+			for (int col = 0; col < source.getColumnCount(); col++) {
+				for (int rowStart = 0; rowStart < rowCount; rowStart += buffer.length) {
+					int rowEnd = Math.min(rowStart + buffer.length, rowCount);
+					source.copyColumn(col, buffer, rowStart, rowEnd);
+					for (int i = 0; i < rowEnd - rowStart; i++) {
+						consumer.add(buffer[i]);
+					}
+				}
+			}
+		} else if (data instanceof Column) {
+			Column<?> column = (Column<?>) data;
+			int rowCount = column.size();
+			double[] buffer = new double[Math.min(rowCount, BUFFER_SIZE)];
+			for (int rowStart = 0; rowStart < rowCount; rowStart += buffer.length) {
+				int rowEnd = Math.min(rowStart + buffer.length, rowCount);
+				column.copy(buffer, rowStart, rowEnd);
+				for (int i = 0; i < rowEnd - rowStart; i++) {
+					consumer.add(buffer[i]);
+				}
+			}
+		} else if (data instanceof Row) {
+			Row row = (Row) data;
+			DataSource source = row.getSource();
+			for (int col = 0; col < row.size(); col++) {
+				consumer.add(source.getDouble(col, row.getIndex()));
+			}
+		} else {
+			for (Comparable<?> cell : data) {
+				if (cell instanceof Number) {
+					consumer.add(((Number) cell).doubleValue());
+				}
+			}
 		}
+	}
 
-		stats.put(N, n);
-		stats.put(SUM,  sum);
-		stats.put(SUM2, sum2);
-		stats.put(SUM3, sum3);
-		stats.put(SUM4, sum4);
-		stats.put(MEAN, mean);
-		stats.put(SUM_OF_DIFF_QUADS, sumOfDiffQuads);
-		stats.put(SUM_OF_DIFF_CUBICS, sumOfDiffCubics);
-		stats.put(SUM_OF_DIFF_SQUARES, sumOfDiffSquares);
-
-		stats.put(VARIANCE, sumOfDiffSquares/(n - 1.0));
-		stats.put(POPULATION_VARIANCE, sumOfDiffSquares/n);
-		stats.put(SKEWNESS,
-			(sumOfDiffCubics/n)/Math.pow(sumOfDiffSquares/n, 3.0/2.0) - 3.0);
-		stats.put(KURTOSIS,
-			(n*sumOfDiffQuads)/(sumOfDiffSquares*sumOfDiffSquares) - 3.0);
+	/**
+	 * Interface for objects that receive the values read by
+	 * {@link Statistics#readValues(Iterable, ValueConsumer)}.
+	 */
+	private interface ValueConsumer {
+		/**
+		 * Processes a value.
+		 * @param value Value.
+		 */
+		void add(double value);
 	}
 
 	/**
-	 * Utility method that calculates quantiles for the given data values and
-	 * stores the results in {@code stats}.
-	 * @param stats {@code Map} for storing results
-	 * @see de.erichseifert.gral.util.MathUtils#quantile(java.util.List,double)
+	 * Returns the size of the sketch that is used to calculate quantiles.
+	 * @return Size of the sketch, or zero if quantiles are exact.
 	 */
-	private void createDistributionStats(Iterable<? extends Comparable<?>> data, Map<String, Double> stats) {
-		// Create sorted list of data
-		List<Double> values = new SortedList<>();
-		for (Comparable<?> cell : data) {
-			if (!(cell instanceof Number)) {
-				continue;
-			}
-			Number numericCell = (Number) cell;
-			double value = numericCell.doubleValue();
-			if (MathUtils.isCalculatable(value)) {
-				values.add(value);
+	public int getQuantileSketchSize() {
+		return quantileSketchSize;
+	}
+
+	/**
+	 * Sets the size of the sketch that is used to calculate quantiles like
+	 * the median or the quartiles. A larger sketch is more accurate, but needs
+	 * more memory. By default, quantiles are exact.
+	 * @param size Size of the sketch, or zero to calculate exact quantiles.
+	 * @see QuantileSketch
+	 */
+	public void setQuantileSketchSize(int size) {
+		if (size < 0 || size == 1) {
+			throw new IllegalArgumentException(MessageFormat.format(
+				"Invalid sketch size: {0,number,integer}", size)); //$NON-NLS-1$
+		}
+		synchronized (this) {
+			if (size == quantileSketchSize) {
+				return;
 			}
+			quantileSketchSize = size;
+			quantiles = null;
+			available &= ~QUANTILES;
 		}
+	}
 
-		if (values.size() <= 0) {
-			return;
+	/**
+	 * Returns a sketch containing all calculatable values. The sketch is
+	 * created when it is needed for the first time. Sketches of different
+	 * statistics objects with the same sketch size can be merged.
+	 * @return Sketch of the values.
+	 */
+	public QuantileSketch getQuantileSketch() {
+		synchronized (this) {
+			if (quantiles == null) {
+				calculate(true);
+			}
+			return quantiles;
 		}
+	}
 
-		stats.put(QUARTILE_1, MathUtils.quantile(values, 0.25));
-		stats.put(QUARTILE_2, MathUtils.quantile(values, 0.50));
-		stats.put(QUARTILE_3, MathUtils.quantile(values, 0.75));
-		stats.put(MEDIAN, stats.get(QUARTILE_2));
+	/**
+	 * Returns the specified quantile of all calculatable values.
+	 * @param q Quantile in range [0, 1].
+	 * @return Quantile value, or {@code NaN} if there are no values.
+	 */
+	public double getQuantile(double q) {
+		return getQuantileSketch().getQuantile(q);
 	}
 
 	/**
@@ -211,16 +412,15 @@ public class Statistics {
 	 *         if the specified statistical value does not exist
 	 */
 	public double get(String key) {
-		if (!statistics.containsKey(key)) {
-			if (MEDIAN.equals(key) || QUARTILE_1.equals(key) ||
-					QUARTILE_2.equals(key) || QUARTILE_3.equals(key)) {
-				createDistributionStats(data, statistics);
-			} else {
-				createBasicStats(data, statistics);
+		Integer slot = SLOTS.get(key);
+		if (slot == null) {
+			return Double.NaN;
+		}
+		synchronized (this) {
+			if ((available & (1 << slot)) == 0) {
+				calculate(slot >= SLOT_QUARTILE_1);
 			}
+			return values[slot];
 		}
-
-		Double v = statistics.get(key);
-		return DataUtils.getValueOrDefault(v, Double.NaN);
 	}
 }
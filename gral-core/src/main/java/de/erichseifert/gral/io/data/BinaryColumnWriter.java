@@ -0,0 +1,214 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.io.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.text.MessageFormat;
+
+import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.data.MappedDataSource;
+import de.erichseifert.gral.data.MappedDataSource.ColumnType;
+import de.erichseifert.gral.io.IOCapabilities;
+import de.erichseifert.gral.util.Messages;
+
+/**
+ * <p>Class that writes all values of a {@code DataSource} to a binary column
+ * file which can be opened with {@link MappedDataSource}. Columns of type
+ * {@code Byte}, {@code Short}, {@code Integer}, {@code Long}, and
+ * {@code Float} are stored with their respective size, all other numeric
+ * columns are stored as {@code double} values. Empty cells are only allowed
+ * in floating point columns, where they are stored as {@code NaN}.</p>
+ * <p>{@code BinaryColumnWriter} instances should be obtained by the
+ * {@link DataWriterFactory} rather than being created manually:</p>
+ * <pre>
+ * DataWriterFactory factory = DataWriterFactory.getInstance();
+ * DataWriter writer = factory.get("application/x-gral-columns");
+ * writer.write(data, new FileOutputStream(filename));
+ * </pre>
+ */
+public class BinaryColumnWriter extends AbstractDataWriter {
+	/** Number of bytes that are written at once. */
+	private static final int BUFFER_SIZE = 8192;
+
+	static {
+		addCapabilities(new IOCapabilities(
+			"GRAL columns", //$NON-NLS-1$
+			Messages.getString("DataIO.gralColumnsDescription"), //$NON-NLS-1$
+			"application/x-gral-columns", //$NON-NLS-1$
+			new String[] {"gcol"} //$NON-NLS-1$
+		));
+	}
+
+	/**
+	 * Creates a new instance with the specified MIME-Type.
+	 * @param mimeType MIME-Type of the output file.
+	 */
+	public BinaryColumnWriter(String mimeType) {
+		super(mimeType);
+	}
+
+	/**
+	 * Stores the specified data source.
+	 * @param data DataSource to be stored.
+	 * @param output OutputStream to be written to.
+	 * @throws IOException if writing the data failed
+	 */
+	public void write(DataSource data, OutputStream output) throws IOException {
+		int colCount = data.getColumnCount();
+		int rowCount = data.getRowCount();
+		ColumnType[] columnTypes = new ColumnType[colCount];
+		for (int col = 0; col < colCount; col++) {
+			if (!data.isColumnNumeric(col)) {
+				throw new IOException(MessageFormat.format(
+					"Column {0,number,integer} is not numeric.", col)); //$NON-NLS-1$
+			}
+			columnTypes[col] = ColumnType.forType(data.getColumnTypes()[col]);
+			if (columnTypes[col] == null) {
+				columnTypes[col] = ColumnType.DOUBLE;
+			}
+		}
+
+		WritableByteChannel channel = Channels.newChannel(output);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+		// Header
+		buffer.putInt(MappedDataSource.MAGIC);
+		buffer.putInt(MappedDataSource.VERSION);
+		buffer.putInt(colCount);
+		buffer.putInt(rowCount);
+		long position = MappedDataSource.HEADER_SIZE;
+		for (ColumnType columnType : columnTypes) {
+			buffer = ensureRemaining(channel, buffer, 1);
+			buffer.put(columnType.getCode());
+			position++;
+		}
+		buffer = pad(channel, buffer, position);
+		position = MappedDataSource.align(position);
+
+		// Columns
+		double[] values = new double[BUFFER_SIZE/ColumnType.DOUBLE.getSize()];
+		for (int col = 0; col < colCount; col++) {
+			ColumnType columnType = columnTypes[col];
+			for (int rowStart = 0; rowStart < rowCount; rowStart += values.length) {
+				int rowEnd = Math.min(rowStart + values.length, rowCount);
+				if (columnType == ColumnType.DOUBLE || columnType == ColumnType.FLOAT) {
+					data.copyColumn(col, values, rowStart, rowEnd);
+				}
+				for (int row = rowStart; row < rowEnd; row++) {
+					buffer = ensureRemaining(channel, buffer, columnType.getSize());
+					if (columnType == ColumnType.DOUBLE) {
+						buffer.putDouble(values[row - rowStart]);
+					} else if (columnType == ColumnType.FLOAT) {
+						buffer.putFloat((float) values[row - rowStart]);
+					} else {
+						putInteger(buffer, columnType, data, col, row);
+					}
+				}
+			}
+			position += (long) rowCount*columnType.getSize();
+			buffer = pad(channel, buffer, position);
+			position = MappedDataSource.align(position);
+		}
+
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		output.flush();
+	}
+
+	/**
+	 * Stores the value of an integer cell in a buffer.
+	 * @param buffer Buffer to be written to.
+	 * @param columnType Type of the column.
+	 * @param data Data source.
+	 * @param col Index of the column.
+	 * @param row Index of the row.
+	 * @throws IOException if the cell is empty.
+	 */
+	private static void putInteger(ByteBuffer buffer, ColumnType columnType,
+			DataSource data, int col, int row) throws IOException {
+		Number value = (Number) data.get(col, row);
+		if (value == null) {
+			throw new IOException(MessageFormat.format(
+				"Empty cell in column {0,number,integer}, row {1,number,integer} can''t be stored as {2}.", //$NON-NLS-1$
+				col, row, columnType));
+		}
+		switch (columnType) {
+			case BYTE:
+				buffer.put(value.byteValue());
+				break;
+			case SHORT:
+				buffer.putShort(value.shortValue());
+				break;
+			case INTEGER:
+				buffer.putInt(value.intValue());
+				break;
+			default:
+				buffer.putLong(value.longValue());
+				break;
+		}
+	}
+
+	/**
+	 * Writes zeros until the specified position is aligned.
+	 * @param channel Channel to be written to.
+	 * @param buffer Buffer containing bytes that haven't been written yet.
+	 * @param position Current position in the file.
+	 * @return Buffer for further bytes.
+	 * @throws IOException if writing the data failed.
+	 */
+	private static ByteBuffer pad(WritableByteChannel channel, ByteBuffer buffer,
+			long position) throws IOException {
+		for (long i = position; i < MappedDataSource.align(position); i++) {
+			buffer = ensureRemaining(channel, buffer, 1);
+			buffer.put((byte) 0);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Writes the contents of the buffer if it can't take the specified
+	 * number of bytes anymore.
+	 * @param channel Channel to be written to.
+	 * @param buffer Buffer containing bytes that haven't been written yet.
+	 * @param count Number of bytes that will be put into the buffer.
+	 * @return Buffer for further bytes.
+	 * @throws IOException if writing the data failed.
+	 */
+	private static ByteBuffer ensureRemaining(WritableByteChannel channel,
+			ByteBuffer buffer, int count) throws IOException {
+		if (buffer.remaining() < count) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+		return buffer;
+	}
+}
@@ -104,17 +104,17 @@ public class ImageWriter extends AbstractDataWriter {
 		double offset = this.<Number>getSetting("offset").doubleValue(); //$NON-NLS-1$
 
 		byte[] pixelData = new byte[w*h];
-		int pos = 0;
-		for (int y = 0; y < h; y++) {
-			for (int x = 0; x < w; x++) {
-				Comparable<?> cell = data.get(x, y);
-				if (!(cell instanceof Number)) {
+		double[] column = new double[h];
+		for (int x = 0; x < w; x++) {
+			data.copyColumn(x, column, 0, h);
+			for (int y = 0; y < h; y++) {
+				double cell = column[y];
+				if (Double.isNaN(cell)) {
 					continue;
 				}
-				Number numericCell = (Number) cell;
-				double value = numericCell.doubleValue()*factor + offset;
+				double value = cell*factor + offset;
 				byte v = (byte) Math.round(MathUtils.limit(value, 0.0, 255.0));
-				pixelData[pos++] = v;
+				pixelData[y*w + x] = v;
 			}
 		}
 
@@ -42,7 +42,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
-import de.erichseifert.gral.data.Column;
 import de.erichseifert.gral.data.DataChangeEvent;
 import de.erichseifert.gral.data.DataListener;
 import de.erichseifert.gral.data.DataSource;
@@ -845,15 +844,15 @@ public abstract class AbstractPlot extends DrawableContainer
 					Integer colIndex = entry.getKey();
 					String axisName = entry.getValue();
 
-					Column<?> col = dataSource.getColumn(colIndex);
+					Statistics stats = dataSource.getStatistics(colIndex);
 					Double min = axisMin.get(axisName);
 					Double max = axisMax.get(axisName);
 					if (min == null || max == null) {
-						min = col.getStatistics(Statistics.MIN);
-						max = col.getStatistics(Statistics.MAX);
+						min = stats.get(Statistics.MIN);
+						max = stats.get(Statistics.MAX);
 					} else {
-						min = Math.min(min, col.getStatistics(Statistics.MIN));
-						max = Math.max(max, col.getStatistics(Statistics.MAX));
+						min = Math.min(min, stats.get(Statistics.MIN));
+						max = Math.max(max, stats.get(Statistics.MAX));
 					}
 					axisMin.put(axisName, min);
 					axisMax.put(axisName, max);
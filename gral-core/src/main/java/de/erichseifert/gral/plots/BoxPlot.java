@@ -38,7 +38,6 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.List;
 
-import de.erichseifert.gral.data.Column;
 import de.erichseifert.gral.data.DataSource;
 import de.erichseifert.gral.data.DataTable;
 import de.erichseifert.gral.data.Row;
@@ -742,17 +741,18 @@ public class BoxPlot extends XYPlot {
 
 		// Generate statistical values for each column
 		for (int c = 0; c < data.getColumnCount(); c++) {
-			Column col = data.getColumn(c);
-			if (!col.isNumeric()) {
+			if (!data.isColumnNumeric(c)) {
 				continue;
 			}
+			// All quantiles are read from a single sorted copy of the column
+			Statistics colStats = data.getStatistics(c);
 			stats.add(
 				c + 1,
-				col.getStatistics(Statistics.MEDIAN),
-				col.getStatistics(Statistics.MIN),
-				col.getStatistics(Statistics.QUARTILE_1),
-				col.getStatistics(Statistics.QUARTILE_3),
-				col.getStatistics(Statistics.MAX)
+				colStats.get(Statistics.MEDIAN),
+				colStats.get(Statistics.MIN),
+				colStats.get(Statistics.QUARTILE_1),
+				colStats.get(Statistics.QUARTILE_3),
+				colStats.get(Statistics.MAX)
 			);
 		}
 		return stats;
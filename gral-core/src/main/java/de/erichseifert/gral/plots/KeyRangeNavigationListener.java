@@ -0,0 +1,183 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.plots;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+
+import de.erichseifert.gral.data.JdbcData;
+import de.erichseifert.gral.navigation.NavigationEvent;
+import de.erichseifert.gral.navigation.NavigationListener;
+import de.erichseifert.gral.plots.axes.Axis;
+import de.erichseifert.gral.util.PointND;
+
+/**
+ * <p>Class that restricts the rows of a {@link JdbcData} source to the
+ * visible range of the x axis of an {@link XYPlot}. Whenever the plot is
+ * panned or zoomed, the key range of the data source is set to the visible
+ * range plus a margin on both sides. Small movements inside the margin don't
+ * cause any new queries.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * JdbcData data = new JdbcData(connection, "measurements", "time", true);
+ * XYPlot plot = new XYPlot(data);
+ * plot.getNavigator().addNavigationListener(
+ *     new KeyRangeNavigationListener(plot, data));
+ * </pre>
+ *
+ * <p>As the data source only contains a part of the table, the x axis won't
+ * be scaled automatically after the first update.</p>
+ */
+public class KeyRangeNavigationListener implements NavigationListener {
+	/** Default margin relative to the width of the visible range. */
+	public static final double DEFAULT_MARGIN = 0.5;
+
+	/** Plot that is navigated. */
+	private final XYPlot plot;
+	/** Data source whose key range is updated. */
+	private final JdbcData data;
+	/** Margin relative to the width of the visible range. */
+	private final double margin;
+	/** Smallest key of the rows that have been selected last. */
+	private double keyMin;
+	/** Largest key of the rows that have been selected last. */
+	private double keyMax;
+
+	/**
+	 * Initializes a new instance that selects the visible range of a plot
+	 * plus the specified margin.
+	 * @param plot Plot that is navigated.
+	 * @param data Data source with a key column that is displayed on the x
+	 *        axis.
+	 * @param margin Margin on each side relative to the width of the visible
+	 *        range.
+	 */
+	public KeyRangeNavigationListener(XYPlot plot, JdbcData data, double margin) {
+		if (data.getKeyColumn() == null) {
+			throw new IllegalArgumentException(
+				"The data source doesn't have a key column."); //$NON-NLS-1$
+		}
+		if (!(margin >= 0.0)) {
+			throw new IllegalArgumentException("Invalid margin: " + margin); //$NON-NLS-1$
+		}
+		this.plot = plot;
+		this.data = data;
+		this.margin = margin;
+		keyMin = Double.NaN;
+		keyMax = Double.NaN;
+	}
+
+	/**
+	 * Initializes a new instance that selects the visible range of a plot
+	 * plus the default margin.
+	 * @param plot Plot that is navigated.
+	 * @param data Data source with a key column that is displayed on the x
+	 *        axis.
+	 */
+	public KeyRangeNavigationListener(XYPlot plot, JdbcData data) {
+		this(plot, data, DEFAULT_MARGIN);
+	}
+
+	/**
+	 * A method that gets called after the center of the plot has changed.
+	 * @param event An object describing the change event.
+	 */
+	public void centerChanged(NavigationEvent<PointND<? extends Number>> event) {
+		update();
+	}
+
+	/**
+	 * A method that gets called after the zoom level of the plot has
+	 * changed.
+	 * @param event An object describing the change event.
+	 */
+	public void zoomChanged(NavigationEvent<Double> event) {
+		update();
+	}
+
+	/**
+	 * Sets the key range of the data source to the visible range of the x
+	 * axis plus the margin. Nothing happens as long as the visible range
+	 * lies within the selected keys and the selection isn't much wider than
+	 * needed.
+	 */
+	public void update() {
+		Axis axis = plot.getAxis(XYPlot.AXIS_X);
+		if (axis == null || !axis.isValid()) {
+			return;
+		}
+		double min = axis.getMin().doubleValue();
+		double max = axis.getMax().doubleValue();
+		double width = max - min;
+		if (keyMin <= min && max <= keyMax &&
+				keyMax - keyMin <= 2.0*(1.0 + 2.0*margin)*width) {
+			return;
+		}
+		keyMin = min - margin*width;
+		keyMax = max + margin*width;
+		axis.setAutoscaled(false);
+		data.setKeyRange(toKey(keyMin, false), toKey(keyMax, true));
+	}
+
+	/**
+	 * Returns the smallest key that has been selected last.
+	 * @return Lower limit of the key range, or {@code NaN} if the key range
+	 *         hasn't been set.
+	 */
+	public double getKeyMin() {
+		return keyMin;
+	}
+
+	/**
+	 * Returns the largest key that has been selected last.
+	 * @return Upper limit of the key range, or {@code NaN} if the key range
+	 *         hasn't been set.
+	 */
+	public double getKeyMax() {
+		return keyMax;
+	}
+
+	/**
+	 * Converts a value of the axis to the type of the key column.
+	 * @param value Axis value.
+	 * @param upper {@code true} if the value is an upper limit.
+	 * @return Key value.
+	 */
+	private Object toKey(double value, boolean upper) {
+		int col = data.getKeyColumnIndex();
+		Class<?> type = col >= 0 ? data.getColumnTypes()[col] : Double.class;
+		if (java.util.Date.class.isAssignableFrom(type)) {
+			long millis = (long) (upper ? Math.ceil(value) : Math.floor(value));
+			if (java.sql.Date.class.equals(type)) {
+				return new java.sql.Date(millis);
+			} else if (Time.class.equals(type)) {
+				return new Time(millis);
+			}
+			return new Timestamp(millis);
+		} else if (Long.class.equals(type) || Integer.class.equals(type) ||
+				Short.class.equals(type) || Byte.class.equals(type)) {
+			return (long) (upper ? Math.ceil(value) : Math.floor(value));
+		}
+		return value;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.plots;
+
+import de.erichseifert.gral.data.filters.M4Aggregation;
+import de.erichseifert.gral.plots.axes.Axis;
+import de.erichseifert.gral.plots.axes.AxisListener;
+
+/**
+ * <p>Class that keeps the range of an {@link M4Aggregation} in sync with the
+ * visible range of the x axis and the width of the plot area of an
+ * {@link XYPlot}. Whenever the range of the x axis changes, e.g. because the
+ * plot is panned or zoomed, or the plot is laid out with a new size, the
+ * view selects the rows for one interval per pixel of the plot area the next
+ * time it is drawn.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * M4Aggregation view = new M4Aggregation(data, 0, 1);
+ * XYPlot plot = new XYPlot(view);
+ * new M4AggregationListener(plot, view);
+ * </pre>
+ *
+ * <p>As the view only contains the visible rows, the x axis won't be scaled
+ * automatically after the first update.</p>
+ */
+public class M4AggregationListener implements AxisListener, LayoutListener {
+	/** Plot whose visible range is used. */
+	private final XYPlot plot;
+	/** View whose range is updated. */
+	private final M4Aggregation data;
+
+	/**
+	 * Initializes a new instance and registers it with the specified plot
+	 * and its x axis.
+	 * @param plot Plot whose visible range is used.
+	 * @param data View that is displayed in the plot.
+	 */
+	public M4AggregationListener(XYPlot plot, M4Aggregation data) {
+		this.plot = plot;
+		this.data = data;
+		Axis axis = plot.getAxis(XYPlot.AXIS_X);
+		if (axis != null) {
+			axis.addAxisListener(this);
+		}
+		plot.addLayoutListener(this);
+		update();
+	}
+
+	/**
+	 * Notified if the range of the axis has changed.
+	 * @param axis Axis instance that has changed.
+	 * @param min New minimum value.
+	 * @param max New maximum value.
+	 */
+	public void rangeChanged(Axis axis, Number min, Number max) {
+		update();
+	}
+
+	/**
+	 * Notified if the plot has been laid out, e.g. because it has been
+	 * resized.
+	 * @param plot Plot instance that has been laid out.
+	 */
+	public void layoutChanged(Plot plot) {
+		update();
+	}
+
+	/**
+	 * Sets the range of the view to the visible range of the x axis and the
+	 * width of the plot area. Nothing happens as long as the plot hasn't been
+	 * laid out.
+	 */
+	public void update() {
+		Axis axis = plot.getAxis(XYPlot.AXIS_X);
+		PlotArea plotArea = plot.getPlotArea();
+		if (axis == null || !axis.isValid() || plotArea == null) {
+			return;
+		}
+		int width = (int) Math.ceil(plotArea.getWidth());
+		if (width <= 0) {
+			return;
+		}
+		axis.setAutoscaled(false);
+		data.setRange(axis.getMin().doubleValue(), axis.getMax().doubleValue(), width);
+	}
+}
@@ -252,8 +252,8 @@ public abstract class PlotNavigator extends AbstractNavigator {
 		}
 		NavigationEvent<Double> event =
 				new NavigationEvent<>(this, zoomOld, zoomNew);
-		fireZoomChanged(event);
 		refresh();
+		fireZoomChanged(event);
 	}
 
 	/**
@@ -301,8 +301,8 @@ public abstract class PlotNavigator extends AbstractNavigator {
 
 		NavigationEvent<PointND<? extends Number>> event =
 				new NavigationEvent<>(this, centerOld, center);
-		fireCenterChanged(event);
 		refresh();
+		fireCenterChanged(event);
 	}
 
 	/**
@@ -401,6 +401,8 @@ public abstract class PlotNavigator extends AbstractNavigator {
 		}
 		PointND<Double> centerNew = new PointND<>(centerCoordsOriginal);
 
+		refresh();
+
 		NavigationEvent<PointND<? extends Number>> panEvent =
 				new NavigationEvent<>(this, centerOld, centerNew);
 		fireCenterChanged(panEvent);
@@ -408,8 +410,6 @@ public abstract class PlotNavigator extends AbstractNavigator {
 		NavigationEvent<Double> zoomEvent =
 				new NavigationEvent<>(this, zoomOld, 1.0);
 		fireZoomChanged(zoomEvent);
-
-		refresh();
 	}
 
 	/**
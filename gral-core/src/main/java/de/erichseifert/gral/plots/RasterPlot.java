@@ -342,17 +342,11 @@ public class RasterPlot extends XYPlot {
 		double max = ((Number) data.getRowStatistics(Statistics.MAX).
 				getColumnStatistics(Statistics.MAX).get(0, 0)).doubleValue();
 		double range = max - min;
-		int i = 0;
-		for (Comparable<?> cell : data) {
-			int x =  i%data.getColumnCount();
-			int y = -i/data.getColumnCount();
-			double v = Double.NaN;
-			if (cell instanceof Number) {
-				Number numericCell = (Number) cell;
-				v = (numericCell.doubleValue() - min) / range;
+		for (int row = 0; row < data.getRowCount(); row++) {
+			for (int col = 0; col < data.getColumnCount(); col++) {
+				double v = (data.getDouble(col, row) - min) / range;
+				coordsValueData.add((double) col, (double) -row, v);
 			}
-			coordsValueData.add((double) x, (double) y, v);
-			i++;
 		}
 		return coordsValueData;
 	}
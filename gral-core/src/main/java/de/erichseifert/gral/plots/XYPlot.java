@@ -38,13 +38,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import de.erichseifert.gral.data.DataChangeEvent;
 import de.erichseifert.gral.data.DataSource;
 import de.erichseifert.gral.data.DummyData;
 import de.erichseifert.gral.data.Row;
+import de.erichseifert.gral.data.statistics.Statistics;
 import de.erichseifert.gral.graphics.Drawable;
 import de.erichseifert.gral.graphics.DrawingContext;
 import de.erichseifert.gral.graphics.Insets2D;
@@ -109,6 +113,12 @@ public class XYPlot extends AbstractPlot implements Navigable, AxisListener {
 	/** A flag that shows whether the navigator has been properly
 	initialized. */
 	private transient boolean navigatorInitialized;
+	/** Objects that will be notified when the plot has been laid out. */
+	private transient Set<LayoutListener> layoutListeners;
+
+	/** Decides whether the y axes are scaled to the data inside the
+	visible x range. */
+	private boolean visibleRangeAutoscaled;
 
 	/**
 	 * Constants which determine the direction of zoom and pan actions.
@@ -382,11 +392,21 @@ public class XYPlot extends AbstractPlot implements Navigable, AxisListener {
 				AxisRenderer axisXRenderer = plot.getAxisRenderer(axisNames[0]);
 				AxisRenderer axisYRenderer = plot.getAxisRenderer(axisNames[1]);
 
+				int rowFrom = 0;
+				int rowTo = s.getRowCount();
+				if (s.isColumnSorted(colX)) {
+					// Only the visible rows and their neighbors are drawn
+					rowFrom = Math.max(getRowIndex(s, colX, axisX.getMin().doubleValue(), false) - 1, 0);
+					rowTo = Math.min(getRowIndex(s, colX, axisX.getMax().doubleValue(), true) + 1, rowTo);
+				}
+
 				List<DataPoint> points = new LinkedList<>();
-				for (int i = 0; i < s.getRowCount(); i++) {
-					Row row = new Row(s, i);
-					Number valueX = (Number) row.get(colX);
-					Number valueY = (Number) row.get(colY);
+				for (int i = rowFrom; i < rowTo; i++) {
+					double valueX = s.getDouble(colX, i);
+					double valueY = s.getDouble(colY, i);
+					if (Double.isNaN(valueX) || Double.isNaN(valueY)) {
+						continue;
+					}
 
 					PointND<Double> axisPosX = (axisXRenderer != null)
 						? axisXRenderer.getPosition(axisX, valueX, true, false)
@@ -401,6 +421,7 @@ public class XYPlot extends AbstractPlot implements Navigable, AxisListener {
 					PointND<Double> pos = new PointND<>(
 							axisPosX.get(PointND.X), axisPosY.get(PointND.Y));
 
+					Row row = new Row(s, i);
 					PointData pointData = new PointData(
 						Arrays.asList(axisX, axisY),
 						Arrays.asList(axisXRenderer, axisYRenderer),
@@ -749,6 +770,7 @@ public class XYPlot extends AbstractPlot implements Navigable, AxisListener {
 	public XYPlot(DataSource... data) {
 		super();
 
+		layoutListeners = new HashSet<>();
 		pointRenderersByDataSource = new HashMap<>(data.length);
 		lineRenderersByDataSource = new HashMap<>(data.length);
 		areaRenderersByDataSource = new HashMap<>(data.length);
@@ -789,6 +811,38 @@ public class XYPlot extends AbstractPlot implements Navigable, AxisListener {
 		setAxisRenderer(AXIS_Y, axisYRenderer);
 	}
 
+	@Override
+	public void layout() {
+		super.layout();
+		// The plot is laid out by the super constructor, too
+		if (layoutListeners == null) {
+			return;
+		}
+		for (LayoutListener listener : layoutListeners) {
+			listener.layoutChanged(this);
+		}
+	}
+
+	/**
+	 * Adds the specified {@code LayoutListener} to this plot.
+	 * The listeners will be notified whenever the plot has been laid out,
+	 * e.g. because its bounds have changed.
+	 * @param listener Listener to be added.
+	 * @see LayoutListener
+	 */
+	public void addLayoutListener(LayoutListener listener) {
+		layoutListeners.add(listener);
+	}
+
+	/**
+	 * Removes the specified {@code LayoutListener} from this plot.
+	 * @param listener Listener to be removed.
+	 * @see LayoutListener
+	 */
+	public void removeLayoutListener(LayoutListener listener) {
+		layoutListeners.remove(listener);
+	}
+
 	@Override
 	protected void layoutAxes() {
 		if (getPlotArea() == null) {
@@ -1108,9 +1162,146 @@ public class XYPlot extends AbstractPlot implements Navigable, AxisListener {
 	 * @param max New maximum value.
 	 */
 	public void rangeChanged(Axis axis, Number min, Number max) {
+		if (isVisibleRangeAutoscaled() && axis == getAxis(AXIS_X)) {
+			autoscaleVisibleRange();
+		}
 		layoutAxes();
 	}
 
+	@Override
+	protected void dataChanged(DataSource source, DataChangeEvent... events) {
+		super.dataChanged(source, events);
+		if (isVisibleRangeAutoscaled()) {
+			autoscaleVisibleRange();
+		}
+	}
+
+	/**
+	 * Returns whether the y axes are scaled to the data inside the visible
+	 * range of the x axis.
+	 * @return {@code true} if the y axes are scaled to the visible data.
+	 */
+	public boolean isVisibleRangeAutoscaled() {
+		return visibleRangeAutoscaled;
+	}
+
+	/**
+	 * Sets whether the y axes are scaled to the data inside the visible
+	 * range of the x axis. If enabled, each y axis that is set to auto-scale
+	 * will be adjusted whenever the x axis is zoomed or panned. For data
+	 * sources with x values in ascending order, only the visible rows are
+	 * taken into account, which takes logarithmic time.
+	 * @param visibleRangeAutoscaled {@code true} if the y axes should be
+	 *        scaled to the visible data.
+	 */
+	public void setVisibleRangeAutoscaled(boolean visibleRangeAutoscaled) {
+		this.visibleRangeAutoscaled = visibleRangeAutoscaled;
+		if (visibleRangeAutoscaled) {
+			autoscaleVisibleRange();
+		}
+	}
+
+	/**
+	 * Sets the ranges of all y axes that are set to auto-scale to the
+	 * minimum and maximum of the data inside the current range of the x axis.
+	 */
+	protected void autoscaleVisibleRange() {
+		Map<String, double[]> rangesY = new HashMap<>();
+		for (DataSource s : getVisibleData()) {
+			int colX = 0;
+			int colY = 1;
+			if (s.getColumnCount() <= colY || !s.isColumnNumeric(colX) ||
+					!s.isColumnNumeric(colY)) {
+				continue;
+			}
+			String[] axisNames = getMapping(s);
+			Axis axisX = getAxis(axisNames[colX]);
+			Axis axisY = getAxis(axisNames[colY]);
+			if (axisX == null || !axisX.isValid() || axisY == null || !axisY.isAutoscaled()) {
+				continue;
+			}
+			double minX = axisX.getMin().doubleValue();
+			double maxX = axisX.getMax().doubleValue();
+
+			double[] rangeY;
+			if (s.isColumnSorted(colX)) {
+				int fromRow = getRowIndex(s, colX, minX, false);
+				int toRow = getRowIndex(s, colX, maxX, true);
+				Statistics stats = s.getStatistics(colY, fromRow, toRow);
+				rangeY = new double[] {stats.get(Statistics.MIN), stats.get(Statistics.MAX)};
+			} else {
+				rangeY = getRangeY(s, colX, colY, minX, maxX);
+			}
+			if (Double.isNaN(rangeY[0]) || Double.isNaN(rangeY[1])) {
+				continue;
+			}
+
+			double[] rangeAxis = rangesY.get(axisNames[colY]);
+			if (rangeAxis == null) {
+				rangesY.put(axisNames[colY], rangeY);
+			} else {
+				rangeAxis[0] = Math.min(rangeAxis[0], rangeY[0]);
+				rangeAxis[1] = Math.max(rangeAxis[1], rangeY[1]);
+			}
+		}
+		for (Map.Entry<String, double[]> entry : rangesY.entrySet()) {
+			double[] rangeY = entry.getValue();
+			getAxis(entry.getKey()).setRange(rangeY[0], rangeY[1]);
+		}
+	}
+
+	/**
+	 * Returns the index of the first row of a sorted column whose value is
+	 * greater than (or equal to) the specified value.
+	 * @param s Data source.
+	 * @param col Index of the column.
+	 * @param value Value to search for.
+	 * @param inclusive {@code true} to skip rows that are equal to the value.
+	 * @return Row index.
+	 */
+	private static int getRowIndex(DataSource s, int col, double value, boolean inclusive) {
+		int low = 0;
+		int high = s.getRowCount();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			double midValue = s.getDouble(col, mid);
+			if (midValue < value || (inclusive && midValue == value)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the minimum and maximum y value of all rows whose x value is
+	 * inside the specified range by reading all rows.
+	 * @param s Data source.
+	 * @param colX Index of the column with x values.
+	 * @param colY Index of the column with y values.
+	 * @param minX Minimum x value.
+	 * @param maxX Maximum x value.
+	 * @return Array containing the minimum and the maximum y value, or
+	 *         {@code NaN} if no row is inside the range.
+	 */
+	private static double[] getRangeY(DataSource s, int colX, int colY, double minX, double maxX) {
+		double minY = Double.POSITIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int row = 0; row < s.getRowCount(); row++) {
+			double x = s.getDouble(colX, row);
+			double y = s.getDouble(colY, row);
+			if (x >= minX && x <= maxX && MathUtils.isCalculatable(y)) {
+				minY = Math.min(minY, y);
+				maxY = Math.max(maxY, y);
+			}
+		}
+		if (minY > maxY) {
+			return new double[] {Double.NaN, Double.NaN};
+		}
+		return new double[] {minY, maxY};
+	}
+
 	/**
 	 * Custom deserialization method.
 	 * @param in Input stream.
@@ -1124,6 +1315,7 @@ public class XYPlot extends AbstractPlot implements Navigable, AxisListener {
 		in.defaultReadObject();
 
 		// Restore listeners
+		layoutListeners = new HashSet<>();
 		for (String axisName : getAxesNames()) {
 			getAxis(axisName).addAxisListener(this);
 		}
@@ -23,6 +23,9 @@ package de.erichseifert.gral;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -50,17 +53,25 @@ import java.sql.Struct;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
 
 import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.data.DataTable;
 import de.erichseifert.gral.data.DummyData;
+import de.erichseifert.gral.data.statistics.Statistics;
 
 public class DummyJdbc implements Connection {
 	private final DataSource data;
 	private boolean closed;
+	private int queryCount;
+	private int openStatementCount;
+	private String lastQuery;
+	private List<Object> lastParameters;
 
 	public DummyJdbc(DataSource data) {
 		this.data = data;
@@ -75,6 +86,36 @@ public class DummyJdbc implements Connection {
 		closed = true;
 	}
 
+	public int getQueryCount() {
+		return queryCount;
+	}
+
+	public int getOpenStatementCount() {
+		return openStatementCount;
+	}
+
+	void statementOpened() {
+		openStatementCount++;
+	}
+
+	void statementClosed() {
+		openStatementCount--;
+	}
+
+	public String getLastQuery() {
+		return lastQuery;
+	}
+
+	public List<Object> getLastParameters() {
+		return lastParameters;
+	}
+
+	void countQuery(String sql, List<Object> parameters) {
+		queryCount++;
+		lastQuery = sql;
+		lastParameters = parameters;
+	}
+
 	public void commit() throws SQLException {
 		throw new UnsupportedOperationException();
 	}
@@ -108,7 +149,17 @@ public class DummyJdbc implements Connection {
 	}
 
 	public DatabaseMetaData getMetaData() throws SQLException {
-		throw new UnsupportedOperationException();
+		InvocationHandler handler = new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if ("getIdentifierQuoteString".equals(method.getName())) {
+					return "\"";
+				}
+				throw new UnsupportedOperationException();
+			}
+		};
+		return (DatabaseMetaData) Proxy.newProxyInstance(
+			DatabaseMetaData.class.getClassLoader(),
+			new Class<?>[] {DatabaseMetaData.class}, handler);
 	}
 
 	public int getTransactionIsolation() throws SQLException {
@@ -151,22 +202,44 @@ public class DummyJdbc implements Connection {
 	}
 
 	public PreparedStatement prepareStatement(String sql) throws SQLException {
-		return new DummyPreparedStatement(this, data);
+		if (sql.toUpperCase().startsWith("SELECT MIN(")) {
+			return new DummyPreparedStatement(this, sql, getAggregates());
+		}
+		return new DummyPreparedStatement(this, sql, data);
+	}
+
+	@SuppressWarnings("unchecked")
+	private DataSource getAggregates() {
+		List<Class<? extends Comparable<?>>> types = new ArrayList<>();
+		List<Comparable<?>> values = new ArrayList<>();
+		for (int col = 0; col < data.getColumnCount(); col++) {
+			if (!data.isColumnNumeric(col)) {
+				continue;
+			}
+			Statistics stats = data.getStatistics(col);
+			for (String key : new String[] {Statistics.MIN, Statistics.MAX, Statistics.N, Statistics.SUM}) {
+				types.add(Double.class);
+				values.add(stats.get(key));
+			}
+		}
+		DataTable aggregates = new DataTable(types.toArray(new Class[types.size()]));
+		aggregates.add(values);
+		return aggregates;
 	}
 
 	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys)
 			throws SQLException {
-		return new DummyPreparedStatement(this, data);
+		return new DummyPreparedStatement(this, sql, data);
 	}
 
 	public PreparedStatement prepareStatement(String sql, int[] columnIndexes)
 			throws SQLException {
-		return new DummyPreparedStatement(this, data);
+		return new DummyPreparedStatement(this, sql, data);
 	}
 
 	public PreparedStatement prepareStatement(String sql, String[] columnNames)
 			throws SQLException {
-		return new DummyPreparedStatement(this, data);
+		return new DummyPreparedStatement(this, sql, data);
 	}
 
 	public PreparedStatement prepareStatement(String sql, int resultSetType,
@@ -178,10 +251,10 @@ public class DummyJdbc implements Connection {
 			int resultSetConcurrency, int resultSetHoldability)
 			throws SQLException {
 		if (sql.toUpperCase().startsWith("SELECT COUNT(*) FROM ")) {
-			return new DummyPreparedStatement(this,
+			return new DummyPreparedStatement(this, sql,
 					new DummyData(1, 1, data.getRowCount()));
 		}
-		return new DummyPreparedStatement(this, data);
+		return new DummyPreparedStatement(this, sql, data);
 	}
 
 	public void releaseSavepoint(Savepoint savepoint) throws SQLException {
@@ -322,11 +395,13 @@ public class DummyJdbc implements Connection {
 }
 
 class DummyResultSet implements ResultSet {
+	private final Statement statement;
 	private final DataSource data;
 	private int rowIndex = -1;
 	private boolean closed;
 
-	public DummyResultSet(DataSource data) {
+	public DummyResultSet(Statement statement, DataSource data) {
+		this.statement = statement;
 		this.data = data;
 	}
 
@@ -542,7 +617,7 @@ class DummyResultSet implements ResultSet {
 	}
 
 	public Statement getStatement() throws SQLException {
-		throw new UnsupportedOperationException();
+		return statement;
 	}
 
 	public String getString(int columnIndex) throws SQLException {
@@ -909,7 +984,8 @@ class DummyResultSet implements ResultSet {
 	}
 
 	public boolean wasNull() throws SQLException {
-		throw new UnsupportedOperationException();
+		// Dummy data doesn't contain null values
+		return false;
 	}
 
 	public boolean isWrapperFor(Class<?> iface) throws SQLException {
@@ -1250,7 +1326,7 @@ class DummyResultSetMetaData implements ResultSetMetaData {
 	}
 
 	public String getColumnName(int column) throws SQLException {
-		throw new UnsupportedOperationException();
+		return "col" + column;
 	}
 
 	public int getColumnType(int column) throws SQLException {
@@ -1353,11 +1429,20 @@ class DummyResultSetMetaData implements ResultSetMetaData {
 
 class DummyPreparedStatement implements PreparedStatement {
 	private final Connection connection;
+	private final String sql;
 	private final DataSource data;
+	private final List<Object> parameters;
+	private int fetchSize;
+	private boolean closed;
 
-	public DummyPreparedStatement(Connection connection, DataSource data) {
+	public DummyPreparedStatement(Connection connection, String sql, DataSource data) {
 		this.connection = connection;
+		this.sql = sql;
 		this.data = data;
+		parameters = new ArrayList<>();
+		if (connection instanceof DummyJdbc) {
+			((DummyJdbc) connection).statementOpened();
+		}
 	}
 
 	public void addBatch() throws SQLException {
@@ -1373,7 +1458,10 @@ class DummyPreparedStatement implements PreparedStatement {
 	}
 
 	public ResultSet executeQuery() throws SQLException {
-		return new DummyResultSet(data);
+		if (connection instanceof DummyJdbc) {
+			((DummyJdbc) connection).countQuery(sql, new ArrayList<>(parameters));
+		}
+		return new DummyResultSet(this, data);
 	}
 
 	public int executeUpdate() throws SQLException {
@@ -1560,7 +1648,10 @@ class DummyPreparedStatement implements PreparedStatement {
 	}
 
 	public void setObject(int parameterIndex, Object x) throws SQLException {
-		throw new UnsupportedOperationException();
+		while (parameters.size() < parameterIndex) {
+			parameters.add(null);
+		}
+		parameters.set(parameterIndex - 1, x);
 	}
 
 	public void setObject(int parameterIndex, Object x, int targetSqlType)
@@ -1642,7 +1733,10 @@ class DummyPreparedStatement implements PreparedStatement {
 	}
 
 	public void close() throws SQLException {
-		connection.close();
+		if (!closed && connection instanceof DummyJdbc) {
+			((DummyJdbc) connection).statementClosed();
+		}
+		closed = true;
 	}
 
 	public boolean execute(String sql) throws SQLException {
@@ -1699,7 +1793,7 @@ class DummyPreparedStatement implements PreparedStatement {
 	}
 
 	public int getFetchSize() throws SQLException {
-		throw new UnsupportedOperationException();
+		return fetchSize;
 	}
 
 	public ResultSet getGeneratedKeys() throws SQLException {
@@ -1751,7 +1845,7 @@ class DummyPreparedStatement implements PreparedStatement {
 	}
 
 	public boolean isClosed() throws SQLException {
-		return connection.isClosed();
+		return closed;
 	}
 
 	public boolean isPoolable() throws SQLException {
@@ -1771,7 +1865,7 @@ class DummyPreparedStatement implements PreparedStatement {
 	}
 
 	public void setFetchSize(int rows) throws SQLException {
-		throw new UnsupportedOperationException();
+		fetchSize = rows;
 	}
 
 	public void setMaxFieldSize(int max) throws SQLException {
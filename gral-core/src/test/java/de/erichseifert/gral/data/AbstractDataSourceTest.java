@@ -23,15 +23,26 @@ package de.erichseifert.gral.data;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.comparators.Ascending;
 import de.erichseifert.gral.data.statistics.Statistics;
 
 public class AbstractDataSourceTest {
+	private static final double DELTA = TestUtils.DELTA;
+
 	protected class StubAbstractDataSource extends AbstractDataSource {
 		private int colCount;
 		private int rowCount;
@@ -124,4 +135,212 @@ public class AbstractDataSourceTest {
 		DataSource rowStatistics = source.getRowStatistics(Statistics.N);
 		assertThat(rowStatistics.getRowCount(), is(rowCount));
 	}
-}
\ No newline at end of file
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStatisticsViewsReflectChanges() {
+		DataTable table = new DataTable(Integer.class, Integer.class);
+		table.add(1, 5);
+		table.add(7, 2);
+		DataSource colMax = table.getColumnStatistics(Statistics.MAX);
+		DataSource rowMin = table.getRowStatistics(Statistics.MIN);
+		DataSource min = rowMin.getColumnStatistics(Statistics.MIN);
+		assertEquals(7.0, colMax.get(0, 0));
+		assertEquals(5.0, colMax.get(1, 0));
+		assertEquals(2, rowMin.getRowCount());
+		assertEquals(2.0, rowMin.get(0, 1));
+		assertEquals(1.0, min.get(0, 0));
+
+		table.add(-3, 9);
+		assertEquals(9.0, colMax.get(1, 0));
+		assertEquals(3, rowMin.getRowCount());
+		assertEquals(-3.0, rowMin.get(0, 2));
+		assertEquals(-3.0, min.get(0, 0));
+	}
+
+	@Test
+	@SuppressWarnings({"serial", "unchecked"})
+	public void testStatisticsOfColumnAreUpdatedWhenRowsAreAdded() {
+		final int[] rowsRead = new int[1];
+		DataTable table = new DataTable(Double.class, Double.class) {
+			@Override
+			public void copyColumn(int col, double[] dst, int fromRow, int toRow) {
+				rowsRead[0] += toRow - fromRow;
+				super.copyColumn(col, dst, fromRow, toRow);
+			}
+		};
+		table.add(1.0, 4.0);
+		table.add(2.0, 3.0);
+		table.add(3.0, null);
+
+		Statistics stats = table.getStatistics(0);
+		assertEquals(1.0, stats.get(Statistics.MIN), DELTA);
+		assertEquals(3.0, stats.get(Statistics.MAX), DELTA);
+		assertEquals(3, rowsRead[0]);
+
+		// Appended rows are added to the existing moments
+		table.add(6.0, 1.0);
+		stats = table.getStatistics(0);
+		assertEquals(6.0, stats.get(Statistics.MAX), DELTA);
+		assertEquals(3.0, stats.get(Statistics.MEAN), DELTA);
+		assertEquals(4.0, stats.get(Statistics.N), DELTA);
+		assertEquals(4, rowsRead[0]);
+
+		// Removals cause a recalculation
+		table.remove(0);
+		stats = table.getStatistics(0);
+		assertEquals(2.0, stats.get(Statistics.MIN), DELTA);
+		assertEquals(7, rowsRead[0]);
+
+		// Empty cells are ignored
+		stats = table.getStatistics(1);
+		assertEquals(2.0, stats.get(Statistics.N), DELTA);
+		assertEquals(1.0, stats.get(Statistics.MIN), DELTA);
+		assertEquals(2.0, stats.get(Statistics.MEDIAN), DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStatisticsOfColumnAreUpdatedWhenValuesChange() {
+		DataTable table = new DataTable(Integer.class);
+		table.add(1);
+		table.add(2);
+		assertEquals(2.0, table.getStatistics(0).get(Statistics.MAX), DELTA);
+
+		table.set(0, 1, 0);
+		assertEquals(1.0, table.getStatistics(0).get(Statistics.MAX), DELTA);
+		table.clear();
+		assertEquals(Double.NaN, table.getStatistics(0).get(Statistics.MAX), DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStatisticsOfColumnAreCachedUntilValuesChange() {
+		DataTable table = new DataTable(Integer.class);
+		table.add(1);
+		table.add(2);
+		long version = table.getVersion();
+		Statistics stats = table.getStatistics(0);
+		assertEquals(1.5, stats.get(Statistics.MEDIAN), DELTA);
+		assertSame(stats, table.getStatistics(0));
+
+		table.add(6);
+		assertTrue(table.getVersion() != version);
+		assertNotSame(stats, table.getStatistics(0));
+		assertEquals(2.0, table.getStatistics(0).get(Statistics.MEDIAN), DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testParallelStatistics() {
+		DataTable table = new DataTable(Double.class, Double.class);
+		DataTable parallel = new DataTable(Double.class, Double.class);
+		Random random = new Random(0L);
+		for (int row = 0; row < 3*AbstractDataSource.PARALLEL_THRESHOLD + 17; row++) {
+			double x = random.nextGaussian();
+			double y = 1e3 + random.nextDouble();
+			table.add(x, y);
+			parallel.add(x, y);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		parallel.setForkJoinPool(pool);
+
+		String[] keys = {
+			Statistics.N, Statistics.MIN, Statistics.MAX, Statistics.SUM,
+			Statistics.MEAN, Statistics.VARIANCE, Statistics.SKEWNESS, Statistics.KURTOSIS
+		};
+		for (int col = 0; col < table.getColumnCount(); col++) {
+			for (String key : keys) {
+				double expected = table.getStatistics(col).get(key);
+				assertEquals(key, expected, parallel.getStatistics(col).get(key), 1e-9*Math.max(1.0, Math.abs(expected)));
+			}
+		}
+		for (String key : keys) {
+			double expected = table.getStatistics().get(key);
+			assertEquals(key, expected, parallel.getStatistics().get(key), 1e-9*Math.max(1.0, Math.abs(expected)));
+		}
+		pool.shutdown();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStatisticsOfRowRange() {
+		DataTable table = new DataTable(Double.class);
+		for (double value : new double[] {5.0, 1.0, 4.0, 2.0, 8.0}) {
+			table.add(value);
+		}
+		Statistics stats = table.getStatistics(0, 1, 4);
+		assertEquals(3.0, stats.get(Statistics.N), DELTA);
+		assertEquals(1.0, stats.get(Statistics.MIN), DELTA);
+		assertEquals(4.0, stats.get(Statistics.MAX), DELTA);
+		assertEquals(7.0, stats.get(Statistics.SUM), DELTA);
+		assertEquals(2.0, stats.get(Statistics.MEDIAN), DELTA);
+
+		// The index is kept up to date when rows are added
+		table.add(0.0);
+		stats = table.getStatistics(0, 3, 6);
+		assertEquals(0.0, stats.get(Statistics.MIN), DELTA);
+		assertEquals(8.0, stats.get(Statistics.MAX), DELTA);
+
+		table.set(0, 4, 3.0);
+		assertEquals(3.0, table.getStatistics(0, 3, 6).get(Statistics.MAX), DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStatisticsOfRowRangeAfterSort() {
+		MutableDataSource[] tables = {
+			new DataTable(Integer.class, Integer.class),
+			new ColumnarDataTable(Integer.class, Integer.class),
+			new RingBufferDataTable(5, Integer.class, Integer.class)
+		};
+		for (MutableDataSource table : tables) {
+			table.add(1, 30);
+			table.add(2, 10);
+			table.add(3, 20);
+			assertEquals(30.0, table.getStatistics(1, 0, 2).get(Statistics.MAX), DELTA);
+			assertEquals(60.0, table.getStatistics(1).get(Statistics.SUM), DELTA);
+
+			table.sort(new Ascending(1));
+			assertEquals(20.0, table.getStatistics(1, 0, 2).get(Statistics.MAX), DELTA);
+			assertEquals(5.0, table.getStatistics(0, 0, 2).get(Statistics.SUM), DELTA);
+			assertEquals(60.0, table.getStatistics(1).get(Statistics.SUM), DELTA);
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	@SuppressWarnings("unchecked")
+	public void testStatisticsOfInvalidRowRange() {
+		DataTable table = new DataTable(Double.class);
+		table.add(1.0);
+		table.getStatistics(0, 0, 2);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testColumnSorted() {
+		DataTable table = new DataTable(Double.class, Double.class);
+		table.add(1.0, 3.0);
+		table.add(2.0, 1.0);
+		assertTrue(table.isColumnSorted(0));
+		assertFalse(table.isColumnSorted(1));
+
+		// Appended rows are checked
+		table.add(2.0, 4.0);
+		assertTrue(table.isColumnSorted(0));
+		table.add(0.0, 5.0);
+		assertFalse(table.isColumnSorted(0));
+
+		// Updated values are checked again
+		table.set(0, 3, 3.0);
+		assertTrue(table.isColumnSorted(0));
+		table.set(0, 3, null);
+		assertFalse(table.isColumnSorted(0));
+
+		// Declared columns aren't checked
+		table.setColumnSorted(1, true);
+		assertTrue(table.isColumnSorted(1));
+		table.setColumnSorted(1, false);
+		assertFalse(table.isColumnSorted(1));
+	}
+}
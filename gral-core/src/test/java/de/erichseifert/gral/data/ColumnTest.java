@@ -160,6 +160,31 @@ public class ColumnTest {
 		assertEquals(original.size(), deserialized.size());
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testColumnOfDataSourceIsLiveView() {
+		DataTable table = new DataTable(Integer.class, Double.class);
+		table.add(1, 2.0);
+		table.add(3, 4.0);
+		Column<?> column = table.getColumn(1);
+		assertEquals(Double.class, column.getType());
+		assertEquals(new Column<>(Double.class, 2.0, 4.0), column);
+		assertEquals(new Column<>(Double.class, 2.0, 4.0).hashCode(), column.hashCode());
+
+		table.add(5, 6.0);
+		table.set(1, 0, -1.0);
+		assertEquals(3, column.size());
+		assertThat((Column<Double>) column, hasItems(-1.0, 4.0, 6.0));
+		assertEquals(6.0, column.getDouble(2), DELTA);
+		assertEquals(-1.0, column.getStatistics(Statistics.MIN), DELTA);
+		assertEquals(9.0, column.getStatistics(Statistics.SUM), DELTA);
+
+		double[] values = new double[2];
+		column.copy(values, 1, 3);
+		assertEquals(4.0, values[0], DELTA);
+		assertEquals(6.0, values[1], DELTA);
+	}
+
 	@Test
 	public void testGetTypeReturnsDataType() {
 		Column<Integer> column = col1;
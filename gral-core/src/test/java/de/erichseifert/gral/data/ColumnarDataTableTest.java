@@ -0,0 +1,385 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.comparators.Ascending;
+import de.erichseifert.gral.data.comparators.Descending;
+import de.erichseifert.gral.data.filters.Convolution;
+import de.erichseifert.gral.data.filters.Filter2D;
+import de.erichseifert.gral.data.filters.Kernel;
+import de.erichseifert.gral.data.statistics.Statistics;
+
+public class ColumnarDataTableTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private static class MockDataListener implements DataListener {
+		private DataChangeEvent[] added;
+		private DataChangeEvent[] updated;
+		private DataChangeEvent[] removed;
+
+		public void dataAdded(DataSource source, DataChangeEvent... events) {
+			added = events;
+		}
+
+		public void dataUpdated(DataSource source, DataChangeEvent... events) {
+			updated = events;
+		}
+
+		public void dataRemoved(DataSource source, DataChangeEvent... events) {
+			removed = events;
+		}
+	}
+
+	private ColumnarDataTable table;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		table = new ColumnarDataTable(Integer.class, Integer.class);
+		table.add(1,  1); // 0
+		table.add(2,  3); // 1
+		table.add(3,  2); // 2
+		table.add(4,  6); // 3
+		table.add(5,  4); // 4
+		table.add(6,  8); // 5
+		table.add(7,  9); // 6
+		table.add(8, 11); // 7
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCreate() {
+		ColumnarDataTable table1 = new ColumnarDataTable(Integer.class, Double.class, Long.class, Float.class);
+		assertEquals(4, table1.getColumnCount());
+		assertEquals(0, table1.getRowCount());
+		assertArrayEquals(new Class<?>[] {Integer.class, Double.class, Long.class, Float.class},
+				table1.getColumnTypes());
+
+		ColumnarDataTable table2 = new ColumnarDataTable(3, Double.class);
+		assertEquals(3, table2.getColumnCount());
+		for (Class<? extends Comparable<?>> type : table2.getColumnTypes()) {
+			assertEquals(Double.class, type);
+		}
+
+		// Copy constructor
+		ColumnarDataTable table3 = new ColumnarDataTable(table);
+		assertEquals(table.getColumnCount(), table3.getColumnCount());
+		assertEquals(table.getRowCount(), table3.getRowCount());
+		for (int row = 0; row < table.getRowCount(); row++) {
+			assertEquals(table.getRecord(row), table3.getRecord(row));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testValueTypesArePreserved() {
+		ColumnarDataTable table = new ColumnarDataTable(
+				Double.class, Float.class, Long.class, Integer.class, Short.class, Byte.class, String.class);
+		table.add(1.5, 2.5f, 3L, 4, (short) 5, (byte) 6, "7");
+
+		assertEquals(1.5, table.get(0, 0));
+		assertEquals(2.5f, table.get(1, 0));
+		assertEquals(3L, table.get(2, 0));
+		assertEquals(4, table.get(3, 0));
+		assertEquals((short) 5, table.get(4, 0));
+		assertEquals((byte) 6, table.get(5, 0));
+		assertEquals("7", table.get(6, 0));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testNullValues() {
+		ColumnarDataTable table = new ColumnarDataTable(Double.class, Long.class, String.class);
+		table.add(null, 1L, null);
+		table.add(2.0, null, "b");
+		table.add(null, 3L, "c");
+
+		assertNull(table.get(0, 0));
+		assertEquals(1L, table.get(1, 0));
+		assertNull(table.get(2, 0));
+		assertEquals(2.0, table.get(0, 1));
+		assertNull(table.get(1, 1));
+
+		table.remove(0);
+		assertEquals(2.0, table.get(0, 0));
+		assertNull(table.get(1, 0));
+		assertNull(table.get(0, 1));
+		assertEquals(3L, table.get(1, 1));
+
+		table.set(0, 1, 4.0);
+		assertEquals(4.0, table.get(0, 1));
+		table.set(0, 1, null);
+		assertNull(table.get(0, 1));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGetDouble() {
+		ColumnarDataTable table = new ColumnarDataTable(Double.class, Long.class, String.class);
+		table.add(1.5, 2L, "a");
+		table.add(null, 3L, "b");
+		table.add(2.5, null, null);
+
+		assertEquals(1.5, table.getDouble(0, 0), DELTA);
+		assertEquals(3.0, table.getDouble(1, 1), DELTA);
+		assertTrue(Double.isNaN(table.getDouble(0, 1)));
+		assertTrue(Double.isNaN(table.getDouble(2, 0)));
+
+		double[] column = new double[3];
+		table.copyColumn(0, column, 0, 3);
+		assertEquals(1.5, column[0], DELTA);
+		assertTrue(Double.isNaN(column[1]));
+		assertEquals(2.5, column[2], DELTA);
+		table.copyColumn(1, column, 1, 3);
+		assertEquals(3.0, column[0], DELTA);
+		assertTrue(Double.isNaN(column[1]));
+	}
+
+	@Test
+	public void testAdd() {
+		int sizeBefore = table.getRowCount();
+		for (int i = 0; i < 100; i++) {
+			table.add(i, -i);
+		}
+		int rowIndex = table.add(2, -3);
+		assertEquals(sizeBefore + 101, table.getRowCount());
+		assertEquals(table.getRowCount() - 1, rowIndex);
+		assertEquals(-99, table.get(1, rowIndex - 1));
+
+		// Wrong number of columns
+		try {
+			table.add(1);
+			fail("Expected IllegalArgumentException exception.");
+		} catch (IllegalArgumentException e) {
+		}
+
+		// Wrong type of columns
+		try {
+			table.add(1.0, 1.0);
+			fail("Expected IllegalArgumentException exception.");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAddAll() {
+		MockDataListener listener = new MockDataListener();
+		table.addDataListener(listener);
+
+		assertEquals(2, table.addAll(Arrays.asList(Arrays.asList(9, 12), Arrays.asList(10, null))));
+		assertEquals(10, table.getRowCount());
+		assertEquals(9, table.get(0, 8));
+		assertNull(table.get(1, 9));
+
+		assertEquals(1, listener.added.length);
+		assertTrue(listener.added[0].isRange());
+		assertEquals(8, listener.added[0].getRow());
+		assertEquals(9, listener.added[0].getRowLast());
+	}
+
+	@Test
+	public void testSet() {
+		int sizeBefore = table.getRowCount();
+
+		table.set(1, 2, -1);
+		assertEquals(sizeBefore, table.getRowCount());
+		assertEquals(-1, table.get(1, 2));
+
+		// Illegal column index
+		try {
+			table.set(2, 0, 1);
+			fail("Expected IndexOutOfBoundsException exception.");
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+
+	@Test
+	public void testRemove() {
+		int sizeBefore = table.getRowCount();
+		table.remove(0);
+		assertEquals(sizeBefore - 1, table.getRowCount());
+		assertEquals(2, table.get(0, 0));
+
+		table.removeLast();
+		assertEquals(sizeBefore - 2, table.getRowCount());
+		assertEquals(7, table.get(0, table.getRowCount() - 1));
+
+		// Invalid (negative) index
+		try {
+			table.remove(-1);
+			fail("Expected IndexOutOfBoundsException exception.");
+		} catch (IndexOutOfBoundsException e) {
+		}
+		// Invalid (positive) index
+		try {
+			table.remove(table.getRowCount());
+			fail("Expected IndexOutOfBoundsException exception.");
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSortInvalidatesColumnSorted() {
+		ColumnarDataTable table = new ColumnarDataTable(Integer.class, Integer.class);
+		table.add(1, 30);
+		table.add(2, 10);
+		table.add(3, 20);
+		assertTrue(table.isColumnSorted(0));
+
+		table.sort(new Ascending(1));
+		assertFalse(table.isColumnSorted(0));
+		assertTrue(table.isColumnSorted(1));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSort() {
+		ColumnarDataTable table = new ColumnarDataTable(Integer.class, Integer.class, Integer.class);
+		int[] original = {
+				9,	1,	3,
+				4,	4,	2,
+				4,	2,	1,
+				8,	1,	9,
+				8,	1,	7,
+				6,	2,	4,
+				4,	6,	5,
+				3,	3,	5
+		};
+		int i = 0;
+		while (i < original.length) {
+			table.add(original[i++], original[i++], original[i++]);
+		}
+
+		table.sort(new Ascending(1), new Descending(0), new Ascending(2));
+
+		int[] expected = {
+				9,	1,	3,
+				8,	1,	7,
+				8,	1,	9,
+				6,	2,	4,
+				4,	2,	1,
+				3,	3,	5,
+				4,	4,	2,
+				4,	6,	5
+		};
+		i = 0;
+		while (i < expected.length) {
+			assertEquals(expected[i], table.get(i%3, i/3));
+			i++;
+		}
+	}
+
+	@Test
+	public void testClear() {
+		table.clear();
+		assertEquals(0, table.getRowCount());
+		table.add(1, 2);
+		assertEquals(1, table.get(0, 0));
+	}
+
+	@Test
+	public void testEvents() {
+		MockDataListener listener = new MockDataListener();
+		table.addDataListener(listener);
+
+		int row = table.add(56, 78);
+		assertNotNull(listener.added);
+		assertEquals(2, listener.added.length);
+		assertEquals(row, listener.added[1].getRow());
+		assertEquals(78, listener.added[1].getNew());
+
+		table.set(1, row, 42);
+		assertNotNull(listener.updated);
+		assertEquals(78, listener.updated[0].getOld());
+		assertEquals(42, listener.updated[0].getNew());
+
+		table.remove(row);
+		assertNotNull(listener.removed);
+		assertEquals(56, listener.removed[0].getOld());
+		assertEquals(42, listener.removed[1].getOld());
+	}
+
+	@Test
+	public void testStatistics() {
+		DataTable reference = new DataTable(table);
+		String[] stats = { Statistics.N, Statistics.MIN, Statistics.MAX, Statistics.MEAN };
+		for (String stat : stats) {
+			assertEquals(reference.getStatistics().get(stat), table.getStatistics().get(stat), DELTA);
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testWorksAsOriginalOfViews() {
+		ColumnarDataTable table = new ColumnarDataTable(Double.class, Double.class);
+		DataTable reference = new DataTable(Double.class, Double.class);
+		for (int i = 0; i < 10; i++) {
+			table.add((double) i, (double) (i*i));
+			reference.add((double) i, (double) (i*i));
+		}
+
+		DataSeries series = new DataSeries(table, 1, 0);
+		assertEquals(table.get(0, 3), series.get(1, 3));
+
+		Kernel kernel = new Kernel(1.0, 2.0, 1.0).normalize();
+		Filter2D filtered = new Convolution(table, kernel, Filter2D.Mode.REPEAT, 1);
+		Filter2D filteredReference = new Convolution(reference, kernel, Filter2D.Mode.REPEAT, 1);
+		for (int row = 0; row < table.getRowCount(); row++) {
+			assertEquals(filteredReference.get(1, row), filtered.get(1, row));
+		}
+
+		table.add(10.0, 100.0);
+		reference.add(10.0, 100.0);
+		assertEquals(filteredReference.get(1, 10), filtered.get(1, 10));
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		DataSource original = table;
+		DataSource deserialized = TestUtils.serializeAndDeserialize(original);
+
+		assertArrayEquals(original.getColumnTypes(), deserialized.getColumnTypes());
+		assertEquals(original.getColumnCount(), deserialized.getColumnCount());
+		assertEquals(original.getRowCount(), deserialized.getRowCount());
+		for (int row = 0; row < original.getRowCount(); row++) {
+			for (int col = 0; col < original.getColumnCount(); col++) {
+				assertEquals(original.get(col, row), deserialized.get(col, row));
+			}
+		}
+	}
+}
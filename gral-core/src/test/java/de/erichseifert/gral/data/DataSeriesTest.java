@@ -22,13 +22,37 @@
 package de.erichseifert.gral.data;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import de.erichseifert.gral.data.filters.Convolution;
+import de.erichseifert.gral.data.filters.Filter2D;
+import de.erichseifert.gral.data.filters.Kernel;
+
 public class DataSeriesTest {
+	private static class MockDataListener implements DataListener {
+		private DataChangeEvent[] added;
+		private DataChangeEvent[] updated;
+		private DataChangeEvent[] removed;
+
+		public void dataAdded(DataSource source, DataChangeEvent... events) {
+			added = events;
+		}
+
+		public void dataUpdated(DataSource source, DataChangeEvent... events) {
+			updated = events;
+		}
+
+		public void dataRemoved(DataSource source, DataChangeEvent... events) {
+			removed = events;
+		}
+	}
+
 	private static DataTable table;
 
 	@BeforeClass
@@ -102,6 +126,21 @@ public class DataSeriesTest {
 		assertNull(series.get(series.getColumnCount(), series.getRowCount()));
 	}
 
+	@Test
+	public void testGetDouble() {
+		DataSeries series = new DataSeries(table, 2, 1);
+
+		double[] column = new double[series.getRowCount()];
+		series.copyColumn(1, column, 0, column.length);
+		for (int row = 0; row < series.getRowCount(); row++) {
+			assertEquals(((Number) table.get(2, row)).doubleValue(), series.getDouble(0, row), 0.0);
+			assertEquals(((Number) table.get(1, row)).doubleValue(), column[row], 0.0);
+		}
+
+		// Invalid (negative) index
+		assertTrue(Double.isNaN(series.getDouble(-1, 0)));
+	}
+
 	@Test
 	public void testGetColumnCount() {
 		DataSeries series = new DataSeries(table, 2, 1);
@@ -115,4 +154,58 @@ public class DataSeriesTest {
 		assertEquals(series.getName(), series.toString());
 	}
 
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRangeEvents() {
+		DataTable table = new DataTable(Integer.class, Integer.class, Integer.class);
+		table.add(1, 3, 5);
+		table.add(2, 8, 2);
+		DataSeries series = new DataSeries(table, 2, 1);
+		MockDataListener listener = new MockDataListener();
+		series.addDataListener(listener);
+
+		table.clear();
+		assertEquals(1, listener.removed.length);
+		DataChangeEvent event = listener.removed[0];
+		assertEquals(series, event.getSource());
+		assertEquals(2, event.getColumns().cardinality());
+		assertEquals(1, event.getRowLast());
+		assertEquals(5, event.getOld(0, 0));
+		assertEquals(8, event.getOld(1, 1));
+		assertNull(event.getOld(2, 1));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShiftEvents() {
+		RingBufferDataTable buffer = new RingBufferDataTable(5, Integer.class, Integer.class);
+		for (int i = 0; i < 5; i++) {
+			buffer.add(i, i*i);
+		}
+		DataSeries series = new DataSeries(buffer, 1);
+		MockDataListener listener = new MockDataListener();
+		series.addDataListener(listener);
+		Convolution filter = new Convolution(series, new Kernel(1.0), Filter2D.Mode.OMIT, 0);
+
+		buffer.add(5, 25);
+		buffer.add(6, 36);
+		assertEquals(1, listener.updated.length);
+		assertTrue(listener.updated[0] instanceof RowShiftEvent);
+		RowShiftEvent shift = (RowShiftEvent) listener.updated[0];
+		assertEquals(series, shift.getSource());
+		assertEquals(1, shift.getRemovedCount());
+		assertEquals(1, shift.getAddedCount());
+		for (int row = 0; row < series.getRowCount(); row++) {
+			assertEquals(series.getDouble(0, row), filter.getDouble(0, row), 0.0);
+		}
+	}
+
+	@Test
+	public void testColumnSorted() {
+		DataSeries series = new DataSeries(table, 2, 0);
+		assertFalse(series.isColumnSorted(0));
+		assertTrue(series.isColumnSorted(1));
+		assertFalse(series.isColumnSorted(2));
+	}
 }
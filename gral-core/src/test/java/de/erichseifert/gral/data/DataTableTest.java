@@ -24,13 +24,17 @@ package de.erichseifert.gral.data;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -47,9 +51,11 @@ public class DataTableTest {
 		private DataChangeEvent[] added;
 		private DataChangeEvent[] updated;
 		private DataChangeEvent[] removed;
+		private int addedCount;
 
 		public void dataAdded(DataSource source, DataChangeEvent... events) {
 			added = events;
+			addedCount++;
 		}
 
 		public void dataUpdated(DataSource source, DataChangeEvent... events) {
@@ -220,6 +226,25 @@ public class DataTableTest {
 		assertEquals(11, table.get(1, 7));
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGetDouble() {
+		assertEquals(6.0, table.getDouble(1, 3), DELTA);
+		assertEquals(5.0, table.getDouble(0, 4), DELTA);
+
+		DataTable table = new DataTable(Double.class, String.class);
+		table.add(null, "a");
+		assertTrue(Double.isNaN(table.getDouble(0, 0)));
+		assertTrue(Double.isNaN(table.getDouble(1, 0)));
+	}
+
+	@Test
+	public void testCopyColumn() {
+		double[] column = new double[3];
+		table.copyColumn(1, column, 2, 5);
+		assertArrayEquals(new double[] {2.0, 6.0, 4.0}, column, DELTA);
+	}
+
 	@Test
 	public void testIterator() {
 		int i = 0;
@@ -233,6 +258,20 @@ public class DataTableTest {
 		}
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSortInvalidatesColumnSorted() {
+		DataTable table = new DataTable(Integer.class, Integer.class);
+		table.add(1, 30);
+		table.add(2, 10);
+		table.add(3, 20);
+		assertTrue(table.isColumnSorted(0));
+
+		table.sort(new Ascending(1));
+		assertFalse(table.isColumnSorted(0));
+		assertTrue(table.isColumnSorted(1));
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void testSort() {
@@ -271,6 +310,86 @@ public class DataTableTest {
 		}
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAddAll() {
+		List<List<Integer>> rows = Arrays.asList(
+			Arrays.asList(9, 12),
+			Arrays.asList(10, 14),
+			Arrays.asList(11, null)
+		);
+		assertEquals(3, table.addAll(rows));
+		assertEquals(11, table.getRowCount());
+		assertEquals(9, table.get(0, 8));
+		assertEquals(14, table.get(1, 9));
+		assertNull(table.get(1, 10));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAddAllAddsNothingOnInvalidRow() {
+		List<List<?>> rows = Arrays.<List<?>>asList(
+			Arrays.asList(9, 12),
+			Arrays.asList(10, "14")
+		);
+		try {
+			table.addAll((List) rows);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+		assertEquals(8, table.getRowCount());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testEventsAddAll() {
+		MockDataListener listener = new MockDataListener();
+		table.addDataListener(listener);
+
+		table.addAll(Arrays.asList(Arrays.asList(9, 12), Arrays.asList(10, 14)));
+		assertEquals(1, listener.addedCount);
+		assertEquals(1, listener.added.length);
+		assertTrue(listener.added[0].isRange());
+		assertEquals(8, listener.added[0].getRow());
+		assertEquals(9, listener.added[0].getRowLast());
+		assertNull(listener.updated);
+		assertNull(listener.removed);
+	}
+
+	@Test
+	public void testEventsUpdateTransaction() {
+		MockDataListener listener = new MockDataListener();
+		table.addDataListener(listener);
+
+		table.beginUpdate();
+		table.add(9, 12);
+		table.beginUpdate();
+		table.add(10, 14);
+		table.endUpdate();
+		table.set(0, 0, 0);
+		table.add(11, 16);
+		assertEquals(0, listener.addedCount);
+		assertNull(listener.updated);
+		table.endUpdate();
+
+		assertEquals(1, listener.addedCount);
+		assertEquals(1, listener.added.length);
+		assertEquals(8, listener.added[0].getRow());
+		assertEquals(10, listener.added[0].getRowLast());
+		assertEquals(1, listener.updated.length);
+		assertEquals(0, listener.updated[0].getNew());
+		assertNull(listener.removed);
+
+		// Notifications are sent immediately again
+		table.add(12, 18);
+		assertEquals(2, listener.addedCount);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEndUpdateWithoutBeginUpdate() {
+		table.endUpdate();
+	}
+
 	@Test
 	public void testClear() {
 		table.clear();
@@ -368,7 +487,17 @@ public class DataTableTest {
 		assertNull(listener.updated);
 		assertNotNull(listener.removed);
 
-		assertEquals(cols * rows, listener.removed.length);
+		// A single event describes all removed values
+		assertEquals(1, listener.removed.length);
+		DataChangeEvent event = listener.removed[0];
+		assertTrue(event.isRange());
+		assertEquals(cols, event.getColumns().cardinality());
+		assertEquals(0, event.getRow());
+		assertEquals(rows - 1, event.getRowLast());
+		assertEquals(1, event.getOld(0, 0));
+		assertEquals(11, event.getOld(1, 7));
+		assertNull(event.getOld(2, 7));
+		assertNull(event.getOld(0, 8));
 	}
 
 	@Test
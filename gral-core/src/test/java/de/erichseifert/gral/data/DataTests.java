@@ -34,6 +34,10 @@ import de.erichseifert.gral.data.statistics.StatisticsTests;
 	// Tests for classes
 	AbstractDataSourceTest.class,
 	DataTableTest.class,
+	ColumnarDataTableTest.class,
+	RingBufferDataTableTest.class,
+	MappedDataSourceTest.class,
+	OffHeapDataTableTest.class,
 	DataSeriesTest.class,
 	RowSubsetTest.class,
 	EnumeratedDataTest.class,
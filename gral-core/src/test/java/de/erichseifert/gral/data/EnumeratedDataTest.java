@@ -23,6 +23,8 @@ package de.erichseifert.gral.data;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 
@@ -30,11 +32,32 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.filters.Convolution;
+import de.erichseifert.gral.data.filters.Filter2D;
+import de.erichseifert.gral.data.filters.Kernel;
 import de.erichseifert.gral.data.statistics.Statistics;
 
 public class EnumeratedDataTest {
 	private static final double DELTA = TestUtils.DELTA;
 
+	private static class MockDataListener implements DataListener {
+		private DataChangeEvent[] added;
+		private DataChangeEvent[] updated;
+		private DataChangeEvent[] removed;
+
+		public void dataAdded(DataSource source, DataChangeEvent... events) {
+			added = events;
+		}
+
+		public void dataUpdated(DataSource source, DataChangeEvent... events) {
+			updated = events;
+		}
+
+		public void dataRemoved(DataSource source, DataChangeEvent... events) {
+			removed = events;
+		}
+	}
+
 	private static DataTable table;
 
 	@BeforeClass
@@ -65,6 +88,20 @@ public class EnumeratedDataTest {
 		assertEquals( 3.0, ((Number) withParams.get(0, 2)).doubleValue(), DELTA);
 	}
 
+	@Test
+	public void testGetDouble() {
+		EnumeratedData data = new EnumeratedData(table, -1, 2.0);
+		assertEquals(3.0, data.getDouble(0, 2), DELTA);
+		assertEquals(2.0, data.getDouble(1, 1), DELTA);
+
+		double[] enumeration = new double[2];
+		data.copyColumn(0, enumeration, 1, 3);
+		assertArrayEquals(new double[] {1.0, 3.0}, enumeration, DELTA);
+		double[] column = new double[3];
+		data.copyColumn(2, column, 0, 3);
+		assertArrayEquals(new double[] {1.0, 3.0, 2.0}, column, DELTA);
+	}
+
 	@Test
 	public void testSerialization() throws IOException, ClassNotFoundException {
 		DataSource original = new EnumeratedData(table);
@@ -93,4 +130,57 @@ public class EnumeratedDataTest {
 				DELTA);
 		}
     }
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRangeEvents() {
+		DataTable table = new DataTable(Integer.class, Integer.class);
+		table.add(3, 1);
+		table.add(2, 3);
+		EnumeratedData data = new EnumeratedData(table, 1.0, 2.0);
+		MockDataListener listener = new MockDataListener();
+		data.addDataListener(listener);
+
+		table.clear();
+		assertEquals(1, listener.removed.length);
+		DataChangeEvent event = listener.removed[0];
+		assertTrue(event.isRange());
+		assertEquals(data, event.getSource());
+		assertEquals(3, event.getColumns().cardinality());
+		assertEquals(3.0, ((Number) event.getOld(0, 1)).doubleValue(), DELTA);
+		assertEquals(3, event.getOld(1, 0));
+		assertEquals(3, event.getOld(2, 1));
+	}
+
+	@Test
+	public void testColumnSorted() {
+		assertTrue(new EnumeratedData(table).isColumnSorted(0));
+		assertFalse(new EnumeratedData(table, 0.0, -1.0).isColumnSorted(0));
+		assertFalse(new EnumeratedData(table).isColumnSorted(1));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShiftEvents() {
+		RingBufferDataTable buffer = new RingBufferDataTable(5, Integer.class);
+		for (int i = 0; i < 5; i++) {
+			buffer.add(i*i);
+		}
+		EnumeratedData data = new EnumeratedData(buffer);
+		MockDataListener listener = new MockDataListener();
+		data.addDataListener(listener);
+		Convolution filter = new Convolution(data, new Kernel(1.0), Filter2D.Mode.OMIT, 1);
+
+		buffer.add(25);
+		buffer.add(36);
+		assertEquals(1, listener.updated.length);
+		assertTrue(listener.updated[0] instanceof RowShiftEvent);
+		RowShiftEvent shift = (RowShiftEvent) listener.updated[0];
+		assertEquals(data, shift.getSource());
+		assertEquals(1, shift.getRemovedCount());
+		assertEquals(1, shift.getAddedCount());
+		for (int row = 0; row < data.getRowCount(); row++) {
+			assertEquals(data.getDouble(1, row), filter.getDouble(1, row), 0.0);
+		}
+	}
 }
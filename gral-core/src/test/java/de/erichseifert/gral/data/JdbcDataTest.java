@@ -23,20 +23,42 @@ package de.erichseifert.gral.data;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.Arrays;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import de.erichseifert.gral.DummyJdbc;
 import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.statistics.Statistics;
 
 public class JdbcDataTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private static class MockDataListener implements DataListener {
+		private DataChangeEvent[] added;
+		private DataChangeEvent[] removed;
+
+		public void dataAdded(DataSource source, DataChangeEvent... events) {
+			added = events;
+		}
+
+		public void dataUpdated(DataSource source, DataChangeEvent... events) {
+		}
+
+		public void dataRemoved(DataSource source, DataChangeEvent... events) {
+			removed = events;
+		}
+	}
+
 	private Connection connection;
 	private DataTable table;
 
@@ -91,6 +113,187 @@ public class JdbcDataTest {
 	public void testXyz() {
 	}
 
+	@Test
+	public void testPages() {
+		JdbcData data = new JdbcData(connection, "foobar");
+		data.setPageSize(3);
+		data.setCacheSize(1);
+		for (int rowIndex = table.getRowCount() - 1; rowIndex >= 0; rowIndex--) {
+			for (int colIndex = 0; colIndex < table.getColumnCount(); colIndex++) {
+				assertEquals(table.get(colIndex, rowIndex), data.get(colIndex, rowIndex));
+			}
+		}
+		assertEquals(6.6, data.getDouble(5, 2), DELTA);
+		assertNull(data.get(0, table.getRowCount()));
+
+		double[] column = new double[5];
+		data.copyColumn(2, column, 2, 7);
+		assertArrayEquals(new double[] {3.0, 4.0, 5.0, 6.0, 7.0}, column, DELTA);
+	}
+
+	@Test
+	public void testCopyColumnUnbuffered() {
+		JdbcData data = new JdbcData(connection, "foobar", false);
+		int queryCount = ((DummyJdbc) connection).getQueryCount();
+		double[] column = new double[8];
+		data.copyColumn(3, column, 0, 8);
+		assertArrayEquals(new double[] {9.0, 8.0, 7.0, 6.0, 5.0, 4.0, 3.0, 2.0}, column, DELTA);
+		assertEquals(queryCount + 1, ((DummyJdbc) connection).getQueryCount());
+	}
+
+	@Test
+	public void testSettings() {
+		JdbcData data = new JdbcData(connection, "foobar");
+		assertEquals(JdbcData.DEFAULT_PAGE_SIZE, data.getPageSize());
+		assertEquals(JdbcData.DEFAULT_CACHE_SIZE, data.getCacheSize());
+		data.setFetchSize(100);
+		assertEquals(100, data.getFetchSize());
+		assertEquals(1, data.get(2, 0));
+	}
+
+	@Test
+	public void testStatistics() {
+		JdbcData data = new JdbcData(connection, "foobar");
+		DummyJdbc jdbc = (DummyJdbc) connection;
+		Statistics stats = data.getStatistics(2);
+		assertEquals(8.0, stats.get(Statistics.N), DELTA);
+		assertEquals(1.0, stats.get(Statistics.MIN), DELTA);
+		assertEquals(8.0, stats.get(Statistics.MAX), DELTA);
+		assertEquals(36.0, stats.get(Statistics.SUM), DELTA);
+		assertEquals(4.5, stats.get(Statistics.MEAN), DELTA);
+		assertEquals(4.5, stats.get(Statistics.MEDIAN), DELTA);
+		assertEquals(9.0, data.getColumnStatistics(Statistics.MAX).getDouble(0, 0), DELTA);
+
+		Statistics statsAll = data.getStatistics();
+		assertEquals(48.0, statsAll.get(Statistics.N), DELTA);
+		assertEquals(1.0, statsAll.get(Statistics.MIN), DELTA);
+		assertEquals(9.2, statsAll.get(Statistics.MAX), DELTA);
+
+		// Buffered aggregates are reused
+		int queryCount = jdbc.getQueryCount();
+		assertEquals(9.0, data.getStatistics(1).get(Statistics.MAX), DELTA);
+		assertEquals(queryCount, jdbc.getQueryCount());
+
+		// Refreshing queries the aggregates again
+		data.refresh();
+		assertEquals(9.0, data.getStatistics(1).get(Statistics.MAX), DELTA);
+		assertEquals(queryCount + 1, jdbc.getQueryCount());
+	}
+
+	@Test
+	public void testStatisticsUnbuffered() {
+		JdbcData data = new JdbcData(connection, "foobar", false);
+		DummyJdbc jdbc = (DummyJdbc) connection;
+		int queryCount = jdbc.getQueryCount();
+		assertEquals(2.0, data.getStatistics(3).get(Statistics.MIN), DELTA);
+		assertEquals(2.0, data.getStatistics(3).get(Statistics.MIN), DELTA);
+		assertEquals(queryCount + 2, jdbc.getQueryCount());
+	}
+
+	@Test
+	public void testStatisticsQuotesColumnNames() {
+		JdbcData data = new JdbcData(connection, "foobar");
+		DummyJdbc jdbc = (DummyJdbc) connection;
+		data.getStatistics(0);
+		assertTrue(jdbc.getLastQuery().startsWith(
+			"SELECT MIN(\"col1\"), MAX(\"col1\"), COUNT(\"col1\"), SUM(\"col1\")"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStatisticsUnbufferedKeepsVersion() {
+		JdbcData data = new JdbcData(connection, "foobar", false);
+		data.getStatistics(9);
+		long version = data.getVersion();
+		data.getStatistics(9);
+		data.getStatistics(3);
+		assertEquals(version, data.getVersion());
+
+		table.add((byte) 1, (short) 1, 9, 1L, 1.0f, 1.0, new Date(9), new Time(9), new Timestamp(9), "Sep");
+		assertEquals(1.0, data.getStatistics(3).get(Statistics.MIN), DELTA);
+		assertTrue(data.getVersion() > version);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRangeStatisticsUnbufferedKeepsVersion() {
+		JdbcData data = new JdbcData(connection, "foobar", false);
+		assertEquals(2.0, data.getStatistics(3, 0, 8).get(Statistics.MIN), DELTA);
+		long version = data.getVersion();
+		assertEquals(2.0, data.getStatistics(3, 0, 8).get(Statistics.MIN), DELTA);
+		assertEquals(version, data.getVersion());
+
+		table.set(3, 0, 1L);
+		assertEquals(1.0, data.getStatistics(3, 0, 8).get(Statistics.MIN), DELTA);
+		assertTrue(data.getVersion() > version);
+	}
+
+	@Test
+	public void testKeyRange() {
+		JdbcData data = new JdbcData(connection, "foobar", "col3", true);
+		DummyJdbc jdbc = (DummyJdbc) connection;
+		MockDataListener listener = new MockDataListener();
+		data.addDataListener(listener);
+		assertEquals("col3", data.getKeyColumn());
+		assertEquals(2, data.getKeyColumnIndex());
+		assertTrue(data.isColumnSorted(2));
+
+		data.setKeyRange(2, 5);
+		assertEquals(2, data.getKeyMin());
+		assertEquals(5, data.getKeyMax());
+		assertEquals(7, listener.removed[0].getRowLast());
+		assertEquals(0, listener.added[0].getRow());
+		data.get(2, 0);
+		assertEquals("SELECT * FROM foobar WHERE col3 BETWEEN ? AND ? ORDER BY col3",
+			jdbc.getLastQuery());
+		assertEquals(Arrays.<Object>asList(2, 5), jdbc.getLastParameters());
+
+		data.setKeyRange(null, 5);
+		data.get(2, 0);
+		assertEquals("SELECT * FROM foobar WHERE col3 <= ? ORDER BY col3",
+			jdbc.getLastQuery());
+		assertEquals(Arrays.<Object>asList(5), jdbc.getLastParameters());
+	}
+
+	@Test
+	public void testStatementsClosed() {
+		DummyJdbc jdbc = (DummyJdbc) connection;
+		JdbcData data = new JdbcData(connection, "foobar", "col3", true);
+		data.getStatistics(2);
+		data.getRowCount();
+		assertEquals(0, jdbc.getOpenStatementCount());
+
+		// The buffered query stays open until it is discarded
+		data.get(2, 0);
+		assertEquals(1, jdbc.getOpenStatementCount());
+		for (int i = 0; i < 3; i++) {
+			data.setKeyRange(i, i + 3);
+			data.get(2, 0);
+		}
+		assertEquals(1, jdbc.getOpenStatementCount());
+		data.setFetchSize(10);
+		assertEquals(0, jdbc.getOpenStatementCount());
+		data.get(2, 0);
+		data.refresh();
+		assertEquals(0, jdbc.getOpenStatementCount());
+
+		data.setBuffered(false);
+		data.get(2, 0);
+		data.getDouble(2, 1);
+		data.copyColumn(2, new double[8], 0, 8);
+		assertEquals(0, jdbc.getOpenStatementCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testKeyRangeWithoutKeyColumn() {
+		new JdbcData(connection, "foobar").setKeyRange(2, 5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPageSize() {
+		new JdbcData(connection, "foobar").setPageSize(0);
+	}
+
 	@Test(expected=UnsupportedOperationException.class)
 	@SuppressWarnings("unused")
 	public void testSerialization() throws IOException, ClassNotFoundException {
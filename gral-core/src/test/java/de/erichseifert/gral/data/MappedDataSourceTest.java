@@ -0,0 +1,130 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.statistics.Statistics;
+import de.erichseifert.gral.io.data.DataWriter;
+import de.erichseifert.gral.io.data.DataWriterFactory;
+
+public class MappedDataSourceTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@SuppressWarnings("unchecked")
+	private MappedDataSource createSource() throws IOException {
+		DataTable table = new DataTable(Double.class, Integer.class, Long.class, Float.class);
+		table.add(1.0, 3, 5L, 0.5f);
+		table.add(2.0, -8, 2L, null);
+		table.add(3.0, 5, Long.MAX_VALUE, 1.5f);
+
+		File file = folder.newFile("data.gcol");
+		DataWriter writer = DataWriterFactory.getInstance().get("application/x-gral-columns");
+		try (OutputStream output = new FileOutputStream(file)) {
+			writer.write(table, output);
+		}
+		return new MappedDataSource(file);
+	}
+
+	@Test
+	public void testCreate() throws IOException {
+		MappedDataSource data = createSource();
+		assertEquals(4, data.getColumnCount());
+		assertEquals(3, data.getRowCount());
+		assertArrayEquals(new Class[] {Double.class, Integer.class, Long.class, Float.class},
+			data.getColumnTypes());
+	}
+
+	@Test
+	public void testGet() throws IOException {
+		MappedDataSource data = createSource();
+		assertEquals(2.0, data.get(0, 1));
+		assertEquals(-8, data.get(1, 1));
+		assertEquals(Long.MAX_VALUE, data.get(2, 2));
+		assertEquals(1.5f, data.get(3, 2));
+		assertEquals(Float.NaN, data.get(3, 1));
+	}
+
+	@Test
+	public void testGetDouble() throws IOException {
+		MappedDataSource data = createSource();
+		assertEquals(3.0, data.getDouble(0, 2), DELTA);
+		assertEquals(5.0, data.getDouble(1, 2), DELTA);
+		assertEquals(0.5, data.getDouble(3, 0), DELTA);
+
+		double[] column = new double[2];
+		data.copyColumn(0, column, 1, 3);
+		assertArrayEquals(new double[] {2.0, 3.0}, column, DELTA);
+		data.copyColumn(1, column, 0, 2);
+		assertArrayEquals(new double[] {3.0, -8.0}, column, DELTA);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetInvalidRow() throws IOException {
+		createSource().getDouble(0, 3);
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidFile() throws IOException {
+		File file = folder.newFile("invalid.gcol");
+		try (OutputStream output = new FileOutputStream(file)) {
+			output.write(new byte[] {'C', 'S', 'V', ',', '1', '\r', '\n'});
+		}
+		new MappedDataSource(file);
+	}
+
+	@Test
+	public void testStatistics() throws IOException {
+		MappedDataSource data = createSource();
+		assertEquals(6.0, data.getStatistics(0).get(Statistics.SUM), DELTA);
+		assertEquals(-8.0, data.getStatistics(1).get(Statistics.MIN), DELTA);
+		assertEquals(1.0, data.getStatistics(3).get(Statistics.MEAN), DELTA);
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		MappedDataSource original = createSource();
+		MappedDataSource deserialized = TestUtils.serializeAndDeserialize(original);
+
+		assertEquals(original.getFile(), deserialized.getFile());
+		assertArrayEquals(original.getColumnTypes(), deserialized.getColumnTypes());
+		for (int row = 0; row < original.getRowCount(); row++) {
+			for (int col = 0; col < original.getColumnCount(); col++) {
+				assertEquals(original.get(col, row), deserialized.get(col, row));
+			}
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.comparators.Ascending;
+import de.erichseifert.gral.data.statistics.Statistics;
+
+public class OffHeapDataTableTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private OffHeapDataTable table;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		table = new OffHeapDataTable(Long.class, Double.class, Float.class,
+			Integer.class, Short.class, Byte.class, String.class);
+		table.add(3L, 1.5, 2.5f, 7, (short) 4, (byte) 1, "foo");
+		table.add(1L, null, -1.0f, -3, (short) 2, (byte) -2, "bar");
+		table.add(Long.MAX_VALUE, 0.5, 0.0f, 9, null, (byte) 3, null);
+	}
+
+	@After
+	public void tearDown() {
+		table.close();
+	}
+
+	@Test
+	public void testGet() {
+		assertEquals(3, table.getRowCount());
+		assertEquals(Long.MAX_VALUE, table.get(0, 2));
+		assertEquals(1.5, table.get(1, 0));
+		assertNull(table.get(1, 1));
+		assertEquals(-1.0f, table.get(2, 1));
+		assertEquals(-3, table.get(3, 1));
+		assertEquals((short) 2, table.get(4, 1));
+		assertNull(table.get(4, 2));
+		assertEquals((byte) -2, table.get(5, 1));
+		assertEquals("foo", table.get(6, 0));
+	}
+
+	@Test
+	public void testGetDouble() {
+		assertEquals(9.0, table.getDouble(3, 2), DELTA);
+		assertTrue(Double.isNaN(table.getDouble(1, 1)));
+
+		double[] column = new double[3];
+		table.copyColumn(5, column, 0, 3);
+		assertArrayEquals(new double[] {1.0, -2.0, 3.0}, column, DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGrowsInChunks() {
+		OffHeapDataTable data = new OffHeapDataTable(Integer.class);
+		for (int i = 0; i < 40000; i++) {
+			data.add(i);
+		}
+		data.remove(0);
+		assertEquals(39999, data.getRowCount());
+		assertEquals(1, data.get(0, 0));
+		assertEquals(16385, data.get(0, 16384));
+		assertEquals(39999, data.get(0, 39998));
+
+		data.close();
+		assertEquals(0, data.getRowCount());
+		data.add(42);
+		assertEquals(42, data.get(0, 0));
+		data.close();
+	}
+
+	@Test
+	public void testSetAndRemove() {
+		table.set(1, 1, 4.0);
+		assertEquals(4.0, table.get(1, 1));
+		table.set(0, 0, null);
+		assertNull(table.get(0, 0));
+
+		table.remove(0);
+		assertEquals(2, table.getRowCount());
+		assertEquals(1L, table.get(0, 0));
+		assertEquals(Long.MAX_VALUE, table.get(0, 1));
+		assertNull(table.get(4, 1));
+	}
+
+	@Test
+	public void testSort() {
+		table.sort(new Ascending(0));
+		assertEquals(1L, table.get(0, 0));
+		assertEquals(3L, table.get(0, 1));
+		assertEquals(Long.MAX_VALUE, table.get(0, 2));
+		assertNull(table.get(1, 0));
+		assertEquals("bar", table.get(6, 0));
+	}
+
+	@Test
+	public void testStatistics() {
+		assertEquals(13.0, table.getStatistics(3).get(Statistics.SUM), DELTA);
+		assertEquals(-1.0, table.getStatistics(2).get(Statistics.MIN), DELTA);
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		OffHeapDataTable deserialized = TestUtils.serializeAndDeserialize(table);
+		assertEquals(table.getRowCount(), deserialized.getRowCount());
+		for (int row = 0; row < table.getRowCount(); row++) {
+			for (int col = 0; col < table.getColumnCount(); col++) {
+				assertEquals(table.get(col, row), deserialized.get(col, row));
+			}
+		}
+		deserialized.close();
+	}
+}
@@ -0,0 +1,278 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.comparators.Ascending;
+import de.erichseifert.gral.data.statistics.Statistics;
+
+public class RingBufferDataTableTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private static class MockDataListener implements DataListener {
+		private DataChangeEvent[] added;
+		private DataChangeEvent[] updated;
+		private DataChangeEvent[] removed;
+
+		public void dataAdded(DataSource source, DataChangeEvent... events) {
+			added = events;
+		}
+
+		public void dataUpdated(DataSource source, DataChangeEvent... events) {
+			updated = events;
+		}
+
+		public void dataRemoved(DataSource source, DataChangeEvent... events) {
+			removed = events;
+		}
+	}
+
+	private RingBufferDataTable table;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		table = new RingBufferDataTable(4, Integer.class, Double.class);
+		table.add(1, 1.0); // 0
+		table.add(2, 3.0); // 1
+		table.add(3, 2.0); // 2
+	}
+
+	@Test
+	public void testCreate() {
+		RingBufferDataTable table = new RingBufferDataTable(10, 3, Double.class);
+		assertEquals(10, table.getCapacity());
+		assertEquals(3, table.getColumnCount());
+		assertEquals(0, table.getRowCount());
+		assertArrayEquals(new Class<?>[] {Double.class, Double.class, Double.class},
+				table.getColumnTypes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateInvalidCapacity() {
+		new RingBufferDataTable(0, 1, Double.class);
+	}
+
+	@Test
+	public void testAddEvictsOldestRows() {
+		assertEquals(3, table.add(4, 4.0));
+		assertEquals(4, table.getRowCount());
+		assertEquals(3, table.add(5, 5.0));
+		assertEquals(3, table.add(6, 6.0));
+		assertEquals(4, table.getRowCount());
+
+		assertEquals(3, table.get(0, 0));
+		assertEquals(4, table.get(0, 1));
+		assertEquals(5, table.get(0, 2));
+		assertEquals(6, table.get(0, 3));
+		assertEquals(6.0, table.get(1, 3));
+		assertNull(table.get(0, 4));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAddAll() {
+		MockDataListener listener = new MockDataListener();
+		table.addDataListener(listener);
+
+		assertEquals(1, table.addAll(Arrays.asList(Arrays.asList(4, 4.0))));
+		assertEquals(4, table.getRowCount());
+		assertEquals(1, listener.added.length);
+		assertEquals(3, listener.added[0].getRow());
+		assertEquals(3, listener.added[0].getRowLast());
+		assertNull(listener.updated);
+
+		// More rows than the capacity: only the most recent rows are kept
+		assertEquals(5, table.addAll(Arrays.asList(
+			Arrays.asList(5, 5.0), Arrays.asList(6, 6.0), Arrays.asList(7, 7.0),
+			Arrays.asList(8, 8.0), Arrays.asList(9, 9.0))));
+		assertEquals(4, table.getRowCount());
+		assertEquals(6, table.get(0, 0));
+		assertEquals(9, table.get(0, 3));
+		assertEquals(1, listener.updated.length);
+		RowShiftEvent shift = (RowShiftEvent) listener.updated[0];
+		assertEquals(4, shift.getRemovedCount());
+		assertEquals(4, shift.getAddedCount());
+		assertEquals(0, shift.getRow());
+		assertEquals(3, shift.getRowLast());
+	}
+
+	@Test
+	public void testGetDoubleAndCopyColumn() {
+		for (int i = 4; i <= 6; i++) {
+			table.add(i, (double) i);
+		}
+		table.set(1, 1, null);
+
+		assertEquals(3.0, table.getDouble(0, 0), DELTA);
+		assertEquals(Double.NaN, table.getDouble(1, 1), DELTA);
+		assertEquals(Double.NaN, table.getDouble(0, 4), DELTA);
+
+		// The requested rows wrap around the end of the storage
+		double[] values = new double[4];
+		table.copyColumn(0, values, 0, 4);
+		assertArrayEquals(new double[] {3.0, 4.0, 5.0, 6.0}, values, DELTA);
+		table.copyColumn(1, values, 1, 3);
+		assertEquals(Double.NaN, values[0], DELTA);
+		assertEquals(5.0, values[1], DELTA);
+	}
+
+	@Test
+	public void testRemove() {
+		table.add(4, 4.0);
+		table.add(5, 5.0);
+
+		table.remove(0);
+		assertEquals(3, table.getRowCount());
+		assertEquals(3, table.get(0, 0));
+		assertEquals(5, table.get(0, 2));
+
+		table.remove(1);
+		assertEquals(2, table.getRowCount());
+		assertEquals(3, table.get(0, 0));
+		assertEquals(5, table.get(0, 1));
+
+		table.removeLast();
+		assertEquals(1, table.getRowCount());
+		assertEquals(3, table.get(0, 0));
+
+		// The freed slots can be reused
+		table.add(6, 6.0);
+		table.add(7, 7.0);
+		table.add(8, 8.0);
+		table.add(9, 9.0);
+		assertEquals(4, table.getRowCount());
+		assertEquals(6, table.get(0, 0));
+		assertEquals(9, table.get(0, 3));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testRemoveInvalidRow() {
+		table.remove(3);
+	}
+
+	@Test
+	public void testClear() {
+		table.add(4, 4.0);
+		table.add(5, 5.0);
+		table.clear();
+		assertEquals(0, table.getRowCount());
+		table.add(6, 6.0);
+		assertEquals(1, table.getRowCount());
+		assertEquals(6, table.get(0, 0));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSortInvalidatesColumnSorted() {
+		RingBufferDataTable table = new RingBufferDataTable(5, Integer.class, Integer.class);
+		table.add(1, 30);
+		table.add(2, 10);
+		table.add(3, 20);
+		assertTrue(table.isColumnSorted(0));
+
+		table.sort(new Ascending(1));
+		assertFalse(table.isColumnSorted(0));
+		assertTrue(table.isColumnSorted(1));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSort() {
+		table.add(4, 0.0);
+		table.add(5, 4.0);
+		table.add(6, 1.0);
+		table.sort(new Ascending(1));
+		assertEquals(4, table.get(0, 0));
+		assertEquals(6, table.get(0, 1));
+		assertEquals(3, table.get(0, 2));
+		assertEquals(5, table.get(0, 3));
+
+		// Appending after sorting still evicts the first row
+		table.add(7, 7.0);
+		assertEquals(6, table.get(0, 0));
+		assertEquals(7, table.get(0, 3));
+	}
+
+	@Test
+	public void testEvents() {
+		MockDataListener listener = new MockDataListener();
+		table.addDataListener(listener);
+
+		table.add(4, 4.0);
+		assertEquals(2, listener.added.length);
+		assertEquals(3, listener.added[0].getRow());
+		assertNull(listener.updated);
+
+		// Appending to the full table fires a single shift event
+		table.add(5, 5.0);
+		assertEquals(1, listener.updated.length);
+		assertTrue(listener.updated[0] instanceof RowShiftEvent);
+		RowShiftEvent shift = (RowShiftEvent) listener.updated[0];
+		assertEquals(1, shift.getRemovedCount());
+		assertEquals(1, shift.getAddedCount());
+		assertEquals(0, shift.getRow());
+		assertEquals(3, shift.getRowLast());
+		assertEquals(table, shift.getSource());
+
+		table.remove(0);
+		assertEquals(2, listener.removed.length);
+		assertEquals(2, listener.removed[0].getOld());
+	}
+
+	@Test
+	public void testStatistics() {
+		table.add(4, 4.0);
+		table.add(5, 5.0);
+		Column col = table.getColumn(0);
+		assertEquals(2.0, col.getStatistics(Statistics.MIN), DELTA);
+		assertEquals(5.0, col.getStatistics(Statistics.MAX), DELTA);
+		assertEquals(14.0, col.getStatistics(Statistics.SUM), DELTA);
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		table.add(4, 4.0);
+		table.add(5, 5.0);
+		DataSource original = table;
+		DataSource deserialized = TestUtils.serializeAndDeserialize(original);
+
+		assertArrayEquals(original.getColumnTypes(), deserialized.getColumnTypes());
+		assertEquals(original.getRowCount(), deserialized.getRowCount());
+		for (int row = 0; row < original.getRowCount(); row++) {
+			for (int col = 0; col < original.getColumnCount(); col++) {
+				assertEquals(original.get(col, row), deserialized.get(col, row));
+			}
+		}
+	}
+}
@@ -23,9 +23,11 @@ package de.erichseifert.gral.data;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -52,6 +54,55 @@ public class RowSubsetTest {
 		}
 	}
 
+	private static final class CountingRowSubset extends RowSubset {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = 2712449734582719658L;
+
+		private int count;
+
+		public CountingRowSubset(DataSource original) {
+			super(original);
+		}
+
+		@Override
+		public boolean accept(Row row) {
+			count++;
+			return ((Number) row.get(0)).intValue() % 2 == 0;
+		}
+	}
+
+	private static final class GreaterRowSubset extends RowSubset {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = -3046722914713530385L;
+
+		public GreaterRowSubset(DataSource original) {
+			super(original);
+		}
+
+		@Override
+		public boolean accept(Row row) {
+			return ((Number) row.get(0)).intValue() > 10;
+		}
+	}
+
+	private static class MockDataListener implements DataListener {
+		private DataChangeEvent[] added;
+		private DataChangeEvent[] updated;
+		private DataChangeEvent[] removed;
+
+		public void dataAdded(DataSource source, DataChangeEvent... events) {
+			added = events;
+		}
+
+		public void dataUpdated(DataSource source, DataChangeEvent... events) {
+			updated = events;
+		}
+
+		public void dataRemoved(DataSource source, DataChangeEvent... events) {
+			removed = events;
+		}
+	}
+
 	private DataTable table;
 	private RowSubset data;
 
@@ -158,4 +209,136 @@ public class RowSubsetTest {
 				DELTA);
 		}
     }
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRangeEvents() {
+		MockDataListener listener = new MockDataListener();
+		data.addDataListener(listener);
+
+		table.addAll(Arrays.asList(Arrays.asList(9, 0), Arrays.asList(10, 0), Arrays.asList(12, 0)));
+		assertEquals(1, listener.added.length);
+		assertEquals(data, listener.added[0].getSource());
+		assertEquals(4, listener.added[0].getRow());
+		assertEquals(5, listener.added[0].getRowLast());
+
+		table.clear();
+		assertEquals(1, listener.removed.length);
+		DataChangeEvent event = listener.removed[0];
+		assertEquals(0, event.getRow());
+		assertEquals(5, event.getRowLast());
+		assertEquals(2, event.getOld(0, 0));
+		assertEquals(11, event.getOld(1, 3));
+		assertEquals(12, event.getOld(0, 5));
+		assertNull(event.getOld(0, 6));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRangeEventsWithoutAcceptedRows() {
+		MockDataListener listener = new MockDataListener();
+		data.addDataListener(listener);
+
+		table.addAll(Arrays.asList(Arrays.asList(9, 0), Arrays.asList(11, 0)));
+		assertEquals(4, data.getRowCount());
+		assertNull(listener.added);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testIncrementalChanges() {
+		CountingRowSubset subset = new CountingRowSubset(table);
+		subset.count = 0;
+
+		table.add(10, 0);
+		assertEquals(1, subset.count);
+		assertEquals(5, subset.getRowCount());
+		assertEquals(10, subset.get(0, 4));
+
+		table.set(0, 0, 12);
+		assertEquals(2, subset.count);
+		assertEquals(6, subset.getRowCount());
+		assertEquals(12, subset.get(0, 0));
+
+		table.remove(1);
+		assertEquals(2, subset.count);
+		assertEquals(5, subset.getRowCount());
+		assertEquals(4, subset.get(0, 1));
+		assertEquals(6, subset.get(1, 1));
+
+		table.addAll(Arrays.asList(Arrays.asList(14, 0), Arrays.asList(15, 0)));
+		assertEquals(4, subset.count);
+		assertEquals(14, subset.get(0, 5));
+		assertEquals(6, subset.getRowCount());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShift() {
+		RingBufferDataTable buffer = new RingBufferDataTable(4, Integer.class);
+		for (int i = 1; i <= 4; i++) {
+			buffer.add(i);
+		}
+		CountingRowSubset subset = new CountingRowSubset(buffer);
+		subset.count = 0;
+
+		buffer.add(6);
+		assertEquals(1, subset.count);
+		assertEquals(3, subset.getRowCount());
+		assertEquals(2, subset.get(0, 0));
+		assertEquals(4, subset.get(0, 1));
+		assertEquals(6, subset.get(0, 2));
+
+		buffer.add(7);
+		assertEquals(2, subset.getRowCount());
+		assertEquals(4, subset.get(0, 0));
+		assertEquals(6, subset.get(0, 1));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBatchedChanges() {
+		table.beginUpdate();
+		table.add(10, 0);
+		table.remove(0);
+		table.set(0, 0, 20);
+		table.endUpdate();
+		assertEquals(5, data.getRowCount());
+		assertEquals(20, data.get(0, 0));
+		assertEquals(10, data.get(0, 4));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShiftThroughSeries() {
+		RingBufferDataTable buffer = new RingBufferDataTable(5, Integer.class, Integer.class);
+		for (int i = 0; i < 5; i++) {
+			buffer.add(i, i*i);
+		}
+		DataSeries series = new DataSeries(buffer, 1);
+		RowSubset subset = new GreaterRowSubset(series);
+		MockDataListener listener = new MockDataListener();
+		subset.addDataListener(listener);
+
+		buffer.add(5, 25);
+		buffer.add(6, 36);
+		assertEquals(3, subset.getRowCount());
+		assertTrue(listener.updated[0] instanceof RowShiftEvent);
+		RowShiftEvent shift = (RowShiftEvent) listener.updated[0];
+		assertEquals(subset, shift.getSource());
+		assertEquals(0, shift.getRemovedCount());
+		assertEquals(1, shift.getAddedCount());
+
+		for (int i = 7; i < 10; i++) {
+			buffer.add(i, i*i);
+		}
+		RowSubset expected = new GreaterRowSubset(series);
+		assertEquals(expected.getRowCount(), subset.getRowCount());
+		for (int row = 0; row < expected.getRowCount(); row++) {
+			assertEquals(expected.get(0, row), subset.get(0, row));
+		}
+		shift = (RowShiftEvent) listener.updated[0];
+		assertEquals(1, shift.getRemovedCount());
+		assertEquals(1, shift.getAddedCount());
+	}
 }
@@ -27,17 +27,59 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.DataChangeEvent;
+import de.erichseifert.gral.data.DataListener;
+import de.erichseifert.gral.data.DataSource;
 import de.erichseifert.gral.data.DataTable;
+import de.erichseifert.gral.data.RingBufferDataTable;
+import de.erichseifert.gral.data.RowShiftEvent;
 import de.erichseifert.gral.data.statistics.Statistics;
 
 public class ConvolutionTest {
 	private static final double DELTA = TestUtils.DELTA;
 
+	private static final class CountingConvolution extends Convolution {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = -2291576931480512734L;
+
+		private int count;
+
+		public CountingConvolution(DataSource original, Kernel kernel, Mode mode, int... cols) {
+			super(original, kernel, mode, cols);
+		}
+
+		@Override
+		protected void filter(int rowFirst, int rowLast) {
+			count += rowLast - rowFirst + 1;
+			super.filter(rowFirst, rowLast);
+		}
+	}
+
+	private static final class DirectConvolution extends Convolution {
+		/** Version id for serialization. */
+		private static final long serialVersionUID = 3395370402858766423L;
+
+		public DirectConvolution(DataSource original, Kernel kernel, Mode mode, int... cols) {
+			super(original, kernel, mode, cols);
+		}
+
+		@Override
+		protected void filter(int rowFirst, int rowLast) {
+			// Single rows are always convolved by direct summation
+			for (int row = rowFirst; row <= rowLast; row++) {
+				super.filter(row, row);
+			}
+		}
+	}
+
 	private static DataTable table;
 	private static Kernel kernel;
 
@@ -195,4 +237,235 @@ public class ConvolutionTest {
 				DELTA);
 		}
     }
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testIncrementalChanges() {
+		for (Filter2D.Mode mode : Filter2D.Mode.values()) {
+			DataTable data = new DataTable(Double.class, Double.class);
+			for (int i = 0; i < 10; i++) {
+				data.add((double) i, (double) (i*i % 7));
+			}
+			Convolution filter = new Convolution(data, Kernel.getUniform(5, 1, 1.0), mode, 0, 1);
+
+			data.add(10.0, 3.0);
+			assertFiltered(filter, new Convolution(data, filter.getKernel(), mode, 0, 1));
+
+			data.addAll(Arrays.asList(Arrays.asList(11.0, 4.0), Arrays.asList(12.0, -1.0)));
+			assertFiltered(filter, new Convolution(data, filter.getKernel(), mode, 0, 1));
+
+			data.set(1, 5, 42.0);
+			data.set(1, 0, -3.0);
+			data.set(0, 12, 7.0);
+			assertFiltered(filter, new Convolution(data, filter.getKernel(), mode, 0, 1));
+
+			data.remove(3);
+			assertFiltered(filter, new Convolution(data, filter.getKernel(), mode, 0, 1));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShift() {
+		RingBufferDataTable data = new RingBufferDataTable(6, Double.class);
+		for (int i = 0; i < 6; i++) {
+			data.add((double) i);
+		}
+		Convolution filter = new Convolution(data, kernel, Filter2D.Mode.CIRCULAR, 0);
+		for (int i = 6; i < 10; i++) {
+			data.add((double) i*i);
+			assertFiltered(filter, new Convolution(data, kernel, Filter2D.Mode.CIRCULAR, 0));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShiftBorders() {
+		for (Filter2D.Mode mode : new Filter2D.Mode[] {
+				Filter2D.Mode.ZERO, Filter2D.Mode.OMIT, Filter2D.Mode.REPEAT}) {
+			RingBufferDataTable data = new RingBufferDataTable(10, Double.class);
+			Convolution filter = new Convolution(data, kernel, mode, 0);
+			for (int i = 0; i < 15; i++) {
+				data.add((double) i);
+				assertFiltered(filter, new Convolution(data, kernel, mode, 0));
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShiftChained() {
+		RingBufferDataTable data = new RingBufferDataTable(5, Double.class);
+		Kernel identity = new Kernel(1.0);
+		Convolution inner = new Convolution(data, identity, Filter2D.Mode.OMIT, 0);
+		Convolution outer = new Convolution(inner, identity, Filter2D.Mode.OMIT, 0);
+		final DataChangeEvent[][] updated = new DataChangeEvent[1][];
+		inner.addDataListener(new DataListener() {
+			public void dataAdded(DataSource source, DataChangeEvent... events) {
+			}
+
+			public void dataUpdated(DataSource source, DataChangeEvent... events) {
+				if (updated[0] == null) {
+					updated[0] = events;
+				}
+			}
+
+			public void dataRemoved(DataSource source, DataChangeEvent... events) {
+			}
+		});
+		for (int i = 0; i < 7; i++) {
+			data.add((double) i*i);
+		}
+		assertTrue(updated[0][0] instanceof RowShiftEvent);
+		assertEquals(inner, updated[0][0].getSource());
+		assertEquals(4.0, outer.getDouble(0, 0), DELTA);
+		assertFiltered(new Convolution(new Convolution(data, identity, Filter2D.Mode.OMIT, 0),
+			identity, Filter2D.Mode.OMIT, 0), outer);
+	}
+
+	private static Convolution createChain(DataSource data, Filter2D.Mode mode) {
+		return new Convolution(new Convolution(data, kernel, mode, 0), kernel, mode, 0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testChained() {
+		for (Filter2D.Mode mode : Filter2D.Mode.values()) {
+			DataTable data = new DataTable(Double.class);
+			for (int i = 0; i < 8; i++) {
+				data.add((double) i*i);
+			}
+			Convolution chain = createChain(data, mode);
+
+			data.set(0, 3, 100.0);
+			assertFiltered(createChain(data, mode), chain);
+
+			data.add(100.0);
+			assertFiltered(createChain(data, mode), chain);
+
+			data.remove(2);
+			assertFiltered(createChain(data, mode), chain);
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShiftChainedBorders() {
+		for (Filter2D.Mode mode : Filter2D.Mode.values()) {
+			RingBufferDataTable data = new RingBufferDataTable(6, Double.class);
+			Convolution chain = createChain(data, mode);
+			for (int i = 0; i < 12; i++) {
+				data.add((double) i*i);
+				assertFiltered(createChain(data, mode), chain);
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStatisticsAfterAppend() {
+		DataTable data = new DataTable(Double.class);
+		for (int i = 0; i < 8; i++) {
+			data.add((double) i*i);
+		}
+		Convolution filter = new Convolution(data, kernel, Filter2D.Mode.REPEAT, 0);
+		filter.getStatistics(0).get(Statistics.SUM);
+		filter.getStatistics(0, 0, 7).get(Statistics.MAX);
+
+		data.add(100.0);
+		Convolution expected = new Convolution(data, kernel, Filter2D.Mode.REPEAT, 0);
+		assertEquals(expected.getStatistics(0).get(Statistics.SUM),
+			filter.getStatistics(0).get(Statistics.SUM), DELTA);
+		assertEquals(expected.getStatistics(0, 0, 8).get(Statistics.MAX),
+			filter.getStatistics(0, 0, 8).get(Statistics.MAX), DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAppendFiltersDependentRows() {
+		DataTable data = new DataTable(Double.class);
+		for (int i = 0; i < 1000; i++) {
+			data.add((double) i);
+		}
+		CountingConvolution filter = new CountingConvolution(data, kernel, Filter2D.Mode.ZERO, 0);
+		filter.count = 0;
+		data.add(1000.0);
+		// Only two rows depend on the new row
+		assertEquals(2, filter.count);
+		assertEquals(1999.0, filter.getDouble(0, 1000), DELTA);
+		assertEquals(2997.0, filter.getDouble(0, 999), DELTA);
+	}
+
+	private static void assertFiltered(Filter2D expected, Filter2D actual) {
+		assertEquals(expected.getRowCount(), actual.getRowCount());
+		for (int col = 0; col < expected.getColumnCount(); col++) {
+			for (int row = 0; row < expected.getRowCount(); row++) {
+				assertEquals(expected.getDouble(col, row), actual.getDouble(col, row), DELTA);
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLargeKernel() {
+		Random random = new Random(1234L);
+		DataTable data = new DataTable(Double.class, Double.class);
+		for (int row = 0; row < 500; row++) {
+			data.add(random.nextGaussian(), (row == 250) ? Double.NaN : random.nextDouble());
+		}
+		double[] values = new double[Convolution.FFT_KERNEL_SIZE + 37];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextDouble();
+		}
+		Kernel[] kernels = {
+			new Kernel(values), new Kernel(10, values), Kernel.getBinomial(40.0)
+		};
+
+		for (Kernel k : kernels) {
+			for (Filter2D.Mode mode : Filter2D.Mode.values()) {
+				Convolution fast = new Convolution(data, k, mode, 0, 1);
+				Convolution direct = new DirectConvolution(data, k, mode, 0, 1);
+				for (int col = 0; col < data.getColumnCount(); col++) {
+					for (int row = 0; row < data.getRowCount(); row++) {
+						double expected = direct.getDouble(col, row);
+						double actual = fast.getDouble(col, row);
+						if (Double.isNaN(expected)) {
+							assertTrue(Double.isNaN(actual));
+						} else {
+							assertEquals(String.format("Wrong value in mode %s at col=%d, row=%d.", mode, col, row),
+								expected, actual, 1e-9);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testParallel() {
+		Random random = new Random(4321L);
+		DataTable data = new DataTable(Double.class, Double.class, Double.class);
+		int rowCount = 3*Filter2D.BLOCK_SIZE + 17;
+		for (int row = 0; row < rowCount; row++) {
+			data.add(random.nextGaussian(), random.nextDouble(), (double) row);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (Filter2D.Mode mode : Filter2D.Mode.values()) {
+				Filter2D sequential = new Convolution(data, Kernel.getBinomial(20.0), mode, 0, 1, 2);
+				Filter2D parallel = new Convolution(data, Kernel.getBinomial(20.0), mode, 0, 1, 2);
+				parallel.setForkJoinPool(pool);
+				parallel.setMode(mode);
+				assertEquals(pool, parallel.getForkJoinPool());
+				for (int col = 0; col < data.getColumnCount(); col++) {
+					for (int row = 0; row < rowCount; row++) {
+						assertEquals(sequential.getDouble(col, row), parallel.getDouble(col, row), 0.0);
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
 }
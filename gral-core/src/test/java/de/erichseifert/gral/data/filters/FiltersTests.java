@@ -31,6 +31,9 @@ import org.junit.runners.Suite;
 	KernelTest.class,
 	ConvolutionTest.class,
 	MedianTest.class,
+	SlidingMedianTest.class,
+	LTTBDownsamplingTest.class,
+	M4AggregationTest.class,
 	ResizeTest.class,
 	AccumulationTest.class
 })
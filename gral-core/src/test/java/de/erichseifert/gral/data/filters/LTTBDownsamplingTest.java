@@ -0,0 +1,215 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.filters;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.DataChangeEvent;
+import de.erichseifert.gral.data.DataListener;
+import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.data.DataTable;
+
+public class LTTBDownsamplingTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private static class MockDataListener implements DataListener {
+		private int added;
+		private int removed;
+
+		public void dataAdded(DataSource source, DataChangeEvent... events) {
+			added++;
+		}
+
+		public void dataUpdated(DataSource source, DataChangeEvent... events) {
+		}
+
+		public void dataRemoved(DataSource source, DataChangeEvent... events) {
+			removed++;
+		}
+	}
+
+	private DataTable table;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		table = new DataTable(Double.class, Double.class, String.class);
+		for (int row = 0; row < 100; row++) {
+			double y = (row == 37) ? 50.0 : Math.sin(row/10.0);
+			table.add(row/2.0, y, "r" + row);
+		}
+	}
+
+	private static int[] naiveLTTB(double[] x, double[] y, int size) {
+		int n = x.length;
+		int[] selected = new int[size];
+		double every = (n - 2)/(double) (size - 2);
+		int a = 0;
+		selected[size - 1] = n - 1;
+		for (int bucket = 0; bucket < size - 2; bucket++) {
+			int start = (int) Math.floor(bucket*every + 1e-9) + 1;
+			int end = (int) Math.floor((bucket + 1)*every + 1e-9) + 1;
+			int nextStart = end;
+			int nextEnd = (bucket + 2 < size - 1) ? (int) Math.floor((bucket + 2)*every + 1e-9) + 1 : n;
+			double cx = 0.0, cy = 0.0;
+			for (int i = nextStart; i < nextEnd; i++) {
+				cx += x[i];
+				cy += y[i];
+			}
+			cx /= nextEnd - nextStart;
+			cy /= nextEnd - nextStart;
+			double areaMax = -1.0;
+			int best = start;
+			for (int i = start; i < end; i++) {
+				double area = Math.abs((x[a] - cx)*(y[i] - y[a]) - (x[a] - x[i])*(cy - y[a]));
+				if (area > areaMax) {
+					areaMax = area;
+					best = i;
+				}
+			}
+			selected[bucket + 1] = best;
+			a = best;
+		}
+		return selected;
+	}
+
+	@Test
+	public void testCreate() {
+		LTTBDownsampling view = new LTTBDownsampling(table, 0, 1, 10);
+		assertEquals(10, view.getSize());
+		assertEquals(10, view.getRowCount());
+		assertEquals(table.getColumnCount(), view.getColumnCount());
+		assertArrayEquals(table.getColumnTypes(), view.getColumnTypes());
+		assertEquals(0, view.getRowOriginal(0));
+		assertEquals(99, view.getRowOriginal(9));
+
+		boolean spike = false;
+		for (int row = 0; row < view.getRowCount(); row++) {
+			int rowOriginal = view.getRowOriginal(row);
+			if (row > 0) {
+				assertTrue(rowOriginal > view.getRowOriginal(row - 1));
+			}
+			spike |= rowOriginal == 37;
+			// Original values are kept
+			assertEquals(table.get(0, rowOriginal), view.get(0, row));
+			assertEquals(table.get(2, rowOriginal), view.get(2, row));
+			assertEquals(table.getDouble(1, rowOriginal), view.getDouble(1, row), DELTA);
+		}
+		assertTrue(spike);
+
+		double[] column = new double[3];
+		view.copyColumn(0, column, 1, 4);
+		for (int i = 0; i < column.length; i++) {
+			assertEquals(view.getDouble(0, i + 1), column[i], DELTA);
+		}
+		assertTrue(view.isColumnSorted(0));
+	}
+
+	@Test
+	public void testReference() {
+		Random random = new Random(42L);
+		int n = 1000;
+		DataTable data = new DataTable(Double.class, Double.class);
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i;
+			y[i] = random.nextGaussian();
+			data.add(x[i], y[i]);
+		}
+		for (int size : new int[] {3, 7, 64, 333, 999}) {
+			LTTBDownsampling view = new LTTBDownsampling(data, 0, 1, size);
+			int[] expected = naiveLTTB(x, y, size);
+			int[] actual = new int[size];
+			for (int row = 0; row < size; row++) {
+				actual[row] = view.getRowOriginal(row);
+			}
+			assertArrayEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testAllRows() {
+		LTTBDownsampling all = new LTTBDownsampling(table, 0, 1, 0);
+		assertEquals(table.getRowCount(), all.getRowCount());
+		LTTBDownsampling large = new LTTBDownsampling(table, 0, 1, 1000);
+		assertEquals(table.getRowCount(), large.getRowCount());
+		assertEquals(table.get(1, 37), large.get(1, 37));
+
+		assertEquals(1, new LTTBDownsampling(table, 0, 1, 1).getRowCount());
+		LTTBDownsampling two = new LTTBDownsampling(table, 0, 1, 2);
+		assertEquals(99, two.getRowOriginal(1));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testInvalidRow() {
+		new LTTBDownsampling(table, 0, 1, 10).getRowOriginal(10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize() {
+		new LTTBDownsampling(table, 0, 1, -1);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testChanges() {
+		LTTBDownsampling view = new LTTBDownsampling(table, 0, 1, 10);
+		MockDataListener listener = new MockDataListener();
+		view.addDataListener(listener);
+
+		view.setSize(20);
+		assertEquals(20, view.getRowCount());
+		assertEquals(1, listener.removed);
+		assertEquals(1, listener.added);
+
+		// Same size doesn't select rows again
+		view.setSize(20);
+		assertEquals(1, listener.added);
+
+		table.add(100.0, 1.0, "new");
+		assertEquals(20, view.getRowCount());
+		assertEquals(100, view.getRowOriginal(19));
+		assertEquals(2, listener.added);
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		LTTBDownsampling original = new LTTBDownsampling(table, 0, 1, 10);
+		LTTBDownsampling deserialized = TestUtils.serializeAndDeserialize(original);
+
+		assertEquals(original.getSize(), deserialized.getSize());
+		assertEquals(original.getRowCount(), deserialized.getRowCount());
+		for (int row = 0; row < original.getRowCount(); row++) {
+			assertEquals(original.getRowOriginal(row), deserialized.getRowOriginal(row));
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.DataChangeEvent;
+import de.erichseifert.gral.data.DataListener;
+import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.data.DataTable;
+
+public class M4AggregationTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private static class MockDataListener implements DataListener {
+		private int updated;
+
+		public void dataAdded(DataSource source, DataChangeEvent... events) {
+		}
+
+		public void dataUpdated(DataSource source, DataChangeEvent... events) {
+			updated++;
+		}
+
+		public void dataRemoved(DataSource source, DataChangeEvent... events) {
+		}
+	}
+
+	private DataTable table;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		table = new DataTable(Double.class, Double.class);
+		for (int row = 0; row < 1000; row++) {
+			double y = Math.sin(row/10.0);
+			if (row == 500) {
+				y = 100.0;
+			} else if (row == 700) {
+				y = -100.0;
+			}
+			table.add((double) row, y);
+		}
+	}
+
+	private static void assertExtrema(DataSource original, M4Aggregation view) {
+		double xMin = view.getXMin();
+		double xMax = view.getXMax();
+		int width = view.getWidth();
+		double[] minExpected = new double[width];
+		double[] maxExpected = new double[width];
+		double[] minActual = new double[width];
+		double[] maxActual = new double[width];
+		for (int pixel = 0; pixel < width; pixel++) {
+			minExpected[pixel] = minActual[pixel] = Double.POSITIVE_INFINITY;
+			maxExpected[pixel] = maxActual[pixel] = Double.NEGATIVE_INFINITY;
+		}
+		for (int row = 0; row < original.getRowCount(); row++) {
+			double x = original.getDouble(0, row);
+			if (x < xMin || x > xMax) {
+				continue;
+			}
+			int pixel = Math.min((int) ((x - xMin)/(xMax - xMin)*width), width - 1);
+			minExpected[pixel] = Math.min(minExpected[pixel], original.getDouble(1, row));
+			maxExpected[pixel] = Math.max(maxExpected[pixel], original.getDouble(1, row));
+		}
+		for (int row = 0; row < view.getRowCount(); row++) {
+			double x = view.getDouble(0, row);
+			if (x < xMin || x > xMax) {
+				continue;
+			}
+			int pixel = Math.min((int) ((x - xMin)/(xMax - xMin)*width), width - 1);
+			minActual[pixel] = Math.min(minActual[pixel], view.getDouble(1, row));
+			maxActual[pixel] = Math.max(maxActual[pixel], view.getDouble(1, row));
+		}
+		for (int pixel = 0; pixel < width; pixel++) {
+			assertEquals(minExpected[pixel], minActual[pixel], DELTA);
+			assertEquals(maxExpected[pixel], maxActual[pixel], DELTA);
+		}
+	}
+
+	@Test
+	public void testAllRows() {
+		M4Aggregation view = new M4Aggregation(table, 0, 1);
+		assertEquals(0, view.getWidth());
+		assertTrue(Double.isNaN(view.getXMin()));
+		assertEquals(table.getRowCount(), view.getRowCount());
+		assertEquals(table.get(1, 500), view.get(1, 500));
+	}
+
+	@Test
+	public void testSortedRows() {
+		M4Aggregation view = new M4Aggregation(table, 0, 1);
+		view.setRange(0.0, 999.0, 10);
+		assertTrue(view.getRowCount() <= 4*10);
+		assertEquals(0, view.getRowOriginal(0));
+		assertEquals(999, view.getRowOriginal(view.getRowCount() - 1));
+		List<Integer> rows = new ArrayList<>();
+		for (int row = 0; row < view.getRowCount(); row++) {
+			rows.add(view.getRowOriginal(row));
+			if (row > 0) {
+				assertTrue(rows.get(row) > rows.get(row - 1));
+			}
+			assertEquals(table.getDouble(1, rows.get(row)), view.getDouble(1, row), DELTA);
+		}
+		assertTrue(rows.contains(500));
+		assertTrue(rows.contains(700));
+		assertExtrema(table, view);
+		assertTrue(view.isColumnSorted(0));
+	}
+
+	@Test
+	public void testVisibleRange() {
+		M4Aggregation view = new M4Aggregation(table, 0, 1);
+		view.setRange(100.5, 200.5, 5);
+		// The nearest rows outside of the range are kept
+		assertEquals(100, view.getRowOriginal(0));
+		assertEquals(201, view.getRowOriginal(view.getRowCount() - 1));
+		assertExtrema(table, view);
+
+		double[] column = new double[view.getRowCount()];
+		view.copyColumn(0, column, 0, column.length);
+		assertEquals(100.0, column[0], DELTA);
+		assertEquals(201.0, column[column.length - 1], DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testUnsortedRows() {
+		List<Integer> order = new ArrayList<>();
+		for (int row = 0; row < table.getRowCount(); row++) {
+			order.add(row);
+		}
+		Collections.shuffle(order, new java.util.Random(42L));
+		DataTable shuffled = new DataTable(Double.class, Double.class);
+		for (int row : order) {
+			shuffled.add(table.get(0, row), table.get(1, row));
+		}
+
+		M4Aggregation view = new M4Aggregation(shuffled, 0, 1);
+		view.setRange(250.0, 750.0, 7);
+		assertTrue(view.getRowCount() <= 4*7);
+		for (int row = 0; row < view.getRowCount(); row++) {
+			double x = view.getDouble(0, row);
+			assertTrue(x >= 250.0 && x <= 750.0);
+		}
+		assertExtrema(shuffled, view);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testChanges() {
+		M4Aggregation view = new M4Aggregation(table, 0, 1);
+		MockDataListener listener = new MockDataListener();
+		view.addDataListener(listener);
+
+		view.setRange(0.0, 1000.0, 4);
+		assertEquals(1, listener.updated);
+		view.setRange(0.0, 1000.0, 4);
+		assertEquals(1, listener.updated);
+
+		table.add(1000.0, 500.0);
+		assertEquals(2, listener.updated);
+		assertEquals(1000, view.getRowOriginal(view.getRowCount() - 1));
+		assertEquals(500.0, view.getDouble(1, view.getRowCount() - 1), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidWidth() {
+		new M4Aggregation(table, 0, 1).setRange(0.0, 1.0, -1);
+	}
+}
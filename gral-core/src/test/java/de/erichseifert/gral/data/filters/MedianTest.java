@@ -25,12 +25,15 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import de.erichseifert.gral.TestUtils;
 import de.erichseifert.gral.data.DataTable;
+import de.erichseifert.gral.data.RingBufferDataTable;
 import de.erichseifert.gral.data.statistics.Statistics;
 
 public class MedianTest {
@@ -117,4 +120,94 @@ public class MedianTest {
 				DELTA);
 		}
     }
+
+	@Test
+	public void testValues() {
+		Median filter = new Median(table, 3, 1, Filter2D.Mode.REPEAT, 0, 1);
+		// Window of rows 0, 1, and 2
+		assertEquals(2.0, filter.getDouble(0, 0), DELTA);
+		assertEquals(5.0, filter.getDouble(1, 0), DELTA);
+		// Window of rows 1, 2, and 3
+		assertEquals(3.0, filter.getDouble(0, 1), DELTA);
+		assertEquals(6.0, filter.getDouble(1, 1), DELTA);
+		// Window of rows 5, 6, and 7
+		assertEquals(8.0, filter.getDouble(1, 5), DELTA);
+		// Window of rows 7, 8, and 9
+		assertEquals(8.0, filter.getDouble(0, 7), DELTA);
+		assertEquals(1.0, filter.getDouble(1, 7), DELTA);
+
+		filter.setWindowSize(4);
+		filter.setOffset(2);
+		// Window of rows -1, 0, 1, and 2
+		assertEquals(1.5, filter.getDouble(0, 0), DELTA);
+		assertEquals(4.0, filter.getDouble(1, 0), DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testIncrementalChanges() {
+		for (Filter2D.Mode mode : Filter2D.Mode.values()) {
+			DataTable data = new DataTable(Integer.class, Integer.class);
+			for (int i = 0; i < 10; i++) {
+				data.add(i, i*i % 7);
+			}
+			Median filter = new Median(data, 4, 1, mode, 0, 1);
+
+			data.add(10, 3);
+			data.add(11, 4);
+			data.set(1, 5, 42);
+			data.set(1, 0, -3);
+			Median expected = new Median(data, 4, 1, mode, 0, 1);
+			for (int col = 0; col < data.getColumnCount(); col++) {
+				for (int row = 0; row < data.getRowCount(); row++) {
+					assertEquals(expected.getDouble(col, row), filter.getDouble(col, row), DELTA);
+				}
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRowShift() {
+		for (Filter2D.Mode mode : Filter2D.Mode.values()) {
+			RingBufferDataTable data = new RingBufferDataTable(10, Double.class);
+			Median filter = new Median(data, 3, 1, mode, 0);
+			for (int i = 0; i < 15; i++) {
+				data.add((double) (i*i % 11));
+				Median expected = new Median(data, 3, 1, mode, 0);
+				assertEquals(expected.getRowCount(), filter.getRowCount());
+				for (int row = 0; row < data.getRowCount(); row++) {
+					assertEquals(expected.getDouble(0, row), filter.getDouble(0, row), DELTA);
+				}
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testParallel() {
+		Random random = new Random(4321L);
+		DataTable data = new DataTable(Double.class, Double.class, Double.class);
+		int rowCount = 3*Filter2D.BLOCK_SIZE + 17;
+		for (int row = 0; row < rowCount; row++) {
+			data.add(random.nextGaussian(), random.nextDouble(), (double) row);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (Filter2D.Mode mode : Filter2D.Mode.values()) {
+				Filter2D sequential = new Median(data, 7, 3, mode, 0, 1, 2);
+				Filter2D parallel = new Median(data, 7, 3, mode, 0, 1, 2);
+				parallel.setForkJoinPool(pool);
+				parallel.setMode(mode);
+				assertEquals(pool, parallel.getForkJoinPool());
+				for (int col = 0; col < data.getColumnCount(); col++) {
+					for (int row = 0; row < rowCount; row++) {
+						assertEquals(sequential.getDouble(col, row), parallel.getDouble(col, row), 0.0);
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
 }
@@ -0,0 +1,111 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.erichseifert.gral.TestUtils;
+
+public class SlidingMedianTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private static double naiveMedian(double[] values, int first, int last) {
+		double[] sorted = Arrays.copyOfRange(values, first, last + 1);
+		for (double v : sorted) {
+			if (Double.isNaN(v) || Double.isInfinite(v)) {
+				return Double.NaN;
+			}
+		}
+		Arrays.sort(sorted);
+		int size = sorted.length;
+		if (size % 2 == 1) {
+			return sorted[size/2];
+		}
+		return (sorted[size/2 - 1] + sorted[size/2])/2.0;
+	}
+
+	@Test
+	public void testEmpty() {
+		SlidingMedian window = new SlidingMedian(3);
+		assertEquals(0, window.size());
+		assertTrue(Double.isNaN(window.getMedian()));
+	}
+
+	@Test
+	public void testRandomValues() {
+		Random random = new Random(42L);
+		int[] windowSizes = {2, 3, 4, 7, 16, 33};
+		double[] values = new double[500];
+		for (int i = 0; i < values.length; i++) {
+			// Few distinct values to produce duplicates
+			values[i] = random.nextInt(20);
+		}
+		for (int windowSize : windowSizes) {
+			SlidingMedian window = new SlidingMedian(windowSize);
+			for (int i = 0; i < values.length; i++) {
+				window.add(values[i]);
+				int first = Math.max(0, i - windowSize + 1);
+				assertEquals(i - first + 1, window.size());
+				assertEquals("Window size " + windowSize + ", row " + i,
+					naiveMedian(values, first, i), window.getMedian(), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidValues() {
+		SlidingMedian window = new SlidingMedian(3);
+		window.add(1.0);
+		window.add(Double.NaN);
+		window.add(3.0);
+		assertTrue(Double.isNaN(window.getMedian()));
+		window.add(5.0);
+		assertTrue(Double.isNaN(window.getMedian()));
+		window.add(4.0);
+		assertEquals(4.0, window.getMedian(), DELTA);
+		window.add(Double.POSITIVE_INFINITY);
+		assertTrue(Double.isNaN(window.getMedian()));
+	}
+
+	@Test
+	public void testWindowSizeOne() {
+		SlidingMedian window = new SlidingMedian(1);
+		window.add(2.0);
+		assertEquals(2.0, window.getMedian(), DELTA);
+		window.add(Double.NaN);
+		assertTrue(Double.isNaN(window.getMedian()));
+		window.add(-1.0);
+		assertEquals(-1.0, window.getMedian(), DELTA);
+		assertEquals(1, window.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidWindowSize() {
+		new SlidingMedian(0);
+	}
+}
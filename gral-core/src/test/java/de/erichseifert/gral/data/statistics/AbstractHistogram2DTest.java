@@ -23,9 +23,17 @@ package de.erichseifert.gral.data.statistics;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import de.erichseifert.gral.data.DataChangeEvent;
+import de.erichseifert.gral.data.DataListener;
+import de.erichseifert.gral.data.DataSource;
 import de.erichseifert.gral.data.DataTable;
 import de.erichseifert.gral.graphics.Orientation;
 
@@ -135,4 +143,72 @@ public class AbstractHistogram2DTest {
 		table.remove(0);
 		assertEquals(2L, histogram.get(0, 0));
 	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testUnequalBreaks() {
+		AbstractHistogram2D histogram = new Histogram2D(table, Orientation.VERTICAL,
+				new Number[][] {{0.0, 1.5, 2.0, 10.0}, {2.0, 2.5, 3.0, 3.5}});
+
+		assertEquals(3L, histogram.get(0, 0));
+		assertEquals(0L, histogram.get(0, 1));
+		// Values at upper breaks belong to the next cell
+		assertEquals(5L, histogram.get(0, 2));
+		assertEquals(3L, histogram.get(1, 0));
+		assertEquals(0L, histogram.get(1, 1));
+		assertEquals(1L, histogram.get(1, 2));
+	}
+
+	@Test
+	public void testHorizontal() {
+		Histogram2D histogram = new Histogram2D(table, Orientation.HORIZONTAL, 2);
+		assertEquals(table.getRowCount(), histogram.getColumnCount());
+		// Row 6 contains the values 2 and 9
+		assertEquals(1L, histogram.get(6, 0));
+		assertEquals(0L, histogram.get(6, 1));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testIncrementalAdd() {
+		Random random = new Random(42L);
+		Number[] breaks = new Number[] {0.0, 0.1, 0.25, 0.5, 0.75, 0.9, 1.0};
+		DataTable data = new DataTable(Double.class, Double.class);
+		Histogram2D incremental = new Histogram2D(data, Orientation.VERTICAL, breaks, breaks);
+		for (int i = 0; i < 1000; i++) {
+			data.add(random.nextDouble(), (i % 10 == 0) ? Double.NaN : random.nextDouble()*2.0);
+		}
+		Histogram2D rebuilt = new Histogram2D(data, Orientation.VERTICAL, breaks, breaks);
+		for (int col = 0; col < rebuilt.getColumnCount(); col++) {
+			for (int row = 0; row < rebuilt.getRowCount(); row++) {
+				assertEquals(rebuilt.get(col, row), incremental.get(col, row));
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testEvents() {
+		AbstractHistogram2D histogram = new Histogram2D(table, Orientation.VERTICAL, 4);
+		final List<DataChangeEvent> events = new ArrayList<>();
+		histogram.addDataListener(new DataListener() {
+			public void dataAdded(DataSource source, DataChangeEvent... e) {
+				events.addAll(Arrays.asList(e));
+			}
+
+			public void dataUpdated(DataSource source, DataChangeEvent... e) {
+			}
+
+			public void dataRemoved(DataSource source, DataChangeEvent... e) {
+			}
+		});
+		double sum = histogram.getStatistics(0).get(Statistics.SUM);
+		table.add(1, 1);
+
+		assertEquals(1, events.size());
+		assertEquals(histogram, events.get(0).getSource());
+		assertEquals(0, events.get(0).getRow());
+		assertEquals(histogram.getRowCount() - 1, events.get(0).getRowLast());
+		assertEquals(sum + 1.0, histogram.getStatistics(0).get(Statistics.SUM), 0.0);
+	}
 }
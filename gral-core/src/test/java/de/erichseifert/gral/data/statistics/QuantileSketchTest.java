@@ -0,0 +1,169 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.util.MathUtils;
+
+public class QuantileSketchTest {
+	private static final double DELTA = TestUtils.DELTA;
+	private static final double[] QUANTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0};
+
+	private static double[] createValues(int count, long seed) {
+		Random random = new Random(seed);
+		double[] values = new double[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = random.nextGaussian();
+		}
+		return values;
+	}
+
+	private static List<Double> sort(double[] values) {
+		List<Double> sorted = new ArrayList<>(values.length);
+		for (double value : values) {
+			sorted.add(value);
+		}
+		Collections.sort(sorted);
+		return sorted;
+	}
+
+	private static double rank(double[] sorted, double value) {
+		int index = Arrays.binarySearch(sorted, value);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		return index/(double) sorted.length;
+	}
+
+	@Test
+	public void testExact() {
+		double[] values = createValues(1000, 0L);
+		QuantileSketch sketch = new QuantileSketch(0);
+		for (double value : values) {
+			sketch.add(value);
+		}
+		assertTrue(sketch.isExact());
+		assertEquals(values.length, sketch.getCount());
+
+		List<Double> sorted = sort(values);
+		for (double q : QUANTILES) {
+			assertEquals(MathUtils.quantile(sorted, q), sketch.getQuantile(q), DELTA);
+		}
+	}
+
+	@Test
+	public void testSmall() {
+		QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+		sketch.add(4.0);
+		sketch.add(1.0);
+		sketch.add(3.0);
+		sketch.add(2.0);
+		assertEquals(1.0, sketch.getQuantile(0.0), DELTA);
+		assertEquals(1.75, sketch.getQuantile(0.25), DELTA);
+		assertEquals(2.5, sketch.getQuantile(0.5), DELTA);
+		assertEquals(4.0, sketch.getQuantile(1.0), DELTA);
+	}
+
+	@Test
+	public void testApproximate() {
+		double[] values = createValues(100000, 1L);
+		QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+		for (double value : values) {
+			sketch.add(value);
+		}
+		assertEquals(values.length, sketch.getCount());
+
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		assertEquals(sorted[0], sketch.getQuantile(0.0), 0.0);
+		assertEquals(sorted[sorted.length - 1], sketch.getQuantile(1.0), 0.0);
+		for (double q : QUANTILES) {
+			assertEquals(q, rank(sorted, sketch.getQuantile(q)), 0.02);
+		}
+	}
+
+	@Test
+	public void testMerge() {
+		double[] values = createValues(50000, 2L);
+		QuantileSketch sketch1 = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+		QuantileSketch sketch2 = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+		for (int i = 0; i < values.length; i++) {
+			if (i < values.length/3) {
+				sketch1.add(values[i]);
+			} else {
+				sketch2.add(values[i]);
+			}
+		}
+		sketch1.merge(sketch2);
+		assertEquals(values.length, sketch1.getCount());
+
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		for (double q : QUANTILES) {
+			assertEquals(q, rank(sorted, sketch1.getQuantile(q)), 0.02);
+		}
+	}
+
+	@Test
+	public void testMergeExact() {
+		QuantileSketch sketch1 = new QuantileSketch(0);
+		QuantileSketch sketch2 = new QuantileSketch(0);
+		sketch1.add(3.0);
+		sketch1.add(1.0);
+		sketch2.add(2.0);
+		sketch1.merge(sketch2);
+		assertEquals(3, sketch1.getCount());
+		assertEquals(2.0, sketch1.getQuantile(0.5), DELTA);
+	}
+
+	@Test
+	public void testInvalidValues() {
+		QuantileSketch sketch = new QuantileSketch(0);
+		assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+		sketch.add(Double.NaN);
+		sketch.add(Double.POSITIVE_INFINITY);
+		sketch.add(1.0);
+		assertEquals(1, sketch.getCount());
+		assertEquals(1.0, sketch.getQuantile(0.5), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize() {
+		new QuantileSketch(1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeDifferentSizes() {
+		new QuantileSketch(0).merge(new QuantileSketch(100));
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.data.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SegmentTreeTest {
+	private static final double DELTA = 1e-10;
+	private SegmentTree tree;
+
+	@Before
+	public void setUp() {
+		tree = new SegmentTree();
+		tree.add(3.0); // 0
+		tree.add(1.0); // 1
+		tree.add(Double.NaN); // 2
+		tree.add(4.0); // 3
+		tree.add(-2.0); // 4
+		tree.add(5.0); // 5
+	}
+
+	@Test
+	public void testQueries() {
+		assertEquals(6, tree.size());
+		assertEquals(-2.0, tree.getMin(0, 6), DELTA);
+		assertEquals(5.0, tree.getMax(0, 6), DELTA);
+		assertEquals(11.0, tree.getSum(0, 6), DELTA);
+
+		assertEquals(1.0, tree.getMin(1, 4), DELTA);
+		assertEquals(4.0, tree.getMax(1, 4), DELTA);
+		assertEquals(5.0, tree.getSum(1, 4), DELTA);
+
+		// Empty ranges
+		assertEquals(Double.POSITIVE_INFINITY, tree.getMin(2, 3), DELTA);
+		assertEquals(Double.NEGATIVE_INFINITY, tree.getMax(3, 3), DELTA);
+	}
+
+	@Test
+	public void testSet() {
+		tree.set(5, -3.0);
+		assertEquals(-3.0, tree.getMin(0, 6), DELTA);
+		assertEquals(4.0, tree.getMax(0, 6), DELTA);
+		tree.set(2, 10.0);
+		assertEquals(10.0, tree.getMax(1, 3), DELTA);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testInvalidRange() {
+		tree.getMin(0, 7);
+	}
+
+	@Test
+	public void testPut() {
+		double[] values = new double[Statistics.KEYS.length];
+		tree.put(0, 2, values);
+		assertEquals(2.0, values[Statistics.SLOT_N], DELTA);
+		assertEquals(4.0, values[Statistics.SLOT_SUM], DELTA);
+		assertEquals(2.0, values[Statistics.SLOT_MEAN], DELTA);
+		assertEquals(1.0, values[Statistics.SLOT_MIN], DELTA);
+		assertEquals(3.0, values[Statistics.SLOT_MAX], DELTA);
+
+		// Minimum and maximum of empty ranges aren't defined
+		tree.put(2, 3, values);
+		assertEquals(0.0, values[Statistics.SLOT_N], DELTA);
+		assertEquals(Double.NaN, values[Statistics.SLOT_MIN], DELTA);
+	}
+
+	@Test
+	public void testGrowMatchesLinearScan() {
+		Random random = new Random(42L);
+		SegmentTree tree = new SegmentTree();
+		double[] values = new double[1000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextGaussian();
+			tree.add(values[i]);
+		}
+		for (int i = 0; i < 100; i++) {
+			int from = random.nextInt(values.length);
+			int to = from + 1 + random.nextInt(values.length - from);
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int j = from; j < to; j++) {
+				min = Math.min(min, values[j]);
+				max = Math.max(max, values[j]);
+			}
+			assertEquals(min, tree.getMin(from, to), DELTA);
+			assertEquals(max, tree.getMax(from, to), DELTA);
+		}
+	}
+}
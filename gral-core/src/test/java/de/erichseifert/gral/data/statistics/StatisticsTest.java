@@ -25,6 +25,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Iterator;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -215,6 +218,71 @@ public class StatisticsTest {
 		assertEquals(stats.get(Statistics.MEDIAN), stats.get(Statistics.QUARTILE_2), DELTA);
 	}
 
+	@Test
+	public void testSinglePass() {
+		final int[] passes = new int[1];
+		Iterable<Integer> values = new Iterable<Integer>() {
+			public Iterator<Integer> iterator() {
+				passes[0]++;
+				return Arrays.asList(4, 1, 3, 2).iterator();
+			}
+		};
+		Statistics stats = new Statistics(values);
+		assertEquals(2.5, stats.get(Statistics.MEDIAN), DELTA);
+		assertEquals(1.0, stats.get(Statistics.MIN), DELTA);
+		assertEquals(4.0, stats.get(Statistics.MAX), DELTA);
+		assertEquals(1.75, stats.get(Statistics.QUARTILE_1), DELTA);
+		assertEquals(10.0, stats.get(Statistics.SUM), DELTA);
+		assertEquals(5.0/3.0, stats.get(Statistics.VARIANCE), DELTA);
+		assertEquals(1, passes[0]);
+	}
+
+	@Test
+	public void testMergeMoments() {
+		double[] values = {3.0, -1.0, 4.0, 1.5, 9.0, 2.0, -6.0, 5.0, 3.5};
+		Moments sequential = new Moments();
+		for (double value : values) {
+			sequential.add(value);
+		}
+		Moments left = new Moments();
+		Moments right = new Moments();
+		for (int i = 0; i < values.length; i++) {
+			(i < 4 ? left : right).add(values[i]);
+		}
+		Moments merged = new Moments();
+		merged.merge(left);
+		merged.merge(new Moments());
+		merged.merge(right);
+
+		double[] expected = new double[Statistics.KEYS.length];
+		sequential.put(expected);
+		double[] actual = new double[Statistics.KEYS.length];
+		merged.put(actual);
+		for (int slot = 0; slot < expected.length; slot++) {
+			assertEquals(Statistics.KEYS[slot], expected[slot], actual[slot], DELTA);
+		}
+	}
+
+	@Test
+	public void testQuantileSketch() {
+		Statistics colStats = table.getStatistics(2);
+		assertEquals(0, colStats.getQuantileSketchSize());
+		assertEquals(5.50, colStats.get(Statistics.MEDIAN), DELTA);
+		assertEquals(2.70, colStats.getQuantile(0.1), DELTA);
+
+		// Small data sets are still exact
+		colStats.setQuantileSketchSize(QuantileSketch.DEFAULT_SIZE);
+		assertEquals(QuantileSketch.DEFAULT_SIZE, colStats.getQuantileSketch().getSize());
+		assertEquals(3.75, colStats.get(Statistics.QUARTILE_1), DELTA);
+		assertEquals(5.50, colStats.get(Statistics.MEDIAN), DELTA);
+		assertEquals(7.25, colStats.get(Statistics.QUARTILE_3), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidQuantileSketchSize() {
+		stats.setQuantileSketchSize(-1);
+	}
+
 	@Test
 	public void testNonExistant() {
 		assertTrue(Double.isNaN(stats.get("foobar")));
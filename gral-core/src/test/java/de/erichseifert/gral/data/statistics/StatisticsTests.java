@@ -28,7 +28,9 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 	HistogramTest.class,
 	StatisticsTest.class,
-	AbstractHistogram2DTest.class
+	SegmentTreeTest.class,
+	AbstractHistogram2DTest.class,
+	QuantileSketchTest.class
 })
 public class StatisticsTests {
 }
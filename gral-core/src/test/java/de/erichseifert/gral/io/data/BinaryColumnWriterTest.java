@@ -0,0 +1,86 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.io.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.erichseifert.gral.data.DataTable;
+
+public class BinaryColumnWriterTest {
+	private static DataTable data;
+
+	@BeforeClass
+	@SuppressWarnings("unchecked")
+	public static void setUpBeforeClass() {
+		data = new DataTable(Double.class, Short.class);
+		data.add(0.0, (short) 10);
+		data.add(1.0, (short) 11);
+		data.add(2.0, (short) 12);
+	}
+
+	@Test
+	public void testWriter() throws IOException {
+		DataWriter writer = DataWriterFactory.getInstance().get("application/x-gral-columns");
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		writer.write(data, output);
+
+		// Header (16 + 2 bytes), doubles (24 bytes), shorts (6 + 2 bytes)
+		byte[] bytes = output.toByteArray();
+		assertEquals(56, bytes.length);
+		assertArrayEquals(new byte[] {'G', 'R', 'A', 'L'}, new byte[] {bytes[0], bytes[1], bytes[2], bytes[3]});
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(1, buffer.getInt(4));
+		assertEquals(2, buffer.getInt(8));
+		assertEquals(3, buffer.getInt(12));
+		assertEquals('D', buffer.get(16));
+		assertEquals('S', buffer.get(17));
+		assertEquals(1.0, buffer.getDouble(32), 0.0);
+		assertEquals(12, buffer.getShort(52));
+	}
+
+	@Test(expected = IOException.class)
+	@SuppressWarnings("unchecked")
+	public void testEmptyIntegerCell() throws IOException {
+		DataTable data = new DataTable(Integer.class);
+		data.add((Integer) null);
+		DataWriter writer = DataWriterFactory.getInstance().get("application/x-gral-columns");
+		writer.write(data, new ByteArrayOutputStream());
+	}
+
+	@Test(expected = IOException.class)
+	@SuppressWarnings("unchecked")
+	public void testNonNumericColumn() throws IOException {
+		DataTable data = new DataTable(String.class);
+		data.add("foo");
+		DataWriter writer = DataWriterFactory.getInstance().get("application/x-gral-columns");
+		writer.write(data, new ByteArrayOutputStream());
+	}
+}
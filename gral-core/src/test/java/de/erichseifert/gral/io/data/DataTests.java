@@ -30,6 +30,7 @@ import org.junit.runners.Suite;
 	DataWriterFactoryTest.class,
 	CSVReaderTest.class,
 	CSVWriterTest.class,
+	BinaryColumnWriterTest.class,
 	ImageReaderTest.class,
 	ImageWriterTest.class
 })
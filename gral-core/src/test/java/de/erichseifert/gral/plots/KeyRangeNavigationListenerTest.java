@@ -0,0 +1,102 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.plots;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.erichseifert.gral.DummyJdbc;
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.DataTable;
+import de.erichseifert.gral.data.JdbcData;
+import de.erichseifert.gral.plots.axes.Axis;
+import de.erichseifert.gral.util.PointND;
+
+public class KeyRangeNavigationListenerTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private JdbcData data;
+	private XYPlot plot;
+	private PlotNavigator nav;
+	private KeyRangeNavigationListener listener;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		DataTable table = new DataTable(Integer.class, Double.class);
+		for (int x = 0; x <= 100; x++) {
+			table.add(x, Math.sin(x/10.0));
+		}
+		data = new JdbcData(new DummyJdbc(table), "foobar", "col1", true);
+		plot = new XYPlot(data);
+		plot.setBounds(0, 0, 100, 100);
+		nav = (PlotNavigator) plot.getNavigator();
+		nav.setDefaultState();
+		listener = new KeyRangeNavigationListener(plot, data);
+		nav.addNavigationListener(listener);
+	}
+
+	@Test
+	public void testZoom() {
+		nav.setZoom(2.0);
+		Axis axisX = plot.getAxis(XYPlot.AXIS_X);
+		double min = axisX.getMin().doubleValue();
+		double max = axisX.getMax().doubleValue();
+		double margin = KeyRangeNavigationListener.DEFAULT_MARGIN*(max - min);
+		assertEquals(min - margin, listener.getKeyMin(), DELTA);
+		assertEquals(max + margin, listener.getKeyMax(), DELTA);
+		assertEquals((long) Math.floor(min - margin), data.getKeyMin());
+		assertEquals((long) Math.ceil(max + margin), data.getKeyMax());
+		assertFalse(axisX.isAutoscaled());
+	}
+
+	@Test
+	public void testPanWithinMargin() {
+		nav.setZoom(2.0);
+		Object keyMin = data.getKeyMin();
+		Object keyMax = data.getKeyMax();
+		Axis axisX = plot.getAxis(XYPlot.AXIS_X);
+		double width = axisX.getMax().doubleValue() - axisX.getMin().doubleValue();
+
+		// Small movements don't change the key range
+		nav.setCenter(new PointND<>(
+			nav.getCenter().get(0).doubleValue() + 0.25*width,
+			nav.getCenter().get(1).doubleValue()));
+		assertEquals(keyMin, data.getKeyMin());
+		assertEquals(keyMax, data.getKeyMax());
+
+		// Leaving the selected keys changes the key range
+		nav.setCenter(new PointND<>(
+			nav.getCenter().get(0).doubleValue() + width,
+			nav.getCenter().get(1).doubleValue()));
+		assertTrue(((Number) data.getKeyMax()).longValue() > ((Number) keyMax).longValue());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWithoutKeyColumn() {
+		new KeyRangeNavigationListener(plot, new JdbcData(new DummyJdbc(new DataTable(Double.class)), "foobar"));
+	}
+}
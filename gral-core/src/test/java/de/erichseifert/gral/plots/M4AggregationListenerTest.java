@@ -0,0 +1,95 @@
+/*
+ * GRAL: GRAphing Library for Java(R)
+ *
+ * (C) Copyright 2009-2018 Erich Seifert <dev[at]erichseifert.de>,
+ * Michael Seifert <mseifert[at]error-reports.org>
+ *
+ * This file is part of GRAL.
+ *
+ * GRAL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GRAL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GRAL.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.erichseifert.gral.plots;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.erichseifert.gral.TestUtils;
+import de.erichseifert.gral.data.DataTable;
+import de.erichseifert.gral.data.filters.M4Aggregation;
+import de.erichseifert.gral.plots.axes.Axis;
+
+public class M4AggregationListenerTest {
+	private static final double DELTA = TestUtils.DELTA;
+
+	private DataTable table;
+	private M4Aggregation view;
+	private XYPlot plot;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		table = new DataTable(Double.class, Double.class);
+		for (int x = 0; x < 10000; x++) {
+			table.add((double) x, Math.sin(x/10.0));
+		}
+		view = new M4Aggregation(table, 0, 1);
+		plot = new XYPlot(view);
+		plot.setBounds(0, 0, 200, 100);
+	}
+
+	@Test
+	public void testUpdate() {
+		new M4AggregationListener(plot, view);
+		Axis axis = plot.getAxis(XYPlot.AXIS_X);
+		assertFalse(axis.isAutoscaled());
+		int width = (int) Math.ceil(plot.getPlotArea().getWidth());
+		assertEquals(width, view.getWidth());
+		assertEquals(axis.getMin().doubleValue(), view.getXMin(), DELTA);
+		assertEquals(axis.getMax().doubleValue(), view.getXMax(), DELTA);
+		assertTrue(view.getRowCount() <= 4*width + 2);
+	}
+
+	@Test
+	public void testNavigation() {
+		new M4AggregationListener(plot, view);
+		plot.getAxis(XYPlot.AXIS_X).setRange(1000.0, 2000.0);
+		assertEquals(1000.0, view.getXMin(), DELTA);
+		assertEquals(2000.0, view.getXMax(), DELTA);
+		assertEquals(999, view.getRowOriginal(0));
+		assertEquals(2001, view.getRowOriginal(view.getRowCount() - 1));
+	}
+
+	@Test
+	public void testLayout() {
+		XYPlot plot = new XYPlot(view);
+		new M4AggregationListener(plot, view);
+		assertEquals(0, view.getWidth());
+		assertEquals(table.getRowCount(), view.getRowCount());
+
+		plot.setBounds(0, 0, 200, 100);
+		int width = (int) Math.ceil(plot.getPlotArea().getWidth());
+		assertTrue(width > 0);
+		assertEquals(width, view.getWidth());
+		assertTrue(view.getRowCount() <= 4*width + 2);
+
+		plot.setBounds(0, 0, 400, 100);
+		int widthResized = (int) Math.ceil(plot.getPlotArea().getWidth());
+		assertTrue(widthResized > width);
+		assertEquals(widthResized, view.getWidth());
+	}
+}
@@ -49,7 +49,9 @@ import de.erichseifert.gral.plots.points.PointsTests;
 	BarPlotTest.class,
 	BoxPlotTest.class,
 	RasterPlotTest.class,
-	PlotNavigatorTest.class
+	PlotNavigatorTest.class,
+	KeyRangeNavigationListenerTest.class,
+	M4AggregationListenerTest.class
 })
 public class PlotsTests {
 }
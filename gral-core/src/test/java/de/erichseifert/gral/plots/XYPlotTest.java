@@ -44,7 +44,9 @@ import org.junit.Test;
 
 import de.erichseifert.gral.TestUtils;
 import de.erichseifert.gral.data.DataSource;
+import de.erichseifert.gral.data.DataTable;
 import de.erichseifert.gral.data.DummyData;
+import de.erichseifert.gral.graphics.Drawable;
 import de.erichseifert.gral.graphics.DrawingContext;
 import de.erichseifert.gral.graphics.Location;
 import de.erichseifert.gral.plots.XYPlot.XYPlotArea2D;
@@ -283,4 +285,56 @@ public class XYPlotTest {
 		assertEquals(original.isMinorGridY(), deserialized.isMinorGridY());
 		assertEquals(original.getMinorGridColor(), deserialized.getMinorGridColor());
 	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testVisibleRangeAutoscaled() {
+		DataTable data = new DataTable(Double.class, Double.class);
+		for (int i = 0; i < 100; i++) {
+			data.add((double) i, (double) (i*i));
+		}
+		XYPlot plot = new XYPlot(data);
+		Axis axisY = plot.getAxis(XYPlot.AXIS_Y);
+		assertEquals(9801.0, axisY.getMax().doubleValue(), DELTA);
+
+		plot.setVisibleRangeAutoscaled(true);
+		plot.getAxis(XYPlot.AXIS_X).setAutoscaled(false);
+		plot.getAxis(XYPlot.AXIS_X).setRange(10.0, 20.0);
+		assertEquals(100.0, axisY.getMin().doubleValue(), DELTA);
+		assertEquals(400.0, axisY.getMax().doubleValue(), DELTA);
+
+		// Data that isn't sorted by x values
+		data.add(15.5, -1.0);
+		assertEquals(-1.0, axisY.getMin().doubleValue(), DELTA);
+		assertEquals(400.0, axisY.getMax().doubleValue(), DELTA);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testDrawVisibleRowsOfSortedData() {
+		DataTable data = new DataTable(Double.class, Double.class);
+		for (int i = 0; i < 100; i++) {
+			data.add((double) i, (double) i);
+		}
+		XYPlot plot = new XYPlot(data);
+		final int[] pointCount = new int[1];
+		plot.setPointRenderers(data, new DefaultPointRenderer2D() {
+			/** Version id for serialization. */
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Drawable getPoint(PointData data, Shape shape) {
+				pointCount[0]++;
+				return super.getPoint(data, shape);
+			}
+		});
+		plot.getAxis(XYPlot.AXIS_X).setAutoscaled(false);
+		plot.getAxis(XYPlot.AXIS_X).setRange(10.0, 20.0);
+
+		BufferedImage image = createTestImage();
+		plot.setBounds(0.0, 0.0, image.getWidth(), image.getHeight());
+		plot.draw(new DrawingContext((Graphics2D) image.getGraphics()));
+		// Rows 10 to 20 and one neighbor on each side
+		assertEquals(13, pointCount[0]);
+	}
 }